@@ -3,10 +3,30 @@ package io.dit.bridge;
 import io.dit.bridge.api.DbmsCollector;
 import io.dit.bridge.api.DbmsConnectionFactory;
 import io.dit.bridge.api.WaitDeltaTracker;
+import io.dit.bridge.core.AlertDispatcher;
+import io.dit.bridge.core.AlertEngine;
+import io.dit.bridge.core.BaselineEngine;
+import io.dit.bridge.core.CollectionEngine;
+import io.dit.bridge.core.CollectionEngines;
+import io.dit.bridge.core.EngineBenchmark;
+import io.dit.bridge.core.FleetScheduler;
+import io.dit.bridge.core.FleetTarget;
+import io.dit.bridge.core.FleetTui;
+import io.dit.bridge.core.FrameStreamServer;
+import io.dit.bridge.core.HeavyHitterTracker;
+import io.dit.bridge.core.HeavyHitters;
 import io.dit.bridge.core.JsonUtil;
+import io.dit.bridge.core.MetricsTextFile;
+import io.dit.bridge.core.MonitorTui;
+import io.dit.bridge.core.PlatformEngine;
+import io.dit.bridge.core.SessionStatDeltaTracker;
+import io.dit.bridge.core.TuiServer;
+import io.dit.bridge.oracle.OracleAshReader;
 import io.dit.bridge.oracle.OracleCollector;
 import io.dit.bridge.oracle.OracleConnectionFactory;
+import io.dit.bridge.oracle.OracleEventHistogramTracker;
 import io.dit.bridge.oracle.OracleMonitorTui;
+import io.dit.bridge.oracle.OraclePdbReader;
 import io.dit.bridge.oracle.OracleWaitDeltaTracker;
 import io.dit.bridge.tibero.TiberoCollector;
 import io.dit.bridge.tibero.TiberoConnectionFactory;
@@ -30,6 +50,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,6 +62,32 @@ public final class DitMain {
     public static void main(String[] args) {
         Map<String, String> options = parseArgs(args);
 
+        // Fleet mode reads the DBMS type of each target from the targets file
+        if ("fleet".equals(trim(options.get("command")))) {
+            try {
+                executeFleet(options);
+            } catch (IOException ex) {
+                printError("IO error: " + ex.getMessage());
+                System.exit(1);
+            } catch (RuntimeException ex) {
+                printError(ex.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        // Engine benchmark runs on simulated targets, no database needed
+        if ("bench-engine".equals(trim(options.get("command")))) {
+            try {
+                executeBenchEngine(options);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                printError(ex.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
         // Parse --dbms-type (required)
         String dbmsTypeStr = trim(options.get("dbms-type"));
         if (isBlank(dbmsTypeStr)) {
@@ -68,11 +115,13 @@ public final class DitMain {
 
         if (dbmsType == DbmsType.ORACLE) {
             connectionFactory = new OracleConnectionFactory();
-            collector = new OracleCollector();
+            collector = new OracleCollector(0,
+                SessionStatDeltaTracker.parseNames(options.get("session-stats"), OracleCollector.DEFAULT_SESSION_STATS));
             waitTracker = new OracleWaitDeltaTracker();
         } else if (dbmsType == DbmsType.TIBERO) {
             connectionFactory = new TiberoConnectionFactory();
-            collector = new TiberoCollector();
+            collector = new TiberoCollector(
+                SessionStatDeltaTracker.parseNames(options.get("session-stats"), TiberoCollector.DEFAULT_SESSION_STATS));
             waitTracker = new TiberoWaitDeltaTracker();
         } else {
             printError("DBMS type '" + dbmsType.name().toLowerCase(Locale.US)
@@ -87,7 +136,7 @@ public final class DitMain {
                 return;
             }
             if ("kill".equals(command)) {
-                executeKill(options, connectionFactory);
+                executeKill(options, connectionFactory, dbmsType);
                 return;
             }
             if ("metrics".equals(command)) {
@@ -118,6 +167,10 @@ public final class DitMain {
                 executeTui(options, connectionFactory, dbmsType);
                 return;
             }
+            if ("serve".equals(command)) {
+                executeServe(options, connectionFactory, dbmsType);
+                return;
+            }
 
             printError("Unsupported command: " + command);
             System.exit(2);
@@ -145,6 +198,98 @@ public final class DitMain {
         }
     }
 
+    // ── Serve command: one collector, many telnet viewers ──
+
+    private static void executeServe(Map<String, String> options, DbmsConnectionFactory connectionFactory,
+            DbmsType dbmsType) throws SQLException, IOException {
+        MonitorTui primary = dbmsType == DbmsType.TIBERO
+                ? new TiberoMonitorTui(options, connectionFactory)
+                : new OracleMonitorTui(options, connectionFactory);
+        new TuiServer(primary).run();
+    }
+
+    // ── Fleet command ──
+
+    private static void executeFleet(Map<String, String> options) throws IOException {
+        if (options.containsKey("password")) {
+            throw new RuntimeException("fleet mode does not take --password; use password-env in the targets file");
+        }
+        Path path = Paths.get(required(options, "targets-file"));
+        Map<String, String> defaults = new HashMap<String, String>(options);
+        defaults.remove("command");
+        defaults.remove("targets-file");
+
+        final DbmsConnectionFactory oracleFactory = new OracleConnectionFactory();
+        final DbmsConnectionFactory tiberoFactory = new TiberoConnectionFactory();
+        List<FleetTarget> targets = new ArrayList<FleetTarget>();
+        for (final Map<String, String> t : FleetTarget.parseTargets(
+                Files.readAllLines(path, StandardCharsets.UTF_8), defaults)) {
+            DbmsType dbmsType = DbmsType.fromString(t.get("dbms-type"));
+            if (dbmsType == DbmsType.ORACLE) {
+                targets.add(new FleetTarget(t.get("name"), "oracle", t, oracleFactory,
+                    new OracleCollector(0, SessionStatDeltaTracker.parseNames(t.get("session-stats"),
+                        OracleCollector.DEFAULT_SESSION_STATS)),
+                    new OracleWaitDeltaTracker(), new FleetTarget.Dashboard() {
+                        public MonitorTui create() {
+                            return new OracleMonitorTui(t, oracleFactory);
+                        }
+                    }));
+            } else if (dbmsType == DbmsType.TIBERO) {
+                targets.add(new FleetTarget(t.get("name"), "tibero", t, tiberoFactory,
+                    new TiberoCollector(SessionStatDeltaTracker.parseNames(t.get("session-stats"),
+                        TiberoCollector.DEFAULT_SESSION_STATS)),
+                    new TiberoWaitDeltaTracker(), new FleetTarget.Dashboard() {
+                        public MonitorTui create() {
+                            return new TiberoMonitorTui(t, tiberoFactory);
+                        }
+                    }));
+            } else {
+                throw new RuntimeException("Target " + t.get("name") + ": unsupported dbms-type "
+                    + t.get("dbms-type") + ". Currently supported: oracle, tibero");
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new RuntimeException("No targets in " + path);
+        }
+
+        int threads = Math.max(1, parseInt(options.get("fleet-threads"), 4));
+        FleetScheduler scheduler = new FleetScheduler(targets,
+            Math.max(1, parseInt(options.get("interval"), 6)) * 1000L,
+            CollectionEngines.create(options.get("engine"), threads, "dit-fleet"),
+            parseInt(options.get("fleet-max-inflight"), threads));
+        new FleetTui(scheduler).run();
+    }
+
+    /**
+     * Runs the same simulated fleet on each engine and prints one JSON line per
+     * engine: the bounded platform pool, a platform thread per target, and
+     * virtual threads when the JVM has them.
+     */
+    private static void executeBenchEngine(Map<String, String> options) throws InterruptedException {
+        int targets = Math.max(1, parseInt(options.get("targets"), 1000));
+        long intervalMs = Math.max(1, parseInt(options.get("interval"), 5)) * 1000L;
+        long queryMs = parseInt(options.get("query-ms"), 20);
+        int stallEvery = parseInt(options.get("stall-every"), 10);
+        long stallMs = parseInt(options.get("stall-ms"), 3000);
+        int threads = Math.max(1, parseInt(options.get("fleet-threads"), 32));
+        int maxInFlight = Math.max(1, parseInt(options.get("fleet-max-inflight"), threads));
+        long durationMs = Math.max(1, parseInt(options.get("duration-seconds"), 30)) * 1000L;
+
+        List<String> engines = new ArrayList<String>();
+        engines.add("platform");
+        engines.add("platform-per-target");
+        if (CollectionEngines.virtualAvailable()) {
+            engines.add("virtual");
+        }
+        for (String engine : engines) {
+            CollectionEngine e = "platform".equals(engine) ? new PlatformEngine(threads, "dit-bench")
+                : "platform-per-target".equals(engine) ? new PlatformEngine(targets, "dit-bench")
+                : CollectionEngines.create("virtual", threads, "dit-bench");
+            printObject(EngineBenchmark.run(engine, e, targets, intervalMs, queryMs, stallEvery, stallMs,
+                maxInFlight, durationMs));
+        }
+    }
+
     // ── Existing CLI commands ──
 
     private static void executeHealth(Map<String, String> options, DbmsConnectionFactory connectionFactory) throws SQLException {
@@ -162,10 +307,17 @@ public final class DitMain {
         }
     }
 
-    private static void executeKill(Map<String, String> options, DbmsConnectionFactory connectionFactory) throws SQLException {
+    private static void executeKill(Map<String, String> options, DbmsConnectionFactory connectionFactory,
+                                    DbmsType dbmsType) throws SQLException {
         String sid = trim(options.get("sid"));
-        if (isBlank(sid) || !sid.matches("^\\d+,\\d+$")) {
-            throw new RuntimeException("--sid must be numeric sid,serial# (e.g. 123,45678)");
+        // Oracle RAC: a trailing ,@inst_id kills the session on another instance
+        if (isBlank(sid) || !sid.matches("^\\d+,\\d+(,@\\d+)?$")) {
+            throw new RuntimeException("--sid must be numeric sid,serial# or sid,serial#,@inst_id (e.g. 123,45678,@2)");
+        }
+        if (dbmsType == DbmsType.TIBERO && sid.contains("@")) {
+            // Not documented for TAC: kill on the node that owns the session instead
+            throw new RuntimeException("--sid sid,serial#,@inst_id is Oracle RAC syntax; on Tibero TAC connect to the "
+                + "instance that owns the session (--host/--port) and pass sid,serial#");
         }
 
         Connection connection = connectionFactory.create(options);
@@ -265,6 +417,60 @@ public final class DitMain {
         String captureFile = required(options, "capture-file");
         int intervalSeconds = Math.max(1, parseInt(options.get("interval-seconds"), 1));
 
+        // --ash: fold V$ACTIVE_SESSION_HISTORY incrementally and record one summary per interval
+        OracleAshReader ashReader = null;
+        if (dbmsType == DbmsType.ORACLE && options.containsKey("ash")) {
+            // The recording drains an interval summary every frame
+            ashReader = new OracleAshReader(Math.max(10, parseInt(options.get("ash-window"), 300)), true);
+        }
+
+        // --pdb: per-container Load Profile of a multitenant CDB (one V$CON_SYSMETRIC query per frame)
+        OraclePdbReader pdbReader =
+            dbmsType == DbmsType.ORACLE && options.containsKey("pdb") ? new OraclePdbReader() : null;
+
+        // Latency histograms of the top wait events (Oracle V$EVENT_HISTOGRAM)
+        OracleEventHistogramTracker histogramTracker =
+            dbmsType == DbmsType.ORACLE ? new OracleEventHistogramTracker() : null;
+
+        // --metrics-file: Prometheus textfile-collector export of every frame
+        String metricsPath = trim(options.get("metrics-file"));
+        MetricsTextFile metricsFile = metricsPath.isEmpty() ? null : new MetricsTextFile(metricsPath);
+        long frameSeq = 0;
+        // A sink's error stays set until it delivers again: stderr gets each new text once
+        String lastMetricsError = "";
+        String lastAlertError = "";
+
+        // --thresholds: alert records (state changes only) written into the recording
+        AlertEngine alerts = isBlank(options.get("thresholds")) ? null
+            : AlertEngine.load(trim(options.get("thresholds")), dbmsType == DbmsType.TIBERO ? "tibero" : "oracle");
+        // blocked_sessions counts waiters in V$SESSION.BLOCKING_SESSION, which Tibero does not have
+        boolean readLocks = alerts != null && alerts.usesLockSessions() && dbmsType == DbmsType.ORACLE;
+        if (alerts != null && alerts.usesLockSessions() && !readLocks) {
+            System.err.println("Warning: blocked_sessions rules are not evaluated on Tibero (no lock source)");
+        }
+        // --baseline: learned per-metric baselines; flagged metrics go into each frame
+        BaselineEngine baseline = BaselineEngine.enabled(options) ? new BaselineEngine(options) : null;
+        if (baseline != null && !isBlank(options.get("baseline-seed"))) {
+            System.out.println("Baseline seeded from " + baseline.seed(trim(options.get("baseline-seed"))) + " frames");
+        }
+        // Heavy hitters: fixed-size top-k per segment, written as mergeable records for report
+        HeavyHitterTracker heavyHitters =
+            new HeavyHitterTracker(parseInt(options.get("heavy-hitters-k"), 100), intervalSeconds * 1000L);
+        long segmentMs = Math.max(1, parseInt(options.get("heavy-hitters-segment-minutes"), 10)) * 60000L;
+        // --alert-*: webhook / syslog / log / exec delivery on the dispatcher thread
+        AlertDispatcher alertDispatcher = alerts != null ? new AlertDispatcher(options) : null;
+
+        // --stream-port: length-prefixed JSON frames to local subscribers (NIO, one thread)
+        FrameStreamServer stream = null;
+        if (!isBlank(options.get("stream-port"))) {
+            stream = new FrameStreamServer(options);
+            try {
+                stream.start();
+            } catch (IOException ex) {
+                throw new RuntimeException("Frame stream: " + ex.getMessage());
+            }
+        }
+
         Connection connection = connectionFactory.create(options);
         String dbTypeLabel = dbmsType == DbmsType.TIBERO ? "tibero" : "oracle";
         String instanceName = dbTypeLabel.substring(0, 1).toUpperCase() + dbTypeLabel.substring(1);
@@ -276,8 +482,13 @@ public final class DitMain {
             }
         } catch (SQLException ignored) {
         }
+        // The segment in progress is written once on exit, from finally or from Ctrl-C's hook
+        final Runnable flushSegment =
+            partialSegmentWriter(heavyHitters, instanceName, Paths.get(recordFile));
+        Runtime.getRuntime().addShutdownHook(new Thread(flushSegment, "dit-monitor-segment"));
         try {
             while (true) {
+                long frameStartMs = System.currentTimeMillis();
                 String collectorState = "ON";
                 String source = "collector";
                 Map<String, Object> sysmetric = new LinkedHashMap<String, Object>();
@@ -295,6 +506,8 @@ public final class DitMain {
                         sql = TiberoCollector.querySqlHotspots(connection);
                     } else {
                         sysmetric = OracleCollector.querySysmetric(connection);
+                        sysmetric.putAll(((OracleCollector) collector).computeTimeModelDelta(
+                            OracleCollector.queryTimeModel(connection)));
                         sysstat = OracleCollector.querySysstat(connection);
                         sessions = OracleCollector.querySessions(connection);
                         waits = waitTracker.queryDelta(connection);
@@ -306,6 +519,53 @@ public final class DitMain {
                     System.err.println("Collector error: " + ex.getMessage());
                 }
 
+                List<Map<String, Object>> histograms = null;
+                if (histogramTracker != null && "ON".equals(collectorState)) {
+                    List<String> events = new ArrayList<String>();
+                    for (Map<String, Object> w : waits) {
+                        events.add(stringOrEmpty(w.get("event")));
+                    }
+                    try {
+                        histograms = histogramTracker.queryDelta(connection, events);
+                    } catch (SQLException ex) {
+                        System.err.println("Histogram read error: " + ex.getMessage());
+                    }
+                }
+
+                // --session-stats: per-session V$SESSTAT rates of the active sessions
+                Map<String, Object> sessionStats = null;
+                if (options.containsKey("session-stats") && "ON".equals(collectorState)) {
+                    try {
+                        sessionStats = dbmsType == DbmsType.TIBERO
+                            ? ((TiberoCollector) collector).querySessionStats(connection)
+                            : ((OracleCollector) collector).querySessionStats(connection);
+                    } catch (SQLException ex) {
+                        System.err.println("Session statistics read error: " + ex.getMessage());
+                    }
+                }
+
+                Map<String, Object> pdb = null;
+                if (pdbReader != null && "ON".equals(collectorState)) {
+                    try {
+                        pdb = pdbReader.poll(connection);
+                    } catch (SQLException ex) {
+                        System.err.println("Container metrics read error: " + ex.getMessage());
+                    }
+                }
+
+                Map<String, Object> ash = null;
+                String ashSource = "off";
+                if (ashReader != null) {
+                    ashSource = "collector";
+                    try {
+                        ashReader.poll(connection);
+                    } catch (SQLException ex) {
+                        ashSource = "error";
+                        System.err.println("ASH read error: " + ex.getMessage());
+                    }
+                    ash = ashReader.aggregate().drainInterval(10);
+                }
+
                 Map<String, Object> frame = new LinkedHashMap<String, Object>();
                 frame.put("type", "frame");
                 frame.put("timestamp", Instant.now().toString());
@@ -317,15 +577,74 @@ public final class DitMain {
                 sources.put("sessions", source);
                 sources.put("wait_events", source);
                 sources.put("sql_hotspots", source);
+                if (ashReader != null) {
+                    sources.put("ash", ashSource);
+                }
                 frame.put("data_sources", sources);
 
                 Map<String, Object> metrics = collector.mapMetrics(sysmetric, sysstat);
                 frame.put("metrics", metrics);
+                if (baseline != null && "ON".equals(collectorState)) {
+                    baseline.push(metrics);
+                    List<Map<String, Object>> anomalies = baseline.anomalies();
+                    if (!anomalies.isEmpty()) {
+                        frame.put("anomalies", anomalies);
+                    }
+                }
                 frame.put("sessions", sessions);
                 frame.put("wait_events", waits);
                 frame.put("sql_hotspots", sql);
+                if (histograms != null) {
+                    frame.put("wait_histograms", histograms);
+                }
+                if (sessionStats != null) {
+                    frame.put("session_stats", sessionStats);
+                }
+                if (pdb != null) {
+                    frame.put("pdb", pdb);
+                }
+                if (ash != null) {
+                    frame.put("ash", ash);
+                }
 
                 appendLine(Paths.get(recordFile), JsonUtil.toJson(frame));
+                if ("ON".equals(collectorState)) {
+                    heavyHitters.observe(sql, waits, sessions, frameStartMs);
+                } else {
+                    heavyHitters.gap();
+                }
+                if (frameStartMs - heavyHitters.segmentStartMs() >= segmentMs) {
+                    Map<String, Object> segment = heavyHitters.cutSegment(frameStartMs);
+                    segment.put("instance_name", instanceName);
+                    appendLine(Paths.get(recordFile), JsonUtil.toJson(segment));
+                }
+                if (alerts != null && "ON".equals(collectorState)) {
+                    // Locks are read only for alerts; null (not read) keeps the rule's state
+                    List<Map<String, Object>> lockSessions = null;
+                    if (readLocks) {
+                        try {
+                            lockSessions = OracleCollector.queryLockSessions(connection);
+                        } catch (SQLException ex) {
+                            System.err.println("Lock read error: " + ex.getMessage());
+                        }
+                    }
+                    List<Map<String, Object>> changes =
+                        alerts.evaluate(metrics, lockSessions, System.currentTimeMillis());
+                    for (Map<String, Object> alert : changes) {
+                        alert.put("instance_name", instanceName);
+                        appendLine(Paths.get(recordFile), JsonUtil.toJson(alert));
+                    }
+                    alertDispatcher.offer(changes);
+                    lastAlertError = reportChanged(alertDispatcher.lastError(), lastAlertError);
+                }
+                if (stream != null) {
+                    stream.publish(frame);
+                }
+                if (metricsFile != null) {
+                    metricsFile.publish(instanceName, metrics, waits, ++frameSeq,
+                        System.currentTimeMillis() - frameStartMs, "ON".equals(collectorState));
+                    lastMetricsError = reportChanged(metricsFile.lastError(), lastMetricsError);
+                }
 
                 String screen = renderScreen(metrics, sessions, waits, sql);
                 writeText(Paths.get(captureFile), screen + "\n");
@@ -339,6 +658,16 @@ public final class DitMain {
                 }
             }
         } finally {
+            flushSegment.run();
+            if (metricsFile != null) {
+                metricsFile.close();
+            }
+            if (stream != null) {
+                stream.close();
+            }
+            if (alertDispatcher != null) {
+                alertDispatcher.close();
+            }
             connection.close();
         }
     }
@@ -357,14 +686,46 @@ public final class DitMain {
         int sessionsCollector = 0;
         int waitsCollector = 0;
         int sqlCollector = 0;
+        int ashCollector = 0;
+        int alertWarnings = 0;
+        int alertCriticals = 0;
+        int anomalyFrames = 0;
+        int heavyHitterSegments = 0;
+        Map<String, HeavyHitters> heavyHitters = new LinkedHashMap<String, HeavyHitters>();
 
         try {
             List<String> lines = Files.readAllLines(Paths.get(recordFile), StandardCharsets.UTF_8);
             for (String line : lines) {
+                if (line.contains("\"type\":\"alert\"")) {
+                    if (line.contains("\"severity\":\"critical\"")) {
+                        alertCriticals += 1;
+                    } else if (line.contains("\"severity\":\"warning\"")) {
+                        alertWarnings += 1;
+                    }
+                    continue;
+                }
+                if (line.contains("\"type\":\"heavy_hitters\"")) {
+                    // Segments of every run and instance in the file add up to one summary
+                    try {
+                        Object record = JsonUtil.parse(line);
+                        if (record instanceof Map) {
+                            @SuppressWarnings("unchecked")
+                            Map<String, Object> segment = (Map<String, Object>) record;
+                            HeavyHitterTracker.mergeRecord(heavyHitters, segment);
+                            heavyHitterSegments += 1;
+                        }
+                    } catch (IllegalArgumentException ex) {
+                        System.err.println("Skipping unreadable heavy hitter segment: " + ex.getMessage());
+                    }
+                    continue;
+                }
                 if (!line.contains("\"type\":\"frame\"")) {
                     continue;
                 }
                 frames += 1;
+                if (line.contains("\"anomalies\":[")) {
+                    anomalyFrames += 1;
+                }
                 if (line.contains("\"collector_state\":\"ON\"")) {
                     on += 1;
                 }
@@ -383,6 +744,9 @@ public final class DitMain {
                 if (line.contains("\"sql_hotspots\":\"collector\"")) {
                     sqlCollector += 1;
                 }
+                if (line.contains("\"ash\":\"collector\"")) {
+                    ashCollector += 1;
+                }
             }
         } catch (Exception ex) {
             System.err.println("Failed to read record file: " + ex.getMessage());
@@ -397,7 +761,10 @@ public final class DitMain {
         md.append("# DIT Oracle Monitoring Run Report\n\n");
         md.append("## Recording\n");
         md.append("- File: `").append(recordFile).append("`\n");
-        md.append("- Frames: ").append(frames).append("\n\n");
+        md.append("- Frames: ").append(frames).append("\n");
+        md.append("- Alerts raised (warning/critical): ").append(alertWarnings).append("/")
+            .append(alertCriticals).append("\n");
+        md.append("- Frames off baseline: ").append(anomalyFrames).append("\n\n");
 
         md.append("## Workload Summary\n");
         md.append("- Log: `").append(workloadLog).append("`\n");
@@ -416,10 +783,38 @@ public final class DitMain {
             .append(sessionsCollector).append("/")
             .append(waitsCollector).append("/")
             .append(sqlCollector).append("\n");
+        if (ashCollector > 0) {
+            md.append("- ASH interval summaries: ").append(ashCollector).append("\n");
+        }
+
+        if (heavyHitterSegments > 0) {
+            md.append("\n## Heavy Hitters (since start)\n");
+            md.append("- Segments merged: ").append(heavyHitterSegments).append("\n");
+            appendHeavyHitters(md, "SQL by elapsed time", heavyHitters.get(HeavyHitterTracker.SQL_ID));
+            appendHeavyHitters(md, "Events by wait time", heavyHitters.get(HeavyHitterTracker.EVENT));
+            appendHeavyHitters(md, "Users by sampled DB time", heavyHitters.get(HeavyHitterTracker.USERNAME));
+            appendHeavyHitters(md, "Programs by sampled DB time", heavyHitters.get(HeavyHitterTracker.PROGRAM));
+        }
 
         writeText(Paths.get(output), md.toString());
     }
 
+    private static void appendHeavyHitters(StringBuilder md, String title, HeavyHitters summary) {
+        if (summary == null) {
+            return;
+        }
+        md.append("\n### ").append(title).append(" (total ")
+            .append(String.format(Locale.US, "%.1f", summary.total())).append("s)\n");
+        md.append("| Key | Est. seconds | Share | Min seconds |\n");
+        md.append("|---|---:|---:|---:|\n");
+        for (Map<String, Object> r : summary.top(10)) {
+            md.append("| ").append(stringOrEmpty(r.get("key")).replace("|", "\\|")).append(" | ")
+                .append(String.format(Locale.US, "%.1f", numberOrZero(r.get("weight")))).append(" | ")
+                .append(String.format(Locale.US, "%.1f%%", numberOrZero(r.get("share")) * 100)).append(" | ")
+                .append(String.format(Locale.US, "%.1f", numberOrZero(r.get("min_weight")))).append(" |\n");
+        }
+    }
+
     private static String extractNumberFromJson(String path, String key, String fallback) {
         if (isBlank(path)) {
             return fallback;
@@ -533,6 +928,30 @@ public final class DitMain {
         return out;
     }
 
+    /** Prints {@code error} to stderr unless it is empty or equal to {@code last}; returns the new last error. */
+    private static String reportChanged(String error, String last) {
+        if (!error.isEmpty() && !error.equals(last)) {
+            System.err.println(error);
+        }
+        return error;
+    }
+
+    /** Writes the unfinished heavy-hitters segment, if anything was counted; only the first call does. */
+    private static Runnable partialSegmentWriter(final HeavyHitterTracker tracker, final String instanceName,
+            final Path recordPath) {
+        final AtomicBoolean done = new AtomicBoolean();
+        return new Runnable() {
+            public void run() {
+                if (!done.compareAndSet(false, true) || tracker.segmentEmpty()) {
+                    return;
+                }
+                Map<String, Object> segment = tracker.cutSegment(System.currentTimeMillis());
+                segment.put("instance_name", instanceName);
+                appendLine(recordPath, JsonUtil.toJson(segment));
+            }
+        };
+    }
+
     private static void appendLine(Path path, String line) {
         try {
             Path parent = path.getParent();
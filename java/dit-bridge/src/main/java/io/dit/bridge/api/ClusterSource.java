@@ -0,0 +1,45 @@
+package io.dit.bridge.api;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DBMS-specific queries for cluster mode (Oracle RAC, Tibero TAC). Every
+ * query has a global form over the gv$ views of one connection and a local
+ * form over the v$ views of the instance a connection is attached to, used
+ * when gv$ is too slow and each instance gets its own connection.
+ */
+public interface ClusterSource {
+
+    /** Cumulative counter keys returned by {@link #queryCounters}. */
+    String DB_TIME_US = "db_time_us";
+    String DB_CPU_US = "db_cpu_us";
+    String EXECUTIONS = "executions";
+    String LOGICAL_READS = "logical_reads";
+    String PHYSICAL_READS = "physical_reads";
+    String REDO_BYTES = "redo_bytes";
+    String COMMITS = "commits";
+
+    /** One row per instance with keys inst_id (Integer), instance_name, host_name, status. */
+    List<Map<String, Object>> queryInstances(Connection conn) throws SQLException;
+
+    /**
+     * Cumulative counters per inst_id for all instances when {@code global};
+     * otherwise a single entry for the connected instance, whose key is not
+     * relied on.
+     */
+    Map<Integer, Map<String, Double>> queryCounters(Connection conn, boolean global) throws SQLException;
+
+    /**
+     * Non-idle user sessions, longest wait first, with inst_id (Integer), sid,
+     * serial, username, event, wait_class, sql_id, seconds_in_wait and program;
+     * at most {@code limit} per instance. The inst_id of the local form is
+     * overwritten by the caller.
+     */
+    List<Map<String, Object>> querySessions(Connection conn, boolean global, int limit) throws SQLException;
+
+    /** Connection options that reach {@code instance} directly, derived from the cluster-wide options. */
+    Map<String, String> instanceOptions(Map<String, String> options, Map<String, Object> instance);
+}
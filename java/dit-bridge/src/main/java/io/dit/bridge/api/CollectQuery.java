@@ -0,0 +1,44 @@
+package io.dit.bridge.api;
+
+/**
+ * Collector query groups that a TUI view can declare. Expensive groups only
+ * run while a view that needs them is visible, or at the slow background rate.
+ * Slow-tier groups (large V$ scans whose deltas need a longer interval to be
+ * meaningful) run at most every {@code --slow-every} cycles even when visible.
+ */
+public enum CollectQuery {
+    INSTANCE(false),
+    LOAD_PROFILE(false),
+    WAIT_DELTA(false),
+    WAITS(false),
+    WAIT_HISTOGRAM(true),
+    LOCKS(false),
+    ASH(false),
+    PDB(false),
+    SESSIONS(true),
+    SESSION_STATS(true),
+    SQL_HOTSPOTS(true),
+    FILE_IO(true, true),
+    SEGMENT_IO(true, true),
+    CLUSTER(true);
+
+    private final boolean expensive;
+    private final boolean slow;
+
+    CollectQuery(boolean expensive) {
+        this(expensive, false);
+    }
+
+    CollectQuery(boolean expensive, boolean slow) {
+        this.expensive = expensive;
+        this.slow = slow;
+    }
+
+    public boolean isExpensive() {
+        return expensive;
+    }
+
+    public boolean isSlow() {
+        return slow;
+    }
+}
@@ -2,11 +2,29 @@ package io.dit.bridge.api;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface DbmsCollector {
     Map<String, Object> collectAll(Connection conn);
+    Map<String, Object> collect(Connection conn, Set<CollectQuery> queries);
     Map<String, Object> mapMetrics(Map<String, Object> raw1, Map<String, Object> raw2);
     Map<String, Object> queryInstanceInfo(Connection conn) throws SQLException;
     String queryServerTime(Connection conn) throws SQLException;
+
+    /**
+     * One keyset page of active sessions in (seconds_in_wait DESC, sid ASC) order.
+     * A null key starts at the top (or at the bottom when {@code backward});
+     * otherwise rows strictly after (or before) the key are returned, always in
+     * display order.
+     */
+    List<Map<String, Object>> querySessionPage(Connection conn, SessionKey key, boolean backward, int limit)
+            throws SQLException;
+
+    /**
+     * Active session count as {@code total}, plus {@code before}: the number of
+     * sessions that sort strictly before {@code key} (0 when key is null).
+     */
+    Map<String, Object> querySessionCount(Connection conn, SessionKey key) throws SQLException;
 }
@@ -7,4 +7,11 @@ import java.util.Map;
 public interface DbmsConnectionFactory {
     Connection create(Map<String, String> options) throws SQLException;
     String selfFilterColumn();
+
+    /**
+     * Cheap liveness check of a connection opened by {@link #create}: one
+     * round trip bounded by {@code timeoutSeconds}. Never throws; any
+     * failure means the connection is unusable.
+     */
+    boolean validate(Connection conn, int timeoutSeconds);
 }
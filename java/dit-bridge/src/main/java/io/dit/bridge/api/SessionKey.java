@@ -0,0 +1,53 @@
+package io.dit.bridge.api;
+
+import java.util.Map;
+
+/**
+ * Keyset position in the active session list, which is ordered by
+ * seconds_in_wait descending, then sid ascending. Page queries continue
+ * strictly after (or before) a key instead of using row offsets.
+ */
+public final class SessionKey {
+
+    private final double secondsInWait;
+    private final long sid;
+
+    public SessionKey(double secondsInWait, long sid) {
+        this.secondsInWait = secondsInWait;
+        this.sid = sid;
+    }
+
+    /** Key of a session row as returned by the collectors, or null if the row has no numeric sid. */
+    public static SessionKey of(Map<String, Object> row) {
+        if (row == null) {
+            return null;
+        }
+        Object wait = row.get("seconds_in_wait");
+        try {
+            long sid = Long.parseLong(String.valueOf(row.get("sid")).trim());
+            return new SessionKey(wait instanceof Number ? ((Number) wait).doubleValue() : 0.0, sid);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Key that sorts immediately before this one, so a strict "after" page
+     * starting from it includes this row.
+     */
+    public SessionKey previous() {
+        return new SessionKey(secondsInWait, sid - 1);
+    }
+
+    public double secondsInWait() {
+        return secondsInWait;
+    }
+
+    public long sid() {
+        return sid;
+    }
+
+    public String toString() {
+        return "(" + secondsInWait + ", " + sid + ")";
+    }
+}
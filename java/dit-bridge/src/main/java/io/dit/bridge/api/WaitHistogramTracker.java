@@ -0,0 +1,14 @@
+package io.dit.bridge.api;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-interval wait latency histograms. Bucket {@code i} counts waits of at
+ * most {@code 2^i} ms (and more than {@code 2^(i-1)} ms).
+ */
+public interface WaitHistogramTracker {
+    List<Map<String, Object>> queryDelta(Connection conn, List<String> events) throws SQLException;
+}
@@ -0,0 +1,310 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers {@link AlertEngine} records to the {@link AlertSinks} off the
+ * collector thread. Every sink has its own daemon thread and bounded queue
+ * ({@code --alert-queue}, default 1000); {@link #offer} only enqueues into
+ * each of them and counts what does not fit, so a slow webhook or a hanging
+ * hook never delays a collection, nor the delivery to the other sinks.
+ *
+ * <p>A sink's thread takes the first record, waits up to
+ * {@code --alert-batch-ms} (default 1000) for more, and moves the batch to
+ * the sink's backlog of undelivered records (capped at the queue size,
+ * oldest dropped first). A failed delivery is retried with jittered
+ * exponential backoff from 1 second up to 60 seconds. On {@link #close}
+ * what is still queued gets one last attempt, all sinks in parallel.
+ *
+ * <p>The last {@value #RECENT} records are kept for the Alerts tab even when
+ * no sink is configured.
+ */
+public final class AlertDispatcher {
+
+    static final int RECENT = 100;
+    private static final int MAX_BATCH = 100;
+    private static final long BASE_RETRY_MS = 1000L;
+    private static final long MAX_RETRY_MS = 60000L;
+    private static final long IDLE_POLL_MS = 1000L;
+    private static final long CLOSE_WAIT_MS = 15000L;
+    private static final Queued STOP = new Queued(null, 0);
+
+    private final int capacity;
+    private final long batchMs;
+    private final List<SinkState> sinks = new ArrayList<SinkState>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Deque<Map<String, Object>> recent = new ArrayDeque<Map<String, Object>>();
+    private volatile boolean closed;
+
+    public AlertDispatcher(Map<String, String> options) {
+        this(options, AlertSinks.fromOptions(options));
+    }
+
+    AlertDispatcher(Map<String, String> options, List<AlertSink> sinkList) {
+        this.capacity = Math.max(1, intVal(options.get("alert-queue"), 1000));
+        this.batchMs = Math.max(0, intVal(options.get("alert-batch-ms"), 1000));
+        for (AlertSink s : sinkList) {
+            sinks.add(new SinkState(s));
+        }
+        for (SinkState s : sinks) {
+            s.thread.start();
+        }
+    }
+
+    /** Queues records for every sink. Never blocks; records that do not fit are counted as dropped. */
+    public void offer(List<Map<String, Object>> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        synchronized (recent) {
+            for (Map<String, Object> a : alerts) {
+                recent.addFirst(a);
+                if (recent.size() > RECENT) {
+                    recent.removeLast();
+                }
+            }
+        }
+        if (sinks.isEmpty() || closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Map<String, Object> a : alerts) {
+            Queued q = new Queued(a, now);
+            boolean lost = false;
+            for (SinkState s : sinks) {
+                if (!s.queue.offer(q)) {
+                    s.dropped.incrementAndGet();
+                    lost = true;
+                }
+            }
+            if (lost) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    public boolean hasSinks() {
+        return !sinks.isEmpty();
+    }
+
+    /** Records rejected because a sink's queue was full (once per record, however many sinks). */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /** The most recent records, newest first. */
+    public List<Map<String, Object>> recent() {
+        synchronized (recent) {
+            return new ArrayList<Map<String, Object>>(recent);
+        }
+    }
+
+    /**
+     * One row per sink: {@code name}, {@code state} (OK, RETRY or IDLE before
+     * the first delivery), {@code delivered}, {@code dropped}, {@code pending},
+     * {@code failures} (in a row), {@code call_ms} (last delivery call),
+     * {@code lag_ms} (oldest record of the last batch, queued to delivered),
+     * {@code retry_at_ms} and {@code error}.
+     */
+    public List<Map<String, Object>> status() {
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>(sinks.size());
+        for (SinkState s : sinks) {
+            Map<String, Object> r = new LinkedHashMap<String, Object>();
+            int failures = s.failures;
+            long delivered = s.delivered;
+            r.put("name", s.sink.name());
+            r.put("state", failures > 0 ? "RETRY" : delivered > 0 ? "OK" : "IDLE");
+            r.put("delivered", delivered);
+            r.put("dropped", s.dropped.get());
+            r.put("pending", s.pendingCount);
+            r.put("failures", failures);
+            r.put("call_ms", s.callMs);
+            r.put("lag_ms", s.lagMs);
+            r.put("retry_at_ms", s.nextAttemptMs);
+            r.put("error", s.lastError);
+            rows.add(r);
+        }
+        return rows;
+    }
+
+    /** First failing sink and its error, "" while all deliver; for the footer. */
+    public String lastError() {
+        for (SinkState s : sinks) {
+            String e = s.lastError;
+            if (!e.isEmpty()) {
+                return "alert " + s.sink.name() + ": " + e;
+            }
+        }
+        return "";
+    }
+
+    /** Stops the threads after a last delivery attempt of the queued records (bounded by the sinks' timeouts). */
+    public void close() {
+        if (sinks.isEmpty() || closed) {
+            return;
+        }
+        closed = true;
+        // Wakes the threads at once; one whose queue is full sees the flag within a poll interval
+        for (SinkState s : sinks) {
+            s.queue.offer(STOP);
+        }
+        long deadline = System.currentTimeMillis() + CLOSE_WAIT_MS;
+        try {
+            for (SinkState s : sinks) {
+                s.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int intVal(String v, int fallback) {
+        if (v == null || v.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (RuntimeException e) {
+            return fallback;
+        }
+    }
+
+    /** A record with the time it was offered, for the lag column. */
+    private static final class Queued {
+        final Map<String, Object> alert;
+        final long queuedNanos;
+
+        Queued(Map<String, Object> alert, long queuedNanos) {
+            this.alert = alert;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+
+    /** Queue, thread, backlog and counters of one sink. The backlog is touched by the sink's thread only. */
+    private final class SinkState {
+        final AlertSink sink;
+        final BlockingQueue<Queued> queue = new ArrayBlockingQueue<Queued>(capacity);
+        final Thread thread;
+        final Deque<Queued> pending = new ArrayDeque<Queued>();
+        final AtomicLong dropped = new AtomicLong();
+        volatile long delivered;
+        volatile int pendingCount;
+        volatile int failures;
+        volatile long nextAttemptMs;
+        volatile long callMs;
+        volatile long lagMs;
+        volatile String lastError = "";
+
+        SinkState(AlertSink sink) {
+            this.sink = sink;
+            this.thread = new Thread(new Runnable() {
+                public void run() {
+                    dispatchLoop();
+                }
+            }, "dit-alerts-" + sink.name());
+            thread.setDaemon(true);
+        }
+
+        void dispatchLoop() {
+            List<Queued> batch = new ArrayList<Queued>();
+            try {
+                while (!closed) {
+                    long wait = pending.isEmpty() ? IDLE_POLL_MS
+                        : Math.min(IDLE_POLL_MS, Math.max(0, nextAttemptMs - System.currentTimeMillis()));
+                    Queued first = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (first != null && first != STOP) {
+                        batch.add(first);
+                        // Batch window: alerts of one snapshot and any that follow shortly go out together
+                        long deadline = System.currentTimeMillis() + batchMs;
+                        while (batch.size() < MAX_BATCH) {
+                            long remaining = deadline - System.currentTimeMillis();
+                            Queued next = remaining > 0 ? queue.poll(remaining, TimeUnit.MILLISECONDS) : queue.poll();
+                            if (next == null || next == STOP) {
+                                break;
+                            }
+                            batch.add(next);
+                        }
+                        enqueue(batch);
+                        batch.clear();
+                    }
+                    if (!pending.isEmpty() && System.currentTimeMillis() >= nextAttemptMs) {
+                        attempt();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // fall through to the final flush
+            }
+
+            Queued q;
+            while ((q = queue.poll()) != null) {
+                if (q != STOP) {
+                    batch.add(q);
+                }
+            }
+            enqueue(batch);
+            // One try, whatever the backoff says
+            while (!pending.isEmpty() && attempt()) {
+                // next batch
+            }
+            sink.close();
+        }
+
+        void enqueue(List<Queued> batch) {
+            for (Queued q : batch) {
+                pending.addLast(q);
+                if (pending.size() > capacity) {
+                    // A sink that has been down for long loses its oldest records first
+                    pending.removeFirst();
+                    dropped.incrementAndGet();
+                }
+            }
+            pendingCount = pending.size();
+        }
+
+        /** Delivers up to one batch from the head of the backlog; false if the sink failed. */
+        boolean attempt() {
+            int n = Math.min(pending.size(), MAX_BATCH);
+            List<Map<String, Object>> alerts = new ArrayList<Map<String, Object>>(n);
+            long oldest = Long.MAX_VALUE;
+            int i = 0;
+            for (Queued q : pending) {
+                if (i++ == n) {
+                    break;
+                }
+                alerts.add(q.alert);
+                oldest = Math.min(oldest, q.queuedNanos);
+            }
+            long start = System.nanoTime();
+            try {
+                sink.deliver(Collections.unmodifiableList(alerts));
+            } catch (Exception e) {
+                failures++;
+                lastError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                nextAttemptMs = System.currentTimeMillis() + Backoff.delayMs(BASE_RETRY_MS, failures, MAX_RETRY_MS);
+                return false;
+            }
+            long end = System.nanoTime();
+            for (int k = 0; k < n; k++) {
+                pending.removeFirst();
+            }
+            pendingCount = pending.size();
+            delivered += n;
+            callMs = TimeUnit.NANOSECONDS.toMillis(end - start);
+            lagMs = TimeUnit.NANOSECONDS.toMillis(end - oldest);
+            failures = 0;
+            lastError = "";
+            nextAttemptMs = 0;
+            return true;
+        }
+    }
+}
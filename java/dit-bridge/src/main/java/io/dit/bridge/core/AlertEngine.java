@@ -0,0 +1,292 @@
+package io.dit.bridge.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Threshold alerts for {@code --thresholds <file>} (see
+ * {@code docs/examples/thresholds.*.json}). The profile's {@code default}
+ * section and the section of the monitored DBMS are merged (the DBMS wins)
+ * and compiled into parallel arrays, one slot per metric rule, so evaluating
+ * a snapshot is one pass over the rules that reads the metrics map and
+ * allocates nothing unless a state changes.
+ *
+ * <p>Each rule is OK, WARNING or CRITICAL. A level is entered when the value
+ * reaches its threshold and left only once the value drops below the
+ * threshold minus {@code hysteresis} (a fraction, default 0.1), so a value
+ * hovering at the line does not flap. An alert record is produced only on a
+ * transition, and after one the rule stays quiet for
+ * {@code cooldown_seconds} (default 300) except for an escalation; a change
+ * suppressed by the cooldown is reported when it ends if it still holds.
+ * {@code spike_fraction} marks alerts whose value jumped by more than that
+ * fraction since the previous sample.
+ *
+ * <p>Metric names are collector metric keys ({@code db_time_per_sec}, ...)
+ * or the profile's short names: {@code host_cpu}, {@code sql_exec},
+ * {@code redo_log}, {@code wait_time} (wait time ratio, times
+ * {@code oracle_delta_scaling.db_wait_ratio_to_wait_ms} when given) and
+ * {@code blocked_sessions} (waiters in the Locks data).
+ *
+ * <p>{@link #evaluate} runs on one thread (the collector); {@link #severity}
+ * may be called from any thread.
+ */
+public final class AlertEngine {
+
+    public static final int OK = 0;
+    public static final int WARNING = 1;
+    public static final int CRITICAL = 2;
+
+    private static final String[] LEVEL_NAMES = {"ok", "warning", "critical"};
+    private static final Map<String, String> ALIASES = new HashMap<String, String>();
+
+    static {
+        ALIASES.put("host_cpu", "host_cpu_util");
+        ALIASES.put("sql_exec", "sql_exec_per_sec");
+        ALIASES.put("redo_log", "redo_mb_per_sec");
+        ALIASES.put("wait_time", "wait_time_ratio");
+    }
+
+    // Value read from the metrics map, or counted from the Locks data
+    private static final int SOURCE_METRIC = 0;
+    private static final int SOURCE_BLOCKED = 1;
+    private static final String BLOCKED_SESSIONS = "blocked_sessions";
+
+    private final double hysteresis;
+    private final long cooldownMs;
+    private final double spikeFraction;
+
+    // Compiled rules, index = rule
+    private final String[] names;
+    private final String[] keys;
+    private final int[] sources;
+    private final double[] scales;
+    private final double[] warnings;
+    private final double[] criticals;
+
+    // Evaluation state; only the evaluating thread writes
+    private final AtomicIntegerArray levels;
+    private final int[] reported;
+    private final long[] reportedAtMs;
+    private final double[] previous;
+
+    private AlertEngine(List<String[]> rules, List<double[]> limits, double hysteresis, long cooldownMs,
+            double spikeFraction) {
+        int n = rules.size();
+        this.hysteresis = hysteresis;
+        this.cooldownMs = cooldownMs;
+        this.spikeFraction = spikeFraction;
+        this.names = new String[n];
+        this.keys = new String[n];
+        this.sources = new int[n];
+        this.scales = new double[n];
+        this.warnings = new double[n];
+        this.criticals = new double[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = rules.get(i)[0];
+            keys[i] = rules.get(i)[1];
+            sources[i] = BLOCKED_SESSIONS.equals(keys[i]) ? SOURCE_BLOCKED : SOURCE_METRIC;
+            scales[i] = limits.get(i)[0];
+            warnings[i] = limits.get(i)[1];
+            criticals[i] = limits.get(i)[2];
+        }
+        this.levels = new AtomicIntegerArray(n);
+        this.reported = new int[n];
+        this.reportedAtMs = new long[n];
+        this.previous = new double[n];
+        Arrays.fill(previous, Double.NaN);
+    }
+
+    /** Reads and compiles a threshold profile for {@code dbmsType} ("oracle", "tibero"). */
+    public static AlertEngine load(String file, String dbmsType) {
+        String text;
+        try {
+            text = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read thresholds file " + file + ": " + e.getMessage());
+        }
+        Object root = JsonUtil.parse(text);
+        if (!(root instanceof Map)) {
+            throw new IllegalArgumentException("Thresholds file must hold a JSON object: " + file);
+        }
+        return compile(asMap(root), dbmsType);
+    }
+
+    static AlertEngine compile(Map<String, Object> profile, String dbmsType) {
+        Map<String, Object> base = asMap(profile.get("default"));
+        Map<String, Object> dbms = asMap(profile.get(dbmsType));
+
+        Map<String, Object> metrics = new LinkedHashMap<String, Object>(asMap(base.get("metrics")));
+        metrics.putAll(asMap(dbms.get("metrics")));
+        double waitScale = num(asMap(dbms.get(dbmsType + "_delta_scaling")).get("db_wait_ratio_to_wait_ms"), 1.0);
+
+        List<String[]> rules = new ArrayList<String[]>();
+        List<double[]> limits = new ArrayList<double[]>();
+        for (Map.Entry<String, Object> e : metrics.entrySet()) {
+            Map<String, Object> rule = asMap(e.getValue());
+            double warning = num(rule.get("warning"), Double.NaN);
+            double critical = num(rule.get("critical"), Double.NaN);
+            if (Double.isNaN(warning) && Double.isNaN(critical)) {
+                continue;
+            }
+            // A missing level never triggers
+            if (Double.isNaN(warning)) {
+                warning = critical;
+            }
+            if (Double.isNaN(critical)) {
+                critical = Double.POSITIVE_INFINITY;
+            }
+            String name = e.getKey();
+            String key = ALIASES.containsKey(name) ? ALIASES.get(name) : name;
+            double scale = "wait_time".equals(name) ? waitScale : 1.0;
+            rules.add(new String[]{name, key});
+            limits.add(new double[]{scale, warning, critical});
+        }
+        return new AlertEngine(rules, limits,
+                setting(base, dbms, "hysteresis", 0.1),
+                (long) (setting(base, dbms, "cooldown_seconds", 300) * 1000),
+                setting(base, dbms, "spike_fraction", 0.2));
+    }
+
+    /**
+     * Evaluates one snapshot. Returns the alert records of the rules whose
+     * state changed (empty, and nothing allocated, when none did). Rules whose
+     * metric is absent keep their state.
+     *
+     * @param lockSessions  Locks data for {@code blocked_sessions}, or null
+     */
+    public List<Map<String, Object>> evaluate(Map<String, Object> metrics, List<Map<String, Object>> lockSessions,
+            long nowMs) {
+        List<Map<String, Object>> out = null;
+        for (int i = 0; i < keys.length; i++) {
+            double v;
+            if (sources[i] == SOURCE_BLOCKED) {
+                if (lockSessions == null) {
+                    continue;
+                }
+                v = countBlocked(lockSessions);
+            } else {
+                Object raw = metrics != null ? metrics.get(keys[i]) : null;
+                if (!(raw instanceof Number)) {
+                    continue;
+                }
+                v = ((Number) raw).doubleValue() * scales[i];
+            }
+
+            int level = levels.get(i);
+            int next = v >= criticals[i] ? CRITICAL : v >= warnings[i] ? WARNING : OK;
+            if (next < level) {
+                // Hysteresis: leave a level only once clearly below it
+                int hold = level == CRITICAL && v >= criticals[i] * (1 - hysteresis) ? CRITICAL
+                        : v >= warnings[i] * (1 - hysteresis) ? WARNING : OK;
+                next = Math.max(next, hold);
+            }
+            levels.set(i, next);
+
+            double prev = previous[i];
+            previous[i] = v;
+            if (next == reported[i]) {
+                continue;
+            }
+            // Escalations are reported at once; everything else waits out the cooldown
+            if (next < reported[i] && nowMs - reportedAtMs[i] < cooldownMs) {
+                continue;
+            }
+            if (out == null) {
+                out = new ArrayList<Map<String, Object>>();
+            }
+            out.add(record(i, reported[i], next, v, prev, nowMs));
+            reported[i] = next;
+            reportedAtMs[i] = nowMs;
+        }
+        return out != null ? out : Collections.<Map<String, Object>>emptyList();
+    }
+
+    /** Current level of the rule on {@code metricKey}, {@link #OK} if there is none. */
+    public int severity(String metricKey) {
+        int worst = OK;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(metricKey)) {
+                worst = Math.max(worst, levels.get(i));
+            }
+        }
+        return worst;
+    }
+
+    /** Number of rules at WARNING or above. */
+    public int activeCount() {
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (levels.get(i) != OK) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public int ruleCount() {
+        return keys.length;
+    }
+
+    /** True when a {@code blocked_sessions} rule needs the Locks data passed to {@link #evaluate}. */
+    public boolean usesLockSessions() {
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i] == SOURCE_BLOCKED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String levelName(int level) {
+        return LEVEL_NAMES[level];
+    }
+
+    private Map<String, Object> record(int i, int from, int to, double value, double prev, long nowMs) {
+        Map<String, Object> r = new LinkedHashMap<String, Object>();
+        r.put("type", "alert");
+        r.put("timestamp", Instant.ofEpochMilli(nowMs).toString());
+        r.put("metric", names[i]);
+        r.put("key", keys[i]);
+        r.put("severity", LEVEL_NAMES[to]);
+        r.put("previous", LEVEL_NAMES[from]);
+        r.put("value", value);
+        r.put("threshold", to == CRITICAL ? criticals[i] : warnings[i]);
+        r.put("spike", to > from && !Double.isNaN(prev) && prev > 0 && value > prev * (1 + spikeFraction));
+        return r;
+    }
+
+    private static int countBlocked(List<Map<String, Object>> lockSessions) {
+        int n = 0;
+        for (int j = 0; j < lockSessions.size(); j++) {
+            Object blocker = lockSessions.get(j).get("blocking_sid");
+            if (blocker != null && !String.valueOf(blocker).isEmpty()) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static double setting(Map<String, Object> base, Map<String, Object> dbms, String key, double fallback) {
+        return num(dbms.get(key), num(base.get(key), fallback));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object v) {
+        return v instanceof Map ? (Map<String, Object>) v : Collections.<String, Object>emptyMap();
+    }
+
+    private static double num(Object v, double fallback) {
+        return v instanceof Number ? ((Number) v).doubleValue() : fallback;
+    }
+}
@@ -0,0 +1,24 @@
+package io.dit.bridge.core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Destination of alert records, called by {@link AlertDispatcher} on its own
+ * thread with one batch at a time. Implementations are in {@link AlertSinks}.
+ */
+public interface AlertSink {
+
+    /** Short label for the Alerts tab, e.g. "webhook" or "log". */
+    String name();
+
+    /**
+     * Delivers the whole batch or throws; the dispatcher then keeps the batch
+     * and retries it with backoff, so a delivery must be safe to repeat.
+     */
+    void deliver(List<Map<String, Object>> batch) throws IOException;
+
+    /** Releases sockets or files; called once when the dispatcher stops. */
+    void close();
+}
@@ -0,0 +1,302 @@
+package io.dit.bridge.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The alert destinations behind the {@code --alert-*} options:
+ * <ul>
+ *   <li>{@code --alert-webhook <url>}: one HTTP POST per batch with
+ *       {@code {"alerts":[...]}}; {@code --alert-webhook-token-env <VAR>}
+ *       names the environment variable holding a bearer token</li>
+ *   <li>{@code --alert-syslog <host[:port]>}: one RFC 5424 UDP datagram per
+ *       alert (facility local0, default port 514)</li>
+ *   <li>{@code --alert-log <file>}: alert records appended as JSON lines</li>
+ *   <li>{@code --alert-exec <command>}: runs the command (split on spaces,
+ *       no shell) per batch with the records as JSON lines on stdin</li>
+ * </ul>
+ * Each sink is used by the dispatcher thread only.
+ */
+public final class AlertSinks {
+
+    private static final int HTTP_TIMEOUT_MS = 5000;
+    private static final long EXEC_TIMEOUT_MS = 10000L;
+
+    private AlertSinks() {
+    }
+
+    /** The sinks configured in {@code options}; empty when none is. */
+    public static List<AlertSink> fromOptions(Map<String, String> options) {
+        List<AlertSink> sinks = new ArrayList<AlertSink>();
+        String webhook = trim(options.get("alert-webhook"));
+        if (!webhook.isEmpty()) {
+            String tokenEnv = trim(options.get("alert-webhook-token-env"));
+            String token = tokenEnv.isEmpty() ? null : System.getenv(tokenEnv);
+            if (!tokenEnv.isEmpty() && (token == null || token.isEmpty())) {
+                throw new IllegalArgumentException("Environment variable " + tokenEnv + " is not set");
+            }
+            sinks.add(new WebhookSink(webhook, token));
+        }
+        String syslog = trim(options.get("alert-syslog"));
+        if (!syslog.isEmpty()) {
+            sinks.add(new SyslogSink(syslog));
+        }
+        String log = trim(options.get("alert-log"));
+        if (!log.isEmpty()) {
+            sinks.add(new LogFileSink(log));
+        }
+        String exec = trim(options.get("alert-exec"));
+        if (!exec.isEmpty()) {
+            sinks.add(new ExecSink(exec));
+        }
+        return sinks;
+    }
+
+    /** POSTs each batch as one JSON document; any non-2xx answer is a failure. */
+    static final class WebhookSink implements AlertSink {
+
+        private final URL url;
+        private final String token;
+
+        WebhookSink(String url, String token) {
+            try {
+                this.url = new URL(url);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid --alert-webhook URL: " + e.getMessage());
+            }
+            if (!"http".equals(this.url.getProtocol()) && !"https".equals(this.url.getProtocol())) {
+                throw new IllegalArgumentException("--alert-webhook must be an http or https URL");
+            }
+            this.token = token;
+        }
+
+        public String name() {
+            // Host only: the path or query may carry a secret
+            return "webhook " + url.getHost();
+        }
+
+        public void deliver(List<Map<String, Object>> batch) throws IOException {
+            Map<String, Object> body = new LinkedHashMap<String, Object>();
+            body.put("alerts", batch);
+            byte[] bytes = JsonUtil.toJson(body).getBytes(StandardCharsets.UTF_8);
+
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            try {
+                conn.setConnectTimeout(HTTP_TIMEOUT_MS);
+                conn.setReadTimeout(HTTP_TIMEOUT_MS);
+                conn.setInstanceFollowRedirects(false);
+                conn.setDoOutput(true);
+                conn.setRequestMethod("POST");
+                conn.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+                if (token != null) {
+                    conn.setRequestProperty("Authorization", "Bearer " + token);
+                }
+                conn.setFixedLengthStreamingMode(bytes.length);
+                OutputStream out = conn.getOutputStream();
+                try {
+                    out.write(bytes);
+                } finally {
+                    out.close();
+                }
+                int status = conn.getResponseCode();
+                // Read the answer to the end so the connection can be kept alive
+                InputStream in = status >= 400 ? conn.getErrorStream() : conn.getInputStream();
+                if (in != null) {
+                    try {
+                        byte[] buf = new byte[1024];
+                        while (in.read(buf) >= 0) {
+                            // discard
+                        }
+                    } finally {
+                        in.close();
+                    }
+                }
+                if (status < 200 || status >= 300) {
+                    throw new IOException("HTTP " + status);
+                }
+            } finally {
+                conn.disconnect();
+            }
+        }
+
+        public void close() {
+        }
+    }
+
+    /** RFC 5424 over UDP: fire and forget, so only local send errors are failures. */
+    static final class SyslogSink implements AlertSink {
+
+        private static final int FACILITY_LOCAL0 = 16;
+
+        private final String host;
+        private final int port;
+        private final String hostName;
+        private DatagramSocket socket;
+
+        SyslogSink(String target) {
+            int colon = target.lastIndexOf(':');
+            this.host = colon > 0 ? target.substring(0, colon) : target;
+            this.port = colon > 0 ? parsePort(target.substring(colon + 1)) : 514;
+            this.hostName = localHostName();
+        }
+
+        public String name() {
+            return "syslog " + host + ":" + port;
+        }
+
+        public void deliver(List<Map<String, Object>> batch) throws IOException {
+            if (socket == null) {
+                socket = new DatagramSocket();
+            }
+            // Resolved per batch, so a changed DNS entry is picked up
+            InetSocketAddress address = new InetSocketAddress(host, port);
+            if (address.isUnresolved()) {
+                throw new IOException("unknown host " + host);
+            }
+            for (Map<String, Object> alert : batch) {
+                int severity = "critical".equals(alert.get("severity")) ? 2
+                        : "warning".equals(alert.get("severity")) ? 4 : 6;
+                String line = "<" + (FACILITY_LOCAL0 * 8 + severity) + ">1 " + str(alert.get("timestamp")) + " "
+                        + hostName + " dit - alert - " + JsonUtil.toJson(alert);
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                socket.send(new DatagramPacket(bytes, bytes.length, address));
+            }
+        }
+
+        public void close() {
+            if (socket != null) {
+                socket.close();
+            }
+        }
+
+        private static int parsePort(String v) {
+            try {
+                return Integer.parseInt(v.trim());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid --alert-syslog port: " + v);
+            }
+        }
+
+        private static String localHostName() {
+            try {
+                return InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                return "-";
+            }
+        }
+    }
+
+    /** Appends one JSON line per alert; the file is opened per batch so it can be rotated. */
+    static final class LogFileSink implements AlertSink {
+
+        private final Path path;
+
+        LogFileSink(String file) {
+            this.path = Paths.get(file);
+        }
+
+        public String name() {
+            return "log " + path.getFileName();
+        }
+
+        public void deliver(List<Map<String, Object>> batch) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            for (Map<String, Object> alert : batch) {
+                sb.append(JsonUtil.toJson(alert)).append('\n');
+            }
+            Files.write(path, sb.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        public void close() {
+        }
+    }
+
+    /**
+     * Runs the hook with the batch on stdin and DIT_ALERT_COUNT /
+     * DIT_ALERT_SEVERITY (worst in the batch) in the environment. A non-zero
+     * exit or a run longer than 10 seconds is a failure.
+     */
+    static final class ExecSink implements AlertSink {
+
+        private final List<String> command;
+
+        ExecSink(String command) {
+            this.command = Collections.unmodifiableList(Arrays.asList(command.trim().split("\\s+")));
+        }
+
+        public String name() {
+            return "exec " + new File(command.get(0)).getName();
+        }
+
+        public void deliver(List<Map<String, Object>> batch) throws IOException {
+            String worst = "ok";
+            StringBuilder sb = new StringBuilder();
+            for (Map<String, Object> alert : batch) {
+                sb.append(JsonUtil.toJson(alert)).append('\n');
+                Object severity = alert.get("severity");
+                if ("critical".equals(severity) || ("warning".equals(severity) && "ok".equals(worst))) {
+                    worst = (String) severity;
+                }
+            }
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.environment().put("DIT_ALERT_COUNT", String.valueOf(batch.size()));
+            pb.environment().put("DIT_ALERT_SEVERITY", worst);
+            // The TUI owns the terminal, so the hook's output goes nowhere
+            File devNull = new File(File.separatorChar == '\\' ? "NUL" : "/dev/null");
+            pb.redirectOutput(ProcessBuilder.Redirect.appendTo(devNull));
+            pb.redirectError(ProcessBuilder.Redirect.appendTo(devNull));
+            Process p = pb.start();
+            try {
+                OutputStream in = p.getOutputStream();
+                try {
+                    in.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+                } finally {
+                    in.close();
+                }
+                if (!p.waitFor(EXEC_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("timed out after " + EXEC_TIMEOUT_MS / 1000 + "s");
+                }
+                if (p.exitValue() != 0) {
+                    throw new IOException("exit code " + p.exitValue());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted");
+            } finally {
+                p.destroyForcibly();
+            }
+        }
+
+        public void close() {
+        }
+    }
+
+    private static String trim(String v) {
+        return v == null ? "" : v.trim();
+    }
+
+    private static String str(Object v) {
+        return v == null ? "-" : String.valueOf(v);
+    }
+}
@@ -0,0 +1,102 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alerts tab: one row per delivery sink from {@link AlertDispatcher#status}
+ * (delivered, dropped and backlog counts, the last call time and queue-to-
+ * delivery lag, the retry time and error of a failing sink), then the most
+ * recent alert records, newest first, colored by severity.
+ */
+public final class AlertsPanel extends TuiPanel {
+
+    private final String title;
+    private List<Map<String, Object>> sinks = Collections.emptyList();
+    private List<Map<String, Object>> alerts = Collections.emptyList();
+    private long queueDropped;
+
+    public AlertsPanel(String title) {
+        this.title = title;
+    }
+
+    public void bind(List<Map<String, Object>> sinks, List<Map<String, Object>> alerts, long queueDropped) {
+        this.sinks = bindValue(this.sinks, sinks);
+        this.alerts = bindValue(this.alerts, alerts);
+        this.queueDropped = bindValue(this.queueDropped, queueDropped);
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, title + (queueDropped > 0 ? " (queue full: " + queueDropped
+                + " dropped)" : ""), TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+        int bottom = top + height - 1;
+
+        canvas.drawText(sr++, col, truncate(padRight("Sink", 20) + padRight("State", 7) + padRight("Sent", 7)
+                + padRight("Dropped", 8) + padRight("Backlog", 8) + padRight("Call ms", 8) + padRight("Lag ms", 8)
+                + "Error", areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+        if (sinks.isEmpty() && sr < bottom) {
+            canvas.drawText(sr++, col, truncate("No sinks (--alert-webhook, --alert-syslog, --alert-log, "
+                    + "--alert-exec)", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+        }
+        SimpleDateFormat clock = new SimpleDateFormat("HH:mm:ss");
+        for (int i = 0; i < sinks.size() && sr < bottom; i++) {
+            Map<String, Object> s = sinks.get(i);
+            String state = str(s.get("state"));
+            String error = str(s.get("error"));
+            if ("RETRY".equals(state)) {
+                error = error + " (x" + str(s.get("failures")) + ", retry "
+                        + clock.format(new Date((long) dbl(s.get("retry_at_ms")))) + ")";
+            }
+            String line = padRight(truncate(str(s.get("name")), 19), 20) + padRight(state, 7)
+                    + padRight(str(s.get("delivered")), 7) + padRight(str(s.get("dropped")), 8)
+                    + padRight(str(s.get("pending")), 8) + padRight(str(s.get("call_ms")), 8)
+                    + padRight(str(s.get("lag_ms")), 8) + error;
+            canvas.drawText(sr++, col, truncate(line, areaW),
+                    "RETRY".equals(state) ? TuiTheme.WARNING_FG : TuiTheme.FG, TuiTheme.BG);
+        }
+
+        if (sr + 1 >= bottom) {
+            return;
+        }
+        sr++;
+        canvas.drawText(sr++, col, truncate(padRight("Time", 10) + padRight("Severity", 10) + padRight("Was", 10)
+                + padRight("Metric", 22) + padRight("Value", 12) + "Threshold", areaW), TuiTheme.HEADER_FG,
+                TuiTheme.BG);
+        if (alerts.isEmpty() && sr < bottom) {
+            canvas.drawText(sr, col, truncate("No alerts raised", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+        for (int i = 0; i < alerts.size() && sr < bottom; i++) {
+            Map<String, Object> a = alerts.get(i);
+            String severity = str(a.get("severity"));
+            String line = padRight(localTime(clock, str(a.get("timestamp"))), 10) + padRight(severity, 10)
+                    + padRight(str(a.get("previous")), 10) + padRight(truncate(str(a.get("metric")), 21), 22)
+                    + padRight(fmt("%.2f", dbl(a.get("value"))), 12) + fmt("%.2f", dbl(a.get("threshold")))
+                    + (Boolean.TRUE.equals(a.get("spike")) ? "  spike" : "");
+            canvas.drawText(sr++, col, truncate(line, areaW), severityColor(severity), TuiTheme.BG);
+        }
+    }
+
+    /** Records carry UTC ISO-8601 timestamps; the table shows the local clock time. */
+    private static String localTime(SimpleDateFormat clock, String timestamp) {
+        try {
+            return clock.format(new Date(Instant.parse(timestamp).toEpochMilli()));
+        } catch (RuntimeException e) {
+            return timestamp;
+        }
+    }
+
+    private static TextColor severityColor(String severity) {
+        return TuiTheme.severityColor("critical".equals(severity) ? AlertEngine.CRITICAL
+                : "warning".equals(severity) ? AlertEngine.WARNING : AlertEngine.OK, TuiTheme.FG);
+    }
+}
@@ -0,0 +1,344 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling activity aggregate over ASH samples. Each sample row is counted by
+ * sql_id, event, session and wait class; rows older than the window (in
+ * sample_id units, one per second) are subtracted again, so a summary costs a
+ * sort of the distinct keys, never a rescan of the samples. A second set of
+ * counters collects everything since the last {@link #drainInterval} for
+ * compact per-interval summaries in recordings; only an aggregate created
+ * with {@code intervals} keeps them, since nothing else would ever drain them.
+ *
+ * <p>The window's rows live in primitive rings (sample_id, three key ids and
+ * the class: 21 bytes a row); the keys are interned in a reference-counted
+ * dictionary, so each distinct sql_id, event or session string is kept once
+ * while any row in the window uses it.
+ */
+public final class AshAggregate {
+
+    /** Oracle wait classes, CPU first; anything else counts as Other. */
+    private static final String[] CLASSES = {
+        "CPU", "User I/O", "System I/O", "Concurrency", "Application", "Commit", "Configuration",
+        "Administrative", "Network", "Cluster", "Scheduler", "Queueing", "Other"
+    };
+    private static final int OTHER = CLASSES.length - 1;
+    private static final Map<String, Integer> CLASS_SLOT = new HashMap<String, Integer>();
+
+    static {
+        for (int i = 0; i < CLASSES.length; i++) {
+            CLASS_SLOT.put(CLASSES[i], i);
+        }
+    }
+
+    /** Interned keys; an id is recycled once no window row refers to it. */
+    private static final class Keys {
+        private final Map<String, Integer> ids = new HashMap<String, Integer>();
+        private String[] names = new String[64];
+        private int[] refs = new int[64];
+        private int[] free = new int[64];
+        private int freeCount;
+        private int next;
+
+        /** Id of {@code key} with one more reference; -1 for null. */
+        int acquire(String key) {
+            if (key == null) {
+                return -1;
+            }
+            Integer known = ids.get(key);
+            int id;
+            if (known != null) {
+                id = known.intValue();
+            } else {
+                if (freeCount > 0) {
+                    id = free[--freeCount];
+                } else {
+                    if (next == names.length) {
+                        names = Arrays.copyOf(names, next * 2);
+                        refs = Arrays.copyOf(refs, next * 2);
+                    }
+                    id = next++;
+                }
+                names[id] = key;
+                ids.put(key, id);
+            }
+            refs[id]++;
+            return id;
+        }
+
+        void release(int id) {
+            if (id < 0 || --refs[id] > 0) {
+                return;
+            }
+            ids.remove(names[id]);
+            names[id] = null;
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, freeCount * 2);
+            }
+            free[freeCount++] = id;
+        }
+
+        String name(int id) {
+            return id < 0 ? null : names[id];
+        }
+    }
+
+    /** Per-key sample counts split by wait class; slot CLASSES.length holds the total. */
+    private static final class Counts {
+        final Map<String, int[]> bySql = new HashMap<String, int[]>();
+        final Map<String, int[]> byEvent = new HashMap<String, int[]>();
+        final Map<String, int[]> bySession = new HashMap<String, int[]>();
+        final int[] byClass = new int[CLASSES.length + 1];
+
+        void add(String session, String sqlId, String event, int cls, int delta) {
+            bump(bySql, sqlId, cls, delta);
+            bump(byEvent, event, cls, delta);
+            bump(bySession, session, cls, delta);
+            byClass[cls] += delta;
+            byClass[CLASSES.length] += delta;
+        }
+
+        int total() {
+            return byClass[CLASSES.length];
+        }
+
+        void clear() {
+            bySql.clear();
+            byEvent.clear();
+            bySession.clear();
+            Arrays.fill(byClass, 0);
+        }
+
+        private static void bump(Map<String, int[]> map, String key, int cls, int delta) {
+            if (key == null) {
+                return;
+            }
+            int[] c = map.get(key);
+            if (c == null) {
+                c = new int[CLASSES.length + 1];
+                map.put(key, c);
+            }
+            c[cls] += delta;
+            c[CLASSES.length] += delta;
+            if (c[CLASSES.length] <= 0) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static final Comparator<Map.Entry<String, int[]>> BY_SAMPLES = new Comparator<Map.Entry<String, int[]>>() {
+        public int compare(Map.Entry<String, int[]> a, Map.Entry<String, int[]> b) {
+            int d = b.getValue()[CLASSES.length] - a.getValue()[CLASSES.length];
+            return d != 0 ? d : a.getKey().compareTo(b.getKey());
+        }
+    };
+
+    private final int windowSamples;
+    private final Keys keys = new Keys();
+    // Window rows, oldest at head; grown by doubling, so sized by the window's row count
+    private long[] rowSampleId = new long[256];
+    private int[] rowSession = new int[256];
+    private int[] rowSql = new int[256];
+    private int[] rowEvent = new int[256];
+    private byte[] rowClass = new byte[256];
+    private int head;
+    private int rows;
+    private final Counts window = new Counts();
+    private final Counts interval;
+    private boolean started;
+    private long firstSampleId;
+    private long newestSampleId = -1;
+    private long intervalStartId = -1;
+
+    public AshAggregate(int windowSamples) {
+        this(windowSamples, false);
+    }
+
+    /** @param intervals keep the per-interval counters for {@link #drainInterval} (recorders only) */
+    public AshAggregate(int windowSamples, boolean intervals) {
+        this.windowSamples = Math.max(1, windowSamples);
+        this.interval = intervals ? new Counts() : null;
+    }
+
+    public int windowSamples() {
+        return windowSamples;
+    }
+
+    /**
+     * Marks the sample_id the aggregate covers from (exclusive). Called once by
+     * the reader before its first range read so averages use the real span.
+     */
+    public synchronized void start(long afterSampleId) {
+        if (!started) {
+            started = true;
+            firstSampleId = afterSampleId;
+            newestSampleId = Math.max(newestSampleId, afterSampleId);
+            intervalStartId = afterSampleId;
+        }
+    }
+
+    /** Adds one ASH row. {@code sqlId} may be null; CPU rows pass event "ON CPU" and class "CPU". */
+    public synchronized void add(long sampleId, String session, String sqlId, String event, String waitClass) {
+        Integer slot = CLASS_SLOT.get(waitClass);
+        int cls = slot != null ? slot.intValue() : OTHER;
+        if (rows == rowSampleId.length) {
+            grow();
+        }
+        int sessionId = keys.acquire(session);
+        int sqlKey = keys.acquire(sqlId);
+        int eventId = keys.acquire(event);
+        int r = (head + rows) % rowSampleId.length;
+        rowSampleId[r] = sampleId;
+        rowSession[r] = sessionId;
+        rowSql[r] = sqlKey;
+        rowEvent[r] = eventId;
+        rowClass[r] = (byte) cls;
+        rows++;
+        // Count the interned strings, so the maps share them with the dictionary
+        window.add(keys.name(sessionId), keys.name(sqlKey), keys.name(eventId), cls, 1);
+        if (interval != null) {
+            interval.add(keys.name(sessionId), keys.name(sqlKey), keys.name(eventId), cls, 1);
+        }
+        advance(sampleId);
+    }
+
+    /**
+     * Moves the window end forward without new rows (idle database: ASH keeps
+     * sampling but writes nothing) and evicts rows that fell out of the window.
+     */
+    public synchronized void advance(long sampleId) {
+        if (!started) {
+            start(sampleId - windowSamples);
+        }
+        if (sampleId > newestSampleId) {
+            newestSampleId = sampleId;
+        }
+        long oldest = newestSampleId - windowSamples;
+        while (rows > 0 && rowSampleId[head] <= oldest) {
+            window.add(keys.name(rowSession[head]), keys.name(rowSql[head]), keys.name(rowEvent[head]),
+                    rowClass[head], -1);
+            keys.release(rowSession[head]);
+            keys.release(rowSql[head]);
+            keys.release(rowEvent[head]);
+            head = head + 1 == rowSampleId.length ? 0 : head + 1;
+            rows--;
+        }
+    }
+
+    /** Doubles the rings, moving the rows to the front in order. */
+    private void grow() {
+        int n = rowSampleId.length;
+        long[] sampleIds = new long[n * 2];
+        int[] sessions = new int[n * 2];
+        int[] sqls = new int[n * 2];
+        int[] events = new int[n * 2];
+        byte[] classes = new byte[n * 2];
+        for (int i = 0; i < rows; i++) {
+            int r = (head + i) % n;
+            sampleIds[i] = rowSampleId[r];
+            sessions[i] = rowSession[r];
+            sqls[i] = rowSql[r];
+            events[i] = rowEvent[r];
+            classes[i] = rowClass[r];
+        }
+        rowSampleId = sampleIds;
+        rowSession = sessions;
+        rowSql = sqls;
+        rowEvent = events;
+        rowClass = classes;
+        head = 0;
+    }
+
+    public synchronized long newestSampleId() {
+        return newestSampleId;
+    }
+
+    /**
+     * Rolling-window summary: samples, average active sessions, the wait class
+     * breakdown and the top {@code topN} SQL, events and sessions.
+     */
+    public synchronized Map<String, Object> summary(int topN) {
+        long span = Math.min(windowSamples, newestSampleId - firstSampleId);
+        return summarize(window, span, topN);
+    }
+
+    /**
+     * Summary of the rows added since the previous call, then starts a new
+     * interval. Requires an aggregate created with {@code intervals}.
+     */
+    public synchronized Map<String, Object> drainInterval(int topN) {
+        if (interval == null) {
+            throw new IllegalStateException("AshAggregate was created without interval counters");
+        }
+        long span = newestSampleId - intervalStartId;
+        Map<String, Object> out = summarize(interval, span, topN);
+        interval.clear();
+        intervalStartId = newestSampleId;
+        return out;
+    }
+
+    private static Map<String, Object> summarize(Counts c, long span, int topN) {
+        double seconds = Math.max(1, span);
+        int total = c.total();
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("span_s", span < 0 ? 0L : span);
+        out.put("samples", total);
+        out.put("aas", total / seconds);
+
+        List<Map<String, Object>> classes = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < CLASSES.length; i++) {
+            if (c.byClass[i] > 0) {
+                Map<String, Object> row = new LinkedHashMap<String, Object>();
+                row.put("wait_class", CLASSES[i]);
+                row.put("samples", c.byClass[i]);
+                row.put("aas", c.byClass[i] / seconds);
+                row.put("pct", 100.0 * c.byClass[i] / total);
+                classes.add(row);
+            }
+        }
+        Collections.sort(classes, new Comparator<Map<String, Object>>() {
+            public int compare(Map<String, Object> a, Map<String, Object> b) {
+                return ((Integer) b.get("samples")).intValue() - ((Integer) a.get("samples")).intValue();
+            }
+        });
+        out.put("wait_classes", classes);
+        out.put("top_sql", top(c.bySql, "sql_id", total, seconds, topN));
+        out.put("top_events", top(c.byEvent, "event", total, seconds, topN));
+        out.put("top_sessions", top(c.bySession, "session", total, seconds, topN));
+        return out;
+    }
+
+    private static List<Map<String, Object>> top(Map<String, int[]> counts, String keyName, int total,
+            double seconds, int topN) {
+        List<Map.Entry<String, int[]>> entries = new ArrayList<Map.Entry<String, int[]>>(counts.entrySet());
+        Collections.sort(entries, BY_SAMPLES);
+        List<Map<String, Object>> out = new ArrayList<Map<String, Object>>(Math.min(topN, entries.size()));
+        for (int i = 0; i < entries.size() && i < topN; i++) {
+            int[] c = entries.get(i).getValue();
+            int samples = c[CLASSES.length];
+            int dominant = 0;
+            for (int k = 1; k < CLASSES.length; k++) {
+                if (c[k] > c[dominant]) {
+                    dominant = k;
+                }
+            }
+            Map<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put(keyName, entries.get(i).getKey());
+            row.put("samples", samples);
+            row.put("aas", samples / seconds);
+            row.put("pct", total > 0 ? 100.0 * samples / total : 0.0);
+            row.put("wait_class", CLASSES[dominant]);
+            row.put("cpu_pct", 100.0 * c[0] / samples);
+            out.add(row);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,19 @@
+package io.dit.bridge.core;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Jittered exponential backoff shared by the reconnect paths, so a database
+ * that comes back is not hit by every client at the same instant.
+ */
+public final class Backoff {
+
+    private Backoff() {
+    }
+
+    /** base * 2^(failures-1), capped at max, with +-20% jitter. */
+    public static long delayMs(long baseMs, int failures, long maxMs) {
+        long delay = Math.min(maxMs, baseMs << Math.min(Math.max(0, failures - 1), 16));
+        return (long) (delay * (0.8 + 0.4 * ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -0,0 +1,311 @@
+package io.dit.bridge.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learned per-metric baselines for {@code --baseline}: where static
+ * thresholds ({@link AlertEngine}) need one number for day and night, this
+ * flags values that are unusual for the recent past of the same instance.
+ *
+ * <p>Every numeric metric of a snapshot gets an exponentially weighted mean
+ * and variance ({@code --baseline-halflife}, in samples, default 60) and a
+ * sliding-window histogram of its last {@code --baseline-window} samples
+ * (default 720) for the rolling p99. The histogram has fixed log-scale
+ * buckets (4 per power of two, about 25% wide) and a ring of the bucket
+ * index of each sample in the window, so a push adds one count and removes
+ * the count of the sample that falls out: O(1), and the state per metric is
+ * a fixed {@value #BUCKETS} ints plus one short per window sample whatever
+ * the run length.
+ *
+ * <p>After {@value #MIN_SAMPLES} samples a value is HIGH or LOW when it is
+ * more than {@code --baseline-sigma} (default 3) standard deviations from the
+ * mean, and HIGH when it is above the rolling p99 and at least one standard
+ * deviation above the mean (a flat series would otherwise flag every small
+ * bump). The deviation is floored at 1% of the mean for the same reason.
+ * Each value is judged against the baseline before it is added.
+ *
+ * <p>{@code --baseline-seed <record.jsonl>} warms the baselines from the
+ * last window of frames of a {@code monitor} recording.
+ *
+ * <p>{@link #push} runs on one thread (the collector); {@link #state} may be
+ * called from any thread.
+ */
+public final class BaselineEngine {
+
+    public static final int NORMAL = 0;
+    public static final int HIGH = 1;
+    public static final int LOW = -1;
+
+    static final int MIN_SAMPLES = 30;
+
+    // Bucket 0 holds values below 2^MIN_EXP (zero and negatives included), the last one 2^MAX_EXP and up
+    private static final int SUB = 4;
+    private static final int MIN_EXP = -10;
+    private static final int MAX_EXP = 30;
+    static final int BUCKETS = 2 + (MAX_EXP - MIN_EXP) * SUB;
+
+    private static final double QUANTILE = 0.99;
+    private static final double MIN_REL_SIGMA = 0.01;
+
+    private final int window;
+    private final double alpha;
+    private final double sigmas;
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<String, Baseline>();
+
+    public BaselineEngine(Map<String, String> options) {
+        this.window = Math.max(MIN_SAMPLES, intVal(options.get("baseline-window"), 720));
+        this.alpha = 1 - Math.pow(0.5, 1.0 / Math.max(1, intVal(options.get("baseline-halflife"), 60)));
+        this.sigmas = Math.max(0.5, dblVal(options.get("baseline-sigma"), 3.0));
+    }
+
+    /** True when {@code --baseline} or {@code --baseline-seed} is given. */
+    public static boolean enabled(Map<String, String> options) {
+        return options.containsKey("baseline") || options.containsKey("baseline-seed");
+    }
+
+    /** Judges and then learns every numeric value of one snapshot's metrics. */
+    public void push(Map<String, Object> metrics) {
+        if (metrics == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> e : metrics.entrySet()) {
+            if (!(e.getValue() instanceof Number)) {
+                continue;
+            }
+            double v = ((Number) e.getValue()).doubleValue();
+            if (Double.isNaN(v) || Double.isInfinite(v)) {
+                continue;
+            }
+            Baseline b = baselines.get(e.getKey());
+            if (b == null) {
+                b = new Baseline(window);
+                baselines.put(e.getKey(), b);
+            }
+            b.push(v, alpha, sigmas);
+        }
+    }
+
+    /** {@link #HIGH}, {@link #LOW} or {@link #NORMAL} for the last value of {@code metricKey}. */
+    public int state(String metricKey) {
+        Baseline b = baselines.get(metricKey);
+        return b != null ? b.state : NORMAL;
+    }
+
+    /**
+     * The metrics flagged by the last push, with {@code metric}, {@code value},
+     * {@code direction} (high / low), {@code mean}, {@code sigma} and {@code p99}.
+     * Call on the pushing thread.
+     */
+    public List<Map<String, Object>> anomalies() {
+        List<Map<String, Object>> out = null;
+        for (Map.Entry<String, Baseline> e : baselines.entrySet()) {
+            Baseline b = e.getValue();
+            if (b.state == NORMAL) {
+                continue;
+            }
+            if (out == null) {
+                out = new ArrayList<Map<String, Object>>();
+            }
+            Map<String, Object> r = new LinkedHashMap<String, Object>();
+            r.put("metric", e.getKey());
+            r.put("value", b.lastValue);
+            r.put("direction", b.state == HIGH ? "high" : "low");
+            r.put("mean", b.judgedMean);
+            r.put("sigma", b.judgedSigma);
+            r.put("p99", b.judgedP99);
+            out.add(r);
+        }
+        return out != null ? out : Collections.<Map<String, Object>>emptyList();
+    }
+
+    /**
+     * Learns the frames of a {@code monitor} recording, oldest first, keeping
+     * only the last window of them. Flags raised while seeding are cleared.
+     * Returns the number of frames used.
+     */
+    public int seed(String recordFile) {
+        Deque<String> lines = new ArrayDeque<String>();
+        try {
+            BufferedReader r = Files.newBufferedReader(Paths.get(recordFile), StandardCharsets.UTF_8);
+            try {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    // Cheap pre-filter: only frames that were collected count, and only the last window is parsed
+                    if (line.contains("\"type\":\"frame\"") && line.contains("\"collector_state\":\"ON\"")) {
+                        lines.addLast(line);
+                        if (lines.size() > window) {
+                            lines.removeFirst();
+                        }
+                    }
+                }
+            } finally {
+                r.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read baseline seed " + recordFile + ": " + e.getMessage());
+        }
+        int used = 0;
+        for (String line : lines) {
+            Object frame;
+            try {
+                frame = JsonUtil.parse(line);
+            } catch (IllegalArgumentException e) {
+                // A truncated last line of a recording that is still being written
+                continue;
+            }
+            if (frame instanceof Map && ((Map<?, ?>) frame).get("metrics") instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> metrics = (Map<String, Object>) ((Map<?, ?>) frame).get("metrics");
+                push(metrics);
+                used++;
+            }
+        }
+        for (Baseline b : baselines.values()) {
+            b.state = NORMAL;
+        }
+        return used;
+    }
+
+    /** Number of metrics currently flagged. */
+    public int anomalyCount() {
+        int n = 0;
+        for (Baseline b : baselines.values()) {
+            if (b.state != NORMAL) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    static int bucket(double v) {
+        if (v < Math.scalb(1.0, MIN_EXP)) {
+            return 0;
+        }
+        int exp = Math.getExponent(v);
+        if (exp >= MAX_EXP) {
+            return BUCKETS - 1;
+        }
+        // Linear sub-buckets inside the octave: [1, 1.25), [1.25, 1.5), ...
+        int sub = (int) ((Math.scalb(v, -exp) - 1.0) * SUB);
+        return 1 + (exp - MIN_EXP) * SUB + Math.min(SUB - 1, sub);
+    }
+
+    /** Exclusive upper bound of a bucket's values. */
+    static double upperBound(int bucket) {
+        if (bucket == 0) {
+            return Math.scalb(1.0, MIN_EXP);
+        }
+        if (bucket == BUCKETS - 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int i = bucket - 1;
+        return Math.scalb(1.0 + (i % SUB + 1) / (double) SUB, i / SUB + MIN_EXP);
+    }
+
+    private static int intVal(String v, int fallback) {
+        if (v == null || v.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (RuntimeException e) {
+            return fallback;
+        }
+    }
+
+    private static double dblVal(String v, double fallback) {
+        if (v == null || v.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(v.trim());
+        } catch (RuntimeException e) {
+            return fallback;
+        }
+    }
+
+    /** Baseline of one metric; written by the pushing thread only. */
+    private static final class Baseline {
+        final int[] counts = new int[BUCKETS];
+        final short[] ring;
+        int head;
+        int filled;
+        long samples;
+        double mean;
+        double variance;
+        volatile int state;
+        double lastValue;
+        double judgedMean;
+        double judgedSigma;
+        double judgedP99;
+
+        Baseline(int window) {
+            this.ring = new short[window];
+        }
+
+        void push(double v, double alpha, double sigmas) {
+            int next = NORMAL;
+            if (samples >= MIN_SAMPLES) {
+                double sigma = Math.max(Math.sqrt(variance), Math.max(MIN_REL_SIGMA * Math.abs(mean), 1e-9));
+                double p99 = quantileUpperBound(QUANTILE);
+                double dev = v - mean;
+                if (Math.abs(dev) > sigmas * sigma) {
+                    next = dev > 0 ? HIGH : LOW;
+                } else if (v >= p99 && dev > sigma) {
+                    next = HIGH;
+                }
+                judgedMean = mean;
+                judgedSigma = sigma;
+                judgedP99 = p99;
+            }
+            lastValue = v;
+            state = next;
+
+            // West's incremental EWMA mean and variance
+            if (samples == 0) {
+                mean = v;
+            } else {
+                double diff = v - mean;
+                double incr = alpha * diff;
+                mean += incr;
+                variance = (1 - alpha) * (variance + diff * incr);
+            }
+            samples++;
+
+            int b = bucket(v);
+            if (filled == ring.length) {
+                counts[ring[head]]--;
+            } else {
+                filled++;
+            }
+            ring[head] = (short) b;
+            counts[b]++;
+            head = head + 1 == ring.length ? 0 : head + 1;
+        }
+
+        /** Upper bound of the bucket holding the q-quantile of the window: a fixed walk of at most BUCKETS. */
+        double quantileUpperBound(double q) {
+            int rank = (int) Math.ceil(q * filled);
+            int seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+}
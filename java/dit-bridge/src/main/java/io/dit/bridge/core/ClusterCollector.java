@@ -0,0 +1,371 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.ClusterSource;
+import io.dit.bridge.api.DbmsConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cluster-wide collection for RAC / TAC. Starts in gv$ mode, where the main
+ * connection reads every instance through the gv$ views. When those queries
+ * take longer than {@code --cluster-gv-budget-ms} for several cycles in a row,
+ * it switches to per-instance mode: one extra connection per instance, each
+ * reading its local v$ views, run in parallel on a {@link CollectionEngine}.
+ * Per-instance rates are deltas of the cumulative counters keyed by inst_id;
+ * sessions are keyed by (inst_id, sid, serial#) and capped per instance.
+ * gv$instance is re-read every {@value #REFRESH_CYCLES} cycles, so nodes that
+ * join or leave later are picked up.
+ *
+ * <p>Called on the collector thread only. A per-instance connection is
+ * created, published and, on failure, closed by the task that polls the
+ * instance; the collector only takes it away (compare-and-set) from a task
+ * that missed the deadline, closing it so the stuck call fails. A task that
+ * connects after its cycle gave up closes its connection itself.
+ */
+public final class ClusterCollector {
+
+    /** Consecutive slow gv$ cycles before switching to per-instance connections. */
+    private static final int SLOW_CYCLES = 3;
+
+    /** Cycles between two reads of gv$instance. */
+    private static final int REFRESH_CYCLES = 30;
+
+    private static final class Instance {
+        final int instId;
+        volatile Map<String, Object> info;
+        final AtomicReference<Connection> conn = new AtomicReference<Connection>();
+        Map<String, Double> prevCounters;
+        long prevTimestampMs;
+        String error = "";
+
+        Instance(int instId, Map<String, Object> info) {
+            this.instId = instId;
+            this.info = info;
+        }
+    }
+
+    private static final class Poll {
+        final Map<String, Double> counters;
+        final List<Map<String, Object>> sessions;
+
+        Poll(Map<String, Double> counters, List<Map<String, Object>> sessions) {
+            this.counters = counters;
+            this.sessions = sessions;
+        }
+    }
+
+    private final Map<String, String> options;
+    private final DbmsConnectionFactory connectionFactory;
+    private final ClusterSource source;
+    private final long gvBudgetMs;
+    private final int sessionLimit;
+    private final Map<Integer, Instance> instances = new LinkedHashMap<Integer, Instance>();
+    private boolean perInstance;
+    private int slowStreak;
+    private int cycles;
+    private CollectionEngine engine;
+    private int engineThreads;
+
+    public ClusterCollector(Map<String, String> options, DbmsConnectionFactory connectionFactory,
+            ClusterSource source, long gvBudgetMs, int sessionLimit) {
+        this.options = options;
+        this.connectionFactory = connectionFactory;
+        this.source = source;
+        this.gvBudgetMs = Math.max(100, gvBudgetMs);
+        this.sessionLimit = Math.max(1, sessionLimit);
+        this.perInstance = options.containsKey("cluster-per-instance");
+    }
+
+    /**
+     * Returns mode, query_ms, instances (one rate row per instance), total
+     * (cluster sums) and sessions (all instances, longest wait first).
+     */
+    public Map<String, Object> collect(Connection conn) throws SQLException {
+        if (instances.isEmpty() || cycles % REFRESH_CYCLES == 0) {
+            refreshInstances(conn);
+        }
+        cycles++;
+
+        long t0 = System.currentTimeMillis();
+        List<Map<String, Object>> sessions = new ArrayList<Map<String, Object>>();
+        Map<Integer, Map<String, Double>> counters;
+        if (perInstance) {
+            counters = collectPerInstance(sessions);
+        } else {
+            counters = source.queryCounters(conn, true);
+            sessions.addAll(source.querySessions(conn, true, sessionLimit));
+        }
+        long queryMs = System.currentTimeMillis() - t0;
+        if (!perInstance) {
+            slowStreak = queryMs > gvBudgetMs ? slowStreak + 1 : 0;
+            if (slowStreak >= SLOW_CYCLES) {
+                perInstance = true;
+            }
+        }
+
+        Map<Integer, Integer> sessionCount = new HashMap<Integer, Integer>();
+        for (Map<String, Object> s : sessions) {
+            Integer id = (Integer) s.get("inst_id");
+            Integer n = sessionCount.get(id);
+            sessionCount.put(id, n == null ? 1 : n + 1);
+            s.put("session", id + ":" + s.get("sid") + "," + s.get("serial"));
+        }
+        Collections.sort(sessions, new Comparator<Map<String, Object>>() {
+            public int compare(Map<String, Object> a, Map<String, Object> b) {
+                return Double.compare(num(b.get("seconds_in_wait")), num(a.get("seconds_in_wait")));
+            }
+        });
+        List<Map<String, Object>> capped = new ArrayList<Map<String, Object>>(sessions.size());
+        Map<Integer, Integer> kept = new HashMap<Integer, Integer>();
+        for (Map<String, Object> s : sessions) {
+            Integer id = (Integer) s.get("inst_id");
+            Integer n = kept.get(id);
+            if (n == null || n < sessionLimit) {
+                kept.put(id, n == null ? 1 : n + 1);
+                capped.add(s);
+            }
+        }
+        sessions = capped;
+
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        Map<String, Object> total = new LinkedHashMap<String, Object>();
+        total.put("inst_id", "");
+        total.put("instance_name", "Cluster");
+        total.put("host_name", "");
+        total.put("status", "");
+        for (Instance inst : instances.values()) {
+            Map<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put("inst_id", inst.instId);
+            row.put("instance_name", inst.info.get("instance_name"));
+            row.put("host_name", inst.info.get("host_name"));
+            Map<String, Double> cur = counters.get(inst.instId);
+            row.put("status", cur == null ? (inst.error.isEmpty() ? "NO DATA" : "DOWN") : String.valueOf(inst.info.get("status")));
+            row.put("error", inst.error);
+            Integer n = sessionCount.get(inst.instId);
+            row.put("sessions", n == null ? 0 : n);
+            if (cur != null) {
+                if (inst.prevCounters != null && now > inst.prevTimestampMs) {
+                    double sec = (now - inst.prevTimestampMs) / 1000.0;
+                    row.put("aas", delta(cur, inst.prevCounters, ClusterSource.DB_TIME_US) / 1e6 / sec);
+                    row.put("cpu_aas", delta(cur, inst.prevCounters, ClusterSource.DB_CPU_US) / 1e6 / sec);
+                    row.put("exec_per_sec", delta(cur, inst.prevCounters, ClusterSource.EXECUTIONS) / sec);
+                    row.put("logical_reads_per_sec", delta(cur, inst.prevCounters, ClusterSource.LOGICAL_READS) / sec);
+                    row.put("physical_reads_per_sec", delta(cur, inst.prevCounters, ClusterSource.PHYSICAL_READS) / sec);
+                    row.put("redo_mb_per_sec", delta(cur, inst.prevCounters, ClusterSource.REDO_BYTES) / sec / (1024.0 * 1024.0));
+                    row.put("commits_per_sec", delta(cur, inst.prevCounters, ClusterSource.COMMITS) / sec);
+                }
+                inst.prevCounters = cur;
+                inst.prevTimestampMs = now;
+            }
+            for (Map.Entry<String, Object> e : row.entrySet()) {
+                if (e.getValue() instanceof Number && !"inst_id".equals(e.getKey())) {
+                    total.put(e.getKey(), num(total.get(e.getKey())) + ((Number) e.getValue()).doubleValue());
+                }
+            }
+            rows.add(row);
+        }
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("mode", perInstance ? "per-instance" : "gv$");
+        out.put("query_ms", queryMs);
+        out.put("instances", rows);
+        out.put("total", total);
+        out.put("sessions", sessions);
+        return out;
+    }
+
+    /** Adds instances that joined, refreshes the status of known ones and drops those that left. */
+    private void refreshInstances(Connection conn) throws SQLException {
+        Map<Integer, Instance> seen = new LinkedHashMap<Integer, Instance>();
+        for (Map<String, Object> info : source.queryInstances(conn)) {
+            int id = ((Number) info.get("inst_id")).intValue();
+            Instance inst = instances.get(id);
+            if (inst == null) {
+                inst = new Instance(id, info);
+            } else {
+                inst.info = info;
+            }
+            seen.put(id, inst);
+        }
+        for (Instance inst : instances.values()) {
+            if (!seen.containsKey(inst.instId)) {
+                closeInstance(inst);
+            }
+        }
+        instances.clear();
+        instances.putAll(seen);
+    }
+
+    /** Queries every instance on its own connection in parallel; a failed instance is reported, not fatal. */
+    private Map<Integer, Map<String, Double>> collectPerInstance(List<Map<String, Object>> sessions) {
+        if (engine == null || engineThreads < instances.size()) {
+            // Sized for every instance, so a node that joined later does not queue behind the others
+            if (engine != null) {
+                engine.close();
+            }
+            engineThreads = instances.size();
+            engine = CollectionEngines.create(options.get("engine"), engineThreads, "dit-cluster");
+        }
+        List<Instance> order = new ArrayList<Instance>(instances.values());
+        List<AtomicBoolean> abandoned = new ArrayList<AtomicBoolean>(order.size());
+        List<Callable<Poll>> tasks = new ArrayList<Callable<Poll>>();
+        for (final Instance inst : order) {
+            final AtomicBoolean gaveUp = new AtomicBoolean();
+            abandoned.add(gaveUp);
+            tasks.add(new Callable<Poll>() {
+                public Poll call() throws SQLException {
+                    Connection c = inst.conn.get();
+                    if (c == null) {
+                        c = connectionFactory.create(source.instanceOptions(options, inst.info));
+                        if (gaveUp.get() || !inst.conn.compareAndSet(null, c)) {
+                            closeQuietly(c);
+                            throw new SQLException("connected after the cycle gave up");
+                        }
+                        // The collector may have given up between the check and the publish
+                        if (gaveUp.get()) {
+                            release(inst, c);
+                            throw new SQLException("connected after the cycle gave up");
+                        }
+                    }
+                    try {
+                        Map<Integer, Map<String, Double>> counters = source.queryCounters(c, false);
+                        List<Map<String, Object>> s = source.querySessions(c, false, sessionLimit);
+                        for (Map<String, Object> row : s) {
+                            row.put("inst_id", inst.instId);
+                        }
+                        return new Poll(counters.isEmpty() ? null : counters.values().iterator().next(), s);
+                    } catch (SQLException ex) {
+                        release(inst, c);
+                        throw ex;
+                    }
+                }
+            });
+        }
+
+        // All instances finish, fail or are cancelled at the deadline before this returns
+        List<Future<Poll>> futures;
+        try {
+            futures = engine.invokeAll(tasks, gvBudgetMs * 2);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new HashMap<Integer, Map<String, Double>>();
+        }
+        Map<Integer, Map<String, Double>> counters = new HashMap<Integer, Map<String, Double>>();
+        for (int i = 0; i < order.size(); i++) {
+            Instance inst = order.get(i);
+            try {
+                Poll poll = futures.get(i).get();
+                inst.error = "";
+                if (poll.counters != null) {
+                    counters.put(inst.instId, poll.counters);
+                }
+                sessions.addAll(poll.sessions);
+            } catch (ExecutionException ex) {
+                // The task has already closed its connection
+                inst.error = String.valueOf(ex.getCause().getMessage());
+            } catch (CancellationException ex) {
+                // Take the connection away from the stuck task; its call fails once it is closed
+                abandoned.get(i).set(true);
+                inst.error = "timed out";
+                closeInstance(inst);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Copy of the cluster-wide options pointing at {@code instance}: host and
+     * port come from {@code --cluster-hosts "1=host:port,2=host:port"} when
+     * the instance is listed there, otherwise from {@code defaultHost} with
+     * the cluster port, or the cluster address when that is null.
+     */
+    public static Map<String, String> instanceAddress(Map<String, String> options, Map<String, Object> instance,
+            String defaultHost) {
+        Map<String, String> out = new LinkedHashMap<String, String>(options);
+        if (defaultHost != null) {
+            out.put("host", defaultHost);
+        }
+        String hosts = options.get("cluster-hosts");
+        if (hosts == null) {
+            return out;
+        }
+        String id = String.valueOf(instance.get("inst_id"));
+        for (String entry : hosts.split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq <= 0 || !entry.substring(0, eq).trim().equals(id)) {
+                continue;
+            }
+            String addr = entry.substring(eq + 1).trim();
+            int colon = addr.lastIndexOf(':');
+            out.put("host", colon > 0 ? addr.substring(0, colon) : addr);
+            if (colon > 0) {
+                out.put("port", addr.substring(colon + 1));
+            }
+        }
+        return out;
+    }
+
+    public boolean isPerInstance() {
+        return perInstance;
+    }
+
+    /** Closes the per-instance connections and the collection engine. */
+    public void close() {
+        for (Instance inst : instances.values()) {
+            closeInstance(inst);
+        }
+        if (engine != null) {
+            engine.close();
+            engine = null;
+        }
+    }
+
+    private static void closeInstance(Instance inst) {
+        closeQuietly(inst.conn.getAndSet(null));
+    }
+
+    /** Closes {@code c} if it is still published; otherwise the collector has taken and closed it. */
+    private static void release(Instance inst, Connection c) {
+        if (inst.conn.compareAndSet(c, null)) {
+            closeQuietly(c);
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    private static double delta(Map<String, Double> cur, Map<String, Double> prev, String key) {
+        Double c = cur.get(key);
+        Double p = prev.get(key);
+        double d = (c != null ? c : 0.0) - (p != null ? p : 0.0);
+        return d >= 0 ? d : 0.0;
+    }
+
+    private static double num(Object v) {
+        return v instanceof Number ? ((Number) v).doubleValue() : 0.0;
+    }
+}
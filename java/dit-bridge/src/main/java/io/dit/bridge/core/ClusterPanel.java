@@ -0,0 +1,107 @@
+package io.dit.bridge.core;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RAC / TAC instances side by side from {@link ClusterCollector}: one rate
+ * row per instance, the cluster total, then the longest-waiting sessions of
+ * all instances with their inst_id. The title shows whether gv$ or
+ * per-instance connections are in use and how long the last poll took.
+ */
+public final class ClusterPanel extends TuiPanel {
+
+    private final String title;
+    private Map<String, Object> cluster;
+
+    public ClusterPanel(String title) {
+        this.title = title;
+    }
+
+    public void bind(Map<String, Object> cluster) {
+        this.cluster = bindValue(this.cluster, cluster);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void draw(TuiCanvas canvas) {
+        String mode = cluster != null ? str(cluster.get("mode")) : "";
+        canvas.drawBox(top, left, width, height, title + (mode.isEmpty() ? ""
+                : " (" + mode + ", " + str(cluster.get("query_ms")) + "ms)"), TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+        int bottom = top + height - 1;
+        if (cluster == null) {
+            canvas.drawText(sr, col, truncate("Waiting for the first cluster poll...", areaW),
+                    TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+        String error = str(cluster.get("error"));
+        if (!error.isEmpty()) {
+            canvas.drawText(sr++, col, truncate("Cluster query failed: " + error, areaW),
+                    TuiTheme.waitClassColor("Application"), TuiTheme.BG);
+        }
+
+        canvas.drawText(sr++, col, truncate(padRight("Inst", 6) + padRight("Instance", 14) + padRight("Status", 9)
+                + padRight("AAS", 8) + padRight("CPU AAS", 9) + padRight("Exec/s", 10) + padRight("LIO/s", 10)
+                + padRight("PIO/s", 10) + padRight("Redo MB/s", 11) + padRight("Commit/s", 10) + "Sess",
+                areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+        List<Map<String, Object>> instances = (List<Map<String, Object>>) cluster.get("instances");
+        if (instances != null) {
+            for (int i = 0; i < instances.size() && sr < bottom; i++) {
+                Map<String, Object> r = instances.get(i);
+                String status = str(r.get("status"));
+                canvas.drawText(sr++, col, truncate(instanceLine(r), areaW),
+                        "OPEN".equals(status) || "NORMAL".equals(status) ? TuiTheme.FG
+                                : TuiTheme.waitClassColor("Application"), TuiTheme.BG);
+            }
+        }
+        Map<String, Object> total = (Map<String, Object>) cluster.get("total");
+        if (total != null && sr < bottom) {
+            canvas.drawText(sr++, col, truncate(instanceLine(total), areaW), TuiTheme.HEADER_FG, TuiTheme.SELECT_BG);
+        }
+
+        sr++;
+        if (sr >= bottom) {
+            return;
+        }
+        canvas.drawText(sr++, col, truncate(padRight("Inst:SID,Serial", 18) + padRight("User", 12)
+                + padRight("Wait s", 8) + padRight("Event", 30) + padRight("SQL ID", 15) + "Program",
+                areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+        List<Map<String, Object>> sessions = (List<Map<String, Object>>) cluster.get("sessions");
+        if (sessions == null || sessions.isEmpty()) {
+            if (sr < bottom) {
+                canvas.drawText(sr, col, truncate("No active sessions on any instance", areaW),
+                        TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            }
+            return;
+        }
+        for (int i = 0; i < sessions.size() && sr < bottom; i++) {
+            Map<String, Object> s = sessions.get(i);
+            String line = padRight(str(s.get("session")), 18)
+                    + padRight(truncate(str(s.get("username")), 11), 12)
+                    + padRight(fmt("%.0f", dbl(s.get("seconds_in_wait"))), 8)
+                    + padRight(truncate(str(s.get("event")), 29), 30)
+                    + padRight(str(s.get("sql_id")), 15)
+                    + str(s.get("program"));
+            canvas.drawText(sr++, col, truncate(line, areaW), TuiTheme.waitClassColor(str(s.get("wait_class"))),
+                    TuiTheme.BG);
+        }
+    }
+
+    private static String instanceLine(Map<String, Object> r) {
+        // Rates are absent until an instance has two counter snapshots
+        boolean rated = r.containsKey("aas");
+        return padRight(str(r.get("inst_id")), 6)
+                + padRight(truncate(str(r.get("instance_name")), 13), 14)
+                + padRight(truncate(str(r.get("status")), 8), 9)
+                + padRight(rated ? fmt("%.2f", dbl(r.get("aas"))) : "-", 8)
+                + padRight(rated ? fmt("%.2f", dbl(r.get("cpu_aas"))) : "-", 9)
+                + padRight(rated ? fmtHuman(dbl(r.get("exec_per_sec"))) : "-", 10)
+                + padRight(rated ? fmtHuman(dbl(r.get("logical_reads_per_sec"))) : "-", 10)
+                + padRight(rated ? fmtHuman(dbl(r.get("physical_reads_per_sec"))) : "-", 10)
+                + padRight(rated ? fmt("%.2f", dbl(r.get("redo_mb_per_sec"))) : "-", 11)
+                + padRight(rated ? fmtHuman(dbl(r.get("commits_per_sec"))) : "-", 10)
+                + fmt("%.0f", dbl(r.get("sessions")));
+    }
+}
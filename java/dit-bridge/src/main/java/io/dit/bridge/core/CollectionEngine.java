@@ -0,0 +1,38 @@
+package io.dit.bridge.core;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Runs blocking JDBC collection work: long-lived per-target loops (fleet
+ * mode) and bounded-time fan-outs of independent queries (per-instance
+ * cluster polling). {@link CollectionEngines#create} picks the
+ * implementation: virtual threads on Java 21+ (from the multi-release JAR),
+ * otherwise a bounded platform thread pool.
+ */
+public interface CollectionEngine {
+
+    /** One iteration of a collection loop. */
+    interface Loop {
+        /** Runs one cycle and returns the delay in ms before the next one; negative ends the loop. */
+        long runOnce() throws InterruptedException;
+    }
+
+    /** Starts {@code loop} after {@code initialDelayMs}; it never runs concurrently with itself. */
+    void start(String name, Loop loop, long initialDelayMs);
+
+    /**
+     * Runs the tasks concurrently and returns once all are done or
+     * {@code timeoutMs} has passed; unfinished tasks are cancelled. Futures
+     * are in task order and all done. Must not be called from a loop of the
+     * same engine.
+     */
+    <T> List<Future<T>> invokeAll(List<? extends Callable<T>> tasks, long timeoutMs) throws InterruptedException;
+
+    /** "platform" or "virtual", for status lines and benchmarks. */
+    String name();
+
+    /** Stops all loops, interrupting running work, and waits briefly for them to end. */
+    void close();
+}
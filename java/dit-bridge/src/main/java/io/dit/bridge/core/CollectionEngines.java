@@ -0,0 +1,32 @@
+package io.dit.bridge.core;
+
+/**
+ * Chooses the {@link CollectionEngine}: {@code --engine auto} (default) and
+ * {@code virtual} use virtual threads when the JVM has them, falling back to
+ * the bounded platform pool; {@code platform} always uses the pool.
+ */
+public final class CollectionEngines {
+
+    private CollectionEngines() {
+    }
+
+    /** True when this JVM loaded the Java 21 layer of the multi-release JAR. */
+    public static boolean virtualAvailable() {
+        return VirtualThreads.available();
+    }
+
+    /**
+     * @param kind        auto, virtual or platform (null = auto)
+     * @param threads     platform pool size; unused by the virtual engine
+     * @param threadName  thread name prefix
+     */
+    public static CollectionEngine create(String kind, int threads, String threadName) {
+        if (!"platform".equals(kind)) {
+            CollectionEngine engine = VirtualThreads.engine(threadName);
+            if (engine != null) {
+                return engine;
+            }
+        }
+        return new PlatformEngine(threads, threadName);
+    }
+}
@@ -0,0 +1,88 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.CollectQuery;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Decides which query groups run on each collection cycle. Load Profile and
+ * wait deltas always run so sparklines and delta baselines stay continuous;
+ * the visible view's queries run every cycle; queries of hidden views run
+ * every {@code backgroundEvery} cycles when cheap ones are not enough, and
+ * never when {@code backgroundEvery} is 0. Slow-tier queries run only every
+ * {@code slowEvery} cycles, visible or not. A paused plan runs nothing.
+ */
+public final class CollectionPlan {
+
+    private static final Set<CollectQuery> ALWAYS = EnumSet.of(CollectQuery.LOAD_PROFILE, CollectQuery.WAIT_DELTA);
+
+    private final int backgroundEvery;
+    private final int slowEvery;
+    private final Set<CollectQuery> registered = EnumSet.noneOf(CollectQuery.class);
+    private Set<CollectQuery> visible = EnumSet.noneOf(CollectQuery.class);
+    private volatile boolean paused;
+
+    public CollectionPlan(int backgroundEvery) {
+        this(backgroundEvery, 1);
+    }
+
+    public CollectionPlan(int backgroundEvery, int slowEvery) {
+        this.backgroundEvery = Math.max(0, backgroundEvery);
+        this.slowEvery = Math.max(1, slowEvery);
+    }
+
+    /** Declares the queries of a view that may become visible. */
+    public synchronized void register(Set<CollectQuery> queries) {
+        registered.addAll(queries);
+    }
+
+    public synchronized void setVisible(Set<CollectQuery> queries) {
+        registered.addAll(queries);
+        visible = queries.isEmpty() ? EnumSet.noneOf(CollectQuery.class) : EnumSet.copyOf(queries);
+    }
+
+    /** Treats every registered view as visible, so the queries no longer depend on who is looking. */
+    public synchronized void setAllVisible() {
+        visible = EnumSet.copyOf(registered);
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public int backgroundEvery() {
+        return backgroundEvery;
+    }
+
+    /**
+     * Query groups due on the given cycle number. Cycle 0 runs every registered
+     * group so hidden views have data the first time they are opened.
+     */
+    public synchronized Set<CollectQuery> due(long cycle) {
+        if (paused) {
+            return Collections.emptySet();
+        }
+        Set<CollectQuery> out = EnumSet.copyOf(ALWAYS);
+        out.addAll(visible);
+        boolean background = cycle == 0 || (backgroundEvery > 0 && cycle % backgroundEvery == 0);
+        for (CollectQuery q : registered) {
+            if (!out.contains(q) && (background || !q.isExpensive())) {
+                out.add(q);
+            }
+        }
+        if (cycle != 0 && cycle % slowEvery != 0) {
+            for (CollectQuery q : CollectQuery.values()) {
+                if (q.isSlow()) {
+                    out.remove(q);
+                }
+            }
+        }
+        return out;
+    }
+}
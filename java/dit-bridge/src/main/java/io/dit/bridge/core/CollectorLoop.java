@@ -0,0 +1,406 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.CollectQuery;
+import io.dit.bridge.api.DbmsCollector;
+import io.dit.bridge.api.DbmsConnectionFactory;
+import io.dit.bridge.api.WaitDeltaTracker;
+import io.dit.bridge.api.WaitHistogramTracker;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Runs the collection cycle on a dedicated thread and publishes each result
+ * as a {@link MonitorSnapshot}. The JDBC connection is confined to this thread;
+ * listeners are called on it and must hand the snapshot off without blocking.
+ * The connection comes from a {@link ConnectionManager}: when a cycle fails and
+ * the connection does not answer a ping, it is handed back for a background
+ * reconnect and, until that succeeds, every cycle republishes the last good
+ * data marked stale instead of waiting on the database.
+ */
+public final class CollectorLoop {
+
+    public interface Listener {
+        void onSnapshot(MonitorSnapshot snapshot);
+    }
+
+    /**
+     * On-demand work (page fetches, prefetch) run on the collector thread with
+     * its connection between cycles. Tasks report their own results; they are
+     * held back while the plan is paused and dropped while disconnected.
+     */
+    public interface ConnectionTask {
+        void run(Connection conn) throws SQLException;
+    }
+
+    // Validate before use when the connection sat unused this long (pause, slow interval)
+    private static final long IDLE_VALIDATE_MS = 30000L;
+
+    private final ConnectionManager connections;
+    private final DbmsCollector collector;
+    private final WaitDeltaTracker waitDeltaTracker;
+    private final WaitHistogramTracker waitHistogramTracker;
+    private final ClusterCollector clusterCollector;
+    private final MetricsBuffer metricsBuffer;
+    private final CollectionPlan plan;
+    private final int intervalMs;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+    private final Object wakeLock = new Object();
+    private final Queue<ConnectionTask> tasks = new ArrayDeque<ConnectionTask>();
+    // Load Profile ring per container name, fed like metricsBuffer whenever the PDB group runs
+    private final Map<String, MetricsBuffer> containerHistory = new ConcurrentHashMap<String, MetricsBuffer>();
+
+    private volatile boolean running;
+    private volatile MonitorSnapshot latest;
+    private boolean refreshRequested;
+    private Thread thread;
+    private long seq;
+    private long cycle;
+    private long lastUsedMs;
+
+    public CollectorLoop(Map<String, String> options, DbmsConnectionFactory connectionFactory,
+            DbmsCollector collector, WaitDeltaTracker waitDeltaTracker, WaitHistogramTracker waitHistogramTracker,
+            ClusterCollector clusterCollector, MetricsBuffer metricsBuffer, CollectionPlan plan, int intervalMs) {
+        this.connections = new ConnectionManager(options, connectionFactory);
+        this.collector = collector;
+        this.waitDeltaTracker = waitDeltaTracker;
+        this.waitHistogramTracker = waitHistogramTracker;
+        this.clusterCollector = clusterCollector;
+        this.metricsBuffer = metricsBuffer;
+        this.plan = plan;
+        this.intervalMs = intervalMs;
+        // Publish the new state right away instead of at the next interval
+        connections.addListener(new ConnectionManager.Listener() {
+            public void onConnectionChange(ConnectionManager manager) {
+                requestRefresh();
+            }
+        });
+    }
+
+    /**
+     * Opens the initial connection on the calling thread so that errors can be
+     * reported before the screen is started.
+     */
+    public void connect() throws SQLException {
+        connections.connect();
+        lastUsedMs = System.currentTimeMillis();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public MonitorSnapshot latest() {
+        return latest;
+    }
+
+    public int intervalMs() {
+        return intervalMs;
+    }
+
+    public CollectionPlan plan() {
+        return plan;
+    }
+
+    public ConnectionManager connections() {
+        return connections;
+    }
+
+    /** Sparkline history of one container's Load Profile, or null before its first sample. */
+    public MetricsBuffer containerHistory(String name) {
+        return containerHistory.get(name);
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(new Runnable() {
+            public void run() {
+                loop();
+            }
+        }, "dit-collector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Wakes the collector for an immediate cycle (R key, tab switch, resume). */
+    public void requestRefresh() {
+        synchronized (wakeLock) {
+            refreshRequested = true;
+            wakeLock.notifyAll();
+        }
+    }
+
+    /** Queues a task for the collector thread and wakes it without forcing a cycle. */
+    public void submit(ConnectionTask task) {
+        synchronized (wakeLock) {
+            tasks.add(task);
+            wakeLock.notifyAll();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        synchronized (wakeLock) {
+            wakeLock.notifyAll();
+        }
+        if (t != null) {
+            try {
+                t.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeQuietly();
+    }
+
+    private void loop() {
+        try {
+            while (running) {
+                if (plan.isPaused()) {
+                    // No DB calls at all while paused; resume wakes us via requestRefresh()
+                    waitForNextCycle(Long.MAX_VALUE / 2);
+                    continue;
+                }
+                long t0 = System.currentTimeMillis();
+                MonitorSnapshot snapshot = collectOnce(plan.due(cycle++));
+                latest = snapshot;
+                for (Listener l : listeners) {
+                    l.onSnapshot(snapshot);
+                }
+                long sleepMs = intervalMs - (System.currentTimeMillis() - t0);
+                waitForNextCycle(sleepMs);
+            }
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Sleeps until the next cycle is due or a refresh is requested. Submitted
+     * tasks are run while waiting, so they use the idle time between cycles.
+     */
+    private void waitForNextCycle(long sleepMs) {
+        long deadline = System.currentTimeMillis() + Math.max(0, sleepMs);
+        while (running) {
+            ConnectionTask task;
+            synchronized (wakeLock) {
+                while (running && !refreshRequested && (tasks.isEmpty() || plan.isPaused())) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    try {
+                        wakeLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        running = false;
+                        return;
+                    }
+                }
+                if (!running || refreshRequested || tasks.isEmpty() || plan.isPaused()) {
+                    refreshRequested = false;
+                    return;
+                }
+                task = tasks.poll();
+            }
+            runTask(task);
+        }
+    }
+
+    private void runTask(ConnectionTask task) {
+        Connection c = usableConnection();
+        if (c == null) {
+            return;
+        }
+        try {
+            task.run(c);
+        } catch (SQLException e) {
+            // tasks are best-effort, but a dead connection is handed back at once
+            checkConnection(c, e.getMessage());
+        } catch (RuntimeException e) {
+            // never let a task kill the collector thread
+        }
+        lastUsedMs = System.currentTimeMillis();
+    }
+
+    /** The managed connection, pinged first if it has been idle; null while reconnecting. */
+    private Connection usableConnection() {
+        Connection c = connections.connection();
+        if (c != null && System.currentTimeMillis() - lastUsedMs > IDLE_VALIDATE_MS
+                && !checkConnection(c, "connection lost while idle")) {
+            return null;
+        }
+        return c;
+    }
+
+    /** Pings a connection a call failed on; returns false after handing it back for reconnect. */
+    private boolean checkConnection(Connection c, String error) {
+        if (connections.validate(c)) {
+            return true;
+        }
+        connections.markBroken(c, error);
+        return false;
+    }
+
+    /** Last good data again, marked stale, with the reconnect state as the error. */
+    private MonitorSnapshot staleSnapshot() {
+        MonitorSnapshot prev = latest;
+        String error = connections.lastError();
+        return new MonitorSnapshot(++seq, System.currentTimeMillis(),
+                prev != null ? prev.data() : null, prev != null ? prev.metrics() : null,
+                0, error, true, connections.describe());
+    }
+
+    private MonitorSnapshot collectOnce(Set<CollectQuery> due) {
+        Connection conn = usableConnection();
+        if (conn == null) {
+            return staleSnapshot();
+        }
+
+        long t0 = System.currentTimeMillis();
+        Map<String, Object> fresh = collector.collect(conn, due);
+        // collect() swallows errors per group, but server_time runs every cycle: empty means a call failed
+        String failure = "".equals(fresh.get("server_time")) ? "collection failed" : null;
+
+        // Replace V$EVENTMETRIC (60s lag) with real-time V$SYSTEM_EVENT delta
+        if (due.contains(CollectQuery.WAIT_DELTA)) {
+            try {
+                List<Map<String, Object>> waitDelta = waitDeltaTracker.queryDelta(conn);
+                fresh.put("event_metric", waitDelta);
+            } catch (SQLException e) {
+                // keep whatever collect returned
+                failure = e.getMessage();
+            }
+        }
+
+        // Latency histograms for the current top events (null tracker: not available on this DBMS)
+        if (due.contains(CollectQuery.WAIT_HISTOGRAM) && waitHistogramTracker != null) {
+            try {
+                fresh.put("wait_histograms", waitHistogramTracker.queryDelta(conn, topEvents(fresh)));
+            } catch (SQLException e) {
+                fresh.put("wait_histograms", new ArrayList<Map<String, Object>>());
+                failure = e.getMessage();
+            }
+        }
+
+        // All RAC / TAC instances through gv$ (null collector: cluster mode is off)
+        if (due.contains(CollectQuery.CLUSTER) && clusterCollector != null) {
+            try {
+                fresh.put("cluster", clusterCollector.collect(conn));
+            } catch (SQLException e) {
+                Map<String, Object> failed = new LinkedHashMap<String, Object>();
+                failed.put("instances", new ArrayList<Map<String, Object>>());
+                failed.put("sessions", new ArrayList<Map<String, Object>>());
+                failed.put("error", e.getMessage());
+                fresh.put("cluster", failed);
+                failure = e.getMessage();
+            }
+        }
+        long collectMs = System.currentTimeMillis() - t0;
+        lastUsedMs = System.currentTimeMillis();
+        // Errors from a dead connection must not replace good data
+        if (failure != null && !checkConnection(conn, failure)) {
+            return staleSnapshot();
+        }
+
+        // Groups skipped this cycle keep their last collected value
+        MonitorSnapshot prev = latest;
+        Map<String, Object> data = new LinkedHashMap<String, Object>();
+        if (prev != null && prev.data() != null) {
+            data.putAll(prev.data());
+        }
+        data.putAll(fresh);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> sysmetric = (Map<String, Object>) data.get("sysmetric");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> sysstat = (Map<String, Object>) data.get("sysstat");
+
+        Map<String, Object> metrics = collector.mapMetrics(
+                sysmetric != null ? sysmetric : new LinkedHashMap<String, Object>(),
+                sysstat != null ? sysstat : new LinkedHashMap<String, Object>());
+
+        // Push to ring buffer for sparklines
+        for (Map.Entry<String, Object> e : metrics.entrySet()) {
+            if (e.getValue() instanceof Number) {
+                metricsBuffer.push(e.getKey(), ((Number) e.getValue()).doubleValue());
+            }
+        }
+        pushContainerHistory(fresh.get("pdb"));
+        return new MonitorSnapshot(++seq, System.currentTimeMillis(), data, metrics, collectMs, "", false,
+                connections.describe());
+    }
+
+    /** Appends each container's metrics to its ring; rings of dropped or closed containers are discarded. */
+    @SuppressWarnings("unchecked")
+    private void pushContainerHistory(Object pdb) {
+        if (!(pdb instanceof Map) || ((Map<String, Object>) pdb).containsKey("error")) {
+            return;
+        }
+        List<Map<String, Object>> containers = (List<Map<String, Object>>) ((Map<String, Object>) pdb).get("containers");
+        Set<String> seen = new HashSet<String>();
+        for (Map<String, Object> c : containers) {
+            String name = String.valueOf(c.get("name"));
+            seen.add(name);
+            MetricsBuffer history = containerHistory.get(name);
+            if (history == null) {
+                history = new MetricsBuffer(60);
+                containerHistory.put(name, history);
+            }
+            for (Map.Entry<String, Object> e : ((Map<String, Object>) c.get("metrics")).entrySet()) {
+                if (e.getValue() instanceof Number) {
+                    history.push(e.getKey(), ((Number) e.getValue()).doubleValue());
+                }
+            }
+        }
+        containerHistory.keySet().retainAll(seen);
+    }
+
+    /** Event names of the real-time wait deltas of this cycle, or of the previous one when skipped. */
+    @SuppressWarnings("unchecked")
+    private List<String> topEvents(Map<String, Object> fresh) {
+        List<Map<String, Object>> waits = (List<Map<String, Object>>) fresh.get("event_metric");
+        MonitorSnapshot prev = latest;
+        if (waits == null && prev != null && prev.data() != null) {
+            waits = (List<Map<String, Object>>) prev.data().get("event_metric");
+        }
+        List<String> events = new ArrayList<String>();
+        if (waits != null) {
+            for (Map<String, Object> w : waits) {
+                Object ev = w.get("event");
+                if (ev != null) {
+                    events.add(String.valueOf(ev));
+                }
+            }
+        }
+        return events;
+    }
+
+    private void closeQuietly() {
+        if (clusterCollector != null) {
+            clusterCollector.close();
+        }
+        connections.close();
+    }
+}
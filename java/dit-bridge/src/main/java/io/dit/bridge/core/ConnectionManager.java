@@ -0,0 +1,271 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.DbmsConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Owns the monitoring connection of one database. The collector asks for the
+ * connection without ever blocking: while it is broken the answer is null and
+ * a background thread reconnects through the {@link DbmsConnectionFactory}
+ * with jittered exponential backoff ({@code --reconnect-max-seconds} caps the
+ * delay, default 60). Validation is the factory's one-round-trip ping, done
+ * only when a cycle failed or the connection sat idle, never per query.
+ *
+ * <p>State is UP while a connection is held, RECONNECTING during the first
+ * attempts and DOWN once {@value #DOWN_AFTER_ATTEMPTS} attempts in a row have
+ * failed; reconnecting continues in both.
+ */
+public final class ConnectionManager {
+
+    public enum State {
+        UP, RECONNECTING, DOWN
+    }
+
+    /** Called on the reconnect thread after every state change or failed attempt. */
+    public interface Listener {
+        void onConnectionChange(ConnectionManager manager);
+    }
+
+    private static final int DOWN_AFTER_ATTEMPTS = 3;
+    private static final long BASE_DELAY_MS = 1000L;
+
+    private final Map<String, String> options;
+    private final DbmsConnectionFactory factory;
+    private final long maxDelayMs;
+    private final int validateTimeoutSec;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private Connection conn;
+    private State state = State.RECONNECTING;
+    private String lastError = "";
+    private int attempts;
+    private long nextAttemptAtMs;
+    private boolean retryNow;
+    private boolean closed;
+    private Thread reconnector;
+
+    public ConnectionManager(Map<String, String> options, DbmsConnectionFactory factory) {
+        this.options = options;
+        this.factory = factory;
+        this.maxDelayMs = Math.max(1, parseInt(options.get("reconnect-max-seconds"), 60)) * 1000L;
+        // Same budget as a single monitoring call
+        this.validateTimeoutSec = Math.max(1, (parseInt(options.get("call-timeout-ms"), 3000) + 999) / 1000);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Opens the first connection on the calling thread so that a wrong
+     * password or host is reported before the screen starts.
+     */
+    public void connect() throws SQLException {
+        Connection c = factory.create(options);
+        synchronized (lock) {
+            conn = c;
+            state = State.UP;
+            lastError = "";
+            attempts = 0;
+        }
+    }
+
+    /** The live connection, or null while reconnecting. Never blocks. */
+    public Connection connection() {
+        synchronized (lock) {
+            return state == State.UP ? conn : null;
+        }
+    }
+
+    /** One ping round trip; false means the caller should {@link #markBroken}. */
+    public boolean validate(Connection c) {
+        return factory.validate(c, validateTimeoutSec);
+    }
+
+    /**
+     * Drops a connection that failed validation and starts reconnecting in
+     * the background. Ignored if the connection was already replaced.
+     */
+    public void markBroken(Connection c, String error) {
+        synchronized (lock) {
+            if (closed || c == null || c != conn) {
+                return;
+            }
+            conn = null;
+            state = State.RECONNECTING;
+            lastError = error == null ? "connection lost" : error;
+            attempts = 0;
+            nextAttemptAtMs = System.currentTimeMillis();
+            retryNow = false;
+            startReconnector(c);
+        }
+        fireChange();
+    }
+
+    /** Skips the remaining backoff (R key). */
+    public void retryNow() {
+        synchronized (lock) {
+            retryNow = true;
+            lock.notifyAll();
+        }
+    }
+
+    public State state() {
+        synchronized (lock) {
+            return state;
+        }
+    }
+
+    public String lastError() {
+        synchronized (lock) {
+            return lastError;
+        }
+    }
+
+    /** Failed reconnect attempts since the connection was lost. */
+    public int attempts() {
+        synchronized (lock) {
+            return attempts;
+        }
+    }
+
+    public long nextAttemptAtMs() {
+        synchronized (lock) {
+            return nextAttemptAtMs;
+        }
+    }
+
+    /** "UP", or e.g. "RECONNECTING attempt 2, retry 10:15:42" for the footer. */
+    public String describe() {
+        synchronized (lock) {
+            if (state == State.UP) {
+                return state.name();
+            }
+            String retry = new SimpleDateFormat("HH:mm:ss").format(new Date(nextAttemptAtMs));
+            return attempts == 0
+                    ? state.name() + " connecting..."
+                    : state.name() + " attempt " + attempts + ", retry " + retry;
+        }
+    }
+
+    public void close() {
+        Connection c;
+        synchronized (lock) {
+            closed = true;
+            c = conn;
+            conn = null;
+            lock.notifyAll();
+        }
+        closeQuietly(c);
+    }
+
+    /** Caller holds lock. The broken connection is closed here too: close() on a dead socket can hang. */
+    private void startReconnector(final Connection broken) {
+        if (reconnector != null) {
+            return;
+        }
+        reconnector = new Thread(new Runnable() {
+            public void run() {
+                closeQuietly(broken);
+                reconnectLoop();
+            }
+        }, "dit-reconnect");
+        reconnector.setDaemon(true);
+        reconnector.start();
+    }
+
+    private void reconnectLoop() {
+        try {
+            while (true) {
+                Connection c;
+                String error;
+                try {
+                    c = factory.create(options);
+                    error = null;
+                } catch (SQLException e) {
+                    c = null;
+                    error = e.getMessage();
+                } catch (RuntimeException e) {
+                    c = null;
+                    error = String.valueOf(e);
+                }
+
+                synchronized (lock) {
+                    if (closed) {
+                        closeQuietly(c);
+                        return;
+                    }
+                    if (c != null) {
+                        conn = c;
+                        state = State.UP;
+                        lastError = "";
+                        attempts = 0;
+                        // Cleared under the same lock, so a markBroken right after this starts a new thread
+                        reconnector = null;
+                        break;
+                    }
+                    attempts++;
+                    lastError = error == null ? "connect failed" : error;
+                    state = attempts >= DOWN_AFTER_ATTEMPTS ? State.DOWN : State.RECONNECTING;
+                    nextAttemptAtMs = System.currentTimeMillis() + Backoff.delayMs(BASE_DELAY_MS, attempts, maxDelayMs);
+                }
+                fireChange();
+
+                synchronized (lock) {
+                    long remaining;
+                    while (!closed && !retryNow && (remaining = nextAttemptAtMs - System.currentTimeMillis()) > 0) {
+                        lock.wait(remaining);
+                    }
+                    retryNow = false;
+                    if (closed) {
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            return;
+        } finally {
+            synchronized (lock) {
+                if (reconnector == Thread.currentThread()) {
+                    reconnector = null;
+                }
+            }
+        }
+        fireChange();
+    }
+
+    private void fireChange() {
+        for (Listener l : listeners) {
+            l.onConnectionChange(this);
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    private static int parseInt(String value, int fallback) {
+        if (value == null || value.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (RuntimeException ex) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package io.dit.bridge.core;
+
+import java.util.Arrays;
+
+/**
+ * Deltas of a fixed set of cumulative counters per numeric id (file#, obj#).
+ * Like {@link SessionStatDeltaTracker}, a poll feeds (id, counter, value)
+ * between {@link #begin} and {@link #finish} into two reused
+ * {@link LongLongMap}s under packed keys; the result is a flat
+ * {@link Interval} of primitive arrays that the caller ranks and labels.
+ */
+public final class CounterDeltaTracker {
+
+    private static final int COUNTER_BITS = 4;
+    private static final long MISSING = Long.MIN_VALUE;
+
+    /** One poll's deltas: row r has {@link #id(int)} and one delta per counter. */
+    public static final class Interval {
+        private final long[] ids;
+        private final long[] deltas;
+        private final int counters;
+        private final int size;
+        private final double seconds;
+
+        Interval(long[] ids, long[] deltas, int counters, int size, double seconds) {
+            this.ids = ids;
+            this.deltas = deltas;
+            this.counters = counters;
+            this.size = size;
+            this.seconds = seconds;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** Wall-clock seconds since the previous poll; 0 for the baseline poll. */
+        public double seconds() {
+            return seconds;
+        }
+
+        public long id(int row) {
+            return ids[row];
+        }
+
+        public long delta(int row, int counter) {
+            return deltas[row * counters + counter];
+        }
+
+        /** Rows of the {@code n} largest non-zero deltas of {@code counter}, largest first. */
+        public int[] top(int counter, int n) {
+            int[] best = new int[Math.max(0, Math.min(n, size))];
+            if (best.length == 0) {
+                return best;
+            }
+            int count = 0;
+            for (int r = 0; r < size; r++) {
+                long d = delta(r, counter);
+                if (d <= 0) {
+                    continue;
+                }
+                // Insertion into a small sorted array: n is a screenful, size may be thousands
+                int pos;
+                if (count < best.length) {
+                    pos = count++;
+                } else if (d > delta(best[best.length - 1], counter)) {
+                    pos = best.length - 1;
+                } else {
+                    continue;
+                }
+                while (pos > 0 && delta(best[pos - 1], counter) < d) {
+                    best[pos] = best[pos - 1];
+                    pos--;
+                }
+                best[pos] = r;
+            }
+            return Arrays.copyOf(best, count);
+        }
+    }
+
+    private final int counters;
+    private final boolean missingIsZero;
+    private LongLongMap prev = new LongLongMap(256);
+    private LongLongMap cur = new LongLongMap(256);
+    private final LongLongMap rowOf = new LongLongMap(64);
+    private long prevTimestampMs;
+    private boolean baseline = true;
+
+    /**
+     * @param counters      counters per id (at most 16)
+     * @param missingIsZero treat an id absent from the previous poll as all zeros
+     *                      (for queries that skip zero counters), instead of a new baseline
+     */
+    public CounterDeltaTracker(int counters, boolean missingIsZero) {
+        this.counters = Math.min(counters, 1 << COUNTER_BITS);
+        this.missingIsZero = missingIsZero;
+    }
+
+    public void begin() {
+        cur.clear();
+    }
+
+    public void put(long id, int counter, long value) {
+        cur.put((id << COUNTER_BITS) | counter, value);
+    }
+
+    /** Computes deltas against the previous poll; negative deltas (counter resets) count as zero. */
+    public Interval finish(long nowMs) {
+        double seconds = baseline ? 0 : Math.max(0.001, (nowMs - prevTimestampMs) / 1000.0);
+        rowOf.clear();
+        long[] ids = new long[16];
+        long[] deltas = new long[16 * counters];
+        int size = 0;
+        if (!baseline) {
+            for (int s = 0; s < cur.capacity(); s++) {
+                if (!cur.used(s)) {
+                    continue;
+                }
+                long key = cur.keyAt(s);
+                long before = prev.get(key, missingIsZero ? 0 : MISSING);
+                long d = cur.valueAt(s) - before;
+                if (before == MISSING || d <= 0) {
+                    continue;
+                }
+                long id = key >> COUNTER_BITS;
+                long row = rowOf.get(id, -1);
+                if (row < 0) {
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, size * 2);
+                        deltas = Arrays.copyOf(deltas, size * 2 * counters);
+                    }
+                    row = size++;
+                    ids[(int) row] = id;
+                    rowOf.put(id, row);
+                }
+                deltas[(int) row * counters + (int) (key & ((1 << COUNTER_BITS) - 1))] = d;
+            }
+        }
+
+        LongLongMap t = prev;
+        prev = cur;
+        cur = t;
+        prevTimestampMs = nowMs;
+        baseline = false;
+        return new Interval(ids, deltas, counters, size, seconds);
+    }
+}
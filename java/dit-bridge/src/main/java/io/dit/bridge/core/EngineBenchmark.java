@@ -0,0 +1,130 @@
+package io.dit.bridge.core;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fleet-shaped load for comparing {@link CollectionEngine}s without a
+ * database: every target is a loop that runs a blocking "query" (a sleep)
+ * under the in-flight cap once per interval, and every {@code stallEvery}-th
+ * target instead blocks outside the cap for {@code stallMs}, like a connect
+ * to a host whose packets are dropped. Reports completed versus due polls,
+ * start lag, peak platform threads, heap and resident memory.
+ */
+public final class EngineBenchmark {
+
+    private EngineBenchmark() {
+    }
+
+    /**
+     * @param engineLabel  name written to the result ("platform", "platform-per-target", "virtual")
+     */
+    public static Map<String, Object> run(String engineLabel, CollectionEngine engine, int targets, long intervalMs,
+            long queryMs, int stallEvery, long stallMs, int maxInFlight, long durationMs) throws InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        int baseThreads = threadBean.getThreadCount();
+        long baseHeap = memoryBean.getHeapMemoryUsage().getUsed();
+        long baseRss = residentBytes();
+        threadBean.resetPeakThreadCount();
+
+        final Semaphore inFlight = new Semaphore(Math.max(1, maxInFlight), true);
+        final AtomicLong polls = new AtomicLong();
+        final AtomicLong lagSumMs = new AtomicLong();
+        final AtomicLong lagMaxMs = new AtomicLong();
+        final long start = System.currentTimeMillis();
+        final long end = start + durationMs;
+        final long interval = Math.max(1, intervalMs);
+        for (int i = 0; i < targets; i++) {
+            final boolean stalls = stallEvery > 0 && i % stallEvery == 0;
+            final long firstDue = start + interval * i / targets;
+            engine.start("bench-" + i, new CollectionEngine.Loop() {
+                private long due = firstDue;
+
+                public long runOnce() throws InterruptedException {
+                    long now = System.currentTimeMillis();
+                    if (now >= end) {
+                        return -1;
+                    }
+                    long lag = Math.max(0, now - due);
+                    lagSumMs.addAndGet(lag);
+                    long max;
+                    while (lag > (max = lagMaxMs.get()) && !lagMaxMs.compareAndSet(max, lag)) {
+                        // retry
+                    }
+                    if (stalls) {
+                        Thread.sleep(stallMs);
+                    } else {
+                        inFlight.acquire();
+                        try {
+                            Thread.sleep(queryMs);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }
+                    polls.incrementAndGet();
+                    // Fixed rate, so a starved engine shows up as growing lag
+                    due += interval;
+                    return Math.max(0, due - System.currentTimeMillis());
+                }
+            }, firstDue - start);
+        }
+
+        Thread.sleep(durationMs);
+        int peakThreads = threadBean.getPeakThreadCount();
+        long heap = memoryBean.getHeapMemoryUsage().getUsed();
+        long rss = residentBytes();
+        engine.close();
+
+        // Every target is due once per interval; stalled ones can at best finish once per stall
+        long due = 0;
+        for (int i = 0; i < targets; i++) {
+            boolean stalls = stallEvery > 0 && i % stallEvery == 0;
+            due += durationMs / Math.max(interval, stalls ? stallMs : 0);
+        }
+        long done = polls.get();
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("engine", engineLabel);
+        out.put("targets", targets);
+        out.put("polls_done", done);
+        out.put("polls_due", due);
+        out.put("completion_pct", due > 0 ? Math.round(done * 1000.0 / due) / 10.0 : 0.0);
+        out.put("mean_lag_ms", done > 0 ? lagSumMs.get() / done : 0);
+        out.put("max_lag_ms", lagMaxMs.get());
+        out.put("peak_platform_threads", peakThreads - baseThreads);
+        out.put("heap_delta_mb", Math.round((heap - baseHeap) / 1024.0 / 1024.0 * 10) / 10.0);
+        out.put("rss_delta_mb", baseRss < 0 || rss < 0 ? -1.0 : Math.round((rss - baseRss) / 1024.0 / 1024.0 * 10) / 10.0);
+        return out;
+    }
+
+    /** VmRSS of this process on Linux, -1 elsewhere. */
+    private static long residentBytes() {
+        try {
+            BufferedReader r = new BufferedReader(new FileReader("/proc/self/status"));
+            try {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    if (line.startsWith("VmRSS:")) {
+                        return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024L;
+                    }
+                }
+            } finally {
+                r.close();
+            }
+        } catch (IOException e) {
+            // not Linux
+        } catch (NumberFormatException e) {
+            // unexpected format
+        }
+        return -1;
+    }
+}
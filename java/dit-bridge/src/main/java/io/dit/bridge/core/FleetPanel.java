@@ -0,0 +1,109 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fleet overview: one row per target with health, AAS and its trend, CPU,
+ * executions and the top real-time wait, or the last error and the next
+ * retry time for a target that is down. Targets keep the order of the
+ * targets file, and the list scrolls to keep the selection visible.
+ */
+public final class FleetPanel extends TuiPanel {
+
+    /** Width of the AAS sparkline the caller renders into {@code trend}. */
+    static final int TREND_W = 12;
+
+    private final String title;
+    private List<Map<String, Object>> rows = Collections.emptyList();
+    private int selected;
+    private int scroll;
+
+    public FleetPanel(String title) {
+        this.title = title;
+    }
+
+    /** Target summaries in file order, each with a {@code trend} sparkline added. */
+    public void bind(List<Map<String, Object>> rows) {
+        this.rows = bindValue(this.rows, rows);
+        if (selected >= rows.size()) {
+            selected = Math.max(0, rows.size() - 1);
+        }
+    }
+
+    public int selectedIndex() {
+        return selected;
+    }
+
+    public void moveSelection(int delta) {
+        int next = Math.max(0, Math.min(rows.size() - 1, selected + delta));
+        if (next != selected) {
+            selected = next;
+            markDirty();
+        }
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, title, TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+        canvas.drawText(sr++, col, truncate(padRight("Target", 14) + padRight("DBMS", 7) + padRight("Health", 9)
+                + padRight("AAS", 7) + padRight("Trend", TREND_W + 2) + padRight("CPU", 6) + padRight("Exec/s", 8)
+                + "Top Wait", areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+        if (rows.isEmpty()) {
+            canvas.drawText(sr, col, truncate("No targets", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+
+        int visible = Math.max(1, top + height - 1 - sr);
+        if (selected < scroll) {
+            scroll = selected;
+        } else if (selected >= scroll + visible) {
+            scroll = selected - visible + 1;
+        }
+        scroll = Math.max(0, Math.min(scroll, Math.max(0, rows.size() - visible)));
+        SimpleDateFormat clock = new SimpleDateFormat("HH:mm:ss");
+        for (int i = scroll; i < rows.size() && sr < top + height - 1; i++) {
+            Map<String, Object> r = rows.get(i);
+            String health = str(r.get("health"));
+            String lead = padRight(truncate(str(r.get("name")), 13), 14)
+                    + padRight(truncate(str(r.get("dbms")), 6), 7);
+            String line;
+            if ("UP".equals(health)) {
+                String wait = str(r.get("top_wait"));
+                line = lead + padRight("UP", 9)
+                        + padRight(fmt("%.2f", dbl(r.get("aas"))), 7)
+                        + padRight(str(r.get("trend")), TREND_W + 2)
+                        + padRight(fmt("%.2f", dbl(r.get("cpu_aas"))), 6)
+                        + padRight(fmtHuman(dbl(r.get("exec_per_sec"))), 8)
+                        + (wait.isEmpty() ? "-" : wait + " (" + fmt("%.2f", dbl(r.get("top_wait_aas"))) + ")");
+            } else if ("DOWN".equals(health)) {
+                line = lead + padRight("DOWN x" + str(r.get("failures")), 9)
+                        + "retry " + clock.format(new Date((long) dbl(r.get("retry_at_ms"))))
+                        + "  " + str(r.get("error"));
+            } else {
+                line = lead + health;
+            }
+            boolean sel = i == selected;
+            canvas.drawText(sr++, col, padRight(truncate(line, areaW), areaW), rowColor(r, health),
+                    sel ? TuiTheme.SELECT_BG : TuiTheme.BG);
+        }
+    }
+
+    private static TextColor rowColor(Map<String, Object> r, String health) {
+        if ("DOWN".equals(health)) {
+            return TuiTheme.waitClassColor("Application");
+        }
+        if (!"UP".equals(health)) {
+            return TuiTheme.INACTIVE_FG;
+        }
+        String waitClass = str(r.get("top_wait_class"));
+        return waitClass.isEmpty() ? TuiTheme.FG : TuiTheme.waitClassColor(waitClass);
+    }
+}
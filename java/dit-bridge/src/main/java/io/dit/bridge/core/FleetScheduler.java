@@ -0,0 +1,196 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.CollectQuery;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Polls every {@link FleetTarget} as one loop on a shared
+ * {@link CollectionEngine} instead of a collector thread per database: a
+ * virtual thread per target on Java 21+, otherwise self-rescheduling tasks
+ * on {@code --fleet-threads} platform threads. A loop never overlaps itself
+ * and first polls are staggered across the interval.
+ * {@code --fleet-max-inflight} bounds the number of targets querying at the
+ * same time (connecting does not hold a slot). A failed target closes its
+ * connection and retries after an exponential, jittered backoff without
+ * affecting the others.
+ *
+ * <p>Per cycle a target runs only the cheap groups the overview needs
+ * (instance, Load Profile and the wait delta); the full dashboard opens its
+ * own {@link CollectorLoop} on drill-down.
+ */
+public final class FleetScheduler {
+
+    public interface Listener {
+        void onUpdate(FleetTarget target);
+    }
+
+    private static final Set<CollectQuery> QUERIES = EnumSet.of(CollectQuery.INSTANCE, CollectQuery.LOAD_PROFILE);
+    private static final long MAX_BACKOFF_MS = 300000L;
+
+    private final List<FleetTarget> targets;
+    private final long intervalMs;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final CollectionEngine engine;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+    private volatile boolean running;
+
+    public FleetScheduler(List<FleetTarget> targets, long intervalMs, CollectionEngine engine, int maxInFlight) {
+        this.targets = new ArrayList<FleetTarget>(targets);
+        this.intervalMs = Math.max(1000L, intervalMs);
+        this.engine = engine;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight, true);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public List<FleetTarget> targets() {
+        return targets;
+    }
+
+    /** Targets currently holding a query slot. */
+    public int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    public long intervalMs() {
+        return intervalMs;
+    }
+
+    public String engineName() {
+        return engine.name();
+    }
+
+    public void start() {
+        running = true;
+        for (int i = 0; i < targets.size(); i++) {
+            final FleetTarget target = targets.get(i);
+            engine.start(target.name(), new CollectionEngine.Loop() {
+                public long runOnce() throws InterruptedException {
+                    return poll(target);
+                }
+            }, intervalMs * i / targets.size());
+        }
+    }
+
+    /** Stops polling and closes every target connection. */
+    public void stop() {
+        running = false;
+        engine.close();
+        for (FleetTarget t : targets) {
+            closeQuietly(t);
+        }
+    }
+
+    /** One cycle of a target's loop; returns the delay before the next one, or -1 once stopped. */
+    private long poll(FleetTarget target) throws InterruptedException {
+        if (!running) {
+            return -1;
+        }
+        long delayMs;
+        try {
+            target.publish(pollOnce(target));
+            target.failures = 0;
+            delayMs = intervalMs;
+        } catch (SQLException e) {
+            delayMs = fail(target, e.getMessage());
+        } catch (RuntimeException e) {
+            delayMs = fail(target, String.valueOf(e));
+        }
+        for (Listener l : listeners) {
+            l.onUpdate(target);
+        }
+        return running ? delayMs : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> pollOnce(FleetTarget target) throws SQLException, InterruptedException {
+        if (target.conn == null) {
+            target.conn = target.connectionFactory().create(target.options());
+        }
+        long t0;
+        Map<String, Object> fresh;
+        List<Map<String, Object>> waits;
+        inFlight.acquire();
+        try {
+            t0 = System.currentTimeMillis();
+            fresh = target.collector().collect(target.conn, QUERIES);
+            // Unlike collect(), the wait delta throws, so a dead connection is noticed here
+            waits = target.waitDeltaTracker().queryDelta(target.conn);
+        } finally {
+            inFlight.release();
+        }
+        long collectMs = System.currentTimeMillis() - t0;
+
+        Map<String, Object> sysmetric = (Map<String, Object>) fresh.get("sysmetric");
+        Map<String, Object> sysstat = (Map<String, Object>) fresh.get("sysstat");
+        Map<String, Object> metrics = target.collector().mapMetrics(
+                sysmetric != null ? sysmetric : new LinkedHashMap<String, Object>(),
+                sysstat != null ? sysstat : new LinkedHashMap<String, Object>());
+        double aas = TuiPanel.dbl(metrics.get("active_sessions"));
+        target.history().push("active_sessions", aas);
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("name", target.name());
+        out.put("dbms", target.dbmsLabel());
+        out.put("health", "UP");
+        Map<String, Object> inst = (Map<String, Object>) fresh.get("instance");
+        out.put("instance_name", inst != null ? inst.get("instance_name") : null);
+        out.put("aas", aas);
+        out.put("cpu_aas", TuiPanel.dbl(metrics.get("cpu_time_per_sec")) / 100.0);
+        out.put("exec_per_sec", TuiPanel.dbl(metrics.get("sql_exec_per_sec")));
+        // Wait deltas are sorted by wait_sec_per_sec; the first with time in it is the top wait
+        if (waits != null && !waits.isEmpty() && TuiPanel.dbl(waits.get(0).get("wait_sec_per_sec")) > 0) {
+            out.put("top_wait", waits.get(0).get("event"));
+            out.put("top_wait_class", waits.get(0).get("wait_class"));
+            out.put("top_wait_aas", TuiPanel.dbl(waits.get(0).get("wait_sec_per_sec")));
+        }
+        out.put("collect_ms", collectMs);
+        return out;
+    }
+
+    /** Publishes DOWN and returns the backoff: interval * 2^(failures-1), capped, with +-20% jitter. */
+    private long fail(FleetTarget target, String error) {
+        closeQuietly(target);
+        target.failures++;
+        long backoff = Backoff.delayMs(intervalMs, target.failures, MAX_BACKOFF_MS);
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("name", target.name());
+        out.put("dbms", target.dbmsLabel());
+        out.put("health", "DOWN");
+        out.put("error", error);
+        out.put("failures", target.failures);
+        out.put("retry_at_ms", System.currentTimeMillis() + backoff);
+        target.publish(out);
+        return backoff;
+    }
+
+    private static void closeQuietly(FleetTarget target) {
+        Connection c = target.conn;
+        target.conn = null;
+        if (c != null) {
+            try {
+                c.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.DbmsCollector;
+import io.dit.bridge.api.DbmsConnectionFactory;
+import io.dit.bridge.api.WaitDeltaTracker;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One monitored database in fleet mode: its connection options, the
+ * DBMS-specific collector parts, and the summary the fleet overview shows.
+ * The connection and counters are used only by the scheduler task of this
+ * target, which never runs twice at the same time; the summary is published
+ * as an immutable map for the TUI thread.
+ */
+public final class FleetTarget {
+
+    /** Builds the full dashboard of a target for drill-down; a new one each time. */
+    public interface Dashboard {
+        MonitorTui create();
+    }
+
+    private final String name;
+    private final String dbmsLabel;
+    private final Map<String, String> options;
+    private final DbmsConnectionFactory connectionFactory;
+    private final DbmsCollector collector;
+    private final WaitDeltaTracker waitDeltaTracker;
+    private final Dashboard dashboard;
+    private final MetricsBuffer history = new MetricsBuffer(30);
+
+    // Scheduler task state
+    Connection conn;
+    int failures;
+
+    private volatile Map<String, Object> summary;
+
+    public FleetTarget(String name, String dbmsLabel, Map<String, String> options,
+            DbmsConnectionFactory connectionFactory, DbmsCollector collector, WaitDeltaTracker waitDeltaTracker,
+            Dashboard dashboard) {
+        this.name = name;
+        this.dbmsLabel = dbmsLabel;
+        this.options = options;
+        this.connectionFactory = connectionFactory;
+        this.collector = collector;
+        this.waitDeltaTracker = waitDeltaTracker;
+        this.dashboard = dashboard;
+        Map<String, Object> initial = new LinkedHashMap<String, Object>();
+        initial.put("name", name);
+        initial.put("dbms", dbmsLabel);
+        initial.put("health", "CONNECTING");
+        this.summary = initial;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String dbmsLabel() {
+        return dbmsLabel;
+    }
+
+    Map<String, String> options() {
+        return options;
+    }
+
+    DbmsConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    DbmsCollector collector() {
+        return collector;
+    }
+
+    WaitDeltaTracker waitDeltaTracker() {
+        return waitDeltaTracker;
+    }
+
+    public Dashboard dashboard() {
+        return dashboard;
+    }
+
+    /** AAS history for the overview sparkline. */
+    public MetricsBuffer history() {
+        return history;
+    }
+
+    /**
+     * Latest state: name, dbms, health (CONNECTING / UP / DOWN), and when UP
+     * aas, cpu_aas, exec_per_sec, top_wait, top_wait_class and collect_ms;
+     * when DOWN error, failures and retry_at_ms.
+     */
+    public Map<String, Object> summary() {
+        return summary;
+    }
+
+    void publish(Map<String, Object> summary) {
+        this.summary = summary;
+    }
+
+    /**
+     * Parses a targets file: one target per line, {@code name key=value ...}
+     * with the same keys as the command-line options (dbms-type, host, port,
+     * service-name, user, password-env, ...; a bare key is a flag). Blank lines and {@code #}
+     * comments are skipped; {@code defaults} supplies keys a line leaves out.
+     * Passwords are never read from the file, only from the environment
+     * variable named by {@code password-env}.
+     */
+    public static List<Map<String, String>> parseTargets(List<String> lines, Map<String, String> defaults) {
+        List<Map<String, String>> out = new ArrayList<Map<String, String>>();
+        int lineNo = 0;
+        for (String raw : lines) {
+            lineNo++;
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            Map<String, String> target = new LinkedHashMap<String, String>(defaults);
+            target.put("name", tokens[0]);
+            for (int i = 1; i < tokens.length; i++) {
+                int eq = tokens[i].indexOf('=');
+                if (eq == 0) {
+                    throw new IllegalArgumentException("targets line " + lineNo + ": expected key=value, got " + tokens[i]);
+                }
+                // A bare key is a flag, like --pdb without a value
+                target.put(eq < 0 ? tokens[i] : tokens[i].substring(0, eq), eq < 0 ? "" : tokens[i].substring(eq + 1));
+            }
+            if (target.containsKey("password")) {
+                throw new IllegalArgumentException("targets line " + lineNo
+                        + ": plaintext password is not allowed, use password-env=<ENV_VAR>");
+            }
+            String env = target.remove("password-env");
+            String password = env != null ? System.getenv(env) : null;
+            if (password == null) {
+                throw new IllegalArgumentException("targets line " + lineNo + " (" + tokens[0] + "): "
+                        + (env == null ? "missing password-env" : "environment variable " + env + " is not set"));
+            }
+            target.put("password", password);
+            out.add(target);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,261 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
+import com.googlecode.lanterna.terminal.Terminal;
+import com.googlecode.lanterna.terminal.TerminalResizeListener;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fleet overview screen for {@code --command fleet}. Same event-driven loop
+ * as {@link MonitorTui}: the input reader, the {@link FleetScheduler} and the
+ * resize listener feed one queue. Enter opens the full dashboard of the
+ * selected target on the same screen; while it runs, keys and resizes are
+ * forwarded to it, and Q returns to the overview. The fleet keeps polling in
+ * the background meanwhile.
+ * Layout: title bar, target list, footer.
+ */
+public final class FleetTui {
+
+    private final FleetScheduler scheduler;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final BlockingQueue<TuiEvent> events = new LinkedBlockingQueue<TuiEvent>();
+    // Scheduler updates are coalesced into one queued rebind, so a long drill-down cannot pile them up
+    private final AtomicBoolean updatePending = new AtomicBoolean();
+    private final Runnable rebind = new Runnable() {
+        public void run() {
+            updatePending.set(false);
+        }
+    };
+
+    private final TextBarPanel titlePanel = new TextBarPanel(TuiTheme.TITLE_FG, TuiTheme.TITLE_BG);
+    private final TextBarPanel footerPanel = new TextBarPanel(TuiTheme.FG, TuiTheme.FOOTER_BG);
+    private final FleetPanel fleetPanel = new FleetPanel("Fleet (Enter: dashboard)");
+    private final PanelLayout layout = new PanelLayout();
+
+    // Dashboard currently drilled into; read by the input reader and resize listener
+    private volatile MonitorTui dashboard;
+
+    // Touched only by the TUI loop thread
+    private boolean drillRequested;
+    private String notice = "";
+
+    public FleetTui(FleetScheduler scheduler) {
+        this.scheduler = scheduler;
+        layout.add(titlePanel).add(fleetPanel).add(footerPanel);
+    }
+
+    public void run() throws IOException {
+        Terminal terminal = new DefaultTerminalFactory().createTerminal();
+        final Screen screen = new TerminalScreen(terminal);
+        screen.startScreen();
+        screen.setCursorPosition(null); // hide cursor
+        TuiCanvas canvas = new TuiCanvas(screen);
+
+        terminal.addResizeListener(new TerminalResizeListener() {
+            public void onResized(Terminal t, TerminalSize newSize) {
+                MonitorTui d = dashboard;
+                if (d != null) {
+                    d.offerResize();
+                } else {
+                    events.offer(TuiEvent.resize());
+                }
+            }
+        });
+        scheduler.addListener(new FleetScheduler.Listener() {
+            public void onUpdate(FleetTarget target) {
+                if (updatePending.compareAndSet(false, true)) {
+                    events.offer(TuiEvent.callback(rebind));
+                }
+            }
+        });
+
+        try {
+            bindPanels();
+            applyLayout(canvas, screen.getTerminalSize());
+            screen.clear();
+            layout.renderDirty(canvas);
+            screen.refresh(Screen.RefreshType.COMPLETE);
+
+            scheduler.start();
+            startInputReader(screen);
+
+            while (running.get()) {
+                TuiEvent event = events.take();
+                boolean resized = false;
+                while (event != null) {
+                    switch (event.type()) {
+                        case KEY:
+                            handleKey(event.key());
+                            break;
+                        case RESIZE:
+                            resized = true;
+                            break;
+                        case CALLBACK:
+                            event.callback().run();
+                            break;
+                        default:
+                            break;
+                    }
+                    event = events.poll();
+                }
+                if (!running.get()) {
+                    break;
+                }
+
+                if (drillRequested) {
+                    drillRequested = false;
+                    drillDown(screen);
+                    // The dashboard drew over everything and may have seen resizes
+                    resized = true;
+                }
+                bindPanels();
+
+                if (resized) {
+                    TerminalSize newSize = screen.doResizeIfNecessary();
+                    if (newSize == null) {
+                        newSize = screen.getTerminalSize();
+                    }
+                    screen.clear();
+                    applyLayout(canvas, newSize);
+                    layout.invalidate();
+                }
+                if (layout.renderDirty(canvas)) {
+                    screen.refresh(resized ? Screen.RefreshType.COMPLETE : Screen.RefreshType.DELTA);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.set(false);
+            scheduler.stop();
+            screen.stopScreen();
+        }
+    }
+
+    /**
+     * Blocking key reader on its own daemon thread. While a dashboard is open
+     * its keys go there; EOF also reaches the overview so both loops end.
+     */
+    private void startInputReader(final Screen screen) {
+        Thread reader = new Thread(new Runnable() {
+            public void run() {
+                while (running.get()) {
+                    KeyStroke key;
+                    try {
+                        key = screen.readInput();
+                    } catch (IOException e) {
+                        key = new KeyStroke(KeyType.EOF);
+                    }
+                    if (key == null) {
+                        continue;
+                    }
+                    MonitorTui d = dashboard;
+                    if (d != null) {
+                        d.offerKey(key);
+                    }
+                    if (d == null || key.getKeyType() == KeyType.EOF) {
+                        events.offer(TuiEvent.key(key));
+                    }
+                    if (key.getKeyType() == KeyType.EOF) {
+                        return;
+                    }
+                }
+            }
+        }, "dit-input");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /** Runs the selected target's dashboard on this thread until the user leaves it. */
+    private void drillDown(Screen screen) throws IOException {
+        List<FleetTarget> targets = scheduler.targets();
+        if (targets.isEmpty()) {
+            return;
+        }
+        FleetTarget target = targets.get(fleetPanel.selectedIndex());
+        MonitorTui d = target.dashboard().create();
+        dashboard = d;
+        try {
+            d.runEmbedded(screen);
+            notice = "";
+        } catch (SQLException e) {
+            notice = target.name() + ": " + e.getMessage();
+        } finally {
+            dashboard = null;
+        }
+    }
+
+    private void bindPanels() {
+        List<FleetTarget> targets = scheduler.targets();
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>(targets.size());
+        int up = 0;
+        int down = 0;
+        for (FleetTarget t : targets) {
+            Map<String, Object> row = new LinkedHashMap<String, Object>(t.summary());
+            row.put("trend", t.history().sparkline("active_sessions", FleetPanel.TREND_W));
+            if ("UP".equals(row.get("health"))) {
+                up++;
+            } else if ("DOWN".equals(row.get("health"))) {
+                down++;
+            }
+            rows.add(row);
+        }
+        fleetPanel.bind(rows);
+        titlePanel.bind(String.format(" DIT Fleet | %d targets | UP %d  DOWN %d | In-flight %d/%d ",
+                targets.size(), up, down, scheduler.inFlight(), scheduler.maxInFlight()));
+        String err = notice.isEmpty() ? "" : " | ERR: " + TuiPanel.truncate(notice, 60);
+        footerPanel.bind(String.format(" Q:Quit  Up/Down:Select  Enter:Dashboard | Interval: %ds  Engine: %s%s",
+                scheduler.intervalMs() / 1000, scheduler.engineName(), err));
+    }
+
+    private void applyLayout(TuiCanvas canvas, TerminalSize size) {
+        canvas.resize(size);
+        int w = size.getColumns();
+        int h = size.getRows();
+        if (w < 40 || h < 6) {
+            for (TuiPanel p : layout.panels()) {
+                p.setBounds(0, 0, 0, 0);
+            }
+            return;
+        }
+        titlePanel.setBounds(0, 0, w, 1);
+        fleetPanel.setBounds(1, 0, w, h - 2);
+        footerPanel.setBounds(h - 1, 0, w, 1);
+    }
+
+    private void handleKey(KeyStroke key) {
+        KeyType type = key.getKeyType();
+        if (type == KeyType.Character) {
+            char c = key.getCharacter();
+            if (c == 'q' || c == 'Q') {
+                running.set(false);
+            }
+        } else if (type == KeyType.Escape || type == KeyType.EOF) {
+            running.set(false);
+        } else if (type == KeyType.Enter) {
+            drillRequested = true;
+        } else if (type == KeyType.ArrowUp) {
+            fleetPanel.moveSelection(-1);
+        } else if (type == KeyType.ArrowDown) {
+            fleetPanel.moveSelection(1);
+        } else if (type == KeyType.PageUp) {
+            fleetPanel.moveSelection(-10);
+        } else if (type == KeyType.PageDown) {
+            fleetPanel.moveSelection(10);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package io.dit.bridge.core;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live frame subscription for {@code monitor --stream-port}: one NIO selector
+ * thread serves every subscriber. A client connects, sends one line
+ * {@code SUBSCRIBE <code> [topic,topic...]} and then receives frames as a
+ * 4-byte big-endian length followed by that many bytes of UTF-8 JSON, the
+ * same objects the JSONL record file holds. Topics are the frame's sections
+ * (metrics, sessions, wait_events, sql_hotspots, wait_histograms,
+ * session_stats, pdb, ash); the header fields are always sent, and no topic
+ * list means all of them.
+ *
+ * <p>The collector never waits for a subscriber: {@link #publish} encodes a
+ * frame once per distinct topic set, appends the shared buffer to each
+ * client's queue and wakes the selector. A queue holds at most
+ * {@code --stream-queue} frames (default 8, at least 2: the one being sent
+ * and the next); when a slow client is full the oldest frame behind the one
+ * being sent is dropped, so it always catches up to the newest data.
+ *
+ * <p>The listener is bound to the loopback interface only. The access code
+ * comes from the environment variable named by {@code --stream-code-env}, or
+ * is generated at start-up and printed on the console; it is never written
+ * anywhere.
+ */
+public final class FrameStreamServer {
+
+    private static final List<String> TOPICS = Collections.unmodifiableList(Arrays.asList(
+            "metrics", "sessions", "wait_events", "sql_hotspots", "wait_histograms", "session_stats", "pdb", "ash"));
+    private static final int MAX_REQUEST_BYTES = 512;
+    private static final long SUBSCRIBE_TIMEOUT_MS = 10000L;
+
+    private final int port;
+    private final int maxClients;
+    private final int queueLimit;
+    private final byte[] accessCode;
+    private final boolean codeGenerated;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicLong dropped = new AtomicLong();
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+
+    public FrameStreamServer(Map<String, String> options) {
+        this.port = intVal(options.get("stream-port"), 7025);
+        this.maxClients = Math.max(1, intVal(options.get("stream-max-clients"), 256));
+        this.queueLimit = Math.max(2, intVal(options.get("stream-queue"), 8));
+        String env = options.get("stream-code-env");
+        String code = env != null && !env.trim().isEmpty() ? System.getenv(env.trim()) : null;
+        if (env != null && !env.trim().isEmpty() && (code == null || code.isEmpty())) {
+            throw new IllegalArgumentException("Environment variable " + env.trim() + " is not set");
+        }
+        this.codeGenerated = code == null;
+        this.accessCode = (code != null ? code : newAccessCode()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Binds 127.0.0.1 and starts the selector thread. */
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(new Runnable() {
+            public void run() {
+                selectLoop();
+            }
+        }, "dit-stream");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Streaming frames on 127.0.0.1:" + port + " (max " + maxClients + " subscribers)");
+        if (codeGenerated) {
+            System.out.println("Stream access code: " + new String(accessCode, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Queues a frame for every subscriber. Called on the collector thread;
+     * encodes once per distinct topic set and never blocks on a client.
+     */
+    public void publish(Map<String, Object> frame) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        Map<String, ByteBuffer> encoded = new HashMap<String, ByteBuffer>();
+        for (Client c : clients) {
+            if (c.topicKey == null) {
+                continue;
+            }
+            ByteBuffer buf = encoded.get(c.topicKey);
+            if (buf == null) {
+                buf = encode(select(frame, c.topics));
+                encoded.put(c.topicKey, buf);
+            }
+            c.offer(buf.duplicate());
+        }
+        if (!encoded.isEmpty()) {
+            selector.wakeup();
+        }
+    }
+
+    public int subscribers() {
+        return clients.size();
+    }
+
+    /** Frames dropped from full client queues since start. */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (thread != null) {
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select(1000);
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Client c = (Client) key.attachment();
+                            if (key.isReadable()) {
+                                read(c);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(c);
+                            }
+                        }
+                    } catch (IOException e) {
+                        // one client's failure never affects the others
+                        if (key.attachment() instanceof Client) {
+                            drop((Client) key.attachment());
+                        }
+                    }
+                }
+                long now = System.currentTimeMillis();
+                for (Client c : clients) {
+                    if (c.topicKey == null && now - c.connectedAtMs > SUBSCRIBE_TIMEOUT_MS) {
+                        drop(c);
+                    } else if (c.key.isValid()) {
+                        // Interest ops are only changed on this thread
+                        c.key.interestOps(c.hasPending() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                                : SelectionKey.OP_READ);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Frame stream stopped: " + e.getMessage());
+        } finally {
+            for (Client c : clients) {
+                drop(c);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch = serverChannel.accept();
+        if (ch == null) {
+            return;
+        }
+        if (clients.size() >= maxClients) {
+            ch.close();
+            return;
+        }
+        ch.configureBlocking(false);
+        Client c = new Client(ch);
+        c.key = ch.register(selector, SelectionKey.OP_READ, c);
+        clients.add(c);
+    }
+
+    private void read(Client c) throws IOException {
+        ByteBuffer in = c.request;
+        int n = c.channel.read(in);
+        if (n < 0) {
+            drop(c);
+            return;
+        }
+        if (c.topicKey != null || c.closeAfterFlush) {
+            // Subscribed or rejected clients have nothing more to say; discard
+            in.clear();
+            return;
+        }
+        int end = -1;
+        for (int i = 0; i < in.position(); i++) {
+            if (in.get(i) == '\n') {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            if (!in.hasRemaining()) {
+                reject(c, "request too long");
+            }
+            return;
+        }
+        String line = new String(in.array(), 0, end, StandardCharsets.UTF_8).trim();
+        in.clear();
+        String[] parts = line.split("\\s+");
+        if (parts.length < 2 || !"SUBSCRIBE".equalsIgnoreCase(parts[0])) {
+            reject(c, "expected: SUBSCRIBE <code> [topic,topic...]");
+            return;
+        }
+        // Constant-time compare, so response timing does not leak matching digits
+        if (!MessageDigest.isEqual(parts[1].getBytes(StandardCharsets.UTF_8), accessCode)) {
+            reject(c, "wrong access code");
+            return;
+        }
+        Set<String> topics = new TreeSet<String>();
+        if (parts.length > 2) {
+            for (String t : parts[2].split(",")) {
+                String topic = t.trim().toLowerCase(Locale.ROOT);
+                if (topic.isEmpty() || "all".equals(topic)) {
+                    continue;
+                }
+                if (!TOPICS.contains(topic)) {
+                    reject(c, "unknown topic " + topic + ", expected " + TOPICS);
+                    return;
+                }
+                topics.add(topic);
+            }
+        }
+        if (topics.isEmpty()) {
+            topics.addAll(TOPICS);
+        }
+        Map<String, Object> reply = new LinkedHashMap<String, Object>();
+        reply.put("type", "subscribed");
+        reply.put("topics", new ArrayList<String>(topics));
+        reply.put("queue", queueLimit);
+        c.topics = topics;
+        c.offer(encode(reply));
+        // Published last: from here on publish() may enqueue frames
+        c.topicKey = topics.toString();
+    }
+
+    private void write(Client c) throws IOException {
+        while (true) {
+            ByteBuffer buf = c.peek();
+            if (buf == null) {
+                return;
+            }
+            c.channel.write(buf);
+            if (buf.hasRemaining()) {
+                // socket buffer full; OP_WRITE stays set
+                return;
+            }
+            c.poll();
+            if (c.closeAfterFlush && !c.hasPending()) {
+                drop(c);
+                return;
+            }
+        }
+    }
+
+    /** Sends an error frame and closes once it is flushed. */
+    private void reject(Client c, String message) {
+        Map<String, Object> reply = new LinkedHashMap<String, Object>();
+        reply.put("type", "error");
+        reply.put("message", message);
+        c.offer(encode(reply));
+        c.closeAfterFlush = true;
+    }
+
+    private void drop(Client c) {
+        clients.remove(c);
+        c.key.cancel();
+        try {
+            c.channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static Map<String, Object> select(Map<String, Object> frame, Set<String> topics) {
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Object> e : frame.entrySet()) {
+            if (!TOPICS.contains(e.getKey()) || topics.contains(e.getKey())) {
+                out.put(e.getKey(), e.getValue());
+            }
+        }
+        return out;
+    }
+
+    private static ByteBuffer encode(Map<String, Object> message) {
+        byte[] json = JsonUtil.toJson(message).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocate(4 + json.length);
+        buf.putInt(json.length).put(json);
+        buf.flip();
+        // Read-only: the same bytes are shared by every client with this topic set
+        return buf.asReadOnlyBuffer();
+    }
+
+    private static String newAccessCode() {
+        SecureRandom random = new SecureRandom();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    private static int intVal(String v, int fallback) {
+        if (v == null || v.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (RuntimeException e) {
+            return fallback;
+        }
+    }
+
+    private final class Client {
+        final SocketChannel channel;
+        final long connectedAtMs = System.currentTimeMillis();
+        final ByteBuffer request = ByteBuffer.allocate(MAX_REQUEST_BYTES);
+        SelectionKey key;
+        Set<String> topics;
+        // Non-null once subscribed; equal keys share one encoded frame
+        volatile String topicKey;
+        boolean closeAfterFlush;
+
+        // Guarded by this; filled by the collector thread, drained by the selector thread
+        private final ArrayDeque<ByteBuffer> queue = new ArrayDeque<ByteBuffer>();
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        synchronized void offer(ByteBuffer buf) {
+            // The head may be half sent, so the oldest frame behind it goes
+            if (queue.size() >= queueLimit) {
+                Iterator<ByteBuffer> it = queue.iterator();
+                it.next();
+                it.next();
+                it.remove();
+                dropped.incrementAndGet();
+            }
+            queue.addLast(buf);
+        }
+
+        synchronized ByteBuffer peek() {
+            return queue.peekFirst();
+        }
+
+        synchronized void poll() {
+            queue.pollFirst();
+        }
+
+        synchronized boolean hasPending() {
+            return !queue.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.dit.bridge.core;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What dominated a long run: {@link HeavyHitters} for sql_id, event,
+ * username and program, fed from the data every snapshot already has.
+ *
+ * <ul>
+ *   <li>sql_id: elapsed seconds, as the growth of {@code elapsed_time}
+ *       between two readings of the SQL hotspots. Only the previous
+ *       reading's rows are remembered, so a statement counts from its second
+ *       appearance in the hotspot list.</li>
+ *   <li>event: wait seconds, the real-time {@code wait_sec_per_sec} times
+ *       the seconds since the previous reading.</li>
+ *   <li>username, program: sampled DB time; every non-idle session in the
+ *       session list stands for the seconds since the previous list.</li>
+ * </ul>
+ *
+ * A list the snapshot carried over from an earlier cycle (same object) is
+ * not counted again, so a list read every few cycles stands for all of
+ * them; after {@link #gap} (connection lost) the next reading counts as one
+ * interval. {@link #observe} runs on one thread; the summaries may be read
+ * from any thread, and {@link #cutSegment} may also come from a shutdown
+ * hook, so the mutators share the tracker's lock.
+ */
+public final class HeavyHitterTracker {
+
+    public static final String SQL_ID = "sql_id";
+    public static final String EVENT = "event";
+    public static final String USERNAME = "username";
+    public static final String PROGRAM = "program";
+    public static final String[] DIMENSIONS = {SQL_ID, EVENT, USERNAME, PROGRAM};
+
+    private final int k;
+    private final long intervalMs;
+    private final long startMs;
+    private volatile Map<String, HeavyHitters> summaries;
+    private long segmentStartMs;
+
+    // Previous readings; touched by the observing thread only
+    private Map<String, Double> lastElapsed = new HashMap<String, Double>();
+    private Object lastSql;
+    private Object lastWaits;
+    private Object lastSessions;
+    private long lastWaitsMs;
+    private long lastSessionsMs;
+
+    public HeavyHitterTracker(int k, long intervalMs) {
+        this.k = Math.max(1, k);
+        this.intervalMs = Math.max(1, intervalMs);
+        this.startMs = System.currentTimeMillis();
+        this.segmentStartMs = startMs;
+        this.summaries = newSummaries(this.k);
+    }
+
+    public long startMs() {
+        return startMs;
+    }
+
+    /** The live summary of one of {@link #DIMENSIONS}. */
+    public HeavyHitters summary(String dimension) {
+        return summaries.get(dimension);
+    }
+
+    /** Feeds one snapshot's lists; any of them may be null. */
+    public synchronized void observe(List<Map<String, Object>> sqlHotspots, List<Map<String, Object>> waits,
+            List<Map<String, Object>> sessions, long nowMs) {
+        Map<String, HeavyHitters> s = summaries;
+        if (sqlHotspots != null && sqlHotspots != lastSql) {
+            lastSql = sqlHotspots;
+            // Child cursors share sql_id and plan: sum them before taking the difference
+            Map<String, Double> elapsed = new HashMap<String, Double>(sqlHotspots.size() * 2);
+            for (Map<String, Object> r : sqlHotspots) {
+                String key = TuiPanel.str(r.get("sql_id")) + "/" + TuiPanel.str(r.get("plan_hash_value"));
+                Double prev = elapsed.get(key);
+                elapsed.put(key, (prev != null ? prev : 0.0) + TuiPanel.dbl(r.get("elapsed_time")));
+            }
+            for (Map.Entry<String, Double> e : elapsed.entrySet()) {
+                Double prev = lastElapsed.get(e.getKey());
+                // A smaller value means the cursor was aged out and reloaded
+                if (prev != null && e.getValue() > prev) {
+                    String sqlId = e.getKey().substring(0, e.getKey().lastIndexOf('/'));
+                    s.get(SQL_ID).add(sqlId, (e.getValue() - prev) / 1000000.0);
+                }
+            }
+            lastElapsed = elapsed;
+        }
+        if (waits != null && waits != lastWaits) {
+            double sec = sinceSeconds(lastWaitsMs, nowMs);
+            lastWaits = waits;
+            lastWaitsMs = nowMs;
+            for (Map<String, Object> w : waits) {
+                s.get(EVENT).add(keyOf(w.get("event")), TuiPanel.dbl(w.get("wait_sec_per_sec")) * sec);
+            }
+        }
+        if (sessions != null && sessions != lastSessions) {
+            double sec = sinceSeconds(lastSessionsMs, nowMs);
+            lastSessions = sessions;
+            lastSessionsMs = nowMs;
+            for (Map<String, Object> r : sessions) {
+                s.get(USERNAME).add(keyOf(r.get("username")), sec);
+                s.get(PROGRAM).add(keyOf(r.get("program")), sec);
+            }
+        }
+    }
+
+    /** No data for a while (stale snapshot, failed frame): the outage is not charged to anyone. */
+    public synchronized void gap() {
+        lastWaitsMs = 0;
+        lastSessionsMs = 0;
+    }
+
+    /**
+     * Closes the current segment: returns a {@code heavy_hitters} record with
+     * its summaries and starts empty ones. Readings carry over, so nothing
+     * between two segments is lost.
+     */
+    public synchronized Map<String, Object> cutSegment(long nowMs) {
+        Map<String, HeavyHitters> done = summaries;
+        summaries = newSummaries(k);
+        Map<String, Object> r = new LinkedHashMap<String, Object>();
+        r.put("type", "heavy_hitters");
+        r.put("segment_start", Instant.ofEpochMilli(segmentStartMs).toString());
+        r.put("segment_end", Instant.ofEpochMilli(nowMs).toString());
+        for (String d : DIMENSIONS) {
+            r.put(d, done.get(d).toMap());
+        }
+        segmentStartMs = nowMs;
+        return r;
+    }
+
+    public synchronized long segmentStartMs() {
+        return segmentStartMs;
+    }
+
+    /** True while nothing has been counted since the last {@link #cutSegment}. */
+    public synchronized boolean segmentEmpty() {
+        for (HeavyHitters h : summaries.values()) {
+            if (h.total() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Merges {@code record}'s summaries (from {@link #cutSegment}) into {@code into}, creating entries as needed. */
+    @SuppressWarnings("unchecked")
+    public static void mergeRecord(Map<String, HeavyHitters> into, Map<String, Object> record) {
+        for (String d : DIMENSIONS) {
+            Object m = record.get(d);
+            if (!(m instanceof Map)) {
+                continue;
+            }
+            HeavyHitters h = HeavyHitters.fromMap((Map<String, Object>) m);
+            HeavyHitters existing = into.get(d);
+            if (existing == null) {
+                into.put(d, h);
+            } else {
+                existing.merge(h);
+            }
+        }
+    }
+
+    private static String keyOf(Object value) {
+        String key = TuiPanel.str(value).trim();
+        return key.isEmpty() ? "(unknown)" : key;
+    }
+
+    private double sinceSeconds(long lastMs, long nowMs) {
+        return Math.max(0, lastMs == 0 ? intervalMs : nowMs - lastMs) / 1000.0;
+    }
+
+    private static Map<String, HeavyHitters> newSummaries(int k) {
+        Map<String, HeavyHitters> m = new LinkedHashMap<String, HeavyHitters>();
+        for (String d : DIMENSIONS) {
+            m.put(d, new HeavyHitters(k));
+        }
+        return m;
+    }
+}
@@ -0,0 +1,313 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-memory top-k of weighted keys (sql_id by elapsed seconds, event by
+ * wait seconds, ...) over runs of any length: weighted Space-Saving with
+ * {@code k} counters plus a Count-Min sketch of {@value #DEPTH} x
+ * {@value #WIDTH} cells.
+ *
+ * <p>Space-Saving keeps the k largest counters; a key that is not tracked
+ * takes over the smallest counter, inheriting its count as the key's
+ * possible error, so every counter is an upper bound and
+ * {@code count - error} a lower bound of the key's true weight, and any key
+ * with more than {@code total / k} is tracked. The sketch is a second upper
+ * bound for every key, including evicted ones; the reported weight is the
+ * smaller of the two. An update is O(log k) (a min-heap over the counters)
+ * plus {@value #DEPTH} sketch cells.
+ *
+ * <p>Summaries merge (segments of one run, or several instances): counters
+ * are added key by key, a key missing on one side counting that side's
+ * smallest counter as both weight and error, the k largest are kept, and
+ * the sketches are added cell by cell. {@link #toMap} / {@link #fromMap}
+ * carry a summary through a recording. All methods are thread-safe.
+ */
+public final class HeavyHitters {
+
+    static final int DEPTH = 4;
+    static final int WIDTH = 256;
+    // Fixed so that sketches from any process line up for merging
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+    private final int k;
+    private final String[] keys;
+    private final double[] counts;
+    private final double[] errors;
+    private final int[] heap;
+    private final int[] heapPos;
+    private final Map<String, Integer> slots;
+    private final double[] sketch = new double[DEPTH * WIDTH];
+    private int size;
+    private double total;
+
+    public HeavyHitters(int k) {
+        this.k = Math.max(1, k);
+        this.keys = new String[this.k];
+        this.counts = new double[this.k];
+        this.errors = new double[this.k];
+        this.heap = new int[this.k];
+        this.heapPos = new int[this.k];
+        this.slots = new HashMap<String, Integer>(this.k * 2);
+    }
+
+    public synchronized void add(String key, double weight) {
+        if (key == null || !(weight > 0) || Double.isInfinite(weight)) {
+            return;
+        }
+        total += weight;
+        for (int d = 0; d < DEPTH; d++) {
+            sketch[cell(key, d)] += weight;
+        }
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(heapPos[slot]);
+            return;
+        }
+        if (size < k) {
+            int s = size++;
+            keys[s] = key;
+            counts[s] = weight;
+            errors[s] = 0;
+            heap[s] = s;
+            heapPos[s] = s;
+            slots.put(key, s);
+            siftUp(s);
+            return;
+        }
+        // Take over the smallest counter
+        int s = heap[0];
+        slots.remove(keys[s]);
+        keys[s] = key;
+        errors[s] = counts[s];
+        counts[s] += weight;
+        slots.put(key, s);
+        siftDown(0);
+    }
+
+    /** Sum of all weights added. */
+    public synchronized double total() {
+        return total;
+    }
+
+    public synchronized int capacity() {
+        return k;
+    }
+
+    /** Upper estimate of {@code key}'s weight, tracked or not. */
+    public synchronized double estimate(String key) {
+        double est = sketchEstimate(key);
+        Integer slot = slots.get(key);
+        return slot != null ? Math.min(est, counts[slot]) : est;
+    }
+
+    /**
+     * The {@code n} heaviest keys, heaviest first: {@code key}, {@code weight}
+     * (upper estimate), {@code min_weight} (guaranteed lower bound) and
+     * {@code share} of the total.
+     */
+    public synchronized List<Map<String, Object>> top(int n) {
+        final double[] est = new double[size];
+        Integer[] order = new Integer[size];
+        for (int s = 0; s < size; s++) {
+            est[s] = Math.min(counts[s], sketchEstimate(keys[s]));
+            order[s] = s;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(est[b], est[a]);
+            }
+        });
+        List<Map<String, Object>> out = new ArrayList<Map<String, Object>>(Math.min(n, size));
+        for (int i = 0; i < Math.min(n, size); i++) {
+            int s = order[i];
+            Map<String, Object> r = new LinkedHashMap<String, Object>();
+            r.put("key", keys[s]);
+            r.put("weight", est[s]);
+            r.put("min_weight", Math.max(0, counts[s] - errors[s]));
+            r.put("share", total > 0 ? est[s] / total : 0.0);
+            out.add(r);
+        }
+        return out;
+    }
+
+    /** Adds {@code other} into this summary; {@code other} is left unchanged. */
+    public void merge(HeavyHitters other) {
+        if (other == this) {
+            return;
+        }
+        // Copy first: never hold both locks
+        Map<String, Object> copy = other.toMap();
+        synchronized (this) {
+            mergeMap(copy);
+        }
+    }
+
+    /** {@code k}, {@code total}, {@code items} ({@code key}, {@code count}, {@code error}) and {@code sketch}. */
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> m = new LinkedHashMap<String, Object>();
+        m.put("k", k);
+        m.put("total", total);
+        List<Map<String, Object>> items = new ArrayList<Map<String, Object>>(size);
+        for (int s = 0; s < size; s++) {
+            Map<String, Object> item = new LinkedHashMap<String, Object>();
+            item.put("key", keys[s]);
+            item.put("count", counts[s]);
+            item.put("error", errors[s]);
+            items.add(item);
+        }
+        m.put("items", items);
+        List<Double> cells = new ArrayList<Double>(sketch.length);
+        for (double c : sketch) {
+            cells.add(c);
+        }
+        m.put("sketch", cells);
+        return m;
+    }
+
+    /** Rebuilds a summary written by {@link #toMap}, e.g. read back with {@link JsonUtil#parse}. */
+    public static HeavyHitters fromMap(Map<String, Object> m) {
+        HeavyHitters h = new HeavyHitters((int) num(m.get("k")));
+        h.mergeMap(m);
+        return h;
+    }
+
+    // Caller holds the lock (or owns a new instance)
+    private void mergeMap(Map<String, Object> m) {
+        double otherTotal = num(m.get("total"));
+        Object itemsObj = m.get("items");
+        List<?> items = itemsObj instanceof List ? (List<?>) itemsObj : Collections.emptyList();
+        int otherK = (int) num(m.get("k"));
+
+        // Smallest counter of a full summary: the most a key it does not track can have
+        double myMin = size == k ? counts[heap[0]] : 0;
+        double otherMin = Double.MAX_VALUE;
+        Map<String, double[]> union = new HashMap<String, double[]>((size + items.size()) * 2);
+        for (Object o : items) {
+            if (!(o instanceof Map)) {
+                continue;
+            }
+            Map<?, ?> item = (Map<?, ?>) o;
+            double c = num(item.get("count"));
+            otherMin = Math.min(otherMin, c);
+            union.put(String.valueOf(item.get("key")), new double[]{c, num(item.get("error"))});
+        }
+        otherMin = items.size() >= otherK && otherMin != Double.MAX_VALUE ? otherMin : 0;
+
+        for (double[] v : union.values()) {
+            v[0] += myMin;
+            v[1] += myMin;
+        }
+        for (int s = 0; s < size; s++) {
+            double[] v = union.get(keys[s]);
+            if (v != null) {
+                // Both sides track it: undo the stand-in for this side
+                v[0] += counts[s] - myMin;
+                v[1] += errors[s] - myMin;
+            } else {
+                union.put(keys[s], new double[]{counts[s] + otherMin, errors[s] + otherMin});
+            }
+        }
+
+        List<Map.Entry<String, double[]>> entries = new ArrayList<Map.Entry<String, double[]>>(union.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, double[]>>() {
+            public int compare(Map.Entry<String, double[]> a, Map.Entry<String, double[]> b) {
+                return Double.compare(b.getValue()[0], a.getValue()[0]);
+            }
+        });
+        slots.clear();
+        size = 0;
+        for (int i = 0; i < entries.size() && size < k; i++) {
+            int s = size++;
+            keys[s] = entries.get(i).getKey();
+            counts[s] = entries.get(i).getValue()[0];
+            errors[s] = entries.get(i).getValue()[1];
+            slots.put(keys[s], s);
+        }
+        for (int s = 0; s < size; s++) {
+            heap[s] = s;
+            heapPos[s] = s;
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+
+        Object cells = m.get("sketch");
+        if (cells instanceof List && ((List<?>) cells).size() == sketch.length) {
+            List<?> list = (List<?>) cells;
+            for (int i = 0; i < sketch.length; i++) {
+                sketch[i] += num(list.get(i));
+            }
+        }
+        total += otherTotal;
+    }
+
+    private double sketchEstimate(String key) {
+        double min = Double.MAX_VALUE;
+        for (int d = 0; d < DEPTH; d++) {
+            min = Math.min(min, sketch[cell(key, d)]);
+        }
+        return min;
+    }
+
+    private static int cell(String key, int row) {
+        // murmur3 finalizer over the string hash, one seed per row
+        int h = key.hashCode() ^ SEEDS[row];
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return row * WIDTH + ((h & 0x7FFFFFFF) % WIDTH);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (counts[heap[parent]] <= counts[heap[i]]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int l = 2 * i + 1;
+            int r = l + 1;
+            if (l < size && counts[heap[l]] < counts[heap[smallest]]) {
+                smallest = l;
+            }
+            if (r < size && counts[heap[r]] < counts[heap[smallest]]) {
+                smallest = r;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int t = heap[a];
+        heap[a] = heap[b];
+        heap[b] = t;
+        heapPos[heap[a]] = a;
+        heapPos[heap[b]] = b;
+    }
+
+    private static double num(Object v) {
+        return v instanceof Number ? ((Number) v).doubleValue() : 0.0;
+    }
+}
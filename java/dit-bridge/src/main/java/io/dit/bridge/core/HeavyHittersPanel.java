@@ -0,0 +1,54 @@
+package io.dit.bridge.core;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link HeavyHitters} summary as a ranked list: key, estimated seconds,
+ * share of the total and, where the panel is wide enough, the guaranteed
+ * minimum. The title carries the total, so a share can be read as seconds
+ * too.
+ */
+public final class HeavyHittersPanel extends TuiPanel {
+
+    private static final int NUM_W = 9;
+    private static final int SHARE_W = 7;
+
+    private final String title;
+    private List<Map<String, Object>> rows = Collections.emptyList();
+    private double total;
+
+    public HeavyHittersPanel(String title) {
+        this.title = title;
+    }
+
+    public void bind(List<Map<String, Object>> rows, double total) {
+        this.rows = bindValue(this.rows, rows);
+        this.total = bindValue(this.total, total);
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, title + " (" + fmt("%,.0f", total) + "s)", TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        // Narrow panels (2x2 on 80 columns) drop the lower bound so a whole sql_id fits
+        boolean showMin = areaW >= 48;
+        int keyW = Math.max(8, areaW - NUM_W - SHARE_W - (showMin ? NUM_W : 0));
+        int sr = top + 1;
+        canvas.drawText(sr++, col, truncate(padRight("Key", keyW) + padRight("Est. s", NUM_W)
+                + padRight("Share", SHARE_W) + (showMin ? "Min s" : ""), areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+        if (rows.isEmpty()) {
+            canvas.drawText(sr, col, truncate("Nothing counted yet", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+        for (int i = 0; i < rows.size() && sr < top + height - 1; i++) {
+            Map<String, Object> r = rows.get(i);
+            String line = padRight(truncate(str(r.get("key")), keyW - 1), keyW)
+                    + padRight(fmt("%,.1f", dbl(r.get("weight"))), NUM_W)
+                    + padRight(fmt("%.1f%%", dbl(r.get("share")) * 100), SHARE_W)
+                    + (showMin ? fmt("%,.1f", dbl(r.get("min_weight"))) : "");
+            canvas.drawText(sr++, col, truncate(line, areaW), TuiTheme.FG, TuiTheme.BG);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package io.dit.bridge.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ranked I/O hotspots of the last slow-tier interval: datafiles from
+ * {@code file_io} or segments from {@code segment_io}. Columns are declared
+ * like {@link LoadProfilePanel} metric rows; the last column takes the
+ * remaining width.
+ */
+public final class IoHotspotPanel extends TuiPanel {
+
+    /** One table column: header, row key, width and value format (null for text). */
+    public static final class Column {
+        final String header;
+        final String key;
+        final int width;
+        final String valFmt;
+
+        public Column(String header, String key, int width, String valFmt) {
+            this.header = header;
+            this.key = key;
+            this.width = width;
+            this.valFmt = valFmt;
+        }
+    }
+
+    public static final List<Column> FILE_COLUMNS = Arrays.asList(
+            new Column("File#", "file_id", 7, null),
+            new Column("Tablespace", "tablespace", 16, null),
+            new Column("Reads/s", "reads_per_sec", 10, "%,.1f"),
+            new Column("Rd ms", "avg_read_ms", 8, "%,.2f"),
+            new Column("Rd MB/s", "read_mb_per_sec", 9, "%,.2f"),
+            new Column("Writes/s", "writes_per_sec", 10, "%,.1f"),
+            new Column("Wr ms", "avg_write_ms", 8, "%,.2f"),
+            new Column("Wr MB/s", "write_mb_per_sec", 9, "%,.2f"),
+            new Column("File", "file_name", 0, null));
+
+    public static final List<Column> SEGMENT_COLUMNS = Arrays.asList(
+            new Column("Owner", "owner", 14, null),
+            new Column("Type", "object_type", 16, null),
+            new Column("Tablespace", "tablespace", 16, null),
+            new Column("Phy Rd/s", "physical_reads_per_sec", 10, "%,.1f"),
+            new Column("Phy Wr/s", "physical_writes_per_sec", 10, "%,.1f"),
+            new Column("Busy/s", "buffer_busy_per_sec", 9, "%,.2f"),
+            new Column("Object", "object_name", 0, null));
+
+    private final String title;
+    private final String listKey;
+    private final List<Column> columns;
+    private Map<String, Object> io;
+
+    /** @param listKey row list in the bound map ({@code files} or {@code segments}) */
+    public IoHotspotPanel(String title, String listKey, List<Column> columns) {
+        this.title = title;
+        this.listKey = listKey;
+        this.columns = columns;
+    }
+
+    public void bind(Map<String, Object> io) {
+        this.io = bindValue(this.io, io);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void draw(TuiCanvas canvas) {
+        double interval = io != null ? dbl(io.get("interval_s")) : 0;
+        canvas.drawBox(top, left, width, height,
+                title + (interval > 0 ? " (last " + fmt("%.0f", interval) + "s)" : ""), TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+        if (io == null) {
+            canvas.drawText(sr, col, truncate("I/O hotspots are not available for this database", areaW),
+                    TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+        String error = str(io.get("error"));
+        if (!error.isEmpty()) {
+            canvas.drawText(sr++, col, truncate("Query failed: " + error, areaW),
+                    TuiTheme.waitClassColor("Application"), TuiTheme.BG);
+        }
+
+        StringBuilder header = new StringBuilder();
+        for (Column c : columns) {
+            header.append(c.width > 0 ? padRight(c.header, c.width) : c.header);
+        }
+        canvas.drawText(sr++, col, truncate(header.toString(), areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) io.get(listKey);
+        int maxRows = top + height - 1 - sr;
+        if (rows == null || rows.isEmpty()) {
+            if (maxRows > 0) {
+                canvas.drawText(sr, col, truncate(interval > 0 ? "No I/O in the last interval"
+                        : "Waiting for a second snapshot...", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            }
+            return;
+        }
+        for (int i = 0; i < maxRows && i < rows.size(); i++) {
+            Map<String, Object> r = rows.get(i);
+            StringBuilder line = new StringBuilder();
+            for (Column c : columns) {
+                String v = c.valFmt != null ? String.format(Locale.US, c.valFmt, dbl(r.get(c.key))) : str(r.get(c.key));
+                line.append(c.width > 0 ? padRight(truncate(v, c.width - 1), c.width) : v);
+            }
+            canvas.drawText(sr + i, col, truncate(line.toString(), areaW), TuiTheme.FG, TuiTheme.BG);
+        }
+    }
+}
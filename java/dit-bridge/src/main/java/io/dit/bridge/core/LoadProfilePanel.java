@@ -0,0 +1,157 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Metric rows with sparkline history (Load Profile, I/O profile). Dirty
+ * whenever a new metrics sample is bound, since the sparklines advance even
+ * if values repeat. Values are colored by threshold level, and those off
+ * their learned baseline get an up or down marker.
+ */
+public final class LoadProfilePanel extends TuiPanel {
+
+    private static final int LABEL_W = 18;
+    private static final int VALUE_W = 16;
+    private static final int SPARK_W = 40;
+
+    /** One metric row: label, metrics key, value format and optional share-of key. */
+    public static final class MetricRow {
+        final String label;
+        final String key;
+        final String valFmt;
+        final String shareOfKey;
+
+        public MetricRow(String label, String key, String valFmt, String shareOfKey) {
+            this.label = label;
+            this.key = key;
+            this.valFmt = valFmt;
+            this.shareOfKey = shareOfKey;
+        }
+
+        public MetricRow(String label, String key, String valFmt) {
+            this(label, key, valFmt, null);
+        }
+    }
+
+    public static final List<MetricRow> LOAD_PROFILE_ROWS = Arrays.asList(
+            new MetricRow("Host CPU %", "host_cpu_util", "%,.1f"),
+            new MetricRow("Active Sessions", "active_sessions", "%,.2f"),
+            new MetricRow("DB Time/s", "db_time_per_sec", "%,.2f"),
+            new MetricRow("CPU Time/s", "cpu_time_per_sec", "%,.2f", "db_time_per_sec"),
+            new MetricRow("Wait Time/s", "wait_time_per_sec", "%,.2f", "db_time_per_sec"),
+            new MetricRow(" SQL Exec Time/s", "sql_exec_time_per_sec", "%,.2f", "db_time_per_sec"),
+            new MetricRow(" PL/SQL Time/s", "plsql_time_per_sec", "%,.2f", "db_time_per_sec"),
+            new MetricRow(" Parse Time/s", "parse_time_per_sec", "%,.2f", "db_time_per_sec"),
+            new MetricRow("BG CPU Time/s", "bg_cpu_per_sec", "%,.2f"),
+            new MetricRow("Logical Reads/s", "logical_reads_per_sec", "%,.0f"),
+            new MetricRow("Tran/s", "tran_per_sec", "%,.0f"),
+            new MetricRow("SQL Exec/s", "sql_exec_per_sec", "%,.0f"),
+            new MetricRow("Parse Total/s", "parse_total_per_sec", "%,.0f"),
+            new MetricRow("Hard Parse/s", "hard_parses_per_sec", "%,.0f"),
+            new MetricRow("Phy Reads/s", "physical_reads_per_sec", "%,.0f"),
+            new MetricRow("Phy Read MB/s", "physical_read_mb_per_sec", "%,.2f"),
+            new MetricRow("Phy Write MB/s", "physical_write_mb_per_sec", "%,.2f"),
+            new MetricRow("Redo MB/s", "redo_mb_per_sec", "%,.2f"));
+
+    public static final List<MetricRow> IO_PROFILE_ROWS = Arrays.asList(
+            new MetricRow("Phy Reads/s", "physical_reads_per_sec", "%,.0f"),
+            new MetricRow("Phy Writes/s", "physical_writes_per_sec", "%,.0f"),
+            new MetricRow("Phy Read MB/s", "physical_read_mb_per_sec", "%,.2f"),
+            new MetricRow("Phy Write MB/s", "physical_write_mb_per_sec", "%,.2f"),
+            new MetricRow("Redo MB/s", "redo_mb_per_sec", "%,.2f"),
+            new MetricRow("Logical Reads/s", "logical_reads_per_sec", "%,.0f"),
+            new MetricRow("Buffer Hit %", "buffer_cache_hit", "%,.2f"));
+
+    private final String title;
+    private final List<MetricRow> rows;
+    private MetricsBuffer metricsBuffer;
+    private Map<String, Object> metrics;
+    private String subject;
+    private AlertEngine alerts;
+    private BaselineEngine baseline;
+
+    public LoadProfilePanel(String title, List<MetricRow> rows, MetricsBuffer metricsBuffer) {
+        this.title = title;
+        this.rows = rows;
+        this.metricsBuffer = metricsBuffer;
+    }
+
+    /** Colors values by the engine's current level for their metric key. */
+    public void setAlerts(AlertEngine alerts) {
+        this.alerts = alerts;
+    }
+
+    /** Marks values outside their learned baseline, unless a threshold level already colors them. */
+    public void setBaseline(BaselineEngine baseline) {
+        this.baseline = baseline;
+    }
+
+    public void bind(Map<String, Object> metrics) {
+        if (metrics != this.metrics) {
+            this.metrics = metrics;
+            markDirty();
+        }
+    }
+
+    /** Shows another subject's metrics and history (e.g. the selected PDB), named in the title. */
+    public void bind(String subject, Map<String, Object> metrics, MetricsBuffer history) {
+        if (metrics != this.metrics || history != metricsBuffer || !str(subject).equals(str(this.subject))) {
+            this.subject = subject;
+            this.metrics = metrics;
+            this.metricsBuffer = history;
+            markDirty();
+        }
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, subject != null ? title + ": " + subject : title, TuiTheme.BORDER_FG);
+        if (metrics == null) {
+            return;
+        }
+        int pr = top + 1;
+        for (MetricRow r : rows) {
+            if (pr >= top + height - 1) {
+                break;
+            }
+            drawMetricRow(canvas, pr++, left + 2, r);
+        }
+    }
+
+    /**
+     * Draws label, value and sparkline. A share-of key appends the value's
+     * share of that metric as a percentage (e.g. CPU share of DB Time).
+     * Metrics the collector does not provide are shown as "-".
+     */
+    private void drawMetricRow(TuiCanvas canvas, int row, int col, MetricRow r) {
+        double val = dbl(metrics.get(r.key));
+        String valStr = String.format(Locale.US, r.valFmt, val);
+        if (!metrics.containsKey(r.key)) {
+            valStr = "-";
+        } else if (r.shareOfKey != null) {
+            double baseValue = dbl(metrics.get(r.shareOfKey));
+            String pct = baseValue > 0.001 ? fmt("%.0f%%", val / baseValue * 100) : "-";
+            valStr = valStr + " (" + pct + ")";
+        }
+        int sparkW = Math.max(0, Math.min(SPARK_W, width - 4 - LABEL_W - VALUE_W));
+        int level = alerts != null ? alerts.severity(r.key) : AlertEngine.OK;
+        TextColor valueFg = TuiTheme.severityColor(level, TuiTheme.VALUE_FG);
+        int deviation = baseline != null && metrics.containsKey(r.key) ? baseline.state(r.key) : BaselineEngine.NORMAL;
+        if (deviation != BaselineEngine.NORMAL) {
+            valStr = valStr + (deviation == BaselineEngine.HIGH ? " \u25B2" : " \u25BC");
+            if (level == AlertEngine.OK) {
+                valueFg = TuiTheme.ANOMALY_FG;
+            }
+        }
+        canvas.drawText(row, col, padRight(r.label, LABEL_W), TuiTheme.HEADER_FG, TuiTheme.BG);
+        canvas.drawText(row, col + LABEL_W, padRight(valStr, VALUE_W), valueFg, TuiTheme.BG);
+        if (sparkW > 0 && metricsBuffer != null) {
+            canvas.drawText(row, col + LABEL_W + VALUE_W, metricsBuffer.sparkline(r.key, sparkW),
+                    TuiTheme.SPARK_FG, TuiTheme.BG);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Blocker forest built from one session list in linear time. Every session
+ * waits on at most one blocker, so the wait-for graph is a set of trees whose
+ * roots are the root blockers, plus at most one cycle per component
+ * (a deadlock). Each node knows its chain depth and the number of sessions
+ * waiting behind it, directly or transitively.
+ */
+public final class LockGraph {
+
+    public static final class Node {
+        private final String sid;
+        private Map<String, Object> row;    // null for blockers that are not in the session list
+        private Node blocker;
+        private final List<Node> waiters = new ArrayList<Node>(2);
+        private int depth;
+        private int waiterCount;
+        private boolean inCycle;
+
+        private Node(String sid) {
+            this.sid = sid;
+        }
+
+        public String sid() {
+            return sid;
+        }
+
+        public Map<String, Object> row() {
+            return row;
+        }
+
+        public List<Node> waiters() {
+            return waiters;
+        }
+
+        /** 0 for a root blocker (or a deadlock member), 1 for its direct waiters, ... */
+        public int depth() {
+            return depth;
+        }
+
+        /** Sessions blocked behind this one, transitively. */
+        public int waiterCount() {
+            return waiterCount;
+        }
+
+        public boolean inCycle() {
+            return inCycle;
+        }
+    }
+
+    /** One line of the flattened tree, in display order. */
+    public static final class Line {
+        private final Node node;
+        private final int level;
+
+        private Line(Node node, int level) {
+            this.node = node;
+            this.level = level;
+        }
+
+        public Node node() {
+            return node;
+        }
+
+        public int level() {
+            return level;
+        }
+    }
+
+    private static final Comparator<Node> BY_WAITERS = new Comparator<Node>() {
+        public int compare(Node a, Node b) {
+            if (a.waiterCount != b.waiterCount) {
+                return b.waiterCount - a.waiterCount;
+            }
+            // Numeric sids: shorter strings are smaller numbers
+            if (a.sid.length() != b.sid.length()) {
+                return a.sid.length() - b.sid.length();
+            }
+            return a.sid.compareTo(b.sid);
+        }
+    };
+
+    private final List<Node> roots = new ArrayList<Node>();
+    private final List<List<Node>> cycles = new ArrayList<List<Node>>();
+    private int waiting;
+    private int maxDepth;
+
+    private LockGraph() {
+    }
+
+    /**
+     * Builds the forest from session rows carrying {@code sid} and
+     * {@code blocking_sid}. Sessions that neither wait nor block are ignored.
+     */
+    public static LockGraph build(List<Map<String, Object>> sessions) {
+        Map<String, Node> nodes = new HashMap<String, Node>();
+        if (sessions != null) {
+            for (Map<String, Object> s : sessions) {
+                String sid = str(s.get("sid"));
+                String blk = str(s.get("blocking_sid"));
+                if (sid.isEmpty()) {
+                    continue;
+                }
+                Node n = node(nodes, sid);
+                n.row = s;
+                if (!blk.isEmpty() && !blk.equals(sid)) {
+                    Node b = node(nodes, blk);
+                    n.blocker = b;
+                    b.waiters.add(n);
+                }
+            }
+        }
+        LockGraph g = new LockGraph();
+        g.link(nodes);
+        return g;
+    }
+
+    private static Node node(Map<String, Node> nodes, String sid) {
+        Node n = nodes.get(sid);
+        if (n == null) {
+            n = new Node(sid);
+            nodes.put(sid, n);
+        }
+        return n;
+    }
+
+    private void link(Map<String, Node> nodes) {
+        // Cycle detection on the functional graph sid -> blocker: each walk
+        // stamps the nodes it visits; meeting the current stamp closes a cycle.
+        Map<Node, Integer> stamp = new HashMap<Node, Integer>(nodes.size() * 2);
+        int walk = 0;
+        for (Node start : nodes.values()) {
+            if (stamp.containsKey(start)) {
+                continue;
+            }
+            walk++;
+            Node n = start;
+            while (n != null && !stamp.containsKey(n)) {
+                stamp.put(n, walk);
+                n = n.blocker;
+            }
+            if (n != null && stamp.get(n) == walk) {
+                List<Node> cycle = new ArrayList<Node>();
+                Node c = n;
+                do {
+                    c.inCycle = true;
+                    cycle.add(c);
+                    c = c.blocker;
+                } while (c != n);
+                cycles.add(cycle);
+            }
+        }
+
+        for (Node n : nodes.values()) {
+            if (n.blocker != null) {
+                waiting++;
+            }
+            // Root blockers hold locks without waiting; deadlock members act as roots of their component
+            if ((n.blocker == null && !n.waiters.isEmpty()) || n.inCycle) {
+                roots.add(n);
+            }
+        }
+        computeDepthAndCounts();
+        Collections.sort(roots, BY_WAITERS);
+        for (List<Node> cycle : cycles) {
+            Collections.sort(cycle, BY_WAITERS);
+        }
+    }
+
+    /** Breadth-first from the roots, then waiter counts accumulated in reverse order. */
+    private void computeDepthAndCounts() {
+        List<Node> order = new ArrayList<Node>();
+        Deque<Node> queue = new ArrayDeque<Node>();
+        for (Node r : roots) {
+            r.depth = 0;
+            queue.add(r);
+        }
+        while (!queue.isEmpty()) {
+            Node n = queue.poll();
+            order.add(n);
+            for (Node w : n.waiters) {
+                if (w.inCycle) {
+                    continue; // cycle members are roots themselves
+                }
+                w.depth = n.depth + 1;
+                if (w.depth > maxDepth) {
+                    maxDepth = w.depth;
+                }
+                queue.add(w);
+            }
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node n = order.get(i);
+            for (Node w : n.waiters) {
+                if (!w.inCycle) {
+                    n.waiterCount += 1 + w.waiterCount;
+                }
+            }
+        }
+        // Everyone in a deadlock waits on everyone else in it
+        for (List<Node> cycle : cycles) {
+            int total = 0;
+            for (Node c : cycle) {
+                total += c.waiterCount + 1;
+            }
+            for (Node c : cycle) {
+                c.waiterCount = total - 1;
+            }
+        }
+        // Largest subtrees first at every level
+        for (Node n : order) {
+            if (n.waiters.size() > 1) {
+                Collections.sort(n.waiters, BY_WAITERS);
+            }
+        }
+    }
+
+    public List<Node> roots() {
+        return roots;
+    }
+
+    public List<List<Node>> cycles() {
+        return cycles;
+    }
+
+    /** Number of sessions waiting on another session. */
+    public int waitingCount() {
+        return waiting;
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Depth-first display order. Roots listed in {@code collapsed} (or all roots
+     * when {@code collapseAll}) contribute only their own line.
+     */
+    public List<Line> flatten(boolean collapseAll, Set<String> collapsed) {
+        List<Line> out = new ArrayList<Line>();
+        Deque<Line> stack = new ArrayDeque<Line>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            stack.push(new Line(roots.get(i), 0));
+        }
+        while (!stack.isEmpty()) {
+            Line line = stack.pop();
+            out.add(line);
+            Node n = line.node;
+            if (line.level == 0 && (collapseAll || collapsed.contains(n.sid))) {
+                continue;
+            }
+            for (int i = n.waiters.size() - 1; i >= 0; i--) {
+                Node w = n.waiters.get(i);
+                if (!w.inCycle) {
+                    stack.push(new Line(w, line.level + 1));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static String str(Object v) {
+        return v == null ? "" : String.valueOf(v).trim();
+    }
+}
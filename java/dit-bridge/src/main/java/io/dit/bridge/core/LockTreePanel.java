@@ -0,0 +1,205 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Blocker tree: root blockers with their waiters indented below, largest
+ * pile-ups first, deadlock members flagged. The graph is rebuilt only when a
+ * new session list is bound; selection follows the same sid across rebuilds
+ * and only the visible lines are drawn.
+ */
+public final class LockTreePanel extends TuiPanel {
+
+    private final String title;
+    private List<Map<String, Object>> sessions;
+    private LockGraph graph = LockGraph.build(null);
+    private List<LockGraph.Line> lines = Collections.emptyList();
+    private boolean collapseAll;
+    private final Set<String> collapsed = new HashSet<String>();
+    private String selectedSid;
+    private int select;
+    private int scroll;
+
+    public LockTreePanel(String title) {
+        this.title = title;
+    }
+
+    public void bind(List<Map<String, Object>> sessions) {
+        // Carried-forward snapshots reuse the same list: nothing to rebuild
+        if (sessions == this.sessions) {
+            return;
+        }
+        this.sessions = sessions;
+        graph = LockGraph.build(sessions);
+        reflatten();
+    }
+
+    public LockGraph graph() {
+        return graph;
+    }
+
+    /** Navigation plus C (collapse to root blockers) and Left/Right (collapse/expand one root). */
+    public boolean handleKey(KeyStroke key) {
+        KeyType type = key.getKeyType();
+        if (type == KeyType.Character && (key.getCharacter() == 'c' || key.getCharacter() == 'C')) {
+            collapseAll = !collapseAll;
+            collapsed.clear();
+            reflatten();
+        } else if (type == KeyType.ArrowLeft || type == KeyType.ArrowRight) {
+            LockGraph.Node root = selectedRoot();
+            if (root == null) {
+                return false;
+            }
+            if (type == KeyType.ArrowLeft) {
+                collapsed.add(root.sid());
+            } else {
+                collapsed.remove(root.sid());
+                if (collapseAll) {
+                    // Expanding one root out of the collapsed view
+                    collapseAll = false;
+                    for (LockGraph.Node r : graph.roots()) {
+                        if (r != root) {
+                            collapsed.add(r.sid());
+                        }
+                    }
+                }
+            }
+            selectedSid = root.sid();
+            reflatten();
+        } else if (type == KeyType.ArrowUp) {
+            moveSelection(-1);
+        } else if (type == KeyType.ArrowDown) {
+            moveSelection(1);
+        } else if (type == KeyType.PageUp) {
+            moveSelection(-10);
+        } else if (type == KeyType.PageDown) {
+            moveSelection(10);
+        } else if (type == KeyType.Home) {
+            moveSelection(-lines.size());
+        } else if (type == KeyType.End) {
+            moveSelection(lines.size());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void moveSelection(int delta) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        select = Math.max(0, Math.min(lines.size() - 1, select + delta));
+        selectedSid = lines.get(select).node().sid();
+        markDirty();
+    }
+
+    private LockGraph.Node selectedRoot() {
+        if (select >= lines.size()) {
+            return null;
+        }
+        // Walk up to the level-0 line above the selection
+        for (int i = select; i >= 0; i--) {
+            if (lines.get(i).level() == 0) {
+                return lines.get(i).node();
+            }
+        }
+        return null;
+    }
+
+    private void reflatten() {
+        lines = graph.flatten(collapseAll, collapsed);
+        select = 0;
+        if (selectedSid != null) {
+            for (int i = 0; i < lines.size(); i++) {
+                if (selectedSid.equals(lines.get(i).node().sid())) {
+                    select = i;
+                    break;
+                }
+            }
+        }
+        markDirty();
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, title, TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+
+        String summary = String.format(" Root blockers: %d   Waiting: %d   Max depth: %d   Deadlocks: %d   %s",
+                graph.roots().size() - cycleMembers(), graph.waitingCount(), graph.maxDepth(),
+                graph.cycles().size(), collapseAll ? "[collapsed: C expand]" : "[C collapse, Left/Right fold]");
+        canvas.drawText(sr++, col, truncate(summary, areaW),
+                graph.cycles().isEmpty() ? TuiTheme.FG : TuiTheme.waitClassColor("Application"), TuiTheme.BG);
+
+        String header = padRight("SID (tree)", 22) + padRight("Waiters", 9) + padRight("User", 12) +
+                padRight("Status", 10) + padRight("Wait Event", 30) + padRight("Wait(s)", 9) +
+                padRight("SQL ID", 15) + "Program";
+        canvas.drawText(sr++, col, truncate(header, areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+
+        int maxVisible = Math.max(1, height - 4);
+        if (select >= lines.size())
+            select = Math.max(0, lines.size() - 1);
+        if (scroll > select)
+            scroll = select;
+        if (select >= scroll + maxVisible)
+            scroll = select - maxVisible + 1;
+        if (lines.isEmpty()) {
+            canvas.drawText(sr, col, truncate("No blocked sessions", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+
+        for (int i = 0; i < maxVisible && scroll + i < lines.size(); i++) {
+            LockGraph.Line line = lines.get(scroll + i);
+            LockGraph.Node n = line.node();
+            Map<String, Object> s = n.row();
+            boolean root = line.level() == 0;
+
+            StringBuilder tree = new StringBuilder();
+            for (int l = 1; l < line.level(); l++) {
+                tree.append("  ");
+            }
+            if (!root) {
+                tree.append("+-");
+            }
+            tree.append(n.sid());
+            if (n.inCycle()) {
+                tree.append(" DEADLOCK");
+            } else if (root && (collapseAll || collapsed.contains(n.sid())) && !n.waiters().isEmpty()) {
+                tree.append(" [+]");
+            }
+
+            String text = padRight(truncate(tree.toString(), 21), 22) +
+                    padRight(n.waiterCount() > 0 ? String.valueOf(n.waiterCount()) : "", 9) +
+                    (s == null
+                            ? "(not in session list)"
+                            : padRight(truncate(str(s.get("username")), 11), 12) +
+                              padRight(str(s.get("status")), 10) +
+                              padRight(truncate(str(s.get("event")), 29), 30) +
+                              padRight(fmt("%.0f", dbl(s.get("seconds_in_wait"))), 9) +
+                              padRight(str(s.get("sql_id")), 15) +
+                              str(s.get("program")));
+
+            TextColor fg = n.inCycle() ? TuiTheme.waitClassColor("Application")
+                    : root ? TuiTheme.waitClassColor("Concurrency") : TuiTheme.FG;
+            TextColor bg = scroll + i == select ? TuiTheme.SELECT_BG : TuiTheme.BG;
+            canvas.drawText(sr + i, col, truncate(text, areaW), fg, bg);
+        }
+    }
+
+    private int cycleMembers() {
+        int n = 0;
+        for (List<LockGraph.Node> c : graph.cycles()) {
+            n += c.size();
+        }
+        return n;
+    }
+}
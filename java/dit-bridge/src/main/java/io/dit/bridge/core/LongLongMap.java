@@ -0,0 +1,117 @@
+package io.dit.bridge.core;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long to long for per-cycle counter snapshots
+ * keyed by packed ids. No boxing and no per-entry objects: two parallel
+ * arrays, linear probing, doubled at half load. {@link Long#MIN_VALUE} is
+ * reserved as the empty-slot marker and cannot be used as a key.
+ */
+public final class LongLongMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+
+    public LongLongMap(int expected) {
+        int cap = 16;
+        while (cap < expected * 2) {
+            cap <<= 1;
+        }
+        allocate(cap);
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        values = new long[cap];
+        Arrays.fill(keys, EMPTY);
+        mask = cap - 1;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Empties the map but keeps its capacity, so a reused snapshot map does not allocate. */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+    }
+
+    public long get(long key, long missing) {
+        int i = slot(key);
+        return keys[i] == EMPTY ? missing : values[i];
+    }
+
+    public boolean containsKey(long key) {
+        return keys[slot(key)] != EMPTY;
+    }
+
+    public void put(long key, long value) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            if (++size * 2 > keys.length) {
+                values[i] = value;
+                grow();
+                return;
+            }
+        }
+        values[i] = value;
+    }
+
+    /** Slot count for index-based iteration with {@link #used}, {@link #keyAt} and {@link #valueAt}. */
+    public int capacity() {
+        return keys.length;
+    }
+
+    public boolean used(int slot) {
+        return keys[slot] != EMPTY;
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    public long valueAt(int slot) {
+        return values[slot];
+    }
+
+    private int slot(long key) {
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int s = slot(oldKeys[i]);
+                keys[s] = oldKeys[i];
+                values[s] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
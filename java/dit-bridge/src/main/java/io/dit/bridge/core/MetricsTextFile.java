@@ -0,0 +1,224 @@
+package io.dit.bridge.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prometheus text exposition of the latest snapshot for {@code --metrics-file},
+ * meant for node_exporter's textfile collector: Prometheus scrapes
+ * node_exporter, which reads this file, so a scrape never reaches DIT or the
+ * database and DIT does not open a listener.
+ *
+ * <p>The text is rendered once per collection into a byte array on the
+ * caller's thread; a daemon thread writes the most recent one to a temporary
+ * file next to the target and renames it over the target, so readers never
+ * see a half-written file. Snapshots published faster than the disk keeps up
+ * are coalesced; {@link #close} still writes the last one queued.
+ *
+ * <p>Series: every mapped Load Profile metric as {@code dit_<name>}, the
+ * real-time top wait deltas per event, and collector self-metrics. While the
+ * connection is down only the self-metrics are written, so graphs show a gap
+ * rather than the last good values.
+ */
+public final class MetricsTextFile {
+
+    private final Path path;
+    private final Path tmpPath;
+    private final Object lock = new Object();
+    private final Thread writer;
+    private volatile String lastError = "";
+
+    // Guarded by lock
+    private byte[] pending;
+    private boolean closed;
+
+    public MetricsTextFile(String file) {
+        this.path = Paths.get(file).toAbsolutePath();
+        // node_exporter only reads *.prom, so the temporary name is never picked up
+        this.tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+        this.writer = new Thread(new Runnable() {
+            public void run() {
+                writeLoop();
+            }
+        }, "dit-metrics-file");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Renders a {@link CollectorLoop} snapshot and queues it for writing. Never blocks on I/O. */
+    public void publish(MonitorSnapshot snapshot) {
+        Map<String, Object> data = snapshot.data();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> inst = data != null ? (Map<String, Object>) data.get("instance") : null;
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> waits = data != null ? (List<Map<String, Object>>) data.get("event_metric") : null;
+        String db = inst != null && inst.get("instance_name") != null ? String.valueOf(inst.get("instance_name")) : "";
+        offer(render(db, snapshot.metrics(), waits, snapshot.seq(), snapshot.timestampMs(), snapshot.collectMs(),
+                snapshot.stale(), "UP".equals(snapshot.connectionState())));
+    }
+
+    /** Same for the {@code monitor} command, which collects without a {@link CollectorLoop}. */
+    public void publish(String db, Map<String, Object> metrics, List<Map<String, Object>> waits, long seq,
+            long collectMs, boolean up) {
+        offer(render(db, metrics, waits, seq, System.currentTimeMillis(), collectMs, !up, up));
+    }
+
+    /** Last write failure ("" after a successful write), for the caller's status line. */
+    public String lastError() {
+        return lastError;
+    }
+
+    /** Stops the writer once the last queued snapshot is written, waiting up to two seconds for it. */
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static byte[] render(String db, Map<String, Object> metrics, List<Map<String, Object>> waits, long seq,
+            long timestampMs, long collectMs, boolean stale, boolean up) {
+        String dbLabel = "db=\"" + escape(db) + "\"";
+        StringBuilder sb = new StringBuilder(4096);
+
+        gauge(sb, "dit_up", "1 while the monitoring connection is usable.");
+        sample(sb, "dit_up", dbLabel, up ? 1 : 0);
+        gauge(sb, "dit_snapshot_stale", "1 while the last good data is being repeated during a reconnect.");
+        sample(sb, "dit_snapshot_stale", dbLabel, stale ? 1 : 0);
+        gauge(sb, "dit_snapshot_timestamp_seconds", "Time of the last collection.");
+        sample(sb, "dit_snapshot_timestamp_seconds", dbLabel, timestampMs / 1000.0);
+        gauge(sb, "dit_collect_duration_seconds", "Wall time of the last collection cycle.");
+        sample(sb, "dit_collect_duration_seconds", dbLabel, collectMs / 1000.0);
+        sb.append("# HELP dit_collections_total Collection cycles since start.\n");
+        sb.append("# TYPE dit_collections_total counter\n");
+        sample(sb, "dit_collections_total", dbLabel, seq);
+
+        if (!stale && metrics != null) {
+            for (Map.Entry<String, Object> e : metrics.entrySet()) {
+                if (!(e.getValue() instanceof Number)) {
+                    continue;
+                }
+                String name = "dit_" + metricName(e.getKey());
+                gauge(sb, name, "Load Profile " + e.getKey() + ".");
+                sample(sb, name, dbLabel, ((Number) e.getValue()).doubleValue());
+            }
+        }
+
+        if (!stale && waits != null && !waits.isEmpty()) {
+            gauge(sb, "dit_wait_seconds_per_second", "Real-time wait time per second by event (top events).");
+            for (Map<String, Object> w : waits) {
+                sample(sb, "dit_wait_seconds_per_second", waitLabels(dbLabel, w), num(w.get("wait_sec_per_sec")));
+            }
+            gauge(sb, "dit_waits_per_second", "Real-time waits per second by event (top events).");
+            for (Map<String, Object> w : waits) {
+                sample(sb, "dit_waits_per_second", waitLabels(dbLabel, w), num(w.get("waits_per_sec")));
+            }
+            gauge(sb, "dit_wait_avg_milliseconds", "Real-time average wait by event (top events).");
+            for (Map<String, Object> w : waits) {
+                sample(sb, "dit_wait_avg_milliseconds", waitLabels(dbLabel, w), num(w.get("avg_wait_ms")));
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void offer(byte[] bytes) {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            pending = bytes;
+            lock.notifyAll();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            byte[] bytes;
+            synchronized (lock) {
+                while (!closed && pending == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                // Closed: flush what was queued last, then stop
+                if (pending == null) {
+                    return;
+                }
+                bytes = pending;
+                pending = null;
+            }
+            try {
+                Files.write(tmpPath, bytes);
+                try {
+                    Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+                lastError = "";
+            } catch (IOException e) {
+                // Not printed: the TUI owns the terminal; callers show it in their status line
+                lastError = "metrics file: " + e;
+            }
+        }
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" gauge\n");
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name).append('{').append(labels).append("} ").append(formatValue(value)).append('\n');
+    }
+
+    private static String waitLabels(String dbLabel, Map<String, Object> w) {
+        return dbLabel + ",event=\"" + escape(String.valueOf(w.get("event")))
+                + "\",wait_class=\"" + escape(String.valueOf(w.get("wait_class"))) + "\"";
+    }
+
+    private static String formatValue(double v) {
+        if (Double.isNaN(v)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(v)) {
+            return v > 0 ? "+Inf" : "-Inf";
+        }
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) {
+            return String.valueOf((long) v);
+        }
+        return String.valueOf(v);
+    }
+
+    /** Metric names allow [a-zA-Z0-9_] only. */
+    private static String metricName(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            sb.append((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ? c : '_');
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static String escape(String v) {
+        return v.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static double num(Object v) {
+        return v instanceof Number ? ((Number) v).doubleValue() : 0.0;
+    }
+}
@@ -0,0 +1,67 @@
+package io.dit.bridge.core;
+
+import java.util.Map;
+
+/**
+ * One collection result: raw collector data, mapped Load Profile metrics and
+ * collection bookkeeping. A stale snapshot repeats the last good data while
+ * the connection is being re-established. Snapshots are never mutated after publication, so
+ * they can be handed to the render thread without copying.
+ */
+public final class MonitorSnapshot {
+
+    private final long seq;
+    private final long timestampMs;
+    private final Map<String, Object> data;
+    private final Map<String, Object> metrics;
+    private final long collectMs;
+    private final String error;
+    private final boolean stale;
+    private final String connectionState;
+
+    public MonitorSnapshot(long seq, long timestampMs, Map<String, Object> data, Map<String, Object> metrics,
+            long collectMs, String error, boolean stale, String connectionState) {
+        this.seq = seq;
+        this.timestampMs = timestampMs;
+        this.data = data;
+        this.metrics = metrics;
+        this.collectMs = collectMs;
+        this.error = error == null ? "" : error;
+        this.stale = stale;
+        this.connectionState = connectionState == null ? "" : connectionState;
+    }
+
+    public long seq() {
+        return seq;
+    }
+
+    public long timestampMs() {
+        return timestampMs;
+    }
+
+    public Map<String, Object> data() {
+        return data;
+    }
+
+    public Map<String, Object> metrics() {
+        return metrics;
+    }
+
+    public long collectMs() {
+        return collectMs;
+    }
+
+    public String error() {
+        return error;
+    }
+
+    /** True when data and metrics are carried over from before the connection was lost. */
+    public boolean stale() {
+        return stale;
+    }
+
+    /** {@link ConnectionManager#describe()} at the time of the snapshot. */
+    public String connectionState() {
+        return connectionState;
+    }
+}
@@ -0,0 +1,917 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.ClusterSource;
+import io.dit.bridge.api.CollectQuery;
+import io.dit.bridge.api.DbmsCollector;
+import io.dit.bridge.api.DbmsConnectionFactory;
+import io.dit.bridge.api.WaitDeltaTracker;
+import io.dit.bridge.api.WaitHistogramTracker;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
+import com.googlecode.lanterna.terminal.Terminal;
+import com.googlecode.lanterna.terminal.TerminalResizeListener;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Interactive terminal dashboard shared by all DBMS front-ends, built on the
+ * Lanterna Screen layer and a {@link PanelLayout} of dirty-tracked panels.
+ * The loop is event-driven: a blocking input reader thread, the
+ * {@link CollectorLoop} thread and the terminal resize listener feed one
+ * queue, and the loop sleeps on it until something happens.
+ * Layout (~160x45):
+ * Row 0: Title bar
+ * Row 1: Tab bar (Overview, Sessions, Top SQL, Waits, I/O, Locks, Activity with --ash, PDBs with --pdb,
+ *        Cluster with --cluster, Since Start, Alerts with --thresholds)
+ * Row 2-(h-2): Active view
+ * Last row: Footer / status bar
+ * Each view declares the collector query groups it needs; the
+ * {@link CollectionPlan} runs expensive groups only for the visible view or
+ * at the background rate ({@code --background-every N} cycles, 0 = never);
+ * slow-tier groups (I/O hotspots) run every {@code --slow-every N} cycles.
+ * A {@link TuiServer} runs one dashboard headless and attaches viewers: each
+ * viewer is a second instance over the same collector loop and history with
+ * its own panels, tab, scroll and filter state, which never steers the plan.
+ */
+public abstract class MonitorTui {
+
+    private static final Set<String> IO_WAIT_CLASSES = new HashSet<String>(Arrays.asList("User I/O", "System I/O"));
+
+    private final Backend backend;
+    private final int intervalMs;
+    private final CollectionPlan plan;
+    private final CollectorLoop collectorLoop;
+    private final MetricsBuffer metricsBuffer;
+    // Attached to a TuiServer: shares the collector but never pauses, refreshes or re-plans it
+    private final boolean viewer;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final BlockingQueue<TuiEvent> events = new LinkedBlockingQueue<TuiEvent>();
+    private final Executor uiThread = new Executor() {
+        public void execute(Runnable r) {
+            events.offer(TuiEvent.callback(r));
+        }
+    };
+
+    // ── Chrome: title, tab bar, footer ──
+    private final TextBarPanel titlePanel = new TextBarPanel(TuiTheme.TITLE_FG, TuiTheme.TITLE_BG);
+    private final TextBarPanel footerPanel = new TextBarPanel(TuiTheme.FG, TuiTheme.FOOTER_BG);
+    private final List<TuiView> views = new ArrayList<TuiView>();
+    private final TabBarPanel tabBarPanel = new TabBarPanel(views);
+    private final PanelLayout chrome = new PanelLayout();
+
+    // ── View panels ──
+    private final LoadProfilePanel loadProfilePanel;
+    private final TopWaitsPanel topWaitsPanel = new TopWaitsPanel("Top Waits (Real-time)", true, null);
+    private final SessionsPanel overviewSessionsPanel = new SessionsPanel("Sessions");
+    private final SessionsView sessionsView;
+    private final TopSqlPanel topSqlPanel;
+    private final TopWaitsPanel cumulativeWaitsPanel = new TopWaitsPanel("Waits (Since Startup)", false, null);
+    private final TopWaitsPanel selectableWaitsPanel = new TopWaitsPanel("Top Waits (Real-time)", true, null);
+    private final WaitHistogramPanel waitHistogramPanel = new WaitHistogramPanel("Latency");
+    private final LoadProfilePanel ioProfilePanel;
+    private final TopWaitsPanel ioWaitsPanel = new TopWaitsPanel("I/O Waits (Real-time)", true, IO_WAIT_CLASSES);
+    private final IoHotspotPanel fileIoPanel =
+            new IoHotspotPanel("Hot Files", "files", IoHotspotPanel.FILE_COLUMNS);
+    private final IoHotspotPanel segmentIoPanel =
+            new IoHotspotPanel("Hot Segments", "segments", IoHotspotPanel.SEGMENT_COLUMNS);
+    private final LockTreePanel lockTreePanel = new LockTreePanel("Blocker Tree");
+    private final TopActivityPanel ashSqlPanel =
+            new TopActivityPanel("Top Activity: SQL", "top_sql", "sql_id", "SQL ID", 16, true);
+    private final TopActivityPanel ashEventsPanel =
+            new TopActivityPanel("Top Activity: Events", "top_events", "event", "Event", 32, false);
+    private final TopActivityPanel ashSessionsPanel =
+            new TopActivityPanel("Top Activity: Sessions", "top_sessions", "session", "SID,Serial#", 16, false);
+    private final PdbPanel pdbPanel = new PdbPanel("Containers (Up/Down: select)");
+    private final LoadProfilePanel pdbProfilePanel =
+            new LoadProfilePanel("Load Profile", LoadProfilePanel.LOAD_PROFILE_ROWS, null);
+    private final ClusterPanel clusterPanel = new ClusterPanel("Cluster Instances");
+    private final AlertsPanel alertsPanel = new AlertsPanel("Alert Delivery");
+    private final HeavyHittersPanel topSqlIdsPanel = new HeavyHittersPanel("SQL by Elapsed");
+    private final HeavyHittersPanel topEventsPanel = new HeavyHittersPanel("Events by Wait Time");
+    private final HeavyHittersPanel topUsersPanel = new HeavyHittersPanel("Users by DB Time");
+    private final HeavyHittersPanel topProgramsPanel = new HeavyHittersPanel("Programs by DB Time");
+    private final boolean ashEnabled;
+    private final boolean pdbEnabled;
+    private final boolean clusterEnabled;
+
+    // Touched only by the TUI loop thread
+    private MonitorSnapshot currentSnapshot;
+    private int activeView = 0;
+    private boolean layoutChanged;
+    private boolean embedded;
+    private boolean frozen;
+
+    protected MonitorTui(Map<String, String> options, DbmsConnectionFactory connectionFactory,
+            DbmsCollector collector, WaitDeltaTracker waitDeltaTracker, WaitHistogramTracker waitHistogramTracker,
+            ClusterSource clusterSource, String sqlPanelTitle) {
+        this(new Backend(options, connectionFactory, collector, waitDeltaTracker, waitHistogramTracker,
+                clusterSource, sqlPanelTitle), false);
+    }
+
+    /** Viewer of a served dashboard: fresh panels and view state over {@code primary}'s collector. */
+    protected MonitorTui(MonitorTui primary) {
+        this(primary.backend, true);
+    }
+
+    private MonitorTui(Backend backend, boolean viewer) {
+        Map<String, String> options = backend.options;
+        this.backend = backend;
+        this.viewer = viewer;
+        this.intervalMs = backend.intervalMs;
+        this.plan = backend.plan;
+        this.collectorLoop = backend.collectorLoop;
+        this.metricsBuffer = backend.metricsBuffer;
+        this.loadProfilePanel = new LoadProfilePanel("Load Profile", LoadProfilePanel.LOAD_PROFILE_ROWS, metricsBuffer);
+        this.ioProfilePanel = new LoadProfilePanel("I/O Profile", LoadProfilePanel.IO_PROFILE_ROWS, metricsBuffer);
+        loadProfilePanel.setAlerts(backend.alerts);
+        ioProfilePanel.setAlerts(backend.alerts);
+        loadProfilePanel.setBaseline(backend.baseline);
+        ioProfilePanel.setBaseline(backend.baseline);
+        this.clusterEnabled = backend.clusterCollector != null;
+        this.topSqlPanel = new TopSqlPanel(backend.sqlPanelTitle);
+        this.ashEnabled = options.containsKey("ash") && supportsAsh();
+        this.pdbEnabled = options.containsKey("pdb") && supportsPdb();
+        this.sessionsView = new SessionsView("Sessions", backend.collector, collectorLoop, uiThread,
+                Math.max(10, intVal(options.get("session-page-size"), 50)),
+                intVal(options.get("session-index-max"), 5000), viewer);
+        chrome.add(titlePanel).add(tabBarPanel).add(footerPanel);
+        buildViews();
+        if (!viewer) {
+            for (TuiView v : views) {
+                plan.register(v.queries());
+            }
+            plan.setVisible(views.get(activeView).queries());
+        }
+    }
+
+    /** Collector side of a dashboard; viewers attached by a {@link TuiServer} share the primary's. */
+    private static final class Backend {
+        final Map<String, String> options;
+        final int intervalMs;
+        final CollectionPlan plan;
+        final MetricsBuffer metricsBuffer = new MetricsBuffer(60);
+        final DbmsCollector collector;
+        final ClusterCollector clusterCollector;
+        final CollectorLoop collectorLoop;
+        final String sqlPanelTitle;
+        final MetricsTextFile metricsFile;
+        final AlertEngine alerts;
+        final AlertDispatcher alertDispatcher;
+        final BaselineEngine baseline;
+        final HeavyHitterTracker heavyHitters;
+
+        Backend(Map<String, String> options, DbmsConnectionFactory connectionFactory, DbmsCollector collector,
+                WaitDeltaTracker waitDeltaTracker, WaitHistogramTracker waitHistogramTracker,
+                ClusterSource clusterSource, String sqlPanelTitle) {
+            this.options = options;
+            this.intervalMs = Math.max(1, intVal(options.get("interval"), 6)) * 1000;
+            this.plan = new CollectionPlan(intVal(options.get("background-every"), 10),
+                    intVal(options.get("slow-every"), 5));
+            this.collector = collector;
+            this.clusterCollector = options.containsKey("cluster") && clusterSource != null
+                    ? new ClusterCollector(options, connectionFactory, clusterSource,
+                            intVal(options.get("cluster-gv-budget-ms"), 2000), 50)
+                    : null;
+            this.collectorLoop = new CollectorLoop(options, connectionFactory, collector, waitDeltaTracker,
+                    waitHistogramTracker, clusterCollector, metricsBuffer, plan, intervalMs);
+            this.sqlPanelTitle = sqlPanelTitle;
+            // --metrics-file: textfile-collector export, rendered once per collection on the collector thread
+            String file = options.get("metrics-file");
+            this.metricsFile = file != null && !file.trim().isEmpty() ? new MetricsTextFile(file.trim()) : null;
+            if (metricsFile != null) {
+                collectorLoop.addListener(new CollectorLoop.Listener() {
+                    public void onSnapshot(MonitorSnapshot snapshot) {
+                        metricsFile.publish(snapshot);
+                    }
+                });
+            }
+            // --thresholds: severity levels for value colors, evaluated once per fresh snapshot
+            String thresholds = options.get("thresholds");
+            this.alerts = thresholds != null && !thresholds.trim().isEmpty()
+                    ? AlertEngine.load(thresholds.trim(), str(options.get("dbms-type")).toLowerCase(Locale.ROOT))
+                    : null;
+            // Since Start: fixed-size top-k of sql_id / event / username / program over the whole run
+            this.heavyHitters = new HeavyHitterTracker(intVal(options.get("heavy-hitters-k"), 100), intervalMs);
+            collectorLoop.addListener(new CollectorLoop.Listener() {
+                @SuppressWarnings("unchecked")
+                public void onSnapshot(MonitorSnapshot snapshot) {
+                    Map<String, Object> data = snapshot.data();
+                    if (snapshot.stale() || data == null) {
+                        heavyHitters.gap();
+                        return;
+                    }
+                    heavyHitters.observe((List<Map<String, Object>>) data.get("sql_hotspots"),
+                            (List<Map<String, Object>>) data.get("event_metric"),
+                            (List<Map<String, Object>>) data.get("sessions"), snapshot.timestampMs());
+                }
+            });
+            // --baseline: learned per-metric baselines, pushed once per fresh snapshot
+            this.baseline = BaselineEngine.enabled(options) ? new BaselineEngine(options) : null;
+            String seed = options.get("baseline-seed");
+            if (baseline != null) {
+                if (seed != null && !seed.trim().isEmpty()) {
+                    baseline.seed(seed.trim());
+                }
+                collectorLoop.addListener(new CollectorLoop.Listener() {
+                    public void onSnapshot(MonitorSnapshot snapshot) {
+                        if (!snapshot.stale()) {
+                            baseline.push(snapshot.metrics());
+                        }
+                    }
+                });
+            }
+            // --alert-*: state changes go to the sinks through a queue, never delivered on the collector thread
+            this.alertDispatcher = alerts != null ? new AlertDispatcher(options) : null;
+            if (alerts != null) {
+                collectorLoop.addListener(new CollectorLoop.Listener() {
+                    @SuppressWarnings("unchecked")
+                    public void onSnapshot(MonitorSnapshot snapshot) {
+                        if (!snapshot.stale() && snapshot.data() != null) {
+                            List<Map<String, Object>> changes = alerts.evaluate(snapshot.metrics(),
+                                    (List<Map<String, Object>>) snapshot.data().get("lock_sessions"),
+                                    snapshot.timestampMs());
+                            if (!changes.isEmpty()) {
+                                Map<String, Object> inst = (Map<String, Object>) snapshot.data().get("instance");
+                                for (Map<String, Object> alert : changes) {
+                                    alert.put("instance_name", inst != null ? str(inst.get("instance_name")) : "");
+                                }
+                                alertDispatcher.offer(changes);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /** Instance label used in the title bar until V$INSTANCE has been read. */
+    protected abstract String defaultInstanceName();
+
+    /** True when the collector reads V$ACTIVE_SESSION_HISTORY once {@code --ash} is given. */
+    protected boolean supportsAsh() {
+        return false;
+    }
+
+    /** True when the collector reads per-container metrics (V$CON_SYSMETRIC) once {@code --pdb} is given. */
+    protected boolean supportsPdb() {
+        return false;
+    }
+
+    /** Version label shown in the title bar. */
+    protected String versionLabel(String version) {
+        return version;
+    }
+
+    /** A viewer over this dashboard's collector, for {@link TuiServer}; implementations call {@link #MonitorTui(MonitorTui)}. */
+    protected abstract MonitorTui newViewer();
+
+    Map<String, String> options() {
+        return backend.options;
+    }
+
+    DbmsCollector collector() {
+        return backend.collector;
+    }
+
+    CollectorLoop collectorLoop() {
+        return collectorLoop;
+    }
+
+    public void run() throws IOException {
+        // Connect BEFORE starting screen so errors are visible on terminal
+        try {
+            collectorLoop.connect();
+        } catch (SQLException e) {
+            System.err.println("Connection failed: " + e.getMessage());
+            return;
+        }
+
+        runOn(new DefaultTerminalFactory().createTerminal());
+    }
+
+    /**
+     * Runs a viewer on a terminal owned by a {@link TuiServer} until Q / Esc
+     * or the client disconnects. The server's collector must already be running.
+     */
+    void runViewer(Terminal terminal) throws IOException {
+        runOn(terminal);
+    }
+
+    private void runOn(Terminal terminal) throws IOException {
+        final Screen screen = new TerminalScreen(terminal);
+        screen.startScreen();
+        screen.setCursorPosition(null); // hide cursor
+
+        terminal.addResizeListener(new TerminalResizeListener() {
+            public void onResized(Terminal t, TerminalSize newSize) {
+                offerResize();
+            }
+        });
+        startInputReader(screen);
+        try {
+            loop(screen);
+        } finally {
+            screen.stopScreen();
+        }
+    }
+
+    /**
+     * Runs the dashboard on a screen owned by the caller (fleet drill-down)
+     * until Q / Esc, then returns with the screen still started. The caller
+     * keeps reading input and forwards it through {@link #offerKey} and
+     * {@link #offerResize}; a failed connection is thrown before anything is drawn.
+     */
+    public void runEmbedded(Screen screen) throws SQLException, IOException {
+        collectorLoop.connect();
+        embedded = true;
+        loop(screen);
+    }
+
+    /** Queues a key for the TUI loop; safe from any thread. */
+    public void offerKey(KeyStroke key) {
+        events.offer(TuiEvent.key(key));
+    }
+
+    /** Queues a terminal resize for the TUI loop; safe from any thread. */
+    public void offerResize() {
+        events.offer(TuiEvent.resize());
+    }
+
+    /** Hands a server-built session index to a viewer's Sessions tab; safe from any thread. */
+    void offerSessionIndex(final SessionIndex index) {
+        events.offer(TuiEvent.callback(new Runnable() {
+            public void run() {
+                sessionsView.bindSharedIndex(index);
+            }
+        }));
+    }
+
+    private void loop(Screen screen) throws IOException {
+        TuiCanvas canvas = new TuiCanvas(screen);
+        CollectorLoop.Listener listener = new CollectorLoop.Listener() {
+            public void onSnapshot(MonitorSnapshot snapshot) {
+                events.offer(TuiEvent.snapshot(snapshot));
+            }
+        };
+        collectorLoop.addListener(listener);
+        // A viewer joins a running collector: start from its latest snapshot
+        currentSnapshot = collectorLoop.latest();
+
+        try {
+            bindPanels();
+            applyLayout(canvas, screen.getTerminalSize());
+            screen.clear();
+            renderPanels(canvas);
+            screen.refresh(Screen.RefreshType.COMPLETE);
+
+            if (!viewer) {
+                collectorLoop.start();
+            }
+
+            while (running.get()) {
+                // Block until a key, a snapshot or a resize arrives: no idle wakeups
+                TuiEvent event = events.take();
+                MonitorSnapshot snapshot = null;
+                boolean resized = false;
+
+                // Drain everything already queued so bursts (held-down arrows,
+                // resize storms) collapse into a single render
+                while (event != null) {
+                    switch (event.type()) {
+                        case KEY:
+                            handleKey(event.key());
+                            if (views.get(activeView).takeLayoutRequest()) {
+                                layoutChanged = true;
+                            }
+                            break;
+                        case SNAPSHOT:
+                            snapshot = event.snapshot();
+                            break;
+                        case RESIZE:
+                            resized = true;
+                            break;
+                        case CALLBACK:
+                            event.callback().run();
+                            break;
+                        default:
+                            break;
+                    }
+                    event = events.poll();
+                }
+                if (!running.get()) {
+                    break;
+                }
+
+                if (snapshot != null && !frozen) {
+                    currentSnapshot = snapshot;
+                    bindPanels();
+                    views.get(activeView).onRefresh();
+                }
+
+                // Resize or tab switch: clear the back buffer and redraw every visible panel
+                if (resized || layoutChanged) {
+                    TerminalSize newSize = resized ? screen.doResizeIfNecessary() : null;
+                    if (newSize == null) {
+                        newSize = screen.getTerminalSize();
+                    }
+                    screen.clear();
+                    applyLayout(canvas, newSize);
+                    chrome.invalidate();
+                    views.get(activeView).layout().invalidate();
+                    layoutChanged = false;
+                }
+
+                // Only panels whose data, view state or bounds changed are redrawn
+                if (renderPanels(canvas)) {
+                    screen.refresh(resized ? Screen.RefreshType.COMPLETE : Screen.RefreshType.DELTA);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.set(false);
+            collectorLoop.removeListener(listener);
+            if (!viewer) {
+                collectorLoop.stop();
+                if (backend.metricsFile != null) {
+                    backend.metricsFile.close();
+                }
+                if (backend.alertDispatcher != null) {
+                    backend.alertDispatcher.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocking key reader on its own daemon thread. Keys are forwarded to the
+     * event queue as they arrive, so input has no polling latency.
+     */
+    private void startInputReader(final Screen screen) {
+        Thread reader = new Thread(new Runnable() {
+            public void run() {
+                while (running.get()) {
+                    KeyStroke key;
+                    try {
+                        key = screen.readInput();
+                    } catch (IOException e) {
+                        key = new KeyStroke(KeyType.EOF);
+                    }
+                    if (key == null) {
+                        continue;
+                    }
+                    if (viewer && key.getKeyType() == KeyType.EOF) {
+                        // Lanterna's telnet input reports EOF for any read that carried only negotiation
+                        // bytes (resize, echo replies) and stops blocking after that; a client that is
+                        // really gone fails the next screen refresh instead
+                        sleepQuietly(50);
+                        continue;
+                    }
+                    events.offer(TuiEvent.key(key));
+                    if (key.getKeyType() == KeyType.EOF) {
+                        return;
+                    }
+                }
+            }
+        }, "dit-input");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // ── Views ──
+
+    private void buildViews() {
+        views.add(new TuiView("Overview", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.LOAD_PROFILE,
+                CollectQuery.WAIT_DELTA, CollectQuery.WAITS, CollectQuery.SESSIONS)) {
+            {
+                layout.add(loadProfilePanel).add(topWaitsPanel).add(overviewSessionsPanel);
+            }
+
+            public void applyLayout(int top, int w, int h) {
+                // Load Profile + Top Waits side by side, sessions below
+                int leftW = w / 2;
+                // Short terminals keep at least 16 rows of profile and give the rest to sessions
+                int profileH = Math.min(LoadProfilePanel.LOAD_PROFILE_ROWS.size() + 2, Math.max(16, h - 8));
+                loadProfilePanel.setBounds(top, 0, leftW, profileH);
+                topWaitsPanel.setBounds(top, leftW, w - leftW, profileH);
+                overviewSessionsPanel.setBounds(top + profileH, 0, w, Math.max(4, h - profileH));
+            }
+
+            public boolean handleKey(KeyStroke key) {
+                return overviewSessionsPanel.navigate(key);
+            }
+        });
+        // Full session list: virtualized paging, or a client-side index while filtering/sorting
+        views.add(sessionsView);
+        views.add(new TuiView("Top SQL", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.LOAD_PROFILE,
+                CollectQuery.SQL_HOTSPOTS)) {
+            {
+                layout.add(topSqlPanel);
+            }
+
+            public void applyLayout(int top, int w, int h) {
+                topSqlPanel.setBounds(top, 0, w, h);
+            }
+
+            public boolean handleKey(KeyStroke key) {
+                if (key.getKeyType() == KeyType.ArrowUp) {
+                    topSqlPanel.scroll(-1);
+                } else if (key.getKeyType() == KeyType.ArrowDown) {
+                    topSqlPanel.scroll(1);
+                } else if (key.getKeyType() == KeyType.PageUp) {
+                    topSqlPanel.scroll(-10);
+                } else if (key.getKeyType() == KeyType.PageDown) {
+                    topSqlPanel.scroll(10);
+                } else {
+                    return false;
+                }
+                return true;
+            }
+        });
+        views.add(new TuiView("Waits", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.WAIT_DELTA,
+                CollectQuery.WAITS, CollectQuery.WAIT_HISTOGRAM)) {
+            private boolean histogramMode;
+
+            {
+                layout.add(selectableWaitsPanel).add(cumulativeWaitsPanel).add(waitHistogramPanel);
+            }
+
+            public void applyLayout(int top, int w, int h) {
+                // H swaps the cumulative table for the selected event's latency histogram
+                int leftW = w / 2;
+                selectableWaitsPanel.setBounds(top, 0, leftW, h);
+                cumulativeWaitsPanel.setBounds(top, leftW, histogramMode ? 0 : w - leftW, histogramMode ? 0 : h);
+                waitHistogramPanel.setBounds(top, leftW, histogramMode ? w - leftW : 0, histogramMode ? h : 0);
+            }
+
+            public boolean handleKey(KeyStroke key) {
+                if (key.getKeyType() == KeyType.Character && (key.getCharacter() == 'h' || key.getCharacter() == 'H')) {
+                    histogramMode = !histogramMode;
+                    if (histogramMode && selectableWaitsPanel.selectedEvent() == null) {
+                        selectableWaitsPanel.moveSelection(0);
+                    }
+                    requestLayout();
+                } else if (key.getKeyType() == KeyType.ArrowUp) {
+                    selectableWaitsPanel.moveSelection(-1);
+                } else if (key.getKeyType() == KeyType.ArrowDown) {
+                    selectableWaitsPanel.moveSelection(1);
+                } else {
+                    return false;
+                }
+                waitHistogramPanel.bind(currentHistograms(), selectableWaitsPanel.selectedEvent());
+                return true;
+            }
+        });
+        views.add(new TuiView("I/O", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.LOAD_PROFILE,
+                CollectQuery.WAIT_DELTA, CollectQuery.WAITS, CollectQuery.FILE_IO, CollectQuery.SEGMENT_IO)) {
+            {
+                layout.add(ioProfilePanel).add(ioWaitsPanel).add(fileIoPanel).add(segmentIoPanel);
+            }
+
+            public void applyLayout(int top, int w, int h) {
+                // Instance-wide profile and I/O waits on top, file and segment hotspots below
+                int leftW = w / 2;
+                int topH = Math.min(h, LoadProfilePanel.IO_PROFILE_ROWS.size() + 2);
+                ioProfilePanel.setBounds(top, 0, leftW, topH);
+                ioWaitsPanel.setBounds(top, leftW, w - leftW, topH);
+                int rest = Math.max(0, h - topH);
+                fileIoPanel.setBounds(top + topH, 0, w, rest / 2);
+                segmentIoPanel.setBounds(top + topH + rest / 2, 0, w, rest - rest / 2);
+            }
+        });
+        views.add(new TuiView("Locks", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.LOCKS)) {
+            {
+                layout.add(lockTreePanel);
+            }
+
+            public void applyLayout(int top, int w, int h) {
+                lockTreePanel.setBounds(top, 0, w, h);
+            }
+
+            public boolean handleKey(KeyStroke key) {
+                return lockTreePanel.handleKey(key);
+            }
+        });
+        if (ashEnabled) {
+            // Rolling ASH aggregate: read incrementally every cycle, cheap enough to stay registered
+            views.add(new TuiView("Activity", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.ASH)) {
+                {
+                    layout.add(ashSqlPanel).add(ashEventsPanel).add(ashSessionsPanel);
+                }
+
+                public void applyLayout(int top, int w, int h) {
+                    int upperH = Math.max(6, h / 2);
+                    int leftW = w / 2;
+                    ashSqlPanel.setBounds(top, 0, w, upperH);
+                    ashEventsPanel.setBounds(top + upperH, 0, leftW, Math.max(4, h - upperH));
+                    ashSessionsPanel.setBounds(top + upperH, leftW, w - leftW, Math.max(4, h - upperH));
+                }
+            });
+        }
+        if (pdbEnabled) {
+            // Cheap single query for all containers: it runs every cycle so each PDB ring stays continuous
+            views.add(new TuiView("PDBs", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.PDB)) {
+                {
+                    layout.add(pdbPanel).add(pdbProfilePanel);
+                }
+
+                public void applyLayout(int top, int w, int h) {
+                    // The container list comes first; the selected PDB's profile gets the rest
+                    int listH = Math.min(12, Math.max(5, h - 12));
+                    pdbPanel.setBounds(top, 0, w, listH);
+                    pdbProfilePanel.setBounds(top + listH, 0, w, Math.max(0, h - listH));
+                }
+
+                public boolean handleKey(KeyStroke key) {
+                    if (key.getKeyType() == KeyType.ArrowUp) {
+                        pdbPanel.moveSelection(-1);
+                    } else if (key.getKeyType() == KeyType.ArrowDown) {
+                        pdbPanel.moveSelection(1);
+                    } else {
+                        return false;
+                    }
+                    bindPdbProfile();
+                    return true;
+                }
+            });
+        }
+        if (clusterEnabled) {
+            // Every instance through gv$, or one connection each once gv$ exceeds its budget
+            views.add(new TuiView("Cluster", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.CLUSTER)) {
+                {
+                    layout.add(clusterPanel);
+                }
+
+                public void applyLayout(int top, int w, int h) {
+                    clusterPanel.setBounds(top, 0, w, h);
+                }
+            });
+        }
+        // Reads the run-long summaries; sessions and SQL refresh every cycle while it is visible
+        views.add(new TuiView("Since Start", EnumSet.of(CollectQuery.INSTANCE, CollectQuery.SESSIONS,
+                CollectQuery.SQL_HOTSPOTS)) {
+            {
+                layout.add(topSqlIdsPanel).add(topEventsPanel).add(topUsersPanel).add(topProgramsPanel);
+            }
+
+            public void applyLayout(int top, int w, int h) {
+                int leftW = w / 2;
+                int upperH = h / 2;
+                topSqlIdsPanel.setBounds(top, 0, leftW, upperH);
+                topEventsPanel.setBounds(top, leftW, w - leftW, upperH);
+                topUsersPanel.setBounds(top + upperH, 0, leftW, h - upperH);
+                topProgramsPanel.setBounds(top + upperH, leftW, w - leftW, h - upperH);
+            }
+        });
+        if (backend.alertDispatcher != null) {
+            // Nothing to collect: sink counters and recent alerts come from the dispatcher
+            views.add(new TuiView("Alerts", EnumSet.of(CollectQuery.INSTANCE)) {
+                {
+                    layout.add(alertsPanel);
+                }
+
+                public void applyLayout(int top, int w, int h) {
+                    alertsPanel.setBounds(top, 0, w, h);
+                }
+            });
+        }
+    }
+
+    private void switchView(int index) {
+        if (index < 0 || index >= views.size() || index == activeView) {
+            return;
+        }
+        activeView = index;
+        TuiView view = views.get(index);
+        layoutChanged = true;
+        bindChrome();
+        view.onRefresh();
+        if (viewer) {
+            // The server collects every view each cycle
+            return;
+        }
+        plan.setVisible(view.queries());
+        // Expensive groups of a hidden view may be up to backgroundEvery cycles old
+        for (CollectQuery q : view.queries()) {
+            if (q.isExpensive()) {
+                collectorLoop.requestRefresh();
+                break;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void bindPanels() {
+        MonitorSnapshot snap = currentSnapshot;
+        Map<String, Object> data = snap != null ? snap.data() : null;
+        Map<String, Object> metrics = snap != null ? snap.metrics() : null;
+        bindChrome();
+        if (data == null || metrics == null) {
+            titlePanel.bind(" Connecting...");
+            return;
+        }
+
+        Map<String, Object> inst = (Map<String, Object>) data.get("instance");
+        String instanceName = inst != null ? str(inst.get("instance_name")) : defaultInstanceName();
+        String hostName = inst != null ? str(inst.get("host_name")) : "";
+        String version = inst != null ? str(inst.get("version")) : "";
+        int activeAlerts = backend.alerts != null ? backend.alerts.activeCount() : 0;
+        int anomalies = backend.baseline != null ? backend.baseline.anomalyCount() : 0;
+        titlePanel.bind(String.format(" DIT%s%s%s | %s@%s | %s | Collected: %s ", snap.stale() ? " [STALE]" : "",
+                activeAlerts > 0 ? " [ALERTS " + activeAlerts + "]" : "",
+                anomalies > 0 ? " [ANOMALIES " + anomalies + "]" : "", instanceName, hostName, versionLabel(version), str(data.get("server_time"))));
+
+        List<Map<String, Object>> eventMetric = (List<Map<String, Object>>) data.get("event_metric");
+        List<Map<String, Object>> waits = (List<Map<String, Object>>) data.get("waits");
+        List<Map<String, Object>> sessions = (List<Map<String, Object>>) data.get("sessions");
+
+        loadProfilePanel.bind(metrics);
+        ioProfilePanel.bind(metrics);
+        topWaitsPanel.bind(eventMetric, waits);
+        ioWaitsPanel.bind(eventMetric, waits);
+        cumulativeWaitsPanel.bind(null, waits);
+        overviewSessionsPanel.bind(sessions);
+        sessionsView.bindSessionStats((Map<String, Object>) data.get("session_stats"));
+        lockTreePanel.bind((List<Map<String, Object>>) data.get("lock_sessions"));
+        fileIoPanel.bind((Map<String, Object>) data.get("file_io"));
+        segmentIoPanel.bind((Map<String, Object>) data.get("segment_io"));
+        topSqlPanel.bind((List<Map<String, Object>>) data.get("sql_hotspots"));
+        selectableWaitsPanel.bind(eventMetric, waits);
+        waitHistogramPanel.bind(currentHistograms(), selectableWaitsPanel.selectedEvent());
+        Map<String, Object> ash = (Map<String, Object>) data.get("ash");
+        ashSqlPanel.bind(ash);
+        ashEventsPanel.bind(ash);
+        ashSessionsPanel.bind(ash);
+        pdbPanel.bind((Map<String, Object>) data.get("pdb"));
+        bindPdbProfile();
+        clusterPanel.bind((Map<String, Object>) data.get("cluster"));
+        bindHeavyHitters(topSqlIdsPanel, HeavyHitterTracker.SQL_ID);
+        bindHeavyHitters(topEventsPanel, HeavyHitterTracker.EVENT);
+        bindHeavyHitters(topUsersPanel, HeavyHitterTracker.USERNAME);
+        bindHeavyHitters(topProgramsPanel, HeavyHitterTracker.PROGRAM);
+        if (backend.alertDispatcher != null) {
+            alertsPanel.bind(backend.alertDispatcher.status(), backend.alertDispatcher.recent(),
+                    backend.alertDispatcher.dropped());
+        }
+    }
+
+    private void bindHeavyHitters(HeavyHittersPanel panel, String dimension) {
+        HeavyHitters summary = backend.heavyHitters.summary(dimension);
+        panel.bind(summary.top(20), summary.total());
+    }
+
+    private void bindPdbProfile() {
+        String name = pdbPanel.selectedName();
+        pdbProfilePanel.bind(name, pdbPanel.selectedMetrics(), name != null ? collectorLoop.containerHistory(name) : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> currentHistograms() {
+        MonitorSnapshot snap = currentSnapshot;
+        return snap != null && snap.data() != null
+                ? (List<Map<String, Object>>) snap.data().get("wait_histograms") : null;
+    }
+
+    private void bindChrome() {
+        tabBarPanel.bind(activeView, frozen ? "[FROZEN] " : plan.isPaused() ? "[PAUSED] " : "");
+        MonitorSnapshot snap = currentSnapshot;
+        String lastError = snap != null ? snap.error() : "";
+        if (lastError.isEmpty() && backend.metricsFile != null) {
+            lastError = backend.metricsFile.lastError();
+        }
+        if (lastError.isEmpty() && backend.alertDispatcher != null) {
+            lastError = backend.alertDispatcher.lastError();
+        }
+        long collectMs = snap != null ? snap.collectMs() : 0;
+        String errStr = lastError.isEmpty() ? "" : " | ERR: " + TuiPanel.truncate(lastError, 40);
+        if (snap != null && snap.stale()) {
+            // Reconnect state first; the full key help would push it off an 80-column footer
+            footerPanel.bind(String.format(" %s  R:Retry now | %s%s", quitLabel(), snap.connectionState(), errStr));
+            return;
+        }
+        footerPanel.bind(String.format(
+                " %s  1-%d/Tab:View  %s  Up/Down:Navigate | Interval: %ds  Collect: %dms%s",
+                quitLabel(), Math.min(views.size(), TabBarPanel.NUMBER_KEYS), viewer ? "P:Freeze" : "P:Pause  R:Refresh", intervalMs / 1000,
+                collectMs, errStr));
+    }
+
+    private String quitLabel() {
+        return viewer ? "Q:Detach" : embedded ? "Q:Back" : "Q:Quit";
+    }
+
+    private void applyLayout(TuiCanvas canvas, TerminalSize size) {
+        canvas.resize(size);
+        int w = size.getColumns();
+        int h = size.getRows();
+        for (TuiView v : views) {
+            for (TuiPanel p : v.layout().panels()) {
+                p.setBounds(0, 0, 0, 0);
+            }
+        }
+        if (w < 40 || h < 10) {
+            for (TuiPanel p : chrome.panels()) {
+                p.setBounds(0, 0, 0, 0);
+            }
+            return;
+        }
+        titlePanel.setBounds(0, 0, w, 1);
+        tabBarPanel.setBounds(1, 0, w, 1);
+        footerPanel.setBounds(h - 1, 0, w, 1);
+        views.get(activeView).applyLayout(2, w, h - 3);
+    }
+
+    private boolean renderPanels(TuiCanvas canvas) {
+        boolean drawn = chrome.renderDirty(canvas);
+        return views.get(activeView).layout().renderDirty(canvas) || drawn;
+    }
+
+    // ── Key handling ──
+
+    private void handleKey(KeyStroke key) {
+        TuiView view = views.get(activeView);
+        if (view.capturesInput() && key.getKeyType() != KeyType.EOF) {
+            view.handleKey(key);
+            return;
+        }
+        if (key.getKeyType() == KeyType.Character) {
+            char c = key.getCharacter();
+            if (c == 'q' || c == 'Q') {
+                running.set(false);
+            } else if (c == 'r' || c == 'R') {
+                collectorLoop.connections().retryNow();
+                if (!viewer) {
+                    collectorLoop.requestRefresh();
+                }
+            } else if (viewer && (c == 'p' || c == 'P')) {
+                // Pausing is the server's business; a viewer only stops following the stream
+                frozen = !frozen;
+                if (!frozen && collectorLoop.latest() != null) {
+                    currentSnapshot = collectorLoop.latest();
+                    bindPanels();
+                    view.onRefresh();
+                }
+                bindChrome();
+            } else if (c == 'p' || c == 'P') {
+                plan.setPaused(!plan.isPaused());
+                if (!plan.isPaused()) {
+                    collectorLoop.requestRefresh();
+                }
+                bindChrome();
+            } else if (c >= '1' && c <= '9') {
+                switchView(c - '1');
+            } else {
+                view.handleKey(key);
+            }
+        } else if (key.getKeyType() == KeyType.Escape || key.getKeyType() == KeyType.EOF) {
+            running.set(false);
+        } else if (key.getKeyType() == KeyType.Tab) {
+            switchView((activeView + 1) % views.size());
+        } else if (key.getKeyType() == KeyType.ReverseTab) {
+            switchView((activeView + views.size() - 1) % views.size());
+        } else {
+            view.handleKey(key);
+        }
+    }
+
+    // ── Helpers ──
+
+    private static String str(Object v) {
+        return v == null ? "" : String.valueOf(v);
+    }
+
+    private static void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int intVal(String v, int fallback) {
+        if (v == null || v.trim().isEmpty())
+            return fallback;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (Exception e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordered set of panels sharing one screen. Renders only dirty panels and
+ * supports a full invalidation after resize or tab switches.
+ */
+public final class PanelLayout {
+
+    private final List<TuiPanel> panels = new ArrayList<TuiPanel>();
+
+    public PanelLayout add(TuiPanel panel) {
+        panels.add(panel);
+        return this;
+    }
+
+    public List<TuiPanel> panels() {
+        return panels;
+    }
+
+    public void invalidate() {
+        for (TuiPanel p : panels) {
+            p.markDirty();
+        }
+    }
+
+    public boolean isDirty() {
+        for (TuiPanel p : panels) {
+            if (p.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Redraws dirty panels into the screen back buffer. Returns true if any cell was written.
+     */
+    public boolean renderDirty(TuiCanvas canvas) {
+        boolean drawn = false;
+        for (TuiPanel p : panels) {
+            if (p.renderIfDirty(canvas)) {
+                drawn = true;
+            }
+        }
+        return drawn;
+    }
+}
@@ -0,0 +1,118 @@
+package io.dit.bridge.core;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Containers of a multitenant CDB with their share of the instance AAS, and
+ * the selection that picks the container shown in the PDB Load Profile.
+ * The selection follows the container name, so it survives PDBs being
+ * opened or closed between polls.
+ */
+public final class PdbPanel extends TuiPanel {
+
+    private static final char BAR = '\u2588'; // █
+
+    private final String title;
+    private Map<String, Object> pdb;
+    private String selected;
+
+    public PdbPanel(String title) {
+        this.title = title;
+    }
+
+    public void bind(Map<String, Object> pdb) {
+        this.pdb = bindValue(this.pdb, pdb);
+    }
+
+    /** Name of the selected container; the first one until the user moves the selection. */
+    public String selectedName() {
+        List<Map<String, Object>> rows = containers();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        return indexOf(rows, selected) >= 0 ? selected : str(rows.get(0).get("name"));
+    }
+
+    /** Metrics of the selected container, or null. */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> selectedMetrics() {
+        List<Map<String, Object>> rows = containers();
+        int i = indexOf(rows, selectedName());
+        return i >= 0 ? (Map<String, Object>) rows.get(i).get("metrics") : null;
+    }
+
+    public void moveSelection(int delta) {
+        List<Map<String, Object>> rows = containers();
+        if (rows.isEmpty()) {
+            return;
+        }
+        int i = Math.max(0, Math.min(rows.size() - 1, Math.max(0, indexOf(rows, selectedName())) + delta));
+        selected = str(rows.get(i).get("name"));
+        markDirty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> containers() {
+        Object rows = pdb != null ? pdb.get("containers") : null;
+        return rows instanceof List ? (List<Map<String, Object>>) rows : Collections.<Map<String, Object>>emptyList();
+    }
+
+    private static int indexOf(List<Map<String, Object>> rows, String name) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (str(rows.get(i).get("name")).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, title, TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+        if (pdb == null) {
+            canvas.drawText(sr, col, truncate("Waiting for V$CON_SYSMETRIC...", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+        String error = str(pdb.get("error"));
+        if (!error.isEmpty()) {
+            canvas.drawText(sr++, col, truncate("Container metrics failed: " + error, areaW),
+                    TuiTheme.waitClassColor("Application"), TuiTheme.BG);
+        }
+        String lead = padRight("Container", 18) + padRight("AAS", 8) + padRight("CPU AAS", 9) + padRight("Exec/s", 10)
+                + padRight("LIO/s", 10) + padRight("Redo MB/s", 11);
+        canvas.drawText(sr++, col, truncate(lead + "AAS Share", areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+
+        List<Map<String, Object>> rows = containers();
+        double total = 0;
+        for (Map<String, Object> r : rows) {
+            total += dbl(((Map<String, Object>) r.get("metrics")).get("active_sessions"));
+        }
+        String current = selectedName();
+        int barW = Math.max(0, areaW - lead.length() - 6);
+        for (int i = 0; i < rows.size() && sr < top + height - 1; i++) {
+            Map<String, Object> r = rows.get(i);
+            Map<String, Object> m = (Map<String, Object>) r.get("metrics");
+            double aas = dbl(m.get("active_sessions"));
+            double share = total > 0 ? aas / total : 0;
+            StringBuilder bar = new StringBuilder();
+            for (int b = 0; b < (int) Math.round(share * barW); b++) {
+                bar.append(BAR);
+            }
+            String line = padRight(truncate(str(r.get("name")), 17), 18)
+                    + padRight(fmt("%.2f", aas), 8)
+                    + padRight(fmt("%.2f", dbl(m.get("cpu_time_per_sec")) / 100.0), 9)
+                    + padRight(fmtHuman(dbl(m.get("sql_exec_per_sec"))), 10)
+                    + padRight(fmtHuman(dbl(m.get("logical_reads_per_sec"))), 10)
+                    + padRight(fmt("%.2f", dbl(m.get("redo_mb_per_sec"))), 11)
+                    + padRight(fmt("%.0f%%", share * 100), 6) + bar;
+            boolean sel = str(r.get("name")).equals(current);
+            canvas.drawText(sr++, col, padRight(truncate(line, areaW), areaW), TuiTheme.FG,
+                    sel ? TuiTheme.SELECT_BG : TuiTheme.BG);
+        }
+    }
+}
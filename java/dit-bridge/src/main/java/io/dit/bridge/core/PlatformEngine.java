@@ -0,0 +1,83 @@
+package io.dit.bridge.core;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CollectionEngine} on a fixed number of daemon platform threads.
+ * Loops are self-rescheduling tasks, so any number of targets share the
+ * pool, but a task blocked in JDBC (a connect waiting for a TCP timeout)
+ * holds its thread until it returns.
+ */
+public final class PlatformEngine implements CollectionEngine {
+
+    private final ScheduledThreadPoolExecutor pool;
+    private volatile boolean closed;
+
+    public PlatformEngine(int threads, final String threadName) {
+        final AtomicInteger n = new AtomicInteger();
+        this.pool = new ScheduledThreadPoolExecutor(Math.max(1, threads), new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, threadName + "-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        this.pool.setRemoveOnCancelPolicy(true);
+    }
+
+    public void start(String name, final Loop loop, long initialDelayMs) {
+        schedule(new Runnable() {
+            public void run() {
+                if (closed) {
+                    return;
+                }
+                long delayMs;
+                try {
+                    delayMs = loop.runOnce();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (delayMs >= 0) {
+                    schedule(this, delayMs);
+                }
+            }
+        }, initialDelayMs);
+    }
+
+    private void schedule(Runnable task, long delayMs) {
+        if (closed) {
+            return;
+        }
+        try {
+            pool.schedule(task, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // closed between the check and the submit
+        }
+    }
+
+    public <T> List<Future<T>> invokeAll(List<? extends Callable<T>> tasks, long timeoutMs)
+            throws InterruptedException {
+        return pool.invokeAll(tasks, Math.max(1, timeoutMs), TimeUnit.MILLISECONDS);
+    }
+
+    public String name() {
+        return "platform";
+    }
+
+    public void close() {
+        closed = true;
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable lookup structure over one session list, built once per collection
+ * on the collector thread. Each filter dimension keeps hash buckets of row ids
+ * per distinct value, and each sort column keeps presorted ascending and
+ * descending permutations, so changing the filter or the sort order is a scan
+ * over distinct values and one pass over a permutation - no re-sorting and no
+ * database round trip.
+ */
+public final class SessionIndex {
+
+    /** Filterable dimensions: term prefix to session row key. */
+    private static final Map<String, String> DIMENSIONS = new LinkedHashMap<String, String>();
+
+    static {
+        DIMENSIONS.put("user", "username");
+        DIMENSIONS.put("program", "program");
+        DIMENSIONS.put("machine", "machine");
+        DIMENSIONS.put("event", "event");
+        DIMENSIONS.put("sql", "sql_id");
+    }
+
+    public enum SortKey {
+        WAIT("Wait(s)", "seconds_in_wait", true),
+        ELAPSED("Elapsed(s)", "elapsed_s", true),
+        SID("SID", "sid", true),
+        USER("User", "username", false),
+        EVENT("Event", "event", false),
+        SQL_ID("SQL ID", "sql_id", false);
+
+        private final String label;
+        private final String column;
+        private final boolean numeric;
+
+        SortKey(String label, String column, boolean numeric) {
+            this.label = label;
+            this.column = column;
+            this.numeric = numeric;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private final List<Map<String, Object>> rows;
+    private final Map<String, Map<String, int[]>> buckets = new HashMap<String, Map<String, int[]>>();
+    private final int[][] permutations = new int[SortKey.values().length][];
+    private final int[][] descPermutations = new int[SortKey.values().length][];
+
+    private SessionIndex(List<Map<String, Object>> rows) {
+        this.rows = rows;
+    }
+
+    public static SessionIndex build(List<Map<String, Object>> sessions) {
+        SessionIndex index = new SessionIndex(Collections.unmodifiableList(
+                new ArrayList<Map<String, Object>>(sessions)));
+        index.buildBuckets();
+        index.buildPermutations();
+        return index;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public Map<String, Object> row(int id) {
+        return rows.get(id);
+    }
+
+    /** Filter term syntax accepted by {@link #select}, for the prompt. */
+    public static String filterHelp() {
+        return "user= program= machine= event= sql= or text";
+    }
+
+    /**
+     * Row ids matching every whitespace-separated filter term, in sort order.
+     * A term {@code dim=text} matches rows whose dimension value contains
+     * {@code text} (case-insensitive); a bare term matches any dimension.
+     */
+    public int[] select(String filter, SortKey sortKey, boolean descending) {
+        BitSet match = null;
+        if (filter != null) {
+            for (String term : filter.trim().split("\\s+")) {
+                if (term.isEmpty()) {
+                    continue;
+                }
+                BitSet termMatch = matchTerm(term);
+                if (match == null) {
+                    match = termMatch;
+                } else {
+                    match.and(termMatch);
+                }
+            }
+        }
+
+        int[] perm = (descending ? descPermutations : permutations)[sortKey.ordinal()];
+        int count = match == null ? perm.length : match.cardinality();
+        int[] out = new int[count];
+        int n = 0;
+        for (int i = 0; i < perm.length && n < count; i++) {
+            int id = perm[i];
+            if (match == null || match.get(id)) {
+                out[n++] = id;
+            }
+        }
+        return out;
+    }
+
+    private BitSet matchTerm(String term) {
+        String dim = null;
+        String text = term;
+        int eq = term.indexOf('=');
+        if (eq > 0) {
+            dim = DIMENSIONS.get(term.substring(0, eq).toLowerCase(Locale.ROOT));
+            if (dim != null) {
+                text = term.substring(eq + 1);
+            }
+        }
+        String needle = text.toLowerCase(Locale.ROOT);
+        BitSet out = new BitSet(rows.size());
+        for (Map.Entry<String, Map<String, int[]>> d : buckets.entrySet()) {
+            if (dim != null && !dim.equals(d.getKey())) {
+                continue;
+            }
+            // Distinct values are far fewer than rows; only their buckets are touched
+            for (Map.Entry<String, int[]> b : d.getValue().entrySet()) {
+                if (b.getKey().contains(needle)) {
+                    for (int id : b.getValue()) {
+                        out.set(id);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    private void buildBuckets() {
+        for (String column : DIMENSIONS.values()) {
+            Map<String, List<Integer>> lists = new HashMap<String, List<Integer>>();
+            for (int id = 0; id < rows.size(); id++) {
+                String value = str(rows.get(id).get(column)).toLowerCase(Locale.ROOT);
+                List<Integer> ids = lists.get(value);
+                if (ids == null) {
+                    ids = new ArrayList<Integer>();
+                    lists.put(value, ids);
+                }
+                ids.add(id);
+            }
+            Map<String, int[]> packed = new HashMap<String, int[]>(lists.size() * 2);
+            for (Map.Entry<String, List<Integer>> e : lists.entrySet()) {
+                List<Integer> ids = e.getValue();
+                int[] arr = new int[ids.size()];
+                for (int i = 0; i < arr.length; i++) {
+                    arr[i] = ids.get(i);
+                }
+                packed.put(e.getKey(), arr);
+            }
+            buckets.put(column, packed);
+        }
+    }
+
+    private void buildPermutations() {
+        for (final SortKey key : SortKey.values()) {
+            Integer[] ids = new Integer[rows.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = i;
+            }
+            final double[] nums = new double[rows.size()];
+            final String[] strs = new String[rows.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Object v = rows.get(i).get(key.column);
+                if (key.numeric) {
+                    nums[i] = num(v);
+                } else {
+                    strs[i] = str(v);
+                }
+            }
+            Comparator<Integer> ascending = new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return key.numeric ? Double.compare(nums[a], nums[b]) : strs[a].compareTo(strs[b]);
+                }
+            };
+            // Ties keep collection order (wait DESC, sid ASC) both ways, since the sort is stable
+            permutations[key.ordinal()] = sorted(ids, ascending);
+            descPermutations[key.ordinal()] = sorted(ids, Collections.reverseOrder(ascending));
+        }
+    }
+
+    private static int[] sorted(Integer[] ids, Comparator<Integer> order) {
+        Integer[] copy = ids.clone();
+        Arrays.sort(copy, order);
+        int[] perm = new int[copy.length];
+        for (int i = 0; i < perm.length; i++) {
+            perm[i] = copy[i];
+        }
+        return perm;
+    }
+
+    private static String str(Object v) {
+        return v == null ? "" : String.valueOf(v);
+    }
+
+    private static double num(Object v) {
+        if (v instanceof Number) {
+            return ((Number) v).doubleValue();
+        }
+        try {
+            return Double.parseDouble(str(v).trim());
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
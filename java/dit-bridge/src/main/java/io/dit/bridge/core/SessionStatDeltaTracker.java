@@ -0,0 +1,191 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapper-style per-session statistic deltas. A collector feeds one cycle of
+ * (sid, serial#, statistic, value) rows from V$SESSTAT between {@link #begin}
+ * and {@link #finish}; values are kept under packed long keys in two reused
+ * {@link LongLongMap}s, so a cycle over thousands of sessions allocates
+ * almost nothing. A session seen for the first time (or a reused sid with a
+ * new serial#) only establishes its baseline; sessions that disappear simply
+ * drop out of the next snapshot.
+ */
+public final class SessionStatDeltaTracker {
+
+    // Packed key: sid (23 bits) | serial# (32 bits) | statistic index (8 bits)
+    private static final int STAT_BITS = 8;
+    private static final long SERIAL_MASK = 0xFFFFFFFFL;
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private final List<String> statNames;
+    private final int topN;
+    private LongLongMap prev = new LongLongMap(1024);
+    private LongLongMap cur = new LongLongMap(1024);
+    private final LongLongMap sessionRow = new LongLongMap(256);
+    private long prevTimestampMs;
+    private int[] statIds;
+
+    /**
+     * @param statNames statistics to track, in display order; the first one is the default ranking
+     * @param topN      sessions kept per statistic ranking
+     */
+    public SessionStatDeltaTracker(List<String> statNames, int topN) {
+        this.statNames = Collections.unmodifiableList(new ArrayList<String>(
+                statNames.subList(0, Math.min(statNames.size(), 1 << STAT_BITS))));
+        this.topN = Math.max(1, topN);
+    }
+
+    /** Parses a comma-separated statistic list ({@code --session-stats}), falling back to {@code defaults}. */
+    public static List<String> parseNames(String csv, String defaults) {
+        List<String> out = new ArrayList<String>();
+        for (String s : (csv != null && csv.trim().length() > 0 ? csv : defaults).split(",")) {
+            if (s.trim().length() > 0) {
+                out.add(s.trim());
+            }
+        }
+        return out;
+    }
+
+    public List<String> statNames() {
+        return statNames;
+    }
+
+    /** Statistic# per configured name (-1 when unknown), resolved once by the collector from V$STATNAME. */
+    public int[] statIds() {
+        return statIds;
+    }
+
+    public void setStatIds(int[] statIds) {
+        this.statIds = statIds;
+    }
+
+    /** Index of a statistic# in {@link #statNames}, or -1. */
+    public int indexOf(int statisticNo) {
+        for (int i = 0; i < statIds.length; i++) {
+            if (statIds[i] == statisticNo) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void begin() {
+        cur.clear();
+    }
+
+    public void put(long sid, long serial, int statIndex, long value) {
+        cur.put(pack(sid, serial, statIndex), value);
+    }
+
+    /**
+     * Computes per-second deltas against the previous cycle and returns
+     * {@code stats} (the names) and {@code sessions}: the union of the top
+     * {@code topN} sessions of every statistic, ordered by the first one.
+     * Each session row has sid, serial and {@code rates} (name to per-second value).
+     */
+    public Map<String, Object> finish(long nowMs) {
+        double elapsedSec = (nowMs - prevTimestampMs) / 1000.0;
+        boolean baseline = prev.isEmpty() || elapsedSec <= 0;
+
+        int n = statNames.size();
+        sessionRow.clear();
+        long[] sessionKeys = new long[16];
+        double[] rates = new double[16 * n];
+        int rows = 0;
+        if (!baseline) {
+            for (int s = 0; s < cur.capacity(); s++) {
+                if (!cur.used(s)) {
+                    continue;
+                }
+                long key = cur.keyAt(s);
+                long before = prev.get(key, MISSING);
+                long d = cur.valueAt(s) - before;
+                if (before == MISSING || d <= 0) {
+                    continue;
+                }
+                long session = key >>> STAT_BITS;
+                long row = sessionRow.get(session, -1);
+                if (row < 0) {
+                    if (rows == sessionKeys.length) {
+                        sessionKeys = Arrays.copyOf(sessionKeys, rows * 2);
+                        rates = Arrays.copyOf(rates, rows * 2 * n);
+                    }
+                    row = rows++;
+                    sessionKeys[(int) row] = session;
+                    sessionRow.put(session, row);
+                }
+                rates[(int) row * n + (int) (key & ((1 << STAT_BITS) - 1))] = d / elapsedSec;
+            }
+        }
+
+        // Swap snapshots; the old map is cleared and reused next cycle
+        LongLongMap t = prev;
+        prev = cur;
+        cur = t;
+        prevTimestampMs = nowMs;
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("stats", statNames);
+        out.put("sessions", rank(sessionKeys, rates, rows, n));
+        return out;
+    }
+
+    private List<Map<String, Object>> rank(final long[] sessionKeys, final double[] rates, int rows, final int n) {
+        boolean[] picked = new boolean[rows];
+        List<Integer> order = new ArrayList<Integer>(rows);
+        for (int i = 0; i < rows; i++) {
+            order.add(i);
+        }
+        for (int stat = 0; stat < n; stat++) {
+            final int st = stat;
+            Collections.sort(order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(rates[b * n + st], rates[a * n + st]);
+                }
+            });
+            for (int i = 0; i < Math.min(topN, rows); i++) {
+                int r = order.get(i);
+                if (rates[r * n + st] > 0) {
+                    picked[r] = true;
+                }
+            }
+        }
+        List<Integer> chosen = new ArrayList<Integer>();
+        for (int r = 0; r < rows; r++) {
+            if (picked[r]) {
+                chosen.add(r);
+            }
+        }
+        Collections.sort(chosen, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(rates[b * n], rates[a * n]);
+            }
+        });
+
+        List<Map<String, Object>> out = new ArrayList<Map<String, Object>>(chosen.size());
+        for (int r : chosen) {
+            long session = sessionKeys[r];
+            Map<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put("sid", String.valueOf(session >>> 32));
+            row.put("serial", String.valueOf(session & SERIAL_MASK));
+            Map<String, Object> values = new LinkedHashMap<String, Object>();
+            for (int i = 0; i < n; i++) {
+                values.put(statNames.get(i), rates[r * n + i]);
+            }
+            row.put("rates", values);
+            out.add(row);
+        }
+        return out;
+    }
+
+    static long pack(long sid, long serial, int statIndex) {
+        return (sid << (32 + STAT_BITS)) | ((serial & SERIAL_MASK) << STAT_BITS) | (statIndex & ((1 << STAT_BITS) - 1));
+    }
+}
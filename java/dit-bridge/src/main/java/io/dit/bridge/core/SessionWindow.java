@@ -0,0 +1,225 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.DbmsCollector;
+import io.dit.bridge.api.SessionKey;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Client-side window over the full active session list, ordered by
+ * (seconds_in_wait DESC, sid ASC). Only the rows around the viewport are held:
+ * pages are read with keyset predicates on the collector thread and applied on
+ * the TUI thread, so memory and query cost follow the screen height rather than
+ * the session count. All methods must be called on the TUI thread.
+ */
+public final class SessionWindow {
+
+    private final DbmsCollector collector;
+    private final CollectorLoop collectorLoop;
+    private final Executor uiThread;
+    private final int pageSize;
+
+    private List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+    private int start;          // absolute index of rows.get(0)
+    private int total = -1;     // session count from the last refresh, -1 = unknown
+    private long generation;    // bumped by refresh; results of older requests are dropped
+    private boolean fetching;
+    private int viewFirst;
+    private int viewCount = 1;
+    private Runnable onChange;
+
+    public SessionWindow(DbmsCollector collector, CollectorLoop collectorLoop, Executor uiThread, int pageSize) {
+        this.collector = collector;
+        this.collectorLoop = collectorLoop;
+        this.uiThread = uiThread;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /** Called on the TUI thread whenever rows or the total change. */
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /** Number of sessions in the full list, as far as it is known. */
+    public int size() {
+        return Math.max(total, start + rows.size());
+    }
+
+    /** Row at an absolute index, or null when it is outside the cached window. */
+    public Map<String, Object> row(int index) {
+        int i = index - start;
+        return i >= 0 && i < rows.size() ? rows.get(i) : null;
+    }
+
+    public boolean isLoaded() {
+        return total >= 0;
+    }
+
+    /** Reports the visible range; fetches missing rows and prefetches the next page. */
+    public void setViewport(int first, int count) {
+        if (first == viewFirst && count == viewCount) {
+            return;
+        }
+        viewFirst = Math.max(0, first);
+        viewCount = Math.max(1, count);
+        maybeFetch();
+    }
+
+    /**
+     * Re-reads the rows around the viewport and the total, once per collection
+     * cycle while the sessions view is visible.
+     */
+    public void refresh() {
+        final long gen = ++generation;
+        fetching = true;
+        int size = size();
+        int end = start + rows.size();
+        final boolean bottom = total >= 0 && viewFirst > 0 && viewFirst + viewCount >= size;
+        final SessionKey anchor;
+        int anchorIdx = 0;
+        if (viewFirst == 0 || bottom || rows.isEmpty()) {
+            anchor = null;
+        } else {
+            // Anchor on the first cached row at or just above the viewport
+            anchorIdx = Math.max(start, Math.min(viewFirst - pageSize / 2, end - 1));
+            anchor = SessionKey.of(row(anchorIdx));
+        }
+        // Re-read the already prefetched rows too, up to the eviction bound
+        final int limit = Math.min(viewCount + 3 * pageSize,
+                Math.max(viewCount + pageSize, bottom ? 0 : end - anchorIdx));
+        collectorLoop.submit(new CollectorLoop.ConnectionTask() {
+            public void run(Connection conn) throws SQLException {
+                final Map<String, Object> count = collector.querySessionCount(conn, anchor);
+                final List<Map<String, Object>> page;
+                if (bottom) {
+                    page = collector.querySessionPage(conn, null, true, limit);
+                } else {
+                    // previous() makes the strict keyset predicate include the anchor row itself
+                    page = collector.querySessionPage(conn, anchor != null ? anchor.previous() : null, false, limit);
+                }
+                uiThread.execute(new Runnable() {
+                    public void run() {
+                        if (gen != generation) {
+                            return;
+                        }
+                        int newTotal = (int) Math.min(Integer.MAX_VALUE, longVal(count.get("total")));
+                        int before = (int) Math.min(Integer.MAX_VALUE, longVal(count.get("before")));
+                        replace(bottom ? Math.max(0, newTotal - page.size()) : before, page, newTotal);
+                    }
+                });
+            }
+        });
+    }
+
+    private void maybeFetch() {
+        if (fetching) {
+            return;
+        }
+        if (total < 0) {
+            refresh();
+            return;
+        }
+        int end = start + rows.size();
+        int size = size();
+        int wantEnd = Math.min(size, viewFirst + viewCount);
+
+        if (viewFirst >= end || viewFirst + viewCount <= start) {
+            // Viewport left the window entirely (Home/End, large jumps): re-anchor
+            if (viewFirst == 0 || wantEnd >= size || rows.isEmpty()) {
+                refresh();
+                return;
+            }
+        }
+        if (wantEnd > end && end < size) {
+            fetchPage(SessionKey.of(rows.get(rows.size() - 1)), false);
+        } else if (viewFirst < start) {
+            fetchPage(SessionKey.of(rows.get(0)), true);
+        } else if (viewFirst + viewCount + pageSize / 2 > end && end < size) {
+            // Prefetch the next page while the collector is idle
+            fetchPage(SessionKey.of(rows.get(rows.size() - 1)), false);
+        } else if (viewFirst - pageSize / 2 < start && start > 0) {
+            fetchPage(SessionKey.of(rows.get(0)), true);
+        }
+    }
+
+    private void fetchPage(final SessionKey key, final boolean backward) {
+        if (key == null) {
+            refresh();
+            return;
+        }
+        final long gen = generation;
+        fetching = true;
+        collectorLoop.submit(new CollectorLoop.ConnectionTask() {
+            public void run(Connection conn) throws SQLException {
+                final List<Map<String, Object>> page = collector.querySessionPage(conn, key, backward, pageSize);
+                uiThread.execute(new Runnable() {
+                    public void run() {
+                        if (gen == generation) {
+                            apply(page, backward);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void apply(List<Map<String, Object>> page, boolean backward) {
+        fetching = false;
+        if (backward) {
+            List<Map<String, Object>> merged = new ArrayList<Map<String, Object>>(page.size() + rows.size());
+            merged.addAll(page);
+            merged.addAll(rows);
+            // A short backward page means the top of the list was reached
+            int newStart = page.size() < pageSize ? 0 : Math.max(0, start - page.size());
+            rows = merged;
+            start = newStart;
+        } else {
+            rows.addAll(page);
+            if (page.size() < pageSize) {
+                total = start + rows.size();
+            }
+        }
+        evict();
+        changed();
+        maybeFetch();
+    }
+
+    private void replace(int newStart, List<Map<String, Object>> page, int newTotal) {
+        fetching = false;
+        rows = new ArrayList<Map<String, Object>>(page);
+        start = newStart;
+        total = Math.max(newTotal, start + rows.size());
+        evict();
+        changed();
+        maybeFetch();
+    }
+
+    /** Keeps at most one page above and two pages below the viewport. */
+    private void evict() {
+        int dropFront = (viewFirst - pageSize) - start;
+        if (dropFront > 0 && dropFront < rows.size()) {
+            rows = new ArrayList<Map<String, Object>>(rows.subList(dropFront, rows.size()));
+            start += dropFront;
+        }
+        int keepEnd = viewFirst + viewCount + 2 * pageSize;
+        int keep = keepEnd - start;
+        if (keep > 0 && keep < rows.size()) {
+            rows = new ArrayList<Map<String, Object>>(rows.subList(0, keep));
+        }
+    }
+
+    private void changed() {
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+
+    private static long longVal(Object v) {
+        return v instanceof Number ? ((Number) v).longValue() : 0L;
+    }
+}
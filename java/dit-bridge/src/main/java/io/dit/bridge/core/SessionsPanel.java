@@ -0,0 +1,187 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active session table with a selection cursor. Selection and scroll changes
+ * only mark this panel dirty. Rows come either from a bound snapshot list or
+ * from a {@link SessionWindow}, in which case the table is virtualized over the
+ * full session list and only the rows on screen need to be cached, or from a
+ * {@link SessionIndex} selection (filtered and re-sorted client-side).
+ */
+public final class SessionsPanel extends TuiPanel {
+
+    private static final int PROG_W = 16;
+
+    private final String title;
+    private final SessionWindow window;
+    private List<Map<String, Object>> sessions;
+    private SessionIndex index;
+    private int[] order;
+    private String status = "";
+    private int sessionScroll = 0;
+    private int sessionSelect = 0;
+
+    public SessionsPanel(String title) {
+        this(title, null);
+    }
+
+    public SessionsPanel(String title, SessionWindow window) {
+        this.title = title;
+        this.window = window;
+        if (window != null) {
+            window.setOnChange(new Runnable() {
+                public void run() {
+                    markDirty();
+                }
+            });
+        }
+    }
+
+    public void bind(List<Map<String, Object>> sessions) {
+        this.sessions = bindValue(this.sessions, sessions);
+    }
+
+    /**
+     * Switches to an index selection; a null index returns to the list or window
+     * source. Row ids in {@code order} refer to {@code index}.
+     */
+    public void bindIndex(SessionIndex index, int[] order) {
+        if (this.index != index || this.order != order) {
+            this.index = index;
+            this.order = order;
+            markDirty();
+        }
+    }
+
+    /** Filter / sort / prompt text shown in the box title. */
+    public void bindStatus(String status) {
+        this.status = bindValue(this.status, status == null ? "" : status);
+    }
+
+    /** Selection and scrolling keys shared by every session table. Returns true if consumed. */
+    public boolean navigate(KeyStroke key) {
+        if (key.getKeyType() == KeyType.ArrowUp) {
+            moveSelection(-1);
+        } else if (key.getKeyType() == KeyType.ArrowDown) {
+            moveSelection(1);
+        } else if (key.getKeyType() == KeyType.PageUp) {
+            moveSelection(-10);
+        } else if (key.getKeyType() == KeyType.PageDown) {
+            moveSelection(10);
+        } else if (key.getKeyType() == KeyType.Home) {
+            selectFirst();
+        } else if (key.getKeyType() == KeyType.End) {
+            selectLast();
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private int rowCount() {
+        if (index != null) {
+            return order.length;
+        }
+        if (window != null) {
+            return window.size();
+        }
+        return sessions != null ? sessions.size() : 0;
+    }
+
+    private Map<String, Object> rowAt(int idx) {
+        if (index != null) {
+            return index.row(order[idx]);
+        }
+        if (window != null) {
+            return window.row(idx);
+        }
+        return sessions.get(idx);
+    }
+
+    public void moveSelection(int delta) {
+        long next = (long) sessionSelect + delta;
+        sessionSelect = (int) Math.max(0, Math.min(next, Integer.MAX_VALUE));
+        markDirty();
+    }
+
+    public void selectFirst() {
+        sessionSelect = 0;
+        sessionScroll = 0;
+        markDirty();
+    }
+
+    public void selectLast() {
+        sessionSelect = Integer.MAX_VALUE; // clamped in draw
+        markDirty();
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        int count = rowCount();
+        String counter;
+        if (index != null) {
+            counter = " (" + count + "/" + index.size() + ")";
+        } else if (window != null && count > 0) {
+            counter = " (" + (Math.min(sessionSelect, count - 1) + 1) + "/" + count + ")";
+        } else {
+            counter = " (" + count + ")";
+        }
+        canvas.drawBox(top, left, width, height, title + counter + (status.isEmpty() ? "" : " " + status),
+                TuiTheme.BORDER_FG);
+
+        int sr = top + 1;
+        int col = left + 2;
+        int areaW = width - 4;
+        String sessHeader = padRight("SID", 7) + padRight("Serial", 8) + padRight("User", 12) +
+                padRight("Status", 10) + padRight("Wait Event", 28) + padRight("WClass", 12) +
+                padRight("Blk", 5) + padRight("SQL ID", 15) + padRight("Wait(s)", 8) +
+                padRight("Program", PROG_W) + "SQL Text";
+        canvas.drawText(sr, col, truncate(sessHeader, areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+        sr++;
+
+        if (index == null && window == null && sessions == null) {
+            return;
+        }
+        int maxVisible = Math.max(1, height - 3);
+        if (sessionSelect >= count)
+            sessionSelect = Math.max(0, count - 1);
+        if (sessionScroll > sessionSelect)
+            sessionScroll = sessionSelect;
+        if (sessionSelect >= sessionScroll + maxVisible)
+            sessionScroll = sessionSelect - maxVisible + 1;
+        if (index == null && window != null) {
+            // Missing rows are fetched asynchronously; the window marks us dirty when they arrive
+            window.setViewport(sessionScroll, maxVisible);
+        }
+
+        for (int i = 0; i < maxVisible && (sessionScroll + i) < count; i++) {
+            int idx = sessionScroll + i;
+            Map<String, Object> s = rowAt(idx);
+            boolean selected = (idx == sessionSelect);
+            TextColor rowBg = selected ? TuiTheme.SELECT_BG : TuiTheme.BG;
+            if (s == null) {
+                canvas.drawText(sr + i, col, truncate("...", areaW), TuiTheme.INACTIVE_FG, rowBg);
+                continue;
+            }
+            TextColor statusColor = "ACTIVE".equals(str(s.get("status"))) ? TuiTheme.ACTIVE_FG : TuiTheme.INACTIVE_FG;
+
+            String line = padRight(str(s.get("sid")), 7) +
+                    padRight(str(s.get("serial")), 8) +
+                    padRight(truncate(str(s.get("username")), 11), 12) +
+                    padRight(str(s.get("status")), 10) +
+                    padRight(truncate(str(s.get("event")), 27), 28) +
+                    padRight(truncate(str(s.get("wait_class")), 11), 12) +
+                    padRight(str(s.get("blocking_sid")), 5) +
+                    padRight(str(s.get("sql_id")), 15) +
+                    padRight(fmt("%.0f", dbl(s.get("seconds_in_wait"))), 8) +
+                    padRight(truncate(str(s.get("program")), PROG_W - 1), PROG_W) +
+                    str(s.get("sql_text"));
+            canvas.drawText(sr + i, col, truncate(line, areaW), statusColor, rowBg);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.CollectQuery;
+import io.dit.bridge.api.DbmsCollector;
+
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Sessions tab. By default the table is virtualized over the full session list
+ * through a {@link SessionWindow}. Once a filter ({@code /}) or a non-default
+ * sort ({@code <} {@code >} column, {@code I} invert) is active, the view
+ * switches to a {@link SessionIndex} rebuilt once per collection cycle; edits
+ * to the filter and sort order are then answered from the index alone.
+ * Below the table, {@link TopConsumersPanel} ranks the active sessions by
+ * per-second V$SESSTAT deltas; {@code S} changes the ranking statistic.
+ * A shared view (viewer of a {@link TuiServer}) never queries: it is always
+ * indexed and selects from the index the server builds once per cycle.
+ */
+public final class SessionsView extends TuiView {
+
+    private static final SessionIndex.SortKey DEFAULT_SORT = SessionIndex.SortKey.WAIT;
+    private static final int CONSUMERS_HEIGHT = 12;
+
+    private final DbmsCollector collector;
+    private final CollectorLoop collectorLoop;
+    private final Executor uiThread;
+    private final int indexMax;
+    private final boolean shared;
+    private final SessionWindow window;
+    private final SessionsPanel panel;
+    private final TopConsumersPanel consumersPanel;
+
+    private String filter = "";
+    private String filterBeforeEdit = "";
+    private StringBuilder editing;   // non-null while the filter prompt is open
+    private SessionIndex.SortKey sortKey = DEFAULT_SORT;
+    private boolean descending = true;
+
+    private SessionIndex index;
+    private boolean indexRequested;
+    private long indexGeneration;
+    private SessionIndex sharedIndex;
+
+    public SessionsView(String name, DbmsCollector collector, CollectorLoop collectorLoop, Executor uiThread,
+            int pageSize, int indexMax, boolean shared) {
+        super(name, EnumSet.of(CollectQuery.INSTANCE, CollectQuery.LOAD_PROFILE, CollectQuery.SESSION_STATS));
+        this.collector = collector;
+        this.collectorLoop = collectorLoop;
+        this.uiThread = uiThread;
+        this.indexMax = Math.max(1, indexMax);
+        this.shared = shared;
+        // Without a window the panel never asks for pages
+        this.window = shared ? null : new SessionWindow(collector, collectorLoop, uiThread, pageSize);
+        this.panel = new SessionsPanel("Sessions", window);
+        this.consumersPanel = new TopConsumersPanel("Top Consumers");
+        layout.add(panel);
+        layout.add(consumersPanel);
+    }
+
+    public void applyLayout(int top, int width, int height) {
+        // The consumers panel gives way first on short terminals
+        int consumersH = height >= CONSUMERS_HEIGHT + 8 ? CONSUMERS_HEIGHT : 0;
+        panel.setBounds(top, 0, width, height - consumersH);
+        consumersPanel.setBounds(top + height - consumersH, 0, width, consumersH);
+    }
+
+    /** Binds the latest per-session statistic deltas ({@code session_stats}). */
+    public void bindSessionStats(Map<String, Object> sessionStats) {
+        consumersPanel.bind(sessionStats);
+    }
+
+    /** Latest server-built index of a shared view; selected from on the next refresh. */
+    public void bindSharedIndex(SessionIndex index) {
+        sharedIndex = index;
+        if (index != null && this.index == null) {
+            loadIndex();
+        }
+    }
+
+    public void onRefresh() {
+        if (isIndexed()) {
+            loadIndex();
+        } else {
+            window.refresh();
+        }
+    }
+
+    public boolean capturesInput() {
+        return editing != null;
+    }
+
+    public boolean handleKey(KeyStroke key) {
+        if (editing != null) {
+            editFilter(key);
+            return true;
+        }
+        if (key.getKeyType() == KeyType.Character) {
+            char c = key.getCharacter();
+            if (c == '/') {
+                filterBeforeEdit = filter;
+                editing = new StringBuilder(filter);
+                update();
+                return true;
+            } else if (c == '>' || c == '<') {
+                SessionIndex.SortKey[] keys = SessionIndex.SortKey.values();
+                int step = c == '>' ? 1 : keys.length - 1;
+                sortKey = keys[(sortKey.ordinal() + step) % keys.length];
+                // Numeric columns read best largest-first, text columns A-Z
+                descending = sortKey == SessionIndex.SortKey.WAIT || sortKey == SessionIndex.SortKey.ELAPSED;
+                update();
+                return true;
+            } else if (c == 'i' || c == 'I') {
+                descending = !descending;
+                update();
+                return true;
+            } else if (c == 's' || c == 'S') {
+                consumersPanel.cycleRanking();
+                return true;
+            }
+        }
+        return panel.navigate(key);
+    }
+
+    private void editFilter(KeyStroke key) {
+        KeyType type = key.getKeyType();
+        if (type == KeyType.Escape) {
+            filter = filterBeforeEdit;
+            editing = null;
+        } else if (type == KeyType.Enter) {
+            filter = editing.toString().trim();
+            editing = null;
+        } else if (type == KeyType.Backspace) {
+            if (editing.length() > 0) {
+                editing.setLength(editing.length() - 1);
+            }
+            filter = editing.toString();
+        } else if (type == KeyType.Character) {
+            editing.append(key.getCharacter());
+            filter = editing.toString();
+        }
+        // Re-filter on every keystroke: a bucket scan, never a query
+        update();
+    }
+
+    private boolean isIndexed() {
+        return shared || editing != null || !filter.trim().isEmpty() || sortKey != DEFAULT_SORT || !descending;
+    }
+
+    private void update() {
+        if (!isIndexed()) {
+            if (index != null || indexRequested) {
+                // Back to the default order: drop the index and page from the database again
+                index = null;
+                indexRequested = false;
+                indexGeneration++;
+                panel.bindIndex(null, null);
+                window.refresh();
+            }
+        } else if (index == null) {
+            if (!indexRequested) {
+                loadIndex();
+            }
+        } else {
+            panel.bindIndex(index, index.select(filter, sortKey, descending));
+        }
+        panel.bindStatus(statusText());
+    }
+
+    private String statusText() {
+        if (editing != null) {
+            return "Filter: " + editing + "_  (" + SessionIndex.filterHelp() + ", Enter/Esc)";
+        }
+        if (!isIndexed()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        if (!filter.trim().isEmpty()) {
+            sb.append("[/").append(filter.trim()).append("] ");
+        }
+        sb.append("[Sort: ").append(sortKey.label()).append(descending ? " desc" : " asc").append(']');
+        if (index == null) {
+            sb.append(" indexing...");
+        }
+        return sb.toString();
+    }
+
+    /** Reads up to {@code indexMax} sessions and builds the index on the collector thread. */
+    private void loadIndex() {
+        final long gen = ++indexGeneration;
+        indexRequested = true;
+        if (shared) {
+            if (sharedIndex != null) {
+                index = sharedIndex;
+                indexRequested = false;
+                update();
+            }
+            return;
+        }
+        collectorLoop.submit(new CollectorLoop.ConnectionTask() {
+            public void run(Connection conn) throws SQLException {
+                List<Map<String, Object>> rows = collector.querySessionPage(conn, null, false, indexMax);
+                final SessionIndex built = SessionIndex.build(rows);
+                uiThread.execute(new Runnable() {
+                    public void run() {
+                        if (gen == indexGeneration && isIndexed()) {
+                            index = built;
+                            update();
+                        }
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,178 @@
+package io.dit.bridge.core;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded sql_id to sql_text dictionary shared by session lists, Top SQL and
+ * recordings. Session queries return only sql_id; {@link #fill} resolves the
+ * texts from the cache and loads the misses with one batched query. Entries are
+ * evicted least-recently-used beyond {@code maxEntries} and after
+ * {@code maxAgeMs}; ids the database no longer knows are remembered briefly so
+ * they are not looked up on every cycle.
+ */
+public final class SqlTextCache {
+
+    /** Loads texts for a batch of sql_ids; ids without a text are simply absent from the result. */
+    public interface Loader {
+        Map<String, String> load(Connection conn, List<String> sqlIds) throws SQLException;
+    }
+
+    /** Upper bound of bind variables per IN list (Oracle allows 1000). */
+    public static final int MAX_BATCH = 500;
+
+    private static final String MISSING = "-";
+    private static final long MISSING_TTL_MS = 60000L;
+
+    private static final class CachedText {
+        final String text;
+        final long expiresAt;
+
+        CachedText(String text, long expiresAt) {
+            this.text = text;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxAgeMs;
+    private final LinkedHashMap<String, CachedText> entries;
+    private long hits;
+    private long misses;
+
+    public SqlTextCache(final int maxEntries, long maxAgeMs) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxAgeMs = Math.max(1000L, maxAgeMs);
+        this.entries = new LinkedHashMap<String, CachedText>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<String, CachedText> eldest) {
+                return size() > SqlTextCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Sets {@code sql_text} on every row from its {@code sql_id} (or
+     * {@code prev_sql_id} when idle), loading all misses in batches of at most
+     * {@link #MAX_BATCH}. A failing load leaves "-" and is retried next time.
+     */
+    public void fill(Connection conn, List<Map<String, Object>> rows, Loader loader) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<String> wanted = new LinkedHashSet<String>();
+        synchronized (this) {
+            expire(now);
+            for (Map<String, Object> row : rows) {
+                String id = sqlIdOf(row);
+                if (id != null && !entries.containsKey(id)) {
+                    wanted.add(id);
+                }
+            }
+        }
+
+        if (!wanted.isEmpty()) {
+            List<String> batch = new ArrayList<String>(Math.min(wanted.size(), MAX_BATCH));
+            for (String id : wanted) {
+                batch.add(id);
+                if (batch.size() == MAX_BATCH) {
+                    load(conn, batch, loader, now);
+                    batch = new ArrayList<String>(MAX_BATCH);
+                }
+            }
+            if (!batch.isEmpty()) {
+                load(conn, batch, loader, now);
+            }
+        }
+
+        synchronized (this) {
+            for (Map<String, Object> row : rows) {
+                String id = sqlIdOf(row);
+                CachedText e = id != null ? entries.get(id) : null;
+                if (e != null && !wanted.contains(id)) {
+                    hits++;
+                }
+                row.put("sql_text", e != null ? e.text : MISSING);
+            }
+        }
+    }
+
+    private void load(Connection conn, List<String> batch, Loader loader, long now) {
+        Map<String, String> loaded;
+        try {
+            loaded = loader.load(conn, batch);
+        } catch (SQLException e) {
+            return;
+        }
+        synchronized (this) {
+            misses += batch.size();
+            for (String id : batch) {
+                String text = loaded.get(id);
+                if (text != null) {
+                    entries.put(id, new CachedText(text, now + maxAgeMs));
+                } else {
+                    entries.put(id, new CachedText(MISSING, now + Math.min(maxAgeMs, MISSING_TTL_MS)));
+                }
+            }
+        }
+    }
+
+    /** Seeds the cache from rows that already carry sql_id and sql_text (Top SQL). */
+    public synchronized void putAll(List<Map<String, Object>> rows) {
+        if (rows == null) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + maxAgeMs;
+        for (Map<String, Object> row : rows) {
+            Object id = row.get("sql_id");
+            Object text = row.get("sql_text");
+            if (id != null && text != null && !MISSING.equals(text)) {
+                entries.put(String.valueOf(id), new CachedText(String.valueOf(text), expiresAt));
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Rows answered from the cache vs. ids that had to be looked up, since startup. */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    private void expire(long now) {
+        Iterator<CachedText> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+            }
+        }
+    }
+
+    private static String sqlIdOf(Map<String, Object> row) {
+        String id = valid(row.get("sql_id"));
+        return id != null ? id : valid(row.get("prev_sql_id"));
+    }
+
+    private static String valid(Object v) {
+        if (v == null) {
+            return null;
+        }
+        String s = String.valueOf(v).trim();
+        return s.isEmpty() || MISSING.equals(s) ? null : s;
+    }
+}
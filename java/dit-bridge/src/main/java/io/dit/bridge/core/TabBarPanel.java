@@ -0,0 +1,52 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+
+import java.util.List;
+
+/**
+ * Tab strip below the title bar with the active view highlighted and the
+ * collection state (paused) shown on the right. The first {@link #NUMBER_KEYS}
+ * tabs carry the digit that selects them; later ones are reached with Tab.
+ */
+public final class TabBarPanel extends TuiPanel {
+
+    /** Views selectable with the digit keys 1-9. */
+    public static final int NUMBER_KEYS = 9;
+
+    private static final TextColor ACTIVE_BG = TuiTheme.TITLE_BG;
+    private static final TextColor ACTIVE_FG = TuiTheme.TITLE_FG;
+
+    private final List<TuiView> views;
+    private int active = -1;
+    private String status = "";
+
+    public TabBarPanel(List<TuiView> views) {
+        this.views = views;
+    }
+
+    public void bind(int active, String status) {
+        if (active != this.active) {
+            this.active = active;
+            markDirty();
+        }
+        this.status = bindValue(this.status, status);
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBar(top, left, width, "", TuiTheme.FG, TuiTheme.FOOTER_BG);
+        int col = left + 1;
+        for (int i = 0; i < views.size(); i++) {
+            String label = i < NUMBER_KEYS ? " " + (i + 1) + " " + views.get(i).name() + " "
+                : " " + views.get(i).name() + " ";
+            boolean selected = i == active;
+            canvas.drawText(top, col, label, selected ? ACTIVE_FG : TuiTheme.FG,
+                    selected ? ACTIVE_BG : TuiTheme.FOOTER_BG);
+            col += label.length() + 1;
+        }
+        if (!status.isEmpty()) {
+            int statusCol = Math.max(col + 1, left + width - status.length() - 1);
+            canvas.drawText(top, statusCol, status, TuiTheme.INACTIVE_FG, TuiTheme.FOOTER_BG);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+
+/**
+ * Single-row bar (title or footer). Redrawn only when its text changes.
+ */
+public final class TextBarPanel extends TuiPanel {
+
+    private final TextColor fg;
+    private final TextColor bg;
+    private String text = "";
+
+    public TextBarPanel(TextColor fg, TextColor bg) {
+        this.fg = fg;
+        this.bg = bg;
+    }
+
+    public void bind(String text) {
+        this.text = bindValue(this.text, text == null ? "" : text);
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBar(top, left, width, truncate(text, width), fg, bg);
+    }
+}
@@ -0,0 +1,117 @@
+package io.dit.bridge.core;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One ranking (SQL, events or sessions) of the rolling ASH aggregate with an
+ * activity bar per row colored by its dominant wait class. The summary panel
+ * also shows average active sessions and the wait class breakdown as a
+ * stacked bar.
+ */
+public final class TopActivityPanel extends TuiPanel {
+
+    private static final char BLOCK = '\u2588'; // █
+    private static final int BAR_W = 12;
+
+    private final String title;
+    private final String listKey;
+    private final String keyName;
+    private final String keyHeader;
+    private final int keyWidth;
+    private final boolean showSummary;
+    private Map<String, Object> ash;
+
+    /**
+     * @param listKey   ranking in the summary ({@code top_sql}, {@code top_events}, {@code top_sessions})
+     * @param keyName   key column of the ranking rows
+     */
+    public TopActivityPanel(String title, String listKey, String keyName, String keyHeader, int keyWidth,
+            boolean showSummary) {
+        this.title = title;
+        this.listKey = listKey;
+        this.keyName = keyName;
+        this.keyHeader = keyHeader;
+        this.keyWidth = keyWidth;
+        this.showSummary = showSummary;
+    }
+
+    public void bind(Map<String, Object> ash) {
+        this.ash = bindValue(this.ash, ash);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void draw(TuiCanvas canvas) {
+        String window = ash != null ? " (last " + fmt("%.0f", dbl(ash.get("window_s"))) + "s)" : "";
+        canvas.drawBox(top, left, width, height, title + window, TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+        if (ash == null) {
+            canvas.drawText(sr, col, truncate("Waiting for ASH samples...", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+        String error = str(ash.get("error"));
+        if (!error.isEmpty()) {
+            canvas.drawText(sr++, col, truncate("ASH read failed: " + error, areaW),
+                    TuiTheme.waitClassColor("Application"), TuiTheme.BG);
+        }
+
+        if (showSummary) {
+            List<Map<String, Object>> classes = (List<Map<String, Object>>) ash.get("wait_classes");
+            String head = String.format(" AAS %s   Samples %s   ", fmt("%.2f", dbl(ash.get("aas"))),
+                    fmtHuman(dbl(ash.get("samples"))));
+            canvas.drawText(sr, col, truncate(head, areaW), TuiTheme.VALUE_FG, TuiTheme.BG);
+            int c = col + head.length();
+            int bar = col;
+            for (Map<String, Object> wc : classes) {
+                String cls = str(wc.get("wait_class"));
+                String label = cls + " " + fmt("%.0f%%", dbl(wc.get("pct"))) + "  ";
+                if (c + label.length() <= col + areaW) {
+                    canvas.drawText(sr, c, label, TuiTheme.waitClassColor(cls), TuiTheme.BG);
+                    c += label.length();
+                }
+                int n = (int) Math.round(dbl(wc.get("pct")) * areaW / 100.0);
+                for (int i = 0; i < n && bar < col + areaW; i++) {
+                    canvas.setChar(sr + 1, bar++, BLOCK, TuiTheme.waitClassColor(cls), TuiTheme.BG);
+                }
+            }
+            sr += 2;
+        }
+
+        canvas.drawText(sr++, col, truncate(padRight(keyHeader, keyWidth) + padRight("AAS", 8) +
+                padRight("%Act", 7) + padRight("Activity", BAR_W + 2) + padRight("Wait Class", 16) +
+                padRight("CPU%", 6) + ("sql_id".equals(keyName) ? "SQL Text" : ""), areaW),
+                TuiTheme.HEADER_FG, TuiTheme.BG);
+
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) ash.get(listKey);
+        int maxRows = top + height - 1 - sr;
+        if (rows == null || rows.isEmpty()) {
+            if (maxRows > 0) {
+                canvas.drawText(sr, col, truncate("No active samples in the window", areaW),
+                        TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            }
+            return;
+        }
+        for (int i = 0; i < maxRows && i < rows.size(); i++) {
+            Map<String, Object> r = rows.get(i);
+            double pct = dbl(r.get("pct"));
+            String cls = str(r.get("wait_class"));
+            String lead = padRight(truncate(str(r.get(keyName)), keyWidth - 1), keyWidth) +
+                    padRight(fmt("%.2f", dbl(r.get("aas"))), 8) + padRight(fmt("%.1f", pct), 7);
+            canvas.drawText(sr + i, col, truncate(lead, areaW), TuiTheme.FG, TuiTheme.BG);
+            int barCol = col + lead.length();
+            int n = Math.max(1, (int) Math.round(pct * BAR_W / 100.0));
+            for (int b = 0; b < n && barCol + b < col + areaW; b++) {
+                canvas.setChar(sr + i, barCol + b, BLOCK, TuiTheme.waitClassColor(cls), TuiTheme.BG);
+            }
+            int restCol = barCol + BAR_W + 2;
+            if (restCol < col + areaW) {
+                String rest = padRight(cls, 16) + padRight(fmt("%.0f", dbl(r.get("cpu_pct"))), 6) +
+                        str(r.get("sql_text"));
+                canvas.drawText(sr + i, restCol, truncate(rest, col + areaW - restCol),
+                        TuiTheme.waitClassColor(cls), TuiTheme.BG);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top resource consumers by session: per-second V$SESSTAT deltas of the
+ * configured statistics, one column each, ranked by the selected statistic
+ * ({@code S} cycles it in the Sessions tab). The ranked column header is
+ * highlighted.
+ */
+public final class TopConsumersPanel extends TuiPanel {
+
+    private static final int STAT_W = 12;
+
+    private final String title;
+    private Map<String, Object> sessionStats;
+    private int rankBy;
+
+    public TopConsumersPanel(String title) {
+        this.title = title;
+    }
+
+    public void bind(Map<String, Object> sessionStats) {
+        this.sessionStats = bindValue(this.sessionStats, sessionStats);
+    }
+
+    /** Ranks by the next configured statistic. */
+    public void cycleRanking() {
+        List<String> stats = stats();
+        if (stats != null && !stats.isEmpty()) {
+            rankBy = (rankBy + 1) % stats.size();
+            markDirty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> stats() {
+        return sessionStats != null ? (List<String>) sessionStats.get("stats") : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void draw(TuiCanvas canvas) {
+        List<String> stats = stats();
+        String ranked = stats != null && rankBy < stats.size() ? stats.get(rankBy) : "";
+        canvas.drawBox(top, left, width, height, title + (ranked.isEmpty() ? "" : " by " + ranked + "/s"),
+                TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+        if (sessionStats == null) {
+            canvas.drawText(sr, col, truncate("Waiting for two V$SESSTAT snapshots...", areaW),
+                    TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+        String error = str(sessionStats.get("error"));
+        if (!error.isEmpty()) {
+            canvas.drawText(sr++, col, truncate("Session statistics failed: " + error, areaW),
+                    TuiTheme.waitClassColor("Application"), TuiTheme.BG);
+        }
+
+        // Header: the ranked statistic column stands out
+        int c = col;
+        String lead = padRight("SID,Serial", 14) + padRight("User", 12);
+        canvas.drawText(sr, c, truncate(lead, areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+        c += lead.length();
+        for (int i = 0; i < stats.size() && c < col + areaW; i++) {
+            String h = padRight(truncate(stats.get(i), STAT_W - 1), STAT_W);
+            canvas.drawText(sr, c, truncate(h, col + areaW - c), TuiTheme.HEADER_FG,
+                    i == rankBy ? TuiTheme.SELECT_BG : TuiTheme.BG);
+            c += STAT_W;
+        }
+        if (c < col + areaW) {
+            canvas.drawText(sr, c, truncate(padRight("SQL ID", 15) + "Program / SQL Text", col + areaW - c),
+                    TuiTheme.HEADER_FG, TuiTheme.BG);
+        }
+        sr++;
+
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>(
+                (List<Map<String, Object>>) sessionStats.get("sessions"));
+        final String key = ranked;
+        Collections.sort(rows, new Comparator<Map<String, Object>>() {
+            public int compare(Map<String, Object> a, Map<String, Object> b) {
+                return Double.compare(rate(b, key), rate(a, key));
+            }
+        });
+        int maxRows = top + height - 1 - sr;
+        if (rows.isEmpty()) {
+            if (maxRows > 0) {
+                canvas.drawText(sr, col, truncate("No active session consumed these statistics", areaW),
+                        TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            }
+            return;
+        }
+        for (int r = 0; r < maxRows && r < rows.size(); r++) {
+            Map<String, Object> row = rows.get(r);
+            StringBuilder line = new StringBuilder();
+            line.append(padRight(str(row.get("sid")) + "," + str(row.get("serial")), 14));
+            line.append(padRight(truncate(str(row.get("username")), 11), 12));
+            for (String stat : stats) {
+                line.append(padRight(fmtHuman(rate(row, stat)), STAT_W));
+            }
+            line.append(padRight(str(row.get("sql_id")), 15));
+            String text = str(row.get("sql_text"));
+            line.append(text.isEmpty() || "-".equals(text) ? str(row.get("program")) : text);
+            canvas.drawText(sr + r, col, truncate(line.toString(), areaW), TuiTheme.FG, TuiTheme.BG);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double rate(Map<String, Object> row, String stat) {
+        Object rates = row.get("rates");
+        return rates instanceof Map ? dbl(((Map<String, Object>) rates).get(stat)) : 0;
+    }
+}
@@ -0,0 +1,70 @@
+package io.dit.bridge.core;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top SQL by elapsed time from V$SQL.
+ */
+public final class TopSqlPanel extends TuiPanel {
+
+    private final String title;
+    private List<Map<String, Object>> sqlList;
+    private int sqlScroll = 0;
+
+    public TopSqlPanel(String title) {
+        this.title = title;
+    }
+
+    public void bind(List<Map<String, Object>> sqlList) {
+        this.sqlList = bindValue(this.sqlList, sqlList);
+    }
+
+    public void scroll(int delta) {
+        int size = sqlList != null ? sqlList.size() : 0;
+        int maxScroll = Math.max(0, size - Math.max(1, height - 3));
+        int next = Math.max(0, Math.min(sqlScroll + delta, maxScroll));
+        if (next != sqlScroll) {
+            sqlScroll = next;
+            markDirty();
+        }
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, title, TuiTheme.BORDER_FG);
+
+        int sqlR = top + 1;
+        int col = left + 2;
+        int areaW = width - 4;
+        String sqlHeader = padRight("SQL ID", 15) + padRight("Plan Hash", 13) +
+                padRight("Elapsed(s)", 13) + padRight("Ela(s)/Exec", 13) +
+                padRight("CPU(s)", 11) + padRight("Execs", 10) + padRight("Gets", 11) +
+                padRight("Gets/Exec", 11) + "SQL Text";
+        canvas.drawText(sqlR, col, truncate(sqlHeader, areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+        sqlR++;
+
+        if (sqlList == null) {
+            return;
+        }
+        int maxSqlVisible = height - 3;
+        for (int i = 0; i < maxSqlVisible && (sqlScroll + i) < sqlList.size(); i++) {
+            Map<String, Object> sq = sqlList.get(sqlScroll + i);
+            double elapsedSec = dbl(sq.get("elapsed_time")) / 1000000.0;
+            double cpuSec = dbl(sq.get("cpu_time")) / 1000000.0;
+            double execs = dbl(sq.get("executions"));
+            double bufferGets = dbl(sq.get("buffer_gets"));
+            double elaPerExec = execs > 0 ? elapsedSec / execs : 0;
+            double getsPerExec = execs > 0 ? bufferGets / execs : 0;
+            String sqlLine = padRight(str(sq.get("sql_id")), 15) +
+                    padRight(str(sq.get("plan_hash_value")), 13) +
+                    padRight(fmtHuman(elapsedSec), 13) +
+                    padRight(fmt("%.3f", elaPerExec), 13) +
+                    padRight(fmtHuman(cpuSec), 11) +
+                    padRight(fmtHuman(execs), 10) +
+                    padRight(fmtHuman(bufferGets), 11) +
+                    padRight(fmtHuman(getsPerExec), 11) +
+                    str(sq.get("sql_text"));
+            canvas.drawText(sqlR + i, col, truncate(sqlLine, areaW), TuiTheme.FG, TuiTheme.BG);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wait event table. Real-time mode shows V$SYSTEM_EVENT deltas and falls back
+ * to cumulative waits on the first cycle; cumulative mode always shows the
+ * cumulative totals. An optional wait class filter narrows the rows (I/O view).
+ * Once {@link #moveSelection} is used the selected event is highlighted and
+ * followed by name across refreshes.
+ */
+public final class TopWaitsPanel extends TuiPanel {
+
+    private static final int MAX_ROWS = 13;
+
+    private final String title;
+    private final boolean realtime;
+    private final Set<String> classFilter;
+    private List<Map<String, Object>> eventMetric;
+    private List<Map<String, Object>> waits;
+    private String selectedEvent;
+
+    public TopWaitsPanel(String title, boolean realtime, Set<String> classFilter) {
+        this.title = title;
+        this.realtime = realtime;
+        this.classFilter = classFilter;
+    }
+
+    public void bind(List<Map<String, Object>> eventMetric, List<Map<String, Object>> waits) {
+        this.eventMetric = bindValue(this.eventMetric, eventMetric);
+        this.waits = bindValue(this.waits, waits);
+    }
+
+    /** Selected event name, or null before the first {@link #moveSelection}. */
+    public String selectedEvent() {
+        return selectedEvent;
+    }
+
+    public void moveSelection(int delta) {
+        List<Map<String, Object>> rows = displayedRows();
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        int n = Math.min(MAX_ROWS, rows.size());
+        int at = -1;
+        for (int i = 0; i < n; i++) {
+            if (str(rows.get(i).get("event")).equals(selectedEvent)) {
+                at = i;
+                break;
+            }
+        }
+        int next = at < 0 ? 0 : Math.max(0, Math.min(n - 1, at + delta));
+        selectedEvent = str(rows.get(next).get("event"));
+        markDirty();
+    }
+
+    private List<Map<String, Object>> displayedRows() {
+        boolean useDelta = realtime && eventMetric != null && !eventMetric.isEmpty();
+        return filter(useDelta ? eventMetric : waits);
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, title, TuiTheme.BORDER_FG);
+        int pr = top + 1;
+        int col = left + 2;
+        int areaW = width - 4;
+        int evNameW = Math.max(20, areaW - 22);
+        int maxRows = Math.min(MAX_ROWS, height - 3);
+
+        boolean useDelta = realtime && eventMetric != null && !eventMetric.isEmpty();
+        List<Map<String, Object>> rows = displayedRows();
+        if (rows == null) {
+            return;
+        }
+        String valueHeader = useDelta ? "Wait Time(s)" : "Total Wait(s)";
+        canvas.drawText(pr, col, truncate(padRight("Wait Event", evNameW) + padRight("Avg(ms)", 11) + valueHeader, areaW),
+                TuiTheme.HEADER_FG, TuiTheme.BG);
+        pr++;
+        for (int i = 0; i < Math.min(maxRows, rows.size()); i++) {
+            Map<String, Object> ev = rows.get(i);
+            String evName = truncate(str(ev.get("event")), evNameW - 1);
+            double avgMs = dbl(ev.get("avg_wait_ms"));
+            // Real-time rows carry seconds waited per second, cumulative rows total wait time
+            double waitSec = useDelta ? dbl(ev.get("wait_sec_per_sec")) : dbl(ev.get("wait_time_ms")) / 1000.0;
+            TextColor evColor = TuiTheme.waitClassColor(str(ev.get("wait_class")));
+            String avgStr = avgMs >= 1000 ? fmt("%,.1f", avgMs) : fmt("%.2f", avgMs);
+            TextColor bg = selectedEvent != null && selectedEvent.equals(str(ev.get("event")))
+                    ? TuiTheme.SELECT_BG : TuiTheme.BG;
+            canvas.drawText(pr + i, col,
+                    padRight(truncate(padRight(evName, evNameW) + padRight(avgStr, 11) + fmt("%,.2f", waitSec), areaW),
+                            areaW),
+                    evColor, bg);
+        }
+    }
+
+    private List<Map<String, Object>> filter(List<Map<String, Object>> rows) {
+        if (rows == null || classFilter == null) {
+            return rows;
+        }
+        List<Map<String, Object>> out = new ArrayList<Map<String, Object>>();
+        for (Map<String, Object> r : rows) {
+            if (classFilter.contains(str(r.get("wait_class")))) {
+                out.add(r);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,91 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.screen.Screen;
+
+/**
+ * Clipped drawing primitives on top of a Lanterna {@link Screen} back buffer.
+ * The terminal size is cached per frame so that per-character clipping does
+ * not query the terminal.
+ */
+public final class TuiCanvas {
+
+    private final Screen screen;
+    private int columns;
+    private int rows;
+
+    public TuiCanvas(Screen screen) {
+        this.screen = screen;
+        resize(screen.getTerminalSize());
+    }
+
+    public void resize(TerminalSize size) {
+        this.columns = size.getColumns();
+        this.rows = size.getRows();
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public void setChar(int row, int col, char c, TextColor fg, TextColor bg) {
+        if (row >= 0 && row < rows && col >= 0 && col < columns) {
+            screen.setCharacter(col, row, new TextCharacter(c, fg, bg));
+        }
+    }
+
+    public void drawText(int row, int col, String text, TextColor fg, TextColor bg) {
+        for (int i = 0; i < text.length() && (col + i) < columns; i++) {
+            setChar(row, col + i, text.charAt(i), fg, bg);
+        }
+    }
+
+    public void fill(int row, int col, int width, int height, TextColor bg) {
+        for (int y = row; y < row + height; y++) {
+            for (int x = col; x < col + width; x++) {
+                setChar(y, x, ' ', TuiTheme.FG, bg);
+            }
+        }
+    }
+
+    public void drawBar(int row, int col, int width, String text, TextColor fg, TextColor bg) {
+        for (int x = 0; x < width; x++) {
+            char c = (x < text.length()) ? text.charAt(x) : ' ';
+            setChar(row, col + x, c, fg, bg);
+        }
+    }
+
+    public void drawBox(int row, int col, int width, int height, String title, TextColor borderColor) {
+        TextColor bg = TuiTheme.BG;
+        // Top border
+        setChar(row, col, TuiTheme.BOX_TL, borderColor, bg);
+        for (int x = 1; x < width - 1; x++) {
+            setChar(row, col + x, TuiTheme.BOX_H, borderColor, bg);
+        }
+        setChar(row, col + width - 1, TuiTheme.BOX_TR, borderColor, bg);
+
+        // Title
+        if (title != null && !title.isEmpty()) {
+            drawText(row, col + 2, " " + title + " ", TuiTheme.HEADER_FG, bg);
+        }
+
+        // Sides
+        for (int y = 1; y < height - 1; y++) {
+            setChar(row + y, col, TuiTheme.BOX_V, borderColor, bg);
+            setChar(row + y, col + width - 1, TuiTheme.BOX_V, borderColor, bg);
+        }
+
+        // Bottom border
+        setChar(row + height - 1, col, TuiTheme.BOX_BL, borderColor, bg);
+        for (int x = 1; x < width - 1; x++) {
+            setChar(row + height - 1, col + x, TuiTheme.BOX_H, borderColor, bg);
+        }
+        setChar(row + height - 1, col + width - 1, TuiTheme.BOX_BR, borderColor, bg);
+    }
+}
@@ -0,0 +1,64 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.input.KeyStroke;
+
+/**
+ * Event delivered to the TUI loop: a key from the input reader thread, a new
+ * snapshot from the collector thread, a terminal resize, or a callback that
+ * applies the result of background work on the TUI thread.
+ */
+public final class TuiEvent {
+
+    public enum Type {
+        KEY,
+        SNAPSHOT,
+        RESIZE,
+        CALLBACK
+    }
+
+    private static final TuiEvent RESIZE_EVENT = new TuiEvent(Type.RESIZE, null, null, null);
+
+    private final Type type;
+    private final KeyStroke key;
+    private final MonitorSnapshot snapshot;
+    private final Runnable callback;
+
+    private TuiEvent(Type type, KeyStroke key, MonitorSnapshot snapshot, Runnable callback) {
+        this.type = type;
+        this.key = key;
+        this.snapshot = snapshot;
+        this.callback = callback;
+    }
+
+    public static TuiEvent key(KeyStroke key) {
+        return new TuiEvent(Type.KEY, key, null, null);
+    }
+
+    public static TuiEvent snapshot(MonitorSnapshot snapshot) {
+        return new TuiEvent(Type.SNAPSHOT, null, snapshot, null);
+    }
+
+    public static TuiEvent resize() {
+        return RESIZE_EVENT;
+    }
+
+    public static TuiEvent callback(Runnable callback) {
+        return new TuiEvent(Type.CALLBACK, null, null, callback);
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public KeyStroke key() {
+        return key;
+    }
+
+    public MonitorSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public Runnable callback() {
+        return callback;
+    }
+}
@@ -0,0 +1,118 @@
+package io.dit.bridge.core;
+
+import java.util.Locale;
+
+/**
+ * A rectangular dashboard component with its own bounds, data binding and dirty
+ * flag. Panels are only redrawn when their bound data, their local view state
+ * (selection, scroll) or their bounds change; untouched panels keep their cells
+ * in the screen back buffer and cost nothing on the next DELTA refresh.
+ */
+public abstract class TuiPanel {
+
+    protected int top;
+    protected int left;
+    protected int width;
+    protected int height;
+
+    private boolean dirty = true;
+
+    public final void setBounds(int top, int left, int width, int height) {
+        if (this.top != top || this.left != left || this.width != width || this.height != height) {
+            this.top = top;
+            this.left = left;
+            this.width = width;
+            this.height = height;
+            dirty = true;
+        }
+    }
+
+    public final boolean isVisible() {
+        return width > 0 && height > 0;
+    }
+
+    public final boolean isDirty() {
+        return dirty;
+    }
+
+    public final void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Clears the panel area and redraws it if dirty. Returns true when cells were written.
+     */
+    public final boolean renderIfDirty(TuiCanvas canvas) {
+        if (!dirty) {
+            return false;
+        }
+        dirty = false;
+        if (!isVisible()) {
+            return false;
+        }
+        canvas.fill(top, left, width, height, TuiTheme.BG);
+        draw(canvas);
+        return true;
+    }
+
+    protected abstract void draw(TuiCanvas canvas);
+
+    /**
+     * Replaces a bound value and marks the panel dirty when it actually changed.
+     */
+    protected final <T> T bindValue(T previous, T next) {
+        if (previous == null ? next != null : !previous.equals(next)) {
+            dirty = true;
+        }
+        return next;
+    }
+
+    // ── Formatting helpers ──
+
+    protected static String str(Object v) {
+        return v == null ? "" : String.valueOf(v);
+    }
+
+    protected static double dbl(Object v) {
+        if (v instanceof Number)
+            return ((Number) v).doubleValue();
+        if (v == null)
+            return 0.0;
+        try {
+            return Double.parseDouble(String.valueOf(v));
+        } catch (Exception e) {
+            return 0.0;
+        }
+    }
+
+    protected static String fmt(String format, double value) {
+        return String.format(Locale.US, format, value);
+    }
+
+    protected static String fmtHuman(double value) {
+        if (value >= 1_000_000_000) return fmt("%.1fG", value / 1_000_000_000);
+        if (value >= 1_000_000) return fmt("%.1fM", value / 1_000_000);
+        if (value >= 1_000) return fmt("%.1fK", value / 1_000);
+        return fmt("%.0f", value);
+    }
+
+    protected static String padRight(String s, int width) {
+        if (s == null)
+            s = "";
+        if (s.length() >= width)
+            return s.substring(0, width);
+        StringBuilder sb = new StringBuilder(width);
+        sb.append(s);
+        for (int i = s.length(); i < width; i++)
+            sb.append(' ');
+        return sb.toString();
+    }
+
+    protected static String truncate(String s, int maxLen) {
+        if (s == null)
+            return "";
+        if (maxLen <= 0)
+            return "";
+        return s.length() <= maxLen ? s : s.substring(0, maxLen);
+    }
+}
@@ -0,0 +1,252 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.terminal.ansi.TelnetTerminal;
+import com.googlecode.lanterna.terminal.ansi.TelnetTerminalServer;
+
+import javax.net.ServerSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless dashboard for {@code --command serve}: one {@link CollectorLoop}
+ * and one monitoring session, and any number of viewers attached over
+ * Lanterna's telnet terminal server. Each viewer is a {@link MonitorTui}
+ * created by {@link MonitorTui#newViewer()} with its own tab, scroll, filter
+ * and sort state, bound to the shared snapshot stream.
+ *
+ * <p>Database load does not depend on the number of viewers: the plan
+ * collects every view's groups on their normal tiers as if all tabs were
+ * visible, viewers never request refreshes, and the full session list behind
+ * the Sessions tab is read once per cycle and shared as one
+ * {@link SessionIndex} (only while at least one viewer is attached).
+ *
+ * <p>The listener is bound to the loopback interface only and asks for an
+ * access code that is generated at start-up, printed on the server's
+ * console and never written anywhere.
+ */
+public final class TuiServer {
+
+    private static final int CODE_ATTEMPTS = 3;
+    private static final long CODE_TIMEOUT_MS = 60000L;
+
+    private final MonitorTui primary;
+    private final CollectorLoop collectorLoop;
+    private final int port;
+    private final int maxViewers;
+    private final int indexMax;
+    private final String accessCode;
+    private final Set<MonitorTui> viewers = ConcurrentHashMap.newKeySet();
+    private final Set<TelnetTerminal> terminals = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger viewerSeq = new AtomicInteger();
+    private volatile SessionIndex sessionIndex;
+
+    public TuiServer(MonitorTui primary) {
+        Map<String, String> options = primary.options();
+        this.primary = primary;
+        this.collectorLoop = primary.collectorLoop();
+        this.port = intVal(options.get("serve-port"), 7023);
+        this.maxViewers = Math.max(1, intVal(options.get("serve-max-viewers"), 8));
+        this.indexMax = Math.max(1, intVal(options.get("session-index-max"), 5000));
+        this.accessCode = newAccessCode();
+    }
+
+    /** Connects, starts collecting and accepts viewers until the process is stopped. */
+    public void run() throws SQLException, IOException {
+        collectorLoop.connect();
+        collectorLoop.plan().setAllVisible();
+        collectorLoop.addListener(new CollectorLoop.Listener() {
+            public void onSnapshot(MonitorSnapshot snapshot) {
+                if (!snapshot.stale() && !viewers.isEmpty()) {
+                    collectorLoop.submit(readSessions);
+                }
+            }
+        });
+
+        final TelnetTerminalServer server =
+                new TelnetTerminalServer(new LoopbackSocketFactory(), port, StandardCharsets.UTF_8);
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            public void run() {
+                stop(server);
+            }
+        }, "dit-serve-stop"));
+        collectorLoop.start();
+        System.out.println("Serving on telnet 127.0.0.1:" + port + " (max " + maxViewers + " viewers)");
+        System.out.println("Access code: " + accessCode);
+
+        while (true) {
+            final TelnetTerminal terminal;
+            try {
+                terminal = server.acceptConnection();
+            } catch (IOException e) {
+                // closed by the shutdown hook
+                return;
+            }
+            Thread t = new Thread(new Runnable() {
+                public void run() {
+                    serveViewer(terminal);
+                }
+            }, "dit-viewer-" + viewerSeq.incrementAndGet());
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    // Runs on the collector thread between cycles, once for all viewers
+    private final CollectorLoop.ConnectionTask readSessions = new CollectorLoop.ConnectionTask() {
+        public void run(Connection conn) throws SQLException {
+            List<Map<String, Object>> rows = primary.collector().querySessionPage(conn, null, false, indexMax);
+            SessionIndex index = SessionIndex.build(rows);
+            sessionIndex = index;
+            for (MonitorTui v : viewers) {
+                v.offerSessionIndex(index);
+            }
+        }
+    };
+
+    private void serveViewer(TelnetTerminal terminal) {
+        String remote = String.valueOf(terminal.getRemoteSocketAddress());
+        terminals.add(terminal);
+        try {
+            if (viewers.size() >= maxViewers) {
+                message(terminal, "Too many viewers (max " + maxViewers + ").\r\n");
+                return;
+            }
+            if (!authenticate(terminal)) {
+                System.out.println("Viewer rejected: " + remote);
+                return;
+            }
+            MonitorTui viewer = primary.newViewer();
+            viewers.add(viewer);
+            System.out.println("Viewer attached: " + remote + " (" + viewers.size() + " attached)");
+            SessionIndex index = sessionIndex;
+            if (index != null) {
+                viewer.offerSessionIndex(index);
+            }
+            try {
+                viewer.runViewer(terminal);
+            } finally {
+                viewers.remove(viewer);
+                System.out.println("Viewer detached: " + remote + " (" + viewers.size() + " attached)");
+            }
+        } catch (IOException e) {
+            // client went away
+        } catch (RuntimeException e) {
+            System.err.println("Viewer error: " + e);
+        } finally {
+            terminals.remove(terminal);
+            try {
+                terminal.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /** Prompts for the access code without echoing it; false after too many tries or a timeout. */
+    private boolean authenticate(TelnetTerminal terminal) throws IOException {
+        long deadline = System.currentTimeMillis() + CODE_TIMEOUT_MS;
+        for (int attempt = 0; attempt < CODE_ATTEMPTS; attempt++) {
+            message(terminal, "DIT access code: ");
+            StringBuilder entered = new StringBuilder();
+            while (true) {
+                KeyStroke key = terminal.pollInput();
+                // Telnet negotiation replies read as EOF (see MonitorTui); a gone client runs into the deadline
+                if (key == null || key.getKeyType() == KeyType.EOF) {
+                    if (System.currentTimeMillis() > deadline) {
+                        message(terminal, "\r\nTimed out.\r\n");
+                        return false;
+                    }
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                    continue;
+                }
+                KeyType type = key.getKeyType();
+                if (type == KeyType.Enter) {
+                    break;
+                } else if (type == KeyType.Backspace && entered.length() > 0) {
+                    entered.setLength(entered.length() - 1);
+                } else if (type == KeyType.Character && entered.length() < 32) {
+                    entered.append(key.getCharacter());
+                }
+            }
+            // Constant-time compare, so response timing does not leak matching digits
+            if (MessageDigest.isEqual(entered.toString().getBytes(StandardCharsets.UTF_8),
+                    accessCode.getBytes(StandardCharsets.UTF_8))) {
+                return true;
+            }
+            message(terminal, "\r\nWrong code.\r\n");
+        }
+        return false;
+    }
+
+    private void stop(TelnetTerminalServer server) {
+        try {
+            server.close();
+        } catch (IOException ignored) {
+        }
+        for (TelnetTerminal t : terminals) {
+            try {
+                t.close();
+            } catch (IOException ignored) {
+            }
+        }
+        collectorLoop.stop();
+    }
+
+    private static void message(TelnetTerminal terminal, String text) throws IOException {
+        terminal.putString(text);
+        terminal.flush();
+    }
+
+    private static String newAccessCode() {
+        SecureRandom random = new SecureRandom();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    private static int intVal(String v, int fallback) {
+        if (v == null || v.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (RuntimeException e) {
+            return fallback;
+        }
+    }
+
+    /** Binds every server socket to 127.0.0.1 / ::1 whatever address is asked for. */
+    private static final class LoopbackSocketFactory extends ServerSocketFactory {
+
+        public ServerSocket createServerSocket(int port) throws IOException {
+            return createServerSocket(port, 50, null);
+        }
+
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            return createServerSocket(port, backlog, null);
+        }
+
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress ignored) throws IOException {
+            return new ServerSocket(port, backlog, InetAddress.getLoopbackAddress());
+        }
+    }
+}
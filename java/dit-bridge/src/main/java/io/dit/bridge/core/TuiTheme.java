@@ -0,0 +1,77 @@
+package io.dit.bridge.core;
+
+import com.googlecode.lanterna.TextColor;
+
+/**
+ * Light theme colors and box-drawing characters shared by every TUI panel.
+ */
+public final class TuiTheme {
+
+    // ── Box-drawing characters ──
+    public static final char BOX_H = '\u2500'; // ─
+    public static final char BOX_V = '\u2502'; // │
+    public static final char BOX_TL = '\u250C'; // ┌
+    public static final char BOX_TR = '\u2510'; // ┐
+    public static final char BOX_BL = '\u2514'; // └
+    public static final char BOX_BR = '\u2518'; // ┘
+
+    // ── Colors (Light Theme) ──
+    public static final TextColor BG = TextColor.ANSI.WHITE_BRIGHT;
+    public static final TextColor FG = TextColor.ANSI.BLACK;
+    public static final TextColor TITLE_BG = new TextColor.RGB(30, 80, 160);
+    public static final TextColor TITLE_FG = TextColor.ANSI.WHITE;
+    public static final TextColor HEADER_FG = new TextColor.RGB(0, 100, 200);
+    public static final TextColor BORDER_FG = new TextColor.RGB(150, 150, 150);
+    public static final TextColor VALUE_FG = new TextColor.RGB(0, 128, 0);
+    public static final TextColor SPARK_FG = new TextColor.RGB(0, 100, 255);
+    public static final TextColor ACTIVE_FG = new TextColor.RGB(0, 128, 0);
+    public static final TextColor INACTIVE_FG = new TextColor.RGB(128, 128, 128);
+    public static final TextColor SELECT_BG = new TextColor.RGB(220, 230, 255);
+    public static final TextColor FOOTER_BG = new TextColor.RGB(230, 230, 230);
+    public static final TextColor WARNING_FG = new TextColor.RGB(210, 120, 0);
+    public static final TextColor CRITICAL_FG = new TextColor.RGB(210, 0, 0);
+    public static final TextColor ANOMALY_FG = new TextColor.RGB(150, 0, 170);
+
+    private static final TextColor USER_IO_FG = new TextColor.RGB(0, 50, 200);
+    private static final TextColor SYSTEM_IO_FG = new TextColor.RGB(50, 100, 200);
+    private static final TextColor CONCURRENCY_FG = new TextColor.RGB(200, 50, 50);
+    private static final TextColor APPLICATION_FG = new TextColor.RGB(180, 0, 0);
+    private static final TextColor COMMIT_FG = new TextColor.RGB(200, 100, 0);
+    private static final TextColor CONFIGURATION_FG = new TextColor.RGB(150, 50, 150);
+    private static final TextColor NETWORK_FG = new TextColor.RGB(120, 120, 0);
+    private static final TextColor CPU_FG = new TextColor.RGB(0, 150, 0);
+
+    private TuiTheme() {
+    }
+
+    /** Value color for an {@link AlertEngine} level; {@code normal} while OK. */
+    public static TextColor severityColor(int level, TextColor normal) {
+        return level >= AlertEngine.CRITICAL ? CRITICAL_FG : level == AlertEngine.WARNING ? WARNING_FG : normal;
+    }
+
+    public static TextColor waitClassColor(String waitClass) {
+        if (waitClass == null)
+            return FG;
+        switch (waitClass) {
+            case "User I/O":
+                return USER_IO_FG;
+            case "System I/O":
+                return SYSTEM_IO_FG;
+            case "Concurrency":
+                return CONCURRENCY_FG;
+            case "Application":
+                return APPLICATION_FG;
+            case "Commit":
+                return COMMIT_FG;
+            case "Configuration":
+            case "Administrative":
+                return CONFIGURATION_FG;
+            case "Network":
+                return NETWORK_FG;
+            case "CPU":
+                return CPU_FG;
+            default:
+                return FG;
+        }
+    }
+}
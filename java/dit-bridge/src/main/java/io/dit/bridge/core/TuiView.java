@@ -0,0 +1,73 @@
+package io.dit.bridge.core;
+
+import io.dit.bridge.api.CollectQuery;
+
+import com.googlecode.lanterna.input.KeyStroke;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * One TUI tab: a set of panels laid out in the area between the tab bar and
+ * the footer, plus the collector query groups it needs while visible.
+ */
+public abstract class TuiView {
+
+    private final String name;
+    private final Set<CollectQuery> queries;
+    protected final PanelLayout layout = new PanelLayout();
+    private boolean layoutRequested;
+
+    protected TuiView(String name, Set<CollectQuery> queries) {
+        this.name = name;
+        this.queries = Collections.unmodifiableSet(EnumSet.copyOf(queries));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Set<CollectQuery> queries() {
+        return queries;
+    }
+
+    public PanelLayout layout() {
+        return layout;
+    }
+
+    /** Asks for {@link #applyLayout} to run again, e.g. after switching between panel sets. */
+    protected final void requestLayout() {
+        layoutRequested = true;
+    }
+
+    /** True once after {@link #requestLayout}; the TUI loop then re-lays out and redraws the view. */
+    public final boolean takeLayoutRequest() {
+        boolean r = layoutRequested;
+        layoutRequested = false;
+        return r;
+    }
+
+    /** Assigns panel bounds inside the view area starting at {@code top}. */
+    public abstract void applyLayout(int top, int width, int height);
+
+    /**
+     * Called on the TUI thread when the view is shown and after each snapshot
+     * while it is visible. Views with their own on-demand queries refresh them here.
+     */
+    public void onRefresh() {
+    }
+
+    /**
+     * True while the view is reading text input (e.g. a filter prompt); every
+     * key, including global ones, is then routed to {@link #handleKey}.
+     */
+    public boolean capturesInput() {
+        return false;
+    }
+
+    /** Handles navigation keys for the view's focused panel. Returns true if consumed. */
+    public boolean handleKey(KeyStroke key) {
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package io.dit.bridge.core;
+
+/**
+ * Java 8 version of the virtual thread hook: no virtual threads, so
+ * {@link CollectionEngines} falls back to {@link PlatformEngine}. The
+ * multi-release JAR replaces this class on Java 21+ with one that returns
+ * a virtual thread engine (src/main/java21).
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean available() {
+        return false;
+    }
+
+    static CollectionEngine engine(String threadName) {
+        return null;
+    }
+}
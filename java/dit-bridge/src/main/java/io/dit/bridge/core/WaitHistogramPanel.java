@@ -0,0 +1,203 @@
+package io.dit.bridge.core;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wait latency of one event: the power-of-two bucket histogram of the last
+ * interval with p50/p95/p99, and a heatmap of the recent intervals (buckets
+ * as rows, newest interval on the right) shaded by each bucket's share of
+ * that interval's waits. The panel keeps its own history, one column per
+ * new histogram list.
+ */
+public final class WaitHistogramPanel extends TuiPanel {
+
+    private static final int HISTORY = 120;
+    private static final char[] SHADES = {' ', '\u2591', '\u2592', '\u2593', '\u2588'}; // ░ ▒ ▓ █
+    private static final int BAR_W = 20;
+
+    private static final class History {
+        final ArrayDeque<long[]> columns = new ArrayDeque<long[]>();
+        int idle;
+    }
+
+    private final String title;
+    private final Map<String, History> history = new HashMap<String, History>();
+    private List<Map<String, Object>> histograms;
+    private String event;
+    private Map<String, Object> current;
+
+    public WaitHistogramPanel(String title) {
+        this.title = title;
+    }
+
+    /** Binds the latest histograms and the event to show; a new list adds one heatmap column per event. */
+    @SuppressWarnings("unchecked")
+    public void bind(List<Map<String, Object>> histograms, String event) {
+        if (histograms != this.histograms) {
+            this.histograms = histograms;
+            Set<String> seen = new HashSet<String>();
+            if (histograms != null) {
+                for (Map<String, Object> h : histograms) {
+                    String ev = str(h.get("event"));
+                    seen.add(ev);
+                    History hist = history.get(ev);
+                    if (hist == null) {
+                        hist = new History();
+                        history.put(ev, hist);
+                    }
+                    append(hist, toArray((List<Object>) h.get("buckets")));
+                    hist.idle = 0;
+                }
+            }
+            // Events without waits this interval get an empty column and are dropped once all-empty
+            Iterator<Map.Entry<String, History>> it = history.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, History> e = it.next();
+                if (!seen.contains(e.getKey())) {
+                    append(e.getValue(), new long[0]);
+                    if (++e.getValue().idle >= HISTORY) {
+                        it.remove();
+                    }
+                }
+            }
+            markDirty();
+        }
+        this.event = bindValue(this.event, event);
+        current = null;
+        if (histograms != null && event != null) {
+            for (Map<String, Object> h : histograms) {
+                if (event.equals(h.get("event"))) {
+                    current = h;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void append(History hist, long[] column) {
+        hist.columns.addLast(column);
+        while (hist.columns.size() > HISTORY) {
+            hist.columns.pollFirst();
+        }
+    }
+
+    private static long[] toArray(List<Object> buckets) {
+        if (buckets == null) {
+            return new long[0];
+        }
+        long[] out = new long[buckets.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (long) dbl(buckets.get(i));
+        }
+        return out;
+    }
+
+    protected void draw(TuiCanvas canvas) {
+        canvas.drawBox(top, left, width, height, title + (event != null ? ": " + event : ""), TuiTheme.BORDER_FG);
+        int col = left + 2;
+        int areaW = width - 4;
+        int sr = top + 1;
+        int bottom = top + height - 1;
+        if (histograms == null) {
+            canvas.drawText(sr, col, truncate("Latency histograms are not available for this database", areaW),
+                    TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+        if (event == null) {
+            canvas.drawText(sr, col, truncate("Select an event with Up/Down", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+            return;
+        }
+
+        History hist = history.get(event);
+        long[] buckets = current != null ? toArray(asList(current.get("buckets"))) : new long[0];
+        int nb = buckets.length;
+        if (hist != null) {
+            for (long[] c : hist.columns) {
+                nb = Math.max(nb, c.length);
+            }
+        }
+
+        if (current == null) {
+            canvas.drawText(sr++, col, truncate("No waits in the last interval", areaW), TuiTheme.INACTIVE_FG, TuiTheme.BG);
+        } else {
+            long total = (long) dbl(current.get("total_waits"));
+            String head = String.format(" Waits %s   p50 %s   p95 %s   p99 %s", fmtHuman(total),
+                    bucketLabel(current.get("p50_ms")), bucketLabel(current.get("p95_ms")),
+                    bucketLabel(current.get("p99_ms")));
+            canvas.drawText(sr++, col, truncate(head, areaW), TuiTheme.VALUE_FG, TuiTheme.BG);
+            canvas.drawText(sr++, col, truncate(padRight("Bucket", 10) + padRight("Waits", 10) + padRight("%", 7),
+                    areaW), TuiTheme.HEADER_FG, TuiTheme.BG);
+            for (int i = 0; i < buckets.length && sr < bottom; i++, sr++) {
+                double pct = total > 0 ? 100.0 * buckets[i] / total : 0;
+                String line = padRight(bucketLabel(1L << i), 10) + padRight(fmtHuman(buckets[i]), 10) +
+                        padRight(fmt("%.1f", pct), 7);
+                canvas.drawText(sr, col, truncate(line, areaW), TuiTheme.FG, TuiTheme.BG);
+                int n = (int) Math.round(pct * BAR_W / 100.0);
+                for (int b = 0; b < n && col + line.length() + b < col + areaW; b++) {
+                    canvas.setChar(sr, col + line.length() + b, SHADES[4], TuiTheme.SPARK_FG, TuiTheme.BG);
+                }
+            }
+        }
+
+        // Heatmap: slowest bucket on top, one column per interval, newest on the right
+        if (hist == null || nb == 0 || sr + 2 >= bottom) {
+            return;
+        }
+        sr++;
+        canvas.drawText(sr++, col, truncate("Heatmap (share of waits per interval, newest right)", areaW),
+                TuiTheme.HEADER_FG, TuiTheme.BG);
+        int cols = Math.min(hist.columns.size(), Math.max(0, areaW - 10));
+        long[][] shown = new long[cols][];
+        Iterator<long[]> it = hist.columns.descendingIterator();
+        for (int c = cols - 1; c >= 0; c--) {
+            shown[c] = it.next();
+        }
+        int rows = Math.min(nb, bottom - sr);
+        for (int r = 0; r < rows; r++) {
+            int bucket = nb - 1 - r;
+            canvas.drawText(sr + r, col, padRight(bucketLabel(1L << bucket), 10), TuiTheme.FG, TuiTheme.BG);
+            for (int c = 0; c < cols; c++) {
+                long[] column = shown[c];
+                long sum = 0;
+                for (long v : column) {
+                    sum += v;
+                }
+                long v = bucket < column.length ? column[bucket] : 0;
+                canvas.setChar(sr + r, col + 10 + c, shade(sum > 0 ? (double) v / sum : 0),
+                        TuiTheme.SPARK_FG, TuiTheme.BG);
+            }
+        }
+    }
+
+    private static char shade(double share) {
+        if (share <= 0) {
+            return SHADES[0];
+        }
+        if (share < 0.05) {
+            return SHADES[1];
+        }
+        if (share < 0.20) {
+            return SHADES[2];
+        }
+        return share < 0.50 ? SHADES[3] : SHADES[4];
+    }
+
+    private static String bucketLabel(Object upperMs) {
+        double ms = dbl(upperMs);
+        if (ms >= 1000) {
+            return "<=" + fmt("%.0f", ms / 1000) + "s";
+        }
+        return "<=" + fmt("%.0f", ms) + "ms";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> asList(Object v) {
+        return v instanceof List ? (List<Object>) v : null;
+    }
+}
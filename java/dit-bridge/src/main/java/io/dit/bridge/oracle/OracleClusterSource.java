@@ -0,0 +1,148 @@
+package io.dit.bridge.oracle;
+
+import io.dit.bridge.api.ClusterSource;
+import io.dit.bridge.core.ClusterCollector;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RAC queries for {@link ClusterCollector}: GV$INSTANCE, GV$SYSSTAT plus
+ * GV$SYS_TIME_MODEL, and GV$SESSION, or their V$ forms for one instance.
+ * Per-instance connections go through the cluster service with INSTANCE_NAME
+ * in CONNECT_DATA, so the listener (or SCAN) routes them to that instance.
+ */
+public final class OracleClusterSource implements ClusterSource {
+
+    private static final Map<String, String> COUNTER_NAMES = new HashMap<String, String>();
+    static {
+        COUNTER_NAMES.put("DB time", DB_TIME_US);
+        COUNTER_NAMES.put("DB CPU", DB_CPU_US);
+        COUNTER_NAMES.put("execute count", EXECUTIONS);
+        COUNTER_NAMES.put("session logical reads", LOGICAL_READS);
+        COUNTER_NAMES.put("physical reads", PHYSICAL_READS);
+        COUNTER_NAMES.put("redo size", REDO_BYTES);
+        COUNTER_NAMES.put("user commits", COMMITS);
+    }
+
+    public List<Map<String, Object>> queryInstances(Connection conn) throws SQLException {
+        String sql = "SELECT inst_id, instance_name, host_name, status FROM gv$instance ORDER BY inst_id";
+
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<String, Object>();
+                    row.put("inst_id", rs.getInt(1));
+                    row.put("instance_name", defaultStr(rs.getString(2), "-"));
+                    row.put("host_name", defaultStr(rs.getString(3), "-"));
+                    row.put("status", defaultStr(rs.getString(4), "-"));
+                    rows.add(row);
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return rows;
+    }
+
+    public Map<Integer, Map<String, Double>> queryCounters(Connection conn, boolean global) throws SQLException {
+        String sql = global
+            ? "SELECT inst_id, name, value FROM gv$sysstat " +
+              "WHERE name IN ('execute count','session logical reads','physical reads','redo size','user commits') " +
+              "UNION ALL " +
+              "SELECT inst_id, stat_name, value FROM gv$sys_time_model WHERE stat_name IN ('DB time','DB CPU')"
+            : "SELECT 0, name, value FROM v$sysstat " +
+              "WHERE name IN ('execute count','session logical reads','physical reads','redo size','user commits') " +
+              "UNION ALL " +
+              "SELECT 0, stat_name, value FROM v$sys_time_model WHERE stat_name IN ('DB time','DB CPU')";
+
+        Map<Integer, Map<String, Double>> out = new LinkedHashMap<Integer, Map<String, Double>>();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    String key = COUNTER_NAMES.get(rs.getString(2));
+                    double value = rs.getDouble(3);
+                    if (key == null || rs.wasNull()) {
+                        continue;
+                    }
+                    Map<String, Double> counters = out.get(rs.getInt(1));
+                    if (counters == null) {
+                        counters = new HashMap<String, Double>();
+                        out.put(rs.getInt(1), counters);
+                    }
+                    counters.put(key, value);
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return out;
+    }
+
+    public List<Map<String, Object>> querySessions(Connection conn, boolean global, int limit) throws SQLException {
+        // The limit applies per instance, so one busy node does not push the others out
+        String sql =
+            "SELECT * FROM (" +
+            "  SELECT " + (global ? "s.inst_id" : "0") + ", s.sid, s.serial#, s.username, s.event, s.wait_class, " +
+            "         s.sql_id, s.seconds_in_wait, s.program, " +
+            "         ROW_NUMBER() OVER (PARTITION BY " + (global ? "s.inst_id" : "0") +
+            "           ORDER BY s.seconds_in_wait DESC, s.sid ASC) rn " +
+            "  FROM " + (global ? "gv$session" : "v$session") + " s " +
+            "  WHERE s.type = 'USER' AND s.wait_class <> 'Idle' " +
+            "  AND NVL(s.program, '-') <> 'dit-bridge' " +
+            ") WHERE rn <= " + Math.max(1, limit) + " " +
+            "ORDER BY seconds_in_wait DESC, sid ASC";
+
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<String, Object>();
+                    row.put("inst_id", rs.getInt(1));
+                    row.put("sid", String.valueOf(rs.getLong(2)));
+                    row.put("serial", String.valueOf(rs.getLong(3)));
+                    row.put("username", defaultStr(rs.getString(4), "-"));
+                    row.put("event", defaultStr(rs.getString(5), "CPU"));
+                    row.put("wait_class", defaultStr(rs.getString(6), "CPU"));
+                    row.put("sql_id", defaultStr(rs.getString(7), "-"));
+                    row.put("seconds_in_wait", rs.getDouble(8));
+                    row.put("program", defaultStr(rs.getString(9), "-"));
+                    rows.add(row);
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return rows;
+    }
+
+    public Map<String, String> instanceOptions(Map<String, String> options, Map<String, Object> instance) {
+        Map<String, String> out = ClusterCollector.instanceAddress(options, instance, null);
+        out.put("instance-name", String.valueOf(instance.get("instance_name")));
+        return out;
+    }
+
+    private static String defaultStr(String v, String fallback) {
+        return v == null || v.isEmpty() ? fallback : v;
+    }
+}
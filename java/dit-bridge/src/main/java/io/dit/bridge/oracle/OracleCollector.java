@@ -1,15 +1,27 @@
 package io.dit.bridge.oracle;
 
+import io.dit.bridge.api.CollectQuery;
 import io.dit.bridge.api.DbmsCollector;
+import io.dit.bridge.api.SessionKey;
+import io.dit.bridge.core.CounterDeltaTracker;
+import io.dit.bridge.core.SessionStatDeltaTracker;
+import io.dit.bridge.core.SqlTextCache;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * All Oracle JDBC queries extracted from OracleBridgeMain, plus enhanced queries
@@ -21,7 +33,50 @@ public final class OracleCollector implements DbmsCollector {
     private Map<String, Double> prevSysstat;
     private long prevSysstatTimestampMs;
 
+    // ── V$SYS_TIME_MODEL delta tracker (real-time DB time, instead of 60s V$SYSMETRIC) ──
+    private Map<String, Double> prevTimeModel;
+    private long prevTimeModelTimestampMs;
+
+    // ── Incremental ASH reader (null unless enabled with --ash) ──
+    private final OracleAshReader ashReader;
+
+    // ── Per-container Load Profile of a CDB (null unless enabled with --pdb) ──
+    private final OraclePdbReader pdbReader;
+
+    // ── Per-session V$SESSTAT delta tracker ──
+    public static final String DEFAULT_SESSION_STATS =
+            "CPU used by this session,session logical reads,physical reads,redo size";
+    private final SessionStatDeltaTracker sessionStats;
+
+    // ── Per-file (V$FILESTAT) and per-segment (V$SEGMENT_STATISTICS) I/O deltas, slow tier ──
+    private static final int IO_TOP_N = 15;
+    private static final List<String> SEGMENT_STATS =
+            Arrays.asList("physical reads", "physical writes", "buffer busy waits");
+    private final CounterDeltaTracker fileIo = new CounterDeltaTracker(6, false);
+    private final CounterDeltaTracker segmentIo = new CounterDeltaTracker(SEGMENT_STATS.size(), true);
+    /** Before 12c V$SEGMENT_STATISTICS has no CON_ID; set after the first ORA-00904. */
+    private boolean segmentNoConId;
+
     public OracleCollector() {
+        this(0);
+    }
+
+    /** @param ashWindowSeconds rolling ASH window; 0 leaves V$ACTIVE_SESSION_HISTORY alone */
+    public OracleCollector(int ashWindowSeconds) {
+        this(ashWindowSeconds, null);
+    }
+
+    /** @param sessionStatNames V$SESSTAT statistics for the top consumers; null uses {@link #DEFAULT_SESSION_STATS} */
+    public OracleCollector(int ashWindowSeconds, List<String> sessionStatNames) {
+        this(ashWindowSeconds, sessionStatNames, false);
+    }
+
+    /** @param pdb read the per-container Load Profile of a multitenant CDB every cycle */
+    public OracleCollector(int ashWindowSeconds, List<String> sessionStatNames, boolean pdb) {
+        this.ashReader = ashWindowSeconds > 0 ? new OracleAshReader(ashWindowSeconds) : null;
+        this.pdbReader = pdb ? new OraclePdbReader() : null;
+        this.sessionStats = new SessionStatDeltaTracker(sessionStatNames != null ? sessionStatNames
+                : SessionStatDeltaTracker.parseNames(null, DEFAULT_SESSION_STATS), 10);
     }
 
     // ── Load Profile metrics from V$SYSMETRIC ──
@@ -156,6 +211,73 @@ public final class OracleCollector implements DbmsCollector {
         return rates;
     }
 
+    // ── DB time decomposition from V$SYS_TIME_MODEL snapshots ──
+
+    public static Map<String, Double> queryTimeModel(Connection conn) throws SQLException {
+        String sql =
+            "SELECT stat_name, value FROM v$sys_time_model " +
+            "WHERE stat_name IN ('DB time','DB CPU','parse time elapsed','hard parse elapsed time'," +
+            "'sql execute elapsed time','PL/SQL execution elapsed time','background cpu time')";
+
+        Map<String, Double> out = new LinkedHashMap<String, Double>();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    double value = rs.getDouble(2);
+                    if (!rs.wasNull() && name != null) {
+                        out.put(name, value);
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return out;
+    }
+
+    /**
+     * Per-interval time model rates in V$SYSMETRIC units (centiseconds per
+     * second), so they can replace the 60s-lagged DB Time / CPU metrics. The
+     * first call only sets the baseline and returns an empty map, leaving the
+     * V$SYSMETRIC values in place.
+     */
+    public Map<String, Object> computeTimeModelDelta(Map<String, Double> cur) {
+        long nowMs = System.currentTimeMillis();
+        Map<String, Object> rates = new LinkedHashMap<String, Object>();
+        if (prevTimeModel == null || cur.isEmpty()) {
+            prevTimeModel = cur.isEmpty() ? null : cur;
+            prevTimeModelTimestampMs = nowMs;
+            return rates;
+        }
+
+        double elapsedSec = (nowMs - prevTimeModelTimestampMs) / 1000.0;
+        if (elapsedSec < 0.5) elapsedSec = 1.0;
+
+        // Microseconds of time model per second of wall clock, as centiseconds per second
+        double scale = 1.0 / elapsedSec / 10000.0;
+        double dbTime = delta(cur, prevTimeModel, "DB time") * scale;
+        double dbCpu = delta(cur, prevTimeModel, "DB CPU") * scale;
+
+        rates.put("Average Active Sessions", dbTime / 100.0);
+        rates.put("Database Time Per Sec", dbTime);
+        rates.put("CPU Usage Per Sec", dbCpu);
+        rates.put("Database Wait Time Ratio", dbTime > 0 ? Math.max(0.0, (dbTime - dbCpu) / dbTime * 100.0) : 0.0);
+        rates.put("SQL Execute Time Per Sec", delta(cur, prevTimeModel, "sql execute elapsed time") * scale);
+        rates.put("PL/SQL Time Per Sec", delta(cur, prevTimeModel, "PL/SQL execution elapsed time") * scale);
+        rates.put("Parse Time Per Sec", delta(cur, prevTimeModel, "parse time elapsed") * scale);
+        rates.put("Hard Parse Time Per Sec", delta(cur, prevTimeModel, "hard parse elapsed time") * scale);
+        rates.put("Background CPU Per Sec", delta(cur, prevTimeModel, "background cpu time") * scale);
+
+        prevTimeModel = cur;
+        prevTimeModelTimestampMs = nowMs;
+        return rates;
+    }
+
     private static double delta(Map<String, Double> current, Map<String, Double> previous, String key) {
         Double cur = current.get(key);
         Double prev = previous.get(key);
@@ -213,20 +335,97 @@ public final class OracleCollector implements DbmsCollector {
     // ── Sessions with blocker chain info ──
 
     public static List<Map<String, Object>> querySessions(Connection conn) throws SQLException {
-        String sql =
+        return querySessionPageStatic(conn, null, false, 30);
+    }
+
+    // ── Keyset-paginated sessions: (seconds_in_wait DESC, sid ASC) ──
+
+    private static final String SESSION_SELECT =
             "SELECT s.sid, s.serial#, s.username, s.status, s.event, " +
             "       s.blocking_session, s.sql_id, s.prev_sql_id, " +
             "       s.wait_class, s.seconds_in_wait, s.last_call_et, " +
-            "       s.machine, s.program, " +
-            "       (SELECT REPLACE(SUBSTR(q.sql_text, 1, 120), CHR(10), ' ') " +
-            "        FROM v$sql q WHERE q.sql_id = COALESCE(s.sql_id, s.prev_sql_id) " +
-            "        AND ROWNUM = 1) AS sql_text " +
-            "FROM v$session s " +
+            "       s.machine, s.program " +
+            "FROM v$session s ";
+
+    private static final String SESSION_FILTER =
             "WHERE s.type = 'USER' AND s.wait_class <> 'Idle' " +
             "AND s.sid <> SYS_CONTEXT('USERENV', 'SID') " +
-            "AND NVL(s.program, '-') <> 'dit-bridge' " +
-            "ORDER BY s.seconds_in_wait DESC, s.last_call_et DESC " +
-            "FETCH FIRST 30 ROWS ONLY";
+            "AND NVL(s.program, '-') <> 'dit-bridge' ";
+
+    // Rows sorting strictly after / before the bound (seconds_in_wait, sid) key
+    private static final String AFTER_KEY =
+            "AND (s.seconds_in_wait < ? OR (s.seconds_in_wait = ? AND s.sid > ?)) ";
+    private static final String BEFORE_KEY =
+            "AND (s.seconds_in_wait > ? OR (s.seconds_in_wait = ? AND s.sid < ?)) ";
+
+    public List<Map<String, Object>> querySessionPage(Connection conn, SessionKey key, boolean backward, int limit)
+            throws SQLException {
+        return querySessionPageStatic(conn, key, backward, limit);
+    }
+
+    public static List<Map<String, Object>> querySessionPageStatic(Connection conn, SessionKey key,
+            boolean backward, int limit) throws SQLException {
+        // Backward pages are read in reverse order and flipped, so both
+        // directions only touch `limit` rows past the key
+        String sql =
+            SESSION_SELECT +
+            SESSION_FILTER +
+            (key == null ? "" : backward ? BEFORE_KEY : AFTER_KEY) +
+            (backward ? "ORDER BY s.seconds_in_wait ASC, s.sid DESC "
+                      : "ORDER BY s.seconds_in_wait DESC, s.sid ASC ") +
+            "FETCH FIRST " + Math.max(1, limit) + " ROWS ONLY";
+
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        try {
+            if (key != null) {
+                stmt.setDouble(1, key.secondsInWait());
+                stmt.setDouble(2, key.secondsInWait());
+                stmt.setLong(3, key.sid());
+            }
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    rows.add(readSessionRow(rs));
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        SQL_TEXTS.fill(conn, rows, SQL_TEXT_LOADER);
+        if (backward) {
+            Collections.reverse(rows);
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> readSessionRow(ResultSet rs) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<String, Object>();
+        row.put("sid", objToStr(rs.getObject(1)));
+        row.put("serial", objToStr(rs.getObject(2)));
+        row.put("username", defaultStr(rs.getString(3), "-"));
+        row.put("status", objToStr(rs.getObject(4)));
+        row.put("event", defaultStr(rs.getString(5), "CPU"));
+        row.put("blocking_sid", objToStr(rs.getObject(6)));
+        row.put("sql_id", defaultStr(rs.getString(7), "-"));
+        row.put("prev_sql_id", defaultStr(rs.getString(8), "-"));
+        row.put("wait_class", defaultStr(rs.getString(9), "CPU"));
+        row.put("seconds_in_wait", objToDouble(rs.getObject(10)));
+        row.put("elapsed_s", objToDouble(rs.getObject(11)));
+        row.put("machine", defaultStr(rs.getString(12), "-"));
+        row.put("program", defaultStr(rs.getString(13), "-"));
+        return row;
+    }
+
+    // ── Sessions in a blocking relationship: every waiter plus every blocker, idle or not ──
+
+    public static List<Map<String, Object>> queryLockSessions(Connection conn) throws SQLException {
+        String sql =
+            SESSION_SELECT +
+            "WHERE s.blocking_session IS NOT NULL " +
+            "OR s.sid IN (SELECT w.blocking_session FROM v$session w WHERE w.blocking_session IS NOT NULL)";
 
         List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
         Statement stmt = conn.createStatement();
@@ -234,22 +433,7 @@ public final class OracleCollector implements DbmsCollector {
             ResultSet rs = stmt.executeQuery(sql);
             try {
                 while (rs.next()) {
-                    Map<String, Object> row = new LinkedHashMap<String, Object>();
-                    row.put("sid", objToStr(rs.getObject(1)));
-                    row.put("serial", objToStr(rs.getObject(2)));
-                    row.put("username", defaultStr(rs.getString(3), "-"));
-                    row.put("status", objToStr(rs.getObject(4)));
-                    row.put("event", defaultStr(rs.getString(5), "CPU"));
-                    row.put("blocking_sid", objToStr(rs.getObject(6)));
-                    row.put("sql_id", defaultStr(rs.getString(7), "-"));
-                    row.put("prev_sql_id", defaultStr(rs.getString(8), "-"));
-                    row.put("wait_class", defaultStr(rs.getString(9), "CPU"));
-                    row.put("seconds_in_wait", objToDouble(rs.getObject(10)));
-                    row.put("elapsed_s", objToDouble(rs.getObject(11)));
-                    row.put("machine", defaultStr(rs.getString(12), "-"));
-                    row.put("program", defaultStr(rs.getString(13), "-"));
-                    row.put("sql_text", trimSql(rs.getString(14)));
-                    rows.add(row);
+                    rows.add(readSessionRow(rs));
                 }
             } finally {
                 rs.close();
@@ -257,15 +441,387 @@ public final class OracleCollector implements DbmsCollector {
         } finally {
             stmt.close();
         }
+        SQL_TEXTS.fill(conn, rows, SQL_TEXT_LOADER);
         return rows;
     }
 
+    // ── I/O hotspots by datafile: V$FILESTAT deltas (READTIM/WRITETIM in centiseconds) ──
+
+    public Map<String, Object> queryFileIo(Connection conn) throws SQLException {
+        String sql =
+            "SELECT f.file#, f.phyrds, f.phywrts, f.phyblkrd, f.phyblkwrt, f.readtim, f.writetim, " +
+            "       d.block_size, t.name, d.name " +
+            "FROM v$filestat f " +
+            "JOIN v$datafile d ON d.file# = f.file# " +
+            "JOIN v$tablespace t ON t.ts# = d.ts#";
+
+        Map<Long, Object[]> files = new HashMap<Long, Object[]>();
+        fileIo.begin();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    long file = rs.getLong(1);
+                    for (int i = 0; i < 6; i++) {
+                        fileIo.put(file, i, rs.getLong(2 + i));
+                    }
+                    files.put(file, new Object[] {rs.getLong(8), rs.getString(9), rs.getString(10)});
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+
+        CounterDeltaTracker.Interval iv = fileIo.finish(System.currentTimeMillis());
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        for (int r : union(iv.top(0, IO_TOP_N), iv.top(1, IO_TOP_N))) {
+            Object[] file = files.get(iv.id(r));
+            if (file == null) {
+                continue;
+            }
+            double blockMb = ((Long) file[0]) / (1024.0 * 1024.0);
+            long reads = iv.delta(r, 0);
+            long writes = iv.delta(r, 1);
+            Map<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put("file_id", iv.id(r));
+            row.put("tablespace", defaultStr((String) file[1], "-"));
+            row.put("file_name", defaultStr((String) file[2], "-"));
+            row.put("reads_per_sec", reads / iv.seconds());
+            row.put("writes_per_sec", writes / iv.seconds());
+            row.put("read_mb_per_sec", iv.delta(r, 2) * blockMb / iv.seconds());
+            row.put("write_mb_per_sec", iv.delta(r, 3) * blockMb / iv.seconds());
+            row.put("avg_read_ms", reads > 0 ? iv.delta(r, 4) * 10.0 / reads : 0.0);
+            row.put("avg_write_ms", writes > 0 ? iv.delta(r, 5) * 10.0 / writes : 0.0);
+            rows.add(row);
+        }
+        sortDesc(rows, "reads_per_sec", "writes_per_sec");
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("interval_s", iv.seconds());
+        out.put("files", rows);
+        return out;
+    }
+
+    // ── I/O hotspots by segment: V$SEGMENT_STATISTICS deltas keyed by (con_id, obj#) ──
+
+    public Map<String, Object> querySegmentIo(Connection conn) throws SQLException {
+        Map<Long, String[]> segments = new HashMap<Long, String[]>();
+        try {
+            readSegmentStatistics(conn, segments);
+        } catch (SQLException e) {
+            if (e.getErrorCode() != 904 || segmentNoConId) {
+                throw e;
+            }
+            segmentNoConId = true;
+            segments.clear();
+            readSegmentStatistics(conn, segments);
+        }
+
+        CounterDeltaTracker.Interval iv = segmentIo.finish(System.currentTimeMillis());
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        for (int r : union(iv.top(0, IO_TOP_N), iv.top(2, IO_TOP_N))) {
+            String[] seg = segments.get(iv.id(r));
+            if (seg == null) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put("con_id", iv.id(r) >>> 32);
+            row.put("owner", seg[0]);
+            row.put("object_name", seg[1]);
+            row.put("object_type", seg[2]);
+            row.put("tablespace", seg[3]);
+            row.put("physical_reads_per_sec", iv.delta(r, 0) / iv.seconds());
+            row.put("physical_writes_per_sec", iv.delta(r, 1) / iv.seconds());
+            row.put("buffer_busy_per_sec", iv.delta(r, 2) / iv.seconds());
+            rows.add(row);
+        }
+        sortDesc(rows, "physical_reads_per_sec", "buffer_busy_per_sec");
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("interval_s", iv.seconds());
+        out.put("segments", rows);
+        return out;
+    }
+
+    /**
+     * Loads this poll's counters into {@code segmentIo} and the names into
+     * {@code segments}, both keyed by con_id in the high and obj# in the low
+     * 32 bits: from a CDB root the view covers every container, and obj#
+     * values repeat across them.
+     */
+    private void readSegmentStatistics(Connection conn, Map<Long, String[]> segments) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+            "SELECT obj#, owner, object_name, subobject_name, object_type, tablespace_name, statistic_name, value, " +
+            (segmentNoConId ? "0" : "con_id") + " " +
+            "FROM v$segment_statistics WHERE value > 0 AND statistic_name IN (");
+        for (int i = 0; i < SEGMENT_STATS.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
+
+        segmentIo.begin();
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < SEGMENT_STATS.size(); i++) {
+                stmt.setString(i + 1, SEGMENT_STATS.get(i));
+            }
+            stmt.setFetchSize(1000);
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    int stat = SEGMENT_STATS.indexOf(rs.getString(7));
+                    if (stat < 0) {
+                        continue;
+                    }
+                    long key = (rs.getLong(9) << 32) | (rs.getLong(1) & 0xFFFFFFFFL);
+                    segmentIo.put(key, stat, rs.getLong(8));
+                    if (!segments.containsKey(key)) {
+                        String name = rs.getString(3);
+                        String sub = rs.getString(4);
+                        segments.put(key, new String[] {defaultStr(rs.getString(2), "-"),
+                                sub != null ? name + "." + sub : defaultStr(name, "-"),
+                                defaultStr(rs.getString(5), "-"), defaultStr(rs.getString(6), "-")});
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] out = Arrays.copyOf(a, a.length + b.length);
+        int n = a.length;
+        for (int r : b) {
+            boolean seen = false;
+            for (int i = 0; i < a.length && !seen; i++) {
+                seen = a[i] == r;
+            }
+            if (!seen) {
+                out[n++] = r;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static void sortDesc(List<Map<String, Object>> rows, final String key, final String tieKey) {
+        Collections.sort(rows, new Comparator<Map<String, Object>>() {
+            public int compare(Map<String, Object> a, Map<String, Object> b) {
+                int c = Double.compare(objToDouble(b.get(key)), objToDouble(a.get(key)));
+                return c != 0 ? c : Double.compare(objToDouble(b.get(tieKey)), objToDouble(a.get(tieKey)));
+            }
+        });
+    }
+
+    // ── Top session consumers: per-second V$SESSTAT deltas of active user sessions ──
+
+    public Map<String, Object> querySessionStats(Connection conn) throws SQLException {
+        if (sessionStats.statIds() == null) {
+            sessionStats.setStatIds(queryStatisticNumbers(conn, sessionStats.statNames()));
+        }
+        StringBuilder ids = new StringBuilder();
+        for (int id : sessionStats.statIds()) {
+            if (id >= 0) {
+                ids.append(ids.length() == 0 ? "" : ",").append(id);
+            }
+        }
+        if (ids.length() == 0) {
+            throw new SQLException("None of the session statistics exist in V$STATNAME: " + sessionStats.statNames());
+        }
+        String sql =
+            "SELECT st.sid, s.serial#, st.statistic#, st.value " +
+            "FROM v$session s JOIN v$sesstat st ON st.sid = s.sid " +
+            "WHERE s.type = 'USER' AND s.status = 'ACTIVE' " +
+            "AND s.sid <> SYS_CONTEXT('USERENV', 'SID') " +
+            "AND st.statistic# IN (" + ids + ")";
+
+        sessionStats.begin();
+        Statement stmt = conn.createStatement();
+        try {
+            stmt.setFetchSize(1000);
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    int index = sessionStats.indexOf(rs.getInt(3));
+                    if (index >= 0) {
+                        sessionStats.put(rs.getLong(1), rs.getLong(2), index, rs.getLong(4));
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        Map<String, Object> out = sessionStats.finish(System.currentTimeMillis());
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> top = (List<Map<String, Object>>) out.get("sessions");
+        describeSessions(conn, top);
+        SQL_TEXTS.fill(conn, top, SQL_TEXT_LOADER);
+        return out;
+    }
+
+    /** statistic# for each name in order, -1 for names this version does not have. */
+    static int[] queryStatisticNumbers(Connection conn, List<String> names) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT name, statistic# FROM v$statname WHERE name IN (");
+        for (int i = 0; i < names.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
+
+        int[] ids = new int[names.size()];
+        Arrays.fill(ids, -1);
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                stmt.setString(i + 1, names.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    int i = names.indexOf(rs.getString(1));
+                    if (i >= 0) {
+                        ids[i] = rs.getInt(2);
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return ids;
+    }
+
+    /** Adds username, program and sql_id to the ranked (sid, serial) rows with one small V$SESSION lookup. */
+    private static void describeSessions(Connection conn, List<Map<String, Object>> rows) throws SQLException {
+        for (Map<String, Object> row : rows) {
+            row.put("username", "-");
+            row.put("program", "-");
+            row.put("sql_id", "-");
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT sid, serial#, username, program, sql_id FROM v$session WHERE sid IN (");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
+
+        Map<String, Map<String, Object>> byKey = new LinkedHashMap<String, Map<String, Object>>();
+        for (Map<String, Object> row : rows) {
+            byKey.put(row.get("sid") + "," + row.get("serial"), row);
+        }
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                stmt.setLong(i + 1, Long.parseLong(String.valueOf(rows.get(i).get("sid"))));
+            }
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    Map<String, Object> row = byKey.get(objToStr(rs.getObject(1)) + "," + objToStr(rs.getObject(2)));
+                    if (row != null) {
+                        row.put("username", defaultStr(rs.getString(3), "-"));
+                        row.put("program", defaultStr(rs.getString(4), "-"));
+                        row.put("sql_id", defaultStr(rs.getString(5), "-"));
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+    }
+
+    public Map<String, Object> querySessionCount(Connection conn, SessionKey key) throws SQLException {
+        String sql =
+            "SELECT COUNT(*), " +
+            "       SUM(CASE WHEN s.seconds_in_wait > ? OR (s.seconds_in_wait = ? AND s.sid < ?) " +
+            "           THEN 1 ELSE 0 END) " +
+            "FROM v$session s " +
+            SESSION_FILTER;
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("total", 0L);
+        out.put("before", 0L);
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        try {
+            // A null key counts nothing as "before": no wait exceeds Double.MAX_VALUE
+            stmt.setDouble(1, key != null ? key.secondsInWait() : Double.MAX_VALUE);
+            stmt.setDouble(2, key != null ? key.secondsInWait() : Double.MAX_VALUE);
+            stmt.setLong(3, key != null ? key.sid() : Long.MIN_VALUE);
+            ResultSet rs = stmt.executeQuery();
+            try {
+                if (rs.next()) {
+                    out.put("total", rs.getLong(1));
+                    out.put("before", rs.getLong(2));
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return out;
+    }
+
+    // ── SQL text dictionary: sql_id -> first 120 chars, batched IN lookups for cache misses ──
+
+    private static final SqlTextCache SQL_TEXTS = new SqlTextCache(5000, 30 * 60 * 1000L);
+
+    private static final SqlTextCache.Loader SQL_TEXT_LOADER = new SqlTextCache.Loader() {
+        public Map<String, String> load(Connection conn, List<String> sqlIds) throws SQLException {
+            return querySqlTexts(conn, sqlIds);
+        }
+    };
+
+    public static Map<String, String> querySqlTexts(Connection conn, List<String> sqlIds) throws SQLException {
+        Map<String, String> out = new LinkedHashMap<String, String>();
+        if (sqlIds.isEmpty()) {
+            return out;
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT sql_id, REPLACE(SUBSTR(sql_text, 1, 120), CHR(10), ' ') " +
+            "FROM v$sqlarea WHERE sql_id IN (");
+        for (int i = 0; i < sqlIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
+
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < sqlIds.size(); i++) {
+                stmt.setString(i + 1, sqlIds.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    out.put(rs.getString(1), trimSql(rs.getString(2)));
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return out;
+    }
+
     // ── SQL hotspots from V$SQL ──
 
     public static List<Map<String, Object>> querySqlHotspots(Connection conn) throws SQLException {
         String sql =
             "SELECT sql_id, plan_hash_value, elapsed_time, cpu_time, executions, " +
-            "       buffer_gets, disk_reads, rows_processed, sql_text " +
+            "       buffer_gets, disk_reads, rows_processed " +
             "FROM v$sql " +
             "WHERE executions > 0 AND sql_id IS NOT NULL " +
             "AND last_active_time > SYSDATE - 10/(24*60) " +
@@ -288,7 +844,6 @@ public final class OracleCollector implements DbmsCollector {
                     row.put("buffer_gets", objToDouble(rs.getObject(6)));
                     row.put("disk_reads", objToDouble(rs.getObject(7)));
                     row.put("rows_processed", objToDouble(rs.getObject(8)));
-                    row.put("sql_text", trimSql(rs.getString(9)));
                     rows.add(row);
                 }
             } finally {
@@ -297,6 +852,7 @@ public final class OracleCollector implements DbmsCollector {
         } finally {
             stmt.close();
         }
+        SQL_TEXTS.fill(conn, rows, SQL_TEXT_LOADER);
         return rows;
     }
 
@@ -359,6 +915,12 @@ public final class OracleCollector implements DbmsCollector {
     // ── Collect all data in one call with per-query error isolation ──
 
     public Map<String, Object> collectAll(Connection conn) {
+        return collect(conn, EnumSet.allOf(CollectQuery.class));
+    }
+
+    // ── Collect only the requested query groups, each with its own error isolation ──
+
+    public Map<String, Object> collect(Connection conn, Set<CollectQuery> queries) {
         Map<String, Object> data = new LinkedHashMap<String, Object>();
 
         try {
@@ -367,54 +929,145 @@ public final class OracleCollector implements DbmsCollector {
             data.put("server_time", "");
         }
 
-        try {
-            data.put("instance", queryInstanceInfoStatic(conn));
-        } catch (SQLException e) {
-            data.put("instance", new LinkedHashMap<String, Object>());
+        if (queries.contains(CollectQuery.INSTANCE)) {
+            try {
+                data.put("instance", queryInstanceInfoStatic(conn));
+            } catch (SQLException e) {
+                data.put("instance", new LinkedHashMap<String, Object>());
+            }
         }
 
-        Map<String, Object> sysmetric;
-        try {
-            sysmetric = querySysmetric(conn);
-        } catch (SQLException e) {
-            sysmetric = new LinkedHashMap<String, Object>();
+        if (queries.contains(CollectQuery.LOAD_PROFILE)) {
+            Map<String, Object> sysmetric;
+            try {
+                sysmetric = querySysmetric(conn);
+            } catch (SQLException e) {
+                sysmetric = new LinkedHashMap<String, Object>();
+            }
+
+            Map<String, Object> sysstat;
+            try {
+                sysstat = querySysstat(conn);
+            } catch (SQLException e) {
+                sysstat = new LinkedHashMap<String, Object>();
+            }
+
+            // Compute delta rates from V$SYSSTAT and merge into sysmetric
+            Map<String, Object> deltaRates = computeSysstatDelta(sysstat);
+            sysmetric.putAll(deltaRates);
+
+            // DB time / CPU from V$SYS_TIME_MODEL deltas react within one interval
+            try {
+                sysmetric.putAll(computeTimeModelDelta(queryTimeModel(conn)));
+            } catch (SQLException e) {
+                // keep the V$SYSMETRIC values
+            }
+
+            data.put("sysmetric", sysmetric);
+            data.put("sysstat", sysstat);
         }
 
-        Map<String, Object> sysstat;
-        try {
-            sysstat = querySysstat(conn);
-        } catch (SQLException e) {
-            sysstat = new LinkedHashMap<String, Object>();
+        if (queries.contains(CollectQuery.WAITS)) {
+            try {
+                data.put("waits", queryWaits(conn));
+            } catch (SQLException e) {
+                data.put("waits", new ArrayList<Map<String, Object>>());
+            }
         }
 
-        // Compute delta rates from V$SYSSTAT and merge into sysmetric
-        Map<String, Object> deltaRates = computeSysstatDelta(sysstat);
-        sysmetric.putAll(deltaRates);
+        if (queries.contains(CollectQuery.SESSIONS)) {
+            try {
+                data.put("sessions", querySessions(conn));
+            } catch (SQLException e) {
+                data.put("sessions", new ArrayList<Map<String, Object>>());
+            }
+        }
 
-        data.put("sysmetric", sysmetric);
-        data.put("sysstat", sysstat);
+        if (queries.contains(CollectQuery.LOCKS)) {
+            try {
+                data.put("lock_sessions", queryLockSessions(conn));
+            } catch (SQLException e) {
+                data.put("lock_sessions", new ArrayList<Map<String, Object>>());
+            }
+        }
 
-        try {
-            data.put("waits", queryWaits(conn));
-        } catch (SQLException e) {
-            data.put("waits", new ArrayList<Map<String, Object>>());
+        if (queries.contains(CollectQuery.SESSION_STATS)) {
+            try {
+                data.put("session_stats", querySessionStats(conn));
+            } catch (SQLException e) {
+                Map<String, Object> failed = new LinkedHashMap<String, Object>();
+                failed.put("stats", sessionStats.statNames());
+                failed.put("sessions", new ArrayList<Map<String, Object>>());
+                failed.put("error", e.getMessage());
+                data.put("session_stats", failed);
+            }
         }
 
-        try {
-            data.put("sessions", querySessions(conn));
-        } catch (SQLException e) {
-            data.put("sessions", new ArrayList<Map<String, Object>>());
+        if (queries.contains(CollectQuery.SQL_HOTSPOTS)) {
+            try {
+                data.put("sql_hotspots", querySqlHotspots(conn));
+            } catch (SQLException e) {
+                data.put("sql_hotspots", new ArrayList<Map<String, Object>>());
+            }
         }
 
-        try {
-            data.put("sql_hotspots", querySqlHotspots(conn));
-        } catch (SQLException e) {
-            data.put("sql_hotspots", new ArrayList<Map<String, Object>>());
+        if (queries.contains(CollectQuery.FILE_IO)) {
+            try {
+                data.put("file_io", queryFileIo(conn));
+            } catch (SQLException e) {
+                data.put("file_io", ioError("files", e));
+            }
+        }
+
+        if (queries.contains(CollectQuery.SEGMENT_IO)) {
+            try {
+                data.put("segment_io", querySegmentIo(conn));
+            } catch (SQLException e) {
+                data.put("segment_io", ioError("segments", e));
+            }
+        }
+
+        if (queries.contains(CollectQuery.PDB) && pdbReader != null) {
+            try {
+                data.put("pdb", pdbReader.poll(conn));
+            } catch (SQLException e) {
+                Map<String, Object> failed = new LinkedHashMap<String, Object>();
+                failed.put("containers", new ArrayList<Map<String, Object>>());
+                failed.put("error", e.getMessage());
+                data.put("pdb", failed);
+            }
+        }
+
+        if (queries.contains(CollectQuery.ASH) && ashReader != null) {
+            String ashError = null;
+            try {
+                ashReader.poll(conn);
+            } catch (SQLException e) {
+                // the watermark is kept, so the next poll picks up where this one failed
+                ashError = e.getMessage();
+            }
+            Map<String, Object> ash = ashReader.aggregate().summary(15);
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> topSql = (List<Map<String, Object>>) ash.get("top_sql");
+            SQL_TEXTS.fill(conn, topSql, SQL_TEXT_LOADER);
+            ash.put("window_s", ashReader.aggregate().windowSamples());
+            if (ashError != null) {
+                ash.put("error", ashError);
+            }
+            data.put("ash", ash);
         }
 
         return data;
     }
 
+    private static Map<String, Object> ioError(String listKey, SQLException e) {
+        Map<String, Object> failed = new LinkedHashMap<String, Object>();
+        failed.put("interval_s", 0.0);
+        failed.put(listKey, new ArrayList<Map<String, Object>>());
+        failed.put("error", e.getMessage());
+        return failed;
+    }
+
     // ── Map sysmetric + sysstat into a flat metrics map ──
 
     public Map<String, Object> mapMetrics(Map<String, Object> sysmetric, Map<String, Object> sysstat) {
@@ -439,6 +1092,13 @@ public final class OracleCollector implements DbmsCollector {
         out.put("cpu_time_per_sec", cpuTimeSec);
         out.put("wait_time_per_sec", Math.max(0.0, dbTimeSec - cpuTimeSec));
         out.put("wait_time_ratio", dbl(sysmetric, "Database Wait Time Ratio"));
+        if (sysmetric.containsKey("SQL Execute Time Per Sec")) {
+            out.put("sql_exec_time_per_sec", dbl(sysmetric, "SQL Execute Time Per Sec"));
+            out.put("plsql_time_per_sec", dbl(sysmetric, "PL/SQL Time Per Sec"));
+            out.put("parse_time_per_sec", dbl(sysmetric, "Parse Time Per Sec"));
+            out.put("hard_parse_time_per_sec", dbl(sysmetric, "Hard Parse Time Per Sec"));
+            out.put("bg_cpu_per_sec", dbl(sysmetric, "Background CPU Per Sec"));
+        }
         out.put("commits_per_sec", dbl(sysmetric, "User Commits Per Sec"));
         out.put("rollbacks_per_sec", dbl(sysmetric, "User Rollbacks Per Sec"));
         out.put("tran_per_sec", dbl(sysmetric, "User Commits Per Sec") + dbl(sysmetric, "User Rollbacks Per Sec"));
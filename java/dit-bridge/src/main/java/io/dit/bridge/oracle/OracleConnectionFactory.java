@@ -19,7 +19,12 @@ public final class OracleConnectionFactory implements DbmsConnectionFactory {
 
         int callTimeoutMs = parseInt(options.get("call-timeout-ms"), 3000);
         int connectTimeoutSec = parseInt(options.get("tcp-connect-timeout-seconds"), 5);
-        String jdbcUrl = "jdbc:oracle:thin:@//" + host + ":" + port + "/" + serviceName;
+        String instanceName = options.get("instance-name");
+        // Cluster mode pins a connection to one RAC instance through the same service
+        String jdbcUrl = instanceName == null
+                ? "jdbc:oracle:thin:@//" + host + ":" + port + "/" + serviceName
+                : "jdbc:oracle:thin:@(DESCRIPTION=(ADDRESS=(PROTOCOL=TCP)(HOST=" + host + ")(PORT=" + port + "))"
+                        + "(CONNECT_DATA=(SERVICE_NAME=" + serviceName + ")(INSTANCE_NAME=" + instanceName + ")))";
 
         Properties properties = new Properties();
         properties.setProperty("user", user);
@@ -35,6 +40,17 @@ public final class OracleConnectionFactory implements DbmsConnectionFactory {
         return "dit-bridge";
     }
 
+    public boolean validate(Connection conn, int timeoutSeconds) {
+        // The thin driver answers isValid with a lightweight ping, no cursor is opened
+        try {
+            return conn.isValid(Math.max(1, timeoutSeconds));
+        } catch (SQLException e) {
+            return false;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
     private static String required(Map<String, String> options, String key) {
         String value = options.get(key);
         if (value == null || value.trim().isEmpty()) {
@@ -0,0 +1,150 @@
+package io.dit.bridge.oracle;
+
+import io.dit.bridge.api.WaitHistogramTracker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes per-interval wait latency histograms from V$EVENT_HISTOGRAM
+ * snapshots for a given set of events (the current top waits). Buckets are
+ * the power-of-two WAIT_TIME_MILLI bounds kept as one long[] per event, so a
+ * delta is a subtraction per bucket. An event seen for the first time only
+ * establishes its baseline, and baselines are kept only for the events of
+ * the latest call: an event that leaves the top waits and comes back starts
+ * over instead of reporting everything since it left as one interval.
+ */
+public final class OracleEventHistogramTracker implements WaitHistogramTracker {
+
+    /** 2^31 ms is ~25 days; anything above lands in the last bucket. */
+    static final int MAX_BUCKETS = 32;
+
+    private final Map<String, long[]> prevSnapshot = new HashMap<String, long[]>();
+    private long prevMs;
+
+    public OracleEventHistogramTracker() {
+    }
+
+    /**
+     * Returns, in the order of {@code events}, one row per event that had waits
+     * since the previous call, with keys: event, interval_s (seconds since the
+     * previous call), total_waits, buckets (delta count per bucket, up to the
+     * highest non-empty one), p50_ms, p95_ms, p99_ms.
+     */
+    public List<Map<String, Object>> queryDelta(Connection conn, List<String> events) throws SQLException {
+        if (events == null || events.isEmpty()) {
+            return Collections.emptyList();
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT event, wait_time_milli, wait_count FROM v$event_histogram WHERE event IN (");
+        for (int i = 0; i < events.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+
+        long nowMs = System.currentTimeMillis();
+        Map<String, long[]> current = new HashMap<String, long[]>();
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < events.size(); i++) {
+                stmt.setString(i + 1, events.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    String event = rs.getString(1);
+                    long milli = rs.getLong(2);
+                    long count = rs.getLong(3);
+                    if (event == null) {
+                        continue;
+                    }
+                    long[] buckets = current.get(event);
+                    if (buckets == null) {
+                        buckets = new long[MAX_BUCKETS];
+                        current.put(event, buckets);
+                    }
+                    buckets[bucketOf(milli)] += count;
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+
+        // Every baseline left is from the previous call, so one interval covers all rows
+        prevSnapshot.keySet().retainAll(current.keySet());
+        double intervalSec = prevMs > 0 ? Math.max(0, nowMs - prevMs) / 1000.0 : 0.0;
+        prevMs = nowMs;
+        List<Map<String, Object>> out = new ArrayList<Map<String, Object>>();
+        for (String event : events) {
+            long[] cur = current.get(event);
+            if (cur == null) {
+                continue;
+            }
+            long[] prev = prevSnapshot.put(event, cur);
+            if (prev == null) {
+                continue;
+            }
+            long[] delta = new long[MAX_BUCKETS];
+            long total = 0;
+            int last = -1;
+            for (int i = 0; i < MAX_BUCKETS; i++) {
+                long d = cur[i] - prev[i];
+                // A negative delta means the counters were reset (instance restart)
+                delta[i] = d >= 0 ? d : cur[i];
+                total += delta[i];
+                if (delta[i] > 0) {
+                    last = i;
+                }
+            }
+            if (total == 0) {
+                continue;
+            }
+            List<Long> buckets = new ArrayList<Long>(last + 1);
+            for (int i = 0; i <= last; i++) {
+                buckets.add(delta[i]);
+            }
+            Map<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put("event", event);
+            row.put("interval_s", intervalSec);
+            row.put("total_waits", total);
+            row.put("buckets", buckets);
+            row.put("p50_ms", percentileMs(delta, total, 0.50));
+            row.put("p95_ms", percentileMs(delta, total, 0.95));
+            row.put("p99_ms", percentileMs(delta, total, 0.99));
+            out.add(row);
+        }
+        return out;
+    }
+
+    /** WAIT_TIME_MILLI is the bucket's upper bound, a power of two. */
+    static int bucketOf(long milli) {
+        if (milli <= 1) {
+            return 0;
+        }
+        int i = 64 - Long.numberOfLeadingZeros(milli - 1);
+        return Math.min(i, MAX_BUCKETS - 1);
+    }
+
+    /** Upper bound (ms) of the bucket holding the q-quantile. */
+    static long percentileMs(long[] buckets, long total, double q) {
+        long target = (long) Math.ceil(total * q);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return 1L << i;
+            }
+        }
+        return 1L << (buckets.length - 1);
+    }
+}
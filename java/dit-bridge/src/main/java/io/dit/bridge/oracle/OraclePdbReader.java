@@ -0,0 +1,129 @@
+package io.dit.bridge.oracle;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-container Load Profile for a multitenant CDB. One query per cycle reads
+ * V$CON_SYSMETRIC (shortest interval per metric) together with DB time / DB CPU
+ * from V$CON_SYS_TIME_MODEL for every open container, so the cost does not
+ * grow with the number of PDBs. As for the instance profile, AAS, DB Time and
+ * CPU come from time model deltas once two polls exist, and everything is
+ * mapped with {@link OracleCollector#mapMetricsStatic} into the same keys.
+ */
+public final class OraclePdbReader {
+
+    private static final String SQL =
+        "SELECT x.con_id, c.name, x.kind, x.metric, x.value " +
+        "FROM (" +
+        "  SELECT m.con_id, 'M' kind, m.metric_name metric, m.value, " +
+        "         ROW_NUMBER() OVER (PARTITION BY m.con_id, m.metric_name ORDER BY m.intsize_csec ASC) rn " +
+        "  FROM v$con_sysmetric m " +
+        "  WHERE m.metric_name IN ('Host CPU Utilization (%)','Average Active Sessions','Database Time Per Sec'," +
+        "    'CPU Usage Per Sec','Database Wait Time Ratio','Executions Per Sec','Logical Reads Per Sec'," +
+        "    'Physical Reads Per Sec','Physical Writes Per Sec','Physical Read Total Bytes Per Sec'," +
+        "    'Physical Write Total Bytes Per Sec','Redo Generated Per Sec','User Commits Per Sec'," +
+        "    'User Rollbacks Per Sec','Total Parse Count Per Sec','Hard Parse Count Per Sec'," +
+        "    'Buffer Cache Hit Ratio') " +
+        "  UNION ALL " +
+        "  SELECT t.con_id, 'T', t.stat_name, t.value, 1 " +
+        "  FROM v$con_sys_time_model t " +
+        "  WHERE t.stat_name IN ('DB time','DB CPU')" +
+        ") x " +
+        "JOIN v$containers c ON c.con_id = x.con_id " +
+        "WHERE x.rn = 1 AND c.name <> 'PDB$SEED' " +
+        "ORDER BY x.con_id";
+
+    private Map<Integer, Map<String, Double>> prevTimeModel = new HashMap<Integer, Map<String, Double>>();
+    private long prevTimestampMs;
+
+    /**
+     * Returns {@code containers}: one row per container (con_id, name, metrics)
+     * in con_id order, with metrics keyed like the instance Load Profile.
+     */
+    public Map<String, Object> poll(Connection conn) throws SQLException {
+        Map<Integer, String> names = new LinkedHashMap<Integer, String>();
+        Map<Integer, Map<String, Object>> sysmetric = new HashMap<Integer, Map<String, Object>>();
+        Map<Integer, Map<String, Double>> timeModel = new HashMap<Integer, Map<String, Double>>();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(SQL);
+            try {
+                while (rs.next()) {
+                    int conId = rs.getInt(1);
+                    names.put(conId, rs.getString(2));
+                    String metric = rs.getString(4);
+                    double value = rs.getDouble(5);
+                    if (rs.wasNull() || metric == null) {
+                        continue;
+                    }
+                    if ("T".equals(rs.getString(3))) {
+                        Map<String, Double> tm = timeModel.get(conId);
+                        if (tm == null) {
+                            tm = new HashMap<String, Double>();
+                            timeModel.put(conId, tm);
+                        }
+                        tm.put(metric, value);
+                    } else {
+                        Map<String, Object> sm = sysmetric.get(conId);
+                        if (sm == null) {
+                            sm = new LinkedHashMap<String, Object>();
+                            sysmetric.put(conId, sm);
+                        }
+                        sm.put(metric, value);
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+
+        long nowMs = System.currentTimeMillis();
+        double elapsedSec = (nowMs - prevTimestampMs) / 1000.0;
+        List<Map<String, Object>> containers = new ArrayList<Map<String, Object>>();
+        for (Map.Entry<Integer, String> e : names.entrySet()) {
+            Map<String, Object> sm = sysmetric.get(e.getKey());
+            if (sm == null) {
+                sm = new LinkedHashMap<String, Object>();
+            }
+            Map<String, Double> cur = timeModel.get(e.getKey());
+            Map<String, Double> prev = prevTimeModel.get(e.getKey());
+            if (cur != null && prev != null && elapsedSec > 0) {
+                // Microseconds of DB time per second -> AAS, and centiseconds per second like V$SYSMETRIC
+                double dbTime = delta(cur, prev, "DB time") / 1e6 / elapsedSec;
+                double dbCpu = delta(cur, prev, "DB CPU") / 1e6 / elapsedSec;
+                sm.put("Average Active Sessions", dbTime);
+                sm.put("Database Time Per Sec", dbTime * 100.0);
+                sm.put("CPU Usage Per Sec", dbCpu * 100.0);
+                sm.put("Database Wait Time Ratio", dbTime > 0 ? Math.max(0.0, dbTime - dbCpu) / dbTime * 100.0 : 0.0);
+            }
+            Map<String, Object> row = new LinkedHashMap<String, Object>();
+            row.put("con_id", e.getKey());
+            row.put("name", e.getValue());
+            row.put("metrics", OracleCollector.mapMetricsStatic(sm, new LinkedHashMap<String, Object>()));
+            containers.add(row);
+        }
+        prevTimeModel = timeModel;
+        prevTimestampMs = nowMs;
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("containers", containers);
+        return out;
+    }
+
+    private static double delta(Map<String, Double> cur, Map<String, Double> prev, String key) {
+        Double c = cur.get(key);
+        Double p = prev.get(key);
+        double d = (c != null ? c : 0.0) - (p != null ? p : 0.0);
+        return d >= 0 ? d : 0.0;
+    }
+}
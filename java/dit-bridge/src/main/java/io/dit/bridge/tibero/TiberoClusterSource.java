@@ -0,0 +1,161 @@
+package io.dit.bridge.tibero;
+
+import io.dit.bridge.api.ClusterSource;
+import io.dit.bridge.core.ClusterCollector;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TAC queries for {@link ClusterCollector}. TAC exposes the same GV$ layout
+ * as RAC (an INST_ID column in front of the V$ columns); stat names, the
+ * event# decode and sql_et as the wait time follow {@link TiberoCollector}.
+ * Per-instance connections go straight to the node listener, taken from
+ * GV$INSTANCE.HOST_NAME unless {@code --cluster-hosts} lists the instance.
+ */
+public final class TiberoClusterSource implements ClusterSource {
+
+    private static final Map<String, String> COUNTER_NAMES = new HashMap<String, String>();
+    static {
+        COUNTER_NAMES.put("DB Time", DB_TIME_US);
+        COUNTER_NAMES.put("DB CPU", DB_CPU_US);
+        COUNTER_NAMES.put("execute count", EXECUTIONS);
+        COUNTER_NAMES.put("logical reads", LOGICAL_READS);
+        COUNTER_NAMES.put("physical reads", PHYSICAL_READS);
+        COUNTER_NAMES.put("redo log size", REDO_BYTES);
+        COUNTER_NAMES.put("the number of user commits performed", COMMITS);
+    }
+
+    public List<Map<String, Object>> queryInstances(Connection conn) throws SQLException {
+        String sql = "SELECT inst_id, instance_name, host_name, status FROM gv$instance ORDER BY inst_id";
+
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<String, Object>();
+                    row.put("inst_id", rs.getInt(1));
+                    row.put("instance_name", defaultStr(rs.getString(2), "-"));
+                    row.put("host_name", defaultStr(rs.getString(3), "-"));
+                    row.put("status", defaultStr(rs.getString(4), "-"));
+                    rows.add(row);
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return rows;
+    }
+
+    public Map<Integer, Map<String, Double>> queryCounters(Connection conn, boolean global) throws SQLException {
+        String sql = global
+            ? "SELECT inst_id, name, value FROM gv$sysstat " +
+              "WHERE name IN ('execute count','logical reads','physical reads','redo log size'," +
+              "'the number of user commits performed') " +
+              "UNION ALL " +
+              "SELECT inst_id, stat_name, value FROM gv$sys_time_model WHERE stat_name IN ('DB Time','DB CPU')"
+            : "SELECT 0, name, value FROM v$sysstat " +
+              "WHERE name IN ('execute count','logical reads','physical reads','redo log size'," +
+              "'the number of user commits performed') " +
+              "UNION ALL " +
+              "SELECT 0, stat_name, value FROM v$sys_time_model WHERE stat_name IN ('DB Time','DB CPU')";
+
+        Map<Integer, Map<String, Double>> out = new LinkedHashMap<Integer, Map<String, Double>>();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    String key = COUNTER_NAMES.get(rs.getString(2));
+                    double value = rs.getDouble(3);
+                    if (key == null || rs.wasNull()) {
+                        continue;
+                    }
+                    Map<String, Double> counters = out.get(rs.getInt(1));
+                    if (counters == null) {
+                        counters = new HashMap<String, Double>();
+                        out.put(rs.getInt(1), counters);
+                    }
+                    counters.put(key, value);
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return out;
+    }
+
+    public List<Map<String, Object>> querySessions(Connection conn, boolean global, int limit) throws SQLException {
+        // Our own sid is only known on the connected instance; in the global form
+        // a session with the same sid elsewhere is hidden too, which is harmless for a top list.
+        // The limit applies per instance, so one busy node does not push the others out
+        String sql =
+            "SELECT * FROM (" +
+            "  SELECT " + (global ? "s.inst_id" : "0") + ", s.sid, s.serial#, s.username, s.wait_event, " +
+            "         s.sql_id, s.sql_et, s.prog_name, " +
+            "         ROW_NUMBER() OVER (PARTITION BY " + (global ? "s.inst_id" : "0") +
+            "           ORDER BY s.sql_et DESC, s.sid ASC) rn " +
+            "  FROM " + (global ? "gv$session" : "v$session") + " s " +
+            "  WHERE s.type = 'WTHR' AND s.status <> 'READY' AND s.username IS NOT NULL " +
+            "  AND s.sid <> " + TiberoCollector.queryMySid(conn) + " " +
+            ") WHERE rn <= " + Math.max(1, limit) + " ORDER BY sql_et DESC, sid ASC";
+
+        List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        TiberoEventDictionary events = TiberoEventDictionary.of(conn);
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    // wait_event is an event#, decoded client-side (-1 = on CPU)
+                    int eventNo = rs.getInt(5);
+                    String eventLabel = "On CPU";
+                    String waitClass = "CPU";
+                    if (!rs.wasNull() && eventNo != -1) {
+                        TiberoEventDictionary.Event e = events.lookup(conn, eventNo);
+                        eventLabel = e != null ? defaultStr(e.label(), String.valueOf(eventNo)) : String.valueOf(eventNo);
+                        waitClass = e != null ? e.waitClass() : "Other";
+                    }
+                    Map<String, Object> row = new LinkedHashMap<String, Object>();
+                    row.put("inst_id", rs.getInt(1));
+                    row.put("sid", String.valueOf(rs.getLong(2)));
+                    row.put("serial", String.valueOf(rs.getLong(3)));
+                    row.put("username", defaultStr(rs.getString(4), "-"));
+                    row.put("event", eventLabel);
+                    row.put("wait_class", waitClass);
+                    row.put("sql_id", defaultStr(rs.getString(6), "-"));
+                    row.put("seconds_in_wait", rs.getDouble(7));
+                    row.put("program", defaultStr(rs.getString(8), "-"));
+                    rows.add(row);
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return rows;
+    }
+
+    public Map<String, String> instanceOptions(Map<String, String> options, Map<String, Object> instance) {
+        String host = String.valueOf(instance.get("host_name"));
+        return ClusterCollector.instanceAddress(options, instance, "-".equals(host) ? null : host);
+    }
+
+    private static String defaultStr(String v, String fallback) {
+        return v == null || v.isEmpty() ? fallback : v;
+    }
+}
@@ -1,15 +1,24 @@
 package io.dit.bridge.tibero;
 
+import io.dit.bridge.api.CollectQuery;
 import io.dit.bridge.api.DbmsCollector;
+import io.dit.bridge.api.SessionKey;
+import io.dit.bridge.core.SessionStatDeltaTracker;
+import io.dit.bridge.core.SqlTextCache;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public final class TiberoCollector implements DbmsCollector {
 
@@ -22,7 +31,19 @@ public final class TiberoCollector implements DbmsCollector {
     private double prevBusyTime = -1;
     private double prevIdleTime = -1;
 
+    // ── Per-session V$SESSTAT delta tracker ──
+    public static final String DEFAULT_SESSION_STATS =
+            "logical reads,physical reads,redo log size,execute count";
+    private final SessionStatDeltaTracker sessionStats;
+
     public TiberoCollector() {
+        this(null);
+    }
+
+    /** @param sessionStatNames V$SESSTAT statistics for the top consumers; null uses {@link #DEFAULT_SESSION_STATS} */
+    public TiberoCollector(List<String> sessionStatNames) {
+        this.sessionStats = new SessionStatDeltaTracker(sessionStatNames != null ? sessionStatNames
+                : SessionStatDeltaTracker.parseNames(null, DEFAULT_SESSION_STATS), 10);
     }
 
     // ── V$SYSSTAT snapshot ──
@@ -234,7 +255,7 @@ public final class TiberoCollector implements DbmsCollector {
     public static List<Map<String, Object>> queryWaits(Connection conn) throws SQLException {
         String sql =
             "SELECT * FROM (" +
-            "  SELECT class, name, \"DESC\", time_waited, total_waits, " +
+            "  SELECT event#, time_waited, total_waits, " +
             "         CASE WHEN total_waits > 0 THEN time_waited * 10.0 / total_waits ELSE 0 END AS avg_wait_ms, " +
             "         time_waited * 10.0 AS wait_time_ms " +
             "  FROM v$system_event " +
@@ -244,21 +265,21 @@ public final class TiberoCollector implements DbmsCollector {
             ") WHERE ROWNUM <= 13";
 
         List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+        TiberoEventDictionary events = TiberoEventDictionary.of(conn);
         Statement stmt = conn.createStatement();
         try {
             ResultSet rs = stmt.executeQuery(sql);
             try {
                 while (rs.next()) {
-                    String name = rs.getString(2);
-                    String desc = rs.getString(3);
-                    String eventLabel = (desc != null && !desc.isEmpty()) ? desc : defaultStr(name, "unknown");
+                    int eventNo = rs.getInt(1);
+                    TiberoEventDictionary.Event e = events.lookup(conn, eventNo);
                     Map<String, Object> row = new LinkedHashMap<String, Object>();
-                    row.put("wait_class", normalizeWaitClass(defaultStr(rs.getString(1), "Other")));
-                    row.put("event", eventLabel);
-                    row.put("time_waited_micro", rs.getDouble(4) * 10000.0); // centiseconds -> microseconds
-                    row.put("total_waits", rs.getDouble(5));
-                    row.put("avg_wait_ms", rs.getDouble(6));
-                    row.put("wait_time_ms", rs.getDouble(7));
+                    row.put("wait_class", e != null ? e.waitClass() : "Other");
+                    row.put("event", e != null ? defaultStr(e.label(), "unknown") : String.valueOf(eventNo));
+                    row.put("time_waited_micro", rs.getDouble(2) * 10000.0); // centiseconds -> microseconds
+                    row.put("total_waits", rs.getDouble(3));
+                    row.put("avg_wait_ms", rs.getDouble(4));
+                    row.put("wait_time_ms", rs.getDouble(5));
                     rows.add(row);
                 }
             } finally {
@@ -273,56 +294,86 @@ public final class TiberoCollector implements DbmsCollector {
     // ── Sessions (Tibero column name differences) ──
 
     public static List<Map<String, Object>> querySessions(Connection conn) throws SQLException {
-        // Get my own SID first
+        return querySessionPageStatic(conn, null, false, 30);
+    }
+
+    // ── Keyset-paginated sessions: (sql_et DESC, sid ASC), sql_et is reported as seconds_in_wait ──
+
+    private static String sessionFilter(String mySid) {
+        return "WHERE s.type = 'WTHR' " +
+               "AND s.status <> 'READY' " +
+               "AND s.username IS NOT NULL " +
+               "AND s.sid <> " + mySid + " ";
+    }
+
+    public List<Map<String, Object>> querySessionPage(Connection conn, SessionKey key, boolean backward, int limit)
+            throws SQLException {
+        return querySessionPageStatic(conn, key, backward, limit);
+    }
+
+    public static List<Map<String, Object>> querySessionPageStatic(Connection conn, SessionKey key,
+            boolean backward, int limit) throws SQLException {
         String mySid = queryMySid(conn);
 
+        String keyFilter = "";
+        if (key != null) {
+            keyFilter = backward
+                    ? "  AND (s.sql_et > ? OR (s.sql_et = ? AND s.sid < ?)) "
+                    : "  AND (s.sql_et < ? OR (s.sql_et = ? AND s.sid > ?)) ";
+        }
         String sql =
             "SELECT * FROM (" +
-            "  SELECT s.sid, s.serial#, s.username, s.status, " +
-            "         CASE WHEN s.wait_event = -1 THEN 'On CPU' " +
-            "              ELSE NVL((SELECT e.\"DESC\" FROM v$event_name e WHERE e.event# = s.wait_event AND ROWNUM = 1), " +
-            "                       TO_CHAR(s.wait_event)) END AS wait_desc, " +
-            "         CASE WHEN s.wait_event = -1 THEN 'CPU' " +
-            "              ELSE NVL((SELECT e.class FROM v$event_name e WHERE e.event# = s.wait_event AND ROWNUM = 1), '') END AS wait_class, " +
+            "  SELECT s.sid, s.serial#, s.username, s.status, s.wait_event, " +
             "         s.sql_id, s.prev_sql_id, " +
             "         s.sql_et, " +
             "         s.sql_et, " +
-            "         s.machine, s.prog_name, " +
-            "         (SELECT REPLACE(SUBSTR(q.sql_text, 1, 120), CHR(10), ' ') " +
-            "          FROM v$sql q WHERE q.sql_id = COALESCE(s.sql_id, s.prev_sql_id) " +
-            "          AND ROWNUM = 1) AS sql_text " +
+            "         s.machine, s.prog_name " +
             "  FROM v$session s " +
-            "  WHERE s.type = 'WTHR' " +
-            "  AND s.status <> 'READY' " +
-            "  AND s.username IS NOT NULL " +
-            "  AND s.sid <> " + mySid + " " +
-            "  ORDER BY s.sql_et DESC, s.wait_time DESC" +
-            ") WHERE ROWNUM <= 30";
+            "  " + sessionFilter(mySid) +
+            keyFilter +
+            (backward ? "  ORDER BY s.sql_et ASC, s.sid DESC"
+                      : "  ORDER BY s.sql_et DESC, s.sid ASC") +
+            ") WHERE ROWNUM <= " + Math.max(1, limit);
 
         List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
-        Statement stmt = conn.createStatement();
+        TiberoEventDictionary events = TiberoEventDictionary.of(conn);
+        PreparedStatement stmt = conn.prepareStatement(sql);
         try {
-            ResultSet rs = stmt.executeQuery(sql);
+            if (key != null) {
+                stmt.setDouble(1, key.secondsInWait());
+                stmt.setDouble(2, key.secondsInWait());
+                stmt.setLong(3, key.sid());
+            }
+            ResultSet rs = stmt.executeQuery();
             try {
                 while (rs.next()) {
                     Map<String, Object> row = new LinkedHashMap<String, Object>();
                     String rawStatus = objToStr(rs.getObject(4));
                     String status = "RUNNING".equals(rawStatus) ? "ACTIVE" : rawStatus;
 
+                    // wait_event is an event#, decoded client-side (-1 = on CPU)
+                    int eventNo = rs.getInt(5);
+                    String eventLabel = "On CPU";
+                    String waitClass = "CPU";
+                    if (!rs.wasNull() && eventNo != -1) {
+                        TiberoEventDictionary.Event e = events.lookup(conn, eventNo);
+                        eventLabel = e != null ? defaultStr(e.label(), String.valueOf(eventNo)) : String.valueOf(eventNo);
+                        waitClass = e != null ? e.waitClass() : "Other";
+                    }
+
                     row.put("sid", objToStr(rs.getObject(1)));
                     row.put("serial", objToStr(rs.getObject(2)));
                     row.put("username", defaultStr(rs.getString(3), "-"));
                     row.put("status", status);
-                    row.put("event", defaultStr(rs.getString(5), "On CPU"));
+                    row.put("event", eventLabel);
                     row.put("blocking_sid", "");
-                    row.put("wait_class", normalizeWaitClass(defaultStr(rs.getString(6), "CPU")));
-                    row.put("sql_id", defaultStr(rs.getString(7), "-"));
-                    row.put("prev_sql_id", defaultStr(rs.getString(8), "-"));
-                    row.put("seconds_in_wait", objToDouble(rs.getObject(9)));
-                    row.put("elapsed_s", objToDouble(rs.getObject(10)));
-                    row.put("machine", defaultStr(rs.getString(11), "-"));
-                    row.put("program", defaultStr(rs.getString(12), "-"));
-                    row.put("sql_text", trimSql(rs.getString(13)));
+                    row.put("wait_class", waitClass);
+                    row.put("sql_id", defaultStr(rs.getString(6), "-"));
+                    row.put("prev_sql_id", defaultStr(rs.getString(7), "-"));
+                    row.put("seconds_in_wait", objToDouble(rs.getObject(8)));
+                    row.put("elapsed_s", objToDouble(rs.getObject(9)));
+                    row.put("machine", defaultStr(rs.getString(10), "-"));
+                    row.put("program", defaultStr(rs.getString(11), "-"));
                     rows.add(row);
                 }
             } finally {
@@ -331,16 +382,216 @@ public final class TiberoCollector implements DbmsCollector {
         } finally {
             stmt.close();
         }
+        SQL_TEXTS.fill(conn, rows, SQL_TEXT_LOADER);
+        if (backward) {
+            Collections.reverse(rows);
+        }
         return rows;
     }
 
+    // ── Top session consumers: per-second V$SESSTAT deltas of running sessions ──
+
+    public Map<String, Object> querySessionStats(Connection conn) throws SQLException {
+        if (sessionStats.statIds() == null) {
+            sessionStats.setStatIds(queryStatisticNumbers(conn, sessionStats.statNames()));
+        }
+        StringBuilder ids = new StringBuilder();
+        for (int id : sessionStats.statIds()) {
+            if (id >= 0) {
+                ids.append(ids.length() == 0 ? "" : ",").append(id);
+            }
+        }
+        if (ids.length() == 0) {
+            throw new SQLException("None of the session statistics exist in V$STATNAME: " + sessionStats.statNames());
+        }
+        String sql =
+            "SELECT st.sid, s.serial#, st.statistic#, st.value " +
+            "FROM v$session s JOIN v$sesstat st ON st.sid = s.sid " +
+            sessionFilter(queryMySid(conn)) +
+            "AND st.statistic# IN (" + ids + ")";
+
+        sessionStats.begin();
+        Statement stmt = conn.createStatement();
+        try {
+            stmt.setFetchSize(1000);
+            ResultSet rs = stmt.executeQuery(sql);
+            try {
+                while (rs.next()) {
+                    int index = sessionStats.indexOf(rs.getInt(3));
+                    if (index >= 0) {
+                        sessionStats.put(rs.getLong(1), rs.getLong(2), index, rs.getLong(4));
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        Map<String, Object> out = sessionStats.finish(System.currentTimeMillis());
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> top = (List<Map<String, Object>>) out.get("sessions");
+        describeSessions(conn, top);
+        SQL_TEXTS.fill(conn, top, SQL_TEXT_LOADER);
+        return out;
+    }
+
+    /** statistic# for each name in order, -1 for names this version does not have. */
+    static int[] queryStatisticNumbers(Connection conn, List<String> names) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT name, statistic# FROM v$statname WHERE name IN (");
+        for (int i = 0; i < names.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
+
+        int[] ids = new int[names.size()];
+        Arrays.fill(ids, -1);
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                stmt.setString(i + 1, names.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    int i = names.indexOf(rs.getString(1));
+                    if (i >= 0) {
+                        ids[i] = rs.getInt(2);
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return ids;
+    }
+
+    /** Adds username, program and sql_id to the ranked (sid, serial) rows with one small V$SESSION lookup. */
+    private static void describeSessions(Connection conn, List<Map<String, Object>> rows) throws SQLException {
+        for (Map<String, Object> row : rows) {
+            row.put("username", "-");
+            row.put("program", "-");
+            row.put("sql_id", "-");
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT sid, serial#, username, prog_name, sql_id FROM v$session WHERE sid IN (");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
+
+        Map<String, Map<String, Object>> byKey = new LinkedHashMap<String, Map<String, Object>>();
+        for (Map<String, Object> row : rows) {
+            byKey.put(row.get("sid") + "," + row.get("serial"), row);
+        }
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                stmt.setLong(i + 1, Long.parseLong(String.valueOf(rows.get(i).get("sid"))));
+            }
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    Map<String, Object> row = byKey.get(objToStr(rs.getObject(1)) + "," + objToStr(rs.getObject(2)));
+                    if (row != null) {
+                        row.put("username", defaultStr(rs.getString(3), "-"));
+                        row.put("program", defaultStr(rs.getString(4), "-"));
+                        row.put("sql_id", defaultStr(rs.getString(5), "-"));
+                    }
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+    }
+
+    public Map<String, Object> querySessionCount(Connection conn, SessionKey key) throws SQLException {
+        String sql =
+            "SELECT COUNT(*), " +
+            "       SUM(CASE WHEN s.sql_et > ? OR (s.sql_et = ? AND s.sid < ?) THEN 1 ELSE 0 END) " +
+            "FROM v$session s " +
+            sessionFilter(queryMySid(conn));
+
+        Map<String, Object> out = new LinkedHashMap<String, Object>();
+        out.put("total", 0L);
+        out.put("before", 0L);
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        try {
+            stmt.setDouble(1, key != null ? key.secondsInWait() : Double.MAX_VALUE);
+            stmt.setDouble(2, key != null ? key.secondsInWait() : Double.MAX_VALUE);
+            stmt.setLong(3, key != null ? key.sid() : Long.MIN_VALUE);
+            ResultSet rs = stmt.executeQuery();
+            try {
+                if (rs.next()) {
+                    out.put("total", rs.getLong(1));
+                    out.put("before", rs.getLong(2));
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return out;
+    }
+
+    // ── SQL text dictionary: sql_id -> first 120 chars, batched IN lookups for cache misses ──
+
+    private static final SqlTextCache SQL_TEXTS = new SqlTextCache(5000, 30 * 60 * 1000L);
+
+    private static final SqlTextCache.Loader SQL_TEXT_LOADER = new SqlTextCache.Loader() {
+        public Map<String, String> load(Connection conn, List<String> sqlIds) throws SQLException {
+            return querySqlTexts(conn, sqlIds);
+        }
+    };
+
+    public static Map<String, String> querySqlTexts(Connection conn, List<String> sqlIds) throws SQLException {
+        Map<String, String> out = new LinkedHashMap<String, String>();
+        if (sqlIds.isEmpty()) {
+            return out;
+        }
+        // V$SQL holds one row per child cursor: collapse to one text per sql_id
+        StringBuilder sql = new StringBuilder(
+            "SELECT sql_id, MIN(REPLACE(SUBSTR(sql_text, 1, 120), CHR(10), ' ')) " +
+            "FROM v$sql WHERE sql_id IN (");
+        for (int i = 0; i < sqlIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(") GROUP BY sql_id");
+
+        PreparedStatement stmt = conn.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < sqlIds.size(); i++) {
+                stmt.setString(i + 1, sqlIds.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+            try {
+                while (rs.next()) {
+                    out.put(rs.getString(1), trimSql(rs.getString(2)));
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        return out;
+    }
+
     // ── SQL hotspots from V$SQL (ROWNUM instead of FETCH FIRST) ──
 
     public static List<Map<String, Object>> querySqlHotspots(Connection conn) throws SQLException {
         String sql =
             "SELECT * FROM (" +
             "  SELECT sql_id, plan_hash_value, elapsed_time, cpu_time, executions, " +
-            "         buffer_gets, disk_reads, rows_processed, sql_text " +
+            "         buffer_gets, disk_reads, rows_processed " +
             "  FROM v$sql " +
             "  WHERE executions > 0 AND sql_id IS NOT NULL " +
             "  AND sql_text NOT LIKE '%v$%' AND sql_text NOT LIKE '%V$%' " +
@@ -362,7 +613,6 @@ public final class TiberoCollector implements DbmsCollector {
                     row.put("buffer_gets", objToDouble(rs.getObject(6)));
                     row.put("disk_reads", objToDouble(rs.getObject(7)));
                     row.put("rows_processed", objToDouble(rs.getObject(8)));
-                    row.put("sql_text", trimSql(rs.getString(9)));
                     rows.add(row);
                 }
             } finally {
@@ -371,6 +621,7 @@ public final class TiberoCollector implements DbmsCollector {
         } finally {
             stmt.close();
         }
+        SQL_TEXTS.fill(conn, rows, SQL_TEXT_LOADER);
         return rows;
     }
 
@@ -437,6 +688,12 @@ public final class TiberoCollector implements DbmsCollector {
     // ── Collect all data in one call ──
 
     public Map<String, Object> collectAll(Connection conn) {
+        return collect(conn, EnumSet.allOf(CollectQuery.class));
+    }
+
+    // ── Collect only the requested query groups ──
+
+    public Map<String, Object> collect(Connection conn, Set<CollectQuery> queries) {
         Map<String, Object> data = new LinkedHashMap<String, Object>();
 
         try {
@@ -445,54 +702,81 @@ public final class TiberoCollector implements DbmsCollector {
             data.put("server_time", "");
         }
 
-        try {
-            data.put("instance", queryInstanceInfoStatic(conn));
-        } catch (SQLException e) {
-            data.put("instance", new LinkedHashMap<String, Object>());
+        if (queries.contains(CollectQuery.INSTANCE)) {
+            try {
+                data.put("instance", queryInstanceInfoStatic(conn));
+            } catch (SQLException e) {
+                data.put("instance", new LinkedHashMap<String, Object>());
+            }
         }
 
-        Map<String, Object> sysmetric;
-        try {
-            sysmetric = computeSyntheticSysmetric(conn);
-        } catch (SQLException e) {
-            sysmetric = new LinkedHashMap<String, Object>();
-        }
+        if (queries.contains(CollectQuery.LOAD_PROFILE)) {
+            Map<String, Object> sysmetric;
+            try {
+                sysmetric = computeSyntheticSysmetric(conn);
+            } catch (SQLException e) {
+                sysmetric = new LinkedHashMap<String, Object>();
+            }
 
-        // Host CPU % from V$OSSTAT2 (Tibero 6 FS06+, graceful if view not available)
-        try {
-            Map<String, Double> osstat = queryOsstat2(conn);
-            double cpuUtil = computeHostCpuUtil(osstat);
-            if (cpuUtil >= 0) {
-                sysmetric.put("Host CPU Utilization (%)", cpuUtil);
+            // Host CPU % from V$OSSTAT2 (Tibero 6 FS06+, graceful if view not available)
+            try {
+                Map<String, Double> osstat = queryOsstat2(conn);
+                double cpuUtil = computeHostCpuUtil(osstat);
+                if (cpuUtil >= 0) {
+                    sysmetric.put("Host CPU Utilization (%)", cpuUtil);
+                }
+            } catch (SQLException e) {
+                // V$OSSTAT2 not available in this Tibero version
+            }
+
+            data.put("sysmetric", sysmetric);
+
+            try {
+                data.put("sysstat", querySysstat(conn));
+            } catch (SQLException e) {
+                data.put("sysstat", new LinkedHashMap<String, Object>());
             }
-        } catch (SQLException e) {
-            // V$OSSTAT2 not available in this Tibero version
         }
 
-        data.put("sysmetric", sysmetric);
+        if (queries.contains(CollectQuery.WAITS)) {
+            try {
+                data.put("waits", queryWaits(conn));
+            } catch (SQLException e) {
+                data.put("waits", new ArrayList<Map<String, Object>>());
+            }
+        }
 
-        try {
-            data.put("sysstat", querySysstat(conn));
-        } catch (SQLException e) {
-            data.put("sysstat", new LinkedHashMap<String, Object>());
+        if (queries.contains(CollectQuery.SESSIONS)) {
+            try {
+                data.put("sessions", querySessions(conn));
+            } catch (SQLException e) {
+                data.put("sessions", new ArrayList<Map<String, Object>>());
+            }
         }
 
-        try {
-            data.put("waits", queryWaits(conn));
-        } catch (SQLException e) {
-            data.put("waits", new ArrayList<Map<String, Object>>());
+        if (queries.contains(CollectQuery.SESSION_STATS)) {
+            try {
+                data.put("session_stats", querySessionStats(conn));
+            } catch (SQLException e) {
+                Map<String, Object> failed = new LinkedHashMap<String, Object>();
+                failed.put("stats", sessionStats.statNames());
+                failed.put("sessions", new ArrayList<Map<String, Object>>());
+                failed.put("error", e.getMessage());
+                data.put("session_stats", failed);
+            }
         }
 
-        try {
-            data.put("sessions", querySessions(conn));
-        } catch (SQLException e) {
-            data.put("sessions", new ArrayList<Map<String, Object>>());
+        // V$SESSION has no blocking_session column on Tibero: no lock graph source yet
+        if (queries.contains(CollectQuery.LOCKS)) {
+            data.put("lock_sessions", new ArrayList<Map<String, Object>>());
         }
 
-        try {
-            data.put("sql_hotspots", querySqlHotspots(conn));
-        } catch (SQLException e) {
-            data.put("sql_hotspots", new ArrayList<Map<String, Object>>());
+        if (queries.contains(CollectQuery.SQL_HOTSPOTS)) {
+            try {
+                data.put("sql_hotspots", querySqlHotspots(conn));
+            } catch (SQLException e) {
+                data.put("sql_hotspots", new ArrayList<Map<String, Object>>());
+            }
         }
 
         return data;
@@ -4,6 +4,7 @@ import io.dit.bridge.api.DbmsConnectionFactory;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Map;
@@ -45,6 +46,28 @@ public final class TiberoConnectionFactory implements DbmsConnectionFactory {
         return "dit-bridge";
     }
 
+    public boolean validate(Connection conn, int timeoutSeconds) {
+        // Not every Tibero driver implements isValid, so ping with the cheapest query instead
+        try {
+            Statement stmt = conn.createStatement();
+            try {
+                stmt.setQueryTimeout(Math.max(1, timeoutSeconds));
+                ResultSet rs = stmt.executeQuery("SELECT 1 FROM DUAL");
+                try {
+                    return rs.next();
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            return false;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
     private static String required(Map<String, String> options, String key) {
         String value = options.get(key);
         if (value == null || value.trim().isEmpty()) {
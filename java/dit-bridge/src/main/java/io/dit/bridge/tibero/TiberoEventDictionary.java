@@ -0,0 +1,107 @@
+package io.dit.bridge.tibero;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Client-side copy of V$EVENT_NAME (event# to display name and wait class),
+ * loaded once per connection and reloaded only when an unknown event# shows up.
+ * Session and wait queries select the bare event# and decode it here instead of
+ * running correlated subqueries per row.
+ */
+public final class TiberoEventDictionary {
+
+    /** Minimum gap between reloads triggered by ids that stay unknown. */
+    private static final long RELOAD_INTERVAL_MS = 60000L;
+
+    private static final Map<Connection, TiberoEventDictionary> BY_CONNECTION =
+            new WeakHashMap<Connection, TiberoEventDictionary>();
+
+    public static final class Event {
+        private final String label;
+        private final String waitClass;
+
+        Event(String label, String waitClass) {
+            this.label = label;
+            this.waitClass = waitClass;
+        }
+
+        /** DESC when present, otherwise NAME, as the other Tibero queries report it. */
+        public String label() {
+            return label;
+        }
+
+        /** Wait class already normalized to the Oracle-style names. */
+        public String waitClass() {
+            return waitClass;
+        }
+    }
+
+    private Map<Integer, Event> events = new HashMap<Integer, Event>();
+    private long loadedAtMs;
+
+    private TiberoEventDictionary() {
+    }
+
+    /** Dictionary bound to this connection; a new connection starts with a fresh load. */
+    public static TiberoEventDictionary of(Connection conn) {
+        synchronized (BY_CONNECTION) {
+            TiberoEventDictionary dict = BY_CONNECTION.get(conn);
+            if (dict == null) {
+                dict = new TiberoEventDictionary();
+                BY_CONNECTION.put(conn, dict);
+            }
+            return dict;
+        }
+    }
+
+    /**
+     * Resolves an event#, loading the dictionary on first use and reloading it
+     * when the id is unknown. Returns null if the id is still unknown or the
+     * dictionary cannot be read.
+     */
+    public synchronized Event lookup(Connection conn, int eventNo) {
+        Event e = events.get(eventNo);
+        if (e != null) {
+            return e;
+        }
+        long now = System.currentTimeMillis();
+        if (loadedAtMs == 0 || now - loadedAtMs >= RELOAD_INTERVAL_MS) {
+            try {
+                load(conn);
+            } catch (SQLException ex) {
+                // keep the previous copy; unresolved ids fall back to their number
+            }
+            loadedAtMs = now;
+        }
+        return events.get(eventNo);
+    }
+
+    private void load(Connection conn) throws SQLException {
+        Map<Integer, Event> loaded = new HashMap<Integer, Event>();
+        Statement stmt = conn.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery("SELECT event#, name, \"DESC\", class FROM v$event_name");
+            try {
+                while (rs.next()) {
+                    String name = rs.getString(2);
+                    String desc = rs.getString(3);
+                    String label = desc != null && !desc.isEmpty() ? desc : (name != null ? name : "");
+                    String waitClass = rs.getString(4);
+                    loaded.put(rs.getInt(1), new Event(label,
+                            TiberoCollector.normalizeWaitClass(waitClass != null && !waitClass.isEmpty() ? waitClass : "Other")));
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            stmt.close();
+        }
+        events = loaded;
+    }
+}
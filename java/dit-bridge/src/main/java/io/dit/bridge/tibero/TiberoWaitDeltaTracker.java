@@ -15,12 +15,13 @@ import java.util.Map;
 
 /**
  * Computes real-time per-second wait event deltas using V$SYSTEM_EVENT snapshots.
- * Tibero uses different column names: NAME (event), CLASS (wait_class), TIME_WAITED (centiseconds).
+ * Tibero uses different column names: CLASS (wait_class), TIME_WAITED (centiseconds).
+ * Events are keyed by EVENT#; names and classes come from {@link TiberoEventDictionary}
+ * and are resolved only for the rows that are returned.
  */
 public final class TiberoWaitDeltaTracker implements WaitDeltaTracker {
 
-    private Map<String, long[]> prevSnapshot;  // event -> [time_waited_cs, total_waits]
-    private Map<String, String> prevWaitClass;
+    private Map<Integer, long[]> prevSnapshot;  // event# -> [time_waited_cs, total_waits]
     private long prevTimestampMs;
 
     public TiberoWaitDeltaTracker() {
@@ -28,30 +29,22 @@ public final class TiberoWaitDeltaTracker implements WaitDeltaTracker {
 
     public List<Map<String, Object>> queryDelta(Connection conn) throws SQLException {
         String sql =
-            "SELECT class, name, time_waited, total_waits, \"DESC\" " +
+            "SELECT event#, time_waited, total_waits " +
             "FROM v$system_event " +
             "WHERE class <> 'STAT_CLASS_IDLE' " +
             "AND total_waits > 0";
 
-        Map<String, long[]> current = new LinkedHashMap<String, long[]>();
-        Map<String, String> waitClassMap = new LinkedHashMap<String, String>();
-        Map<String, String> descMap = new LinkedHashMap<String, String>();
+        Map<Integer, long[]> current = new LinkedHashMap<Integer, long[]>();
 
         Statement stmt = conn.createStatement();
         try {
             ResultSet rs = stmt.executeQuery(sql);
             try {
                 while (rs.next()) {
-                    String waitClass = rs.getString(1);
-                    String name = rs.getString(2);
-                    long timeWaitedCs = rs.getLong(3);  // centiseconds
-                    long waits = rs.getLong(4);
-                    String desc = rs.getString(5);
-                    if (name != null) {
-                        current.put(name, new long[]{timeWaitedCs, waits});
-                        waitClassMap.put(name, TiberoCollector.normalizeWaitClass(waitClass));
-                        descMap.put(name, desc != null && !desc.isEmpty() ? desc : name);
-                    }
+                    int eventNo = rs.getInt(1);
+                    long timeWaitedCs = rs.getLong(2);  // centiseconds
+                    long waits = rs.getLong(3);
+                    current.put(eventNo, new long[]{timeWaitedCs, waits});
                 }
             } finally {
                 rs.close();
@@ -64,7 +57,6 @@ public final class TiberoWaitDeltaTracker implements WaitDeltaTracker {
 
         if (prevSnapshot == null) {
             prevSnapshot = current;
-            prevWaitClass = waitClassMap;
             prevTimestampMs = nowMs;
             return Collections.emptyList();
         }
@@ -75,8 +67,8 @@ public final class TiberoWaitDeltaTracker implements WaitDeltaTracker {
         }
 
         List<Map<String, Object>> results = new ArrayList<Map<String, Object>>();
-        for (Map.Entry<String, long[]> entry : current.entrySet()) {
-            String event = entry.getKey();
+        for (Map.Entry<Integer, long[]> entry : current.entrySet()) {
+            Integer event = entry.getKey();
             long[] cur = entry.getValue();
             long[] prev = prevSnapshot.get(event);
             if (prev == null) {
@@ -94,8 +86,8 @@ public final class TiberoWaitDeltaTracker implements WaitDeltaTracker {
             double avgWaitMs = dWaits > 0 ? (dTimeCs * 10.0 / (double) dWaits) : 0;
 
             Map<String, Object> row = new LinkedHashMap<String, Object>();
-            row.put("wait_class", waitClassMap.containsKey(event) ? waitClassMap.get(event) : "Other");
-            row.put("event", descMap.containsKey(event) ? descMap.get(event) : event);
+            row.put("wait_class", "Other");
+            row.put("event", event);   // event#, named below once the top rows are known
             row.put("wait_sec_per_sec", waitSecPerSec);
             row.put("waits_per_sec", waitsPerSec);
             row.put("avg_wait_ms", avgWaitMs);
@@ -114,8 +106,17 @@ public final class TiberoWaitDeltaTracker implements WaitDeltaTracker {
             results = new ArrayList<Map<String, Object>>(results.subList(0, 13));
         }
 
+        TiberoEventDictionary events = TiberoEventDictionary.of(conn);
+        for (Map<String, Object> row : results) {
+            int eventNo = ((Integer) row.get("event")).intValue();
+            TiberoEventDictionary.Event e = events.lookup(conn, eventNo);
+            if (e != null) {
+                row.put("wait_class", e.waitClass());
+            }
+            row.put("event", e != null && !e.label().isEmpty() ? e.label() : String.valueOf(eventNo));
+        }
+
         prevSnapshot = current;
-        prevWaitClass = waitClassMap;
         prevTimestampMs = nowMs;
 
         return results;
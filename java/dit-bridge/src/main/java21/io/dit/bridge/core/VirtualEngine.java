@@ -0,0 +1,86 @@
+package io.dit.bridge.core;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CollectionEngine} on virtual threads: each loop is a plain
+ * {@code while} loop on its own virtual thread, so a target blocked in a
+ * connect or a slow query parks without holding a platform thread, and
+ * every fan-out task gets its own virtual thread. Concurrency against the
+ * databases is still bounded by the caller (the fleet in-flight semaphore),
+ * which also bounds the carriers pinned by JDBC drivers that block inside
+ * synchronized blocks.
+ *
+ * <p>Fan-outs use invokeAll with a deadline rather than the preview
+ * StructuredTaskScope, so the JAR runs on a stock Java 21 without
+ * --enable-preview; the scope is the same: the call returns only when every
+ * subtask has finished or been cancelled.
+ */
+final class VirtualEngine implements CollectionEngine {
+
+    private final String threadName;
+    private final ExecutorService fanOut;
+    private final Set<Thread> loops = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    VirtualEngine(String threadName) {
+        this.threadName = threadName;
+        this.fanOut = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadName + "-task-", 1).factory());
+    }
+
+    public void start(String name, final Loop loop, final long initialDelayMs) {
+        Thread t = Thread.ofVirtual().name(threadName + "-" + name).unstarted(new Runnable() {
+            public void run() {
+                try {
+                    long delayMs = initialDelayMs;
+                    while (!closed && delayMs >= 0) {
+                        Thread.sleep(delayMs);
+                        delayMs = loop.runOnce();
+                    }
+                } catch (InterruptedException e) {
+                    // closed
+                } finally {
+                    loops.remove(Thread.currentThread());
+                }
+            }
+        });
+        loops.add(t);
+        if (closed) {
+            loops.remove(t);
+            return;
+        }
+        t.start();
+    }
+
+    public <T> List<Future<T>> invokeAll(List<? extends Callable<T>> tasks, long timeoutMs)
+            throws InterruptedException {
+        return fanOut.invokeAll(tasks, Math.max(1, timeoutMs), TimeUnit.MILLISECONDS);
+    }
+
+    public String name() {
+        return "virtual";
+    }
+
+    public void close() {
+        closed = true;
+        fanOut.shutdownNow();
+        for (Thread t : loops) {
+            t.interrupt();
+        }
+        long deadline = System.currentTimeMillis() + 2000;
+        try {
+            for (Thread t : loops) {
+                t.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
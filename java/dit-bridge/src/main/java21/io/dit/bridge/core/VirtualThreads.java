@@ -0,0 +1,19 @@
+package io.dit.bridge.core;
+
+/**
+ * Java 21 version of the virtual thread hook, loaded from
+ * META-INF/versions/21 of the multi-release JAR in place of the Java 8 one.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean available() {
+        return true;
+    }
+
+    static CollectionEngine engine(String threadName) {
+        return new VirtualEngine(threadName);
+    }
+}